@@ -0,0 +1,347 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.hrs;
+
+import android.bluetooth.BluetoothGattCharacteristic;
+import android.bluetooth.BluetoothGattService;
+import android.test.AndroidTestCase;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import no.nordicsemi.android.nrftoolbox.R;
+import no.nordicsemi.android.nrftoolbox.profile.GattOperationScheduler;
+import no.nordicsemi.android.nrftoolbox.profile.simulator.CaptureReplay;
+import no.nordicsemi.android.nrftoolbox.profile.simulator.RecordingCallbacks;
+import no.nordicsemi.android.nrftoolbox.profile.simulator.SimulatedPeripheral;
+import no.nordicsemi.android.nrftoolbox.session.SessionRecorder;
+import no.nordicsemi.android.nrftoolbox.utility.ExponentialBackoff;
+
+/**
+ * Drives the {@link HRSManager} through a {@link SimulatedPeripheral}: the initialization, the notifications, a read that is never answered, two managers
+ * sharing a {@link GattOperationScheduler}, a capture replayed with {@link CaptureReplay} and the reconnection after a link loss.
+ */
+public class HRSManagerTest extends AndroidTestCase {
+	private static final UUID HR_MEASUREMENT_CHARACTERISTIC_UUID = UUID.fromString("00002A37-0000-1000-8000-00805f9b34fb");
+	private static final UUID HR_SENSOR_LOCATION_CHARACTERISTIC_UUID = UUID.fromString("00002A38-0000-1000-8000-00805f9b34fb");
+	private static final UUID GENERIC_ATTRIBUTE_SERVICE_UUID = UUID.fromString("00001801-0000-1000-8000-00805f9b34fb");
+	private static final UUID DATABASE_HASH_CHARACTERISTIC_UUID = UUID.fromString("00002B2A-0000-1000-8000-00805f9b34fb");
+	private static final long TIMEOUT = 5000;
+
+	private HRSManager mManager;
+	private HRSCallbacks mCallbacks;
+
+	/**
+	 * Records the heart rate values and RR intervals in the order they were received.
+	 */
+	private static class HRSCallbacks extends RecordingCallbacks implements HRSManagerCallbacks {
+		private final List<Integer> mValues = new ArrayList<>();
+		private String mPosition;
+
+		@Override
+		public void onHRSensorPositionFound(final String position) {
+			synchronized (this) {
+				mPosition = position;
+			}
+			record("onHRSensorPositionFound");
+		}
+
+		@Override
+		public void onHRValueReceived(final int value) {
+			synchronized (this) {
+				mValues.add(value);
+			}
+			record("onHRValueReceived");
+		}
+
+		@Override
+		public void onRRIntervalReceived(final int rrInterval) {
+			synchronized (this) {
+				// RR intervals are stored as negative numbers to check the order relative to the heart rate values
+				mValues.add(-rrInterval);
+			}
+			record("onRRIntervalReceived");
+		}
+
+		private synchronized List<Integer> getValues() {
+			return new ArrayList<>(mValues);
+		}
+
+		private synchronized String getPosition() {
+			return mPosition;
+		}
+	}
+
+	/**
+	 * Creates a heart rate sensor worn on the chest.
+	 */
+	public static SimulatedPeripheral createHeartRateSensor(final String address) {
+		final SimulatedPeripheral peripheral = new SimulatedPeripheral(address);
+		final BluetoothGattService service = peripheral.addService(HRSManager.HR_SERVICE_UUID);
+		peripheral.addCharacteristic(service, HR_MEASUREMENT_CHARACTERISTIC_UUID, BluetoothGattCharacteristic.PROPERTY_NOTIFY);
+		peripheral.addCharacteristic(service, HR_SENSOR_LOCATION_CHARACTERISTIC_UUID, BluetoothGattCharacteristic.PROPERTY_READ);
+		peripheral.setValue(HR_SENSOR_LOCATION_CHARACTERISTIC_UUID, new byte[] { 1 }); // Chest
+		peripheral.setLatency(5);
+		return peripheral;
+	}
+
+	/**
+	 * Sends a Heart Rate Measurement with 8-bit value and given RR intervals.
+	 */
+	public static boolean notifyHeartRate(final SimulatedPeripheral peripheral, final int value, final int... rrIntervals) {
+		final byte[] data = new byte[2 + 2 * rrIntervals.length];
+		data[0] = (byte) (rrIntervals.length > 0 ? 0x10 : 0x00);
+		data[1] = (byte) value;
+		for (int i = 0; i < rrIntervals.length; ++i) {
+			data[2 + 2 * i] = (byte) rrIntervals[i];
+			data[3 + 2 * i] = (byte) (rrIntervals[i] >> 8);
+		}
+		return peripheral.notify(HR_MEASUREMENT_CHARACTERISTIC_UUID, data);
+	}
+
+	/**
+	 * Creates a heart rate sensor with the Database Hash characteristic, which lets the manager reuse the services after a reconnection.
+	 */
+	private static SimulatedPeripheral createHeartRateSensorWithDatabaseHash(final String address) {
+		final SimulatedPeripheral peripheral = createHeartRateSensor(address);
+		final BluetoothGattService service = peripheral.addService(GENERIC_ATTRIBUTE_SERVICE_UUID);
+		peripheral.addCharacteristic(service, DATABASE_HASH_CHARACTERISTIC_UUID, BluetoothGattCharacteristic.PROPERTY_READ);
+		peripheral.setValue(DATABASE_HASH_CHARACTERISTIC_UUID, new byte[16]);
+		return peripheral;
+	}
+
+	/**
+	 * Creates a manager that reconnects after a link loss with 2 direct attempts, 50 and 100 ms after the loss, and then in the background.
+	 */
+	private HRSManager createReconnectingManager() {
+		final HRSManager manager = new HRSManager(getContext()) {
+			@Override
+			protected ExponentialBackoff createReconnectBackoff() {
+				return new ExponentialBackoff(50, 200, 2, 0);
+			}
+		};
+		manager.setGattCallbacks(mCallbacks);
+		return manager;
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		mCallbacks = new HRSCallbacks();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		if (mManager != null)
+			mManager.close();
+		super.tearDown();
+	}
+
+	public void testInitializationAndNotifications() throws Exception {
+		final SimulatedPeripheral peripheral = createHeartRateSensor("AA:BB:CC:DD:EE:01");
+		mManager = new HRSManager(getContext());
+		mManager.setGattCallbacks(mCallbacks);
+		mManager.connect(peripheral);
+
+		assertTrue("Device not ready", mCallbacks.await("onDeviceReady", 1, TIMEOUT));
+		assertEquals(1, mCallbacks.count("onServicesDiscovered"));
+		assertEquals(getContext().getResources().getStringArray(R.array.hrs_locations)[1], mCallbacks.getPosition());
+
+		assertTrue(notifyHeartRate(peripheral, 72));
+		assertTrue(notifyHeartRate(peripheral, 75, 1024, 512));
+		assertTrue(mCallbacks.await("onHRValueReceived", 2, TIMEOUT));
+		assertEquals(Arrays.asList(72, -1024, -512, 75), mCallbacks.getValues());
+
+		assertTrue(mManager.disconnect());
+		assertTrue(mCallbacks.await("onDeviceDisconnected", 1, TIMEOUT));
+		assertEquals(0, mCallbacks.count("onError"));
+		assertEquals(0, mCallbacks.count("onLinklossOccur"));
+	}
+
+	public void testLostReadDoesNotDisconnect() throws Exception {
+		final SimulatedPeripheral peripheral = createHeartRateSensor("AA:BB:CC:DD:EE:02");
+		peripheral.setUnresponsive(HR_SENSOR_LOCATION_CHARACTERISTIC_UUID, true);
+		mManager = new HRSManager(getContext()) {
+			@Override
+			protected long getOperationTimeout() {
+				return 100;
+			}
+		};
+		mManager.setGattCallbacks(mCallbacks);
+		mManager.connect(peripheral);
+
+		// The read is retried, reported and skipped. The notifications are enabled anyway.
+		assertTrue("Device not ready", mCallbacks.await("onDeviceReady", 1, TIMEOUT));
+		assertEquals(1, mCallbacks.count("onOperationTimeout"));
+		assertEquals(0, mCallbacks.count("onHRSensorPositionFound"));
+
+		assertTrue(notifyHeartRate(peripheral, 80));
+		assertTrue(mCallbacks.await("onHRValueReceived", 1, TIMEOUT));
+		assertEquals(0, mCallbacks.count("onError"));
+		assertEquals(0, mCallbacks.count("onDeviceDisconnected"));
+	}
+
+	public void testManagersSharingSchedulerAreInitialized() throws Exception {
+		final GattOperationScheduler scheduler = new GattOperationScheduler();
+		final SimulatedPeripheral peripheral = createHeartRateSensor("AA:BB:CC:DD:EE:03");
+		final SimulatedPeripheral otherPeripheral = createHeartRateSensor("AA:BB:CC:DD:EE:04");
+		final HRSCallbacks otherCallbacks = new HRSCallbacks();
+		mManager = new HRSManager(getContext());
+		mManager.setGattCallbacks(mCallbacks);
+		mManager.setOperationScheduler(scheduler);
+		final HRSManager otherManager = new HRSManager(getContext());
+		otherManager.setGattCallbacks(otherCallbacks);
+		otherManager.setOperationScheduler(scheduler);
+		try {
+			// Both initializations run at the same time and take turns, so the turn must be passed on after each operation
+			mManager.connect(peripheral);
+			otherManager.connect(otherPeripheral);
+			assertTrue("First device not ready", mCallbacks.await("onDeviceReady", 1, TIMEOUT));
+			assertTrue("Second device not ready", otherCallbacks.await("onDeviceReady", 1, TIMEOUT));
+			assertEquals(1, mCallbacks.count("onHRSensorPositionFound"));
+			assertEquals(1, otherCallbacks.count("onHRSensorPositionFound"));
+
+			assertTrue(notifyHeartRate(peripheral, 60));
+			assertTrue(notifyHeartRate(otherPeripheral, 90));
+			assertTrue(mCallbacks.await("onHRValueReceived", 1, TIMEOUT));
+			assertTrue(otherCallbacks.await("onHRValueReceived", 1, TIMEOUT));
+			assertEquals(Arrays.asList(60), mCallbacks.getValues());
+			assertEquals(Arrays.asList(90), otherCallbacks.getValues());
+		} finally {
+			otherManager.close();
+		}
+	}
+
+	public void testCaptureIsReplayed() throws Exception {
+		final File file = new File(getContext().getCacheDir(), "HRSManagerTest" + SessionRecorder.CAPTURE_EXTENSION);
+		try {
+			// Capture the notifications of a live session
+			final SimulatedPeripheral peripheral = createHeartRateSensor("AA:BB:CC:DD:EE:05");
+			mManager = new HRSManager(getContext());
+			mManager.setGattCallbacks(mCallbacks);
+			mManager.connect(peripheral);
+			assertTrue("Device not ready", mCallbacks.await("onDeviceReady", 1, TIMEOUT));
+			mManager.startCapture(file);
+
+			assertTrue(notifyHeartRate(peripheral, 72));
+			assertTrue(notifyHeartRate(peripheral, 75, 800, 790));
+			assertTrue(notifyHeartRate(peripheral, 78, 770));
+			assertTrue(mCallbacks.await("onHRValueReceived", 3, TIMEOUT));
+			// The capture is closed on the manager's thread before the disconnection is reported
+			mManager.stopCapture();
+			assertTrue(mManager.disconnect());
+			assertTrue(mCallbacks.await("onDeviceDisconnected", 1, TIMEOUT));
+			mManager.close();
+
+			// Replay it to a new manager, which must receive the same values
+			final SimulatedPeripheral replayPeripheral = CaptureReplay.createPeripheral("AA:BB:CC:DD:EE:06", file);
+			final HRSCallbacks replayCallbacks = new HRSCallbacks();
+			mManager = new HRSManager(getContext());
+			mManager.setGattCallbacks(replayCallbacks);
+			mManager.connect(replayPeripheral);
+			assertTrue("Replay device not ready", replayCallbacks.await("onDeviceReady", 1, TIMEOUT));
+
+			final CountDownLatch finished = new CountDownLatch(1);
+			final int[] result = new int[2];
+			new CaptureReplay(replayPeripheral, file).start(CaptureReplay.MAX_SPEED, new CaptureReplay.Listener() {
+				@Override
+				public void onReplayFinished(final int sent, final int skipped) {
+					result[0] = sent;
+					result[1] = skipped;
+					finished.countDown();
+				}
+			});
+			assertTrue("Replay not finished", finished.await(TIMEOUT, TimeUnit.MILLISECONDS));
+			assertEquals(3, result[0]);
+			assertEquals(0, result[1]);
+			assertTrue(replayCallbacks.await("onHRValueReceived", 3, TIMEOUT));
+			assertEquals(mCallbacks.getValues(), replayCallbacks.getValues());
+			assertEquals(Arrays.asList(72, -800, -790, 75, -770, 78), replayCallbacks.getValues());
+		} finally {
+			file.delete();
+		}
+	}
+
+	public void testDirectReconnectionAfterLinkLoss() throws Exception {
+		final SimulatedPeripheral peripheral = createHeartRateSensorWithDatabaseHash("AA:BB:CC:DD:EE:07");
+		mManager = createReconnectingManager();
+		mManager.connect(peripheral);
+		assertTrue("Device not ready", mCallbacks.await("onDeviceReady", 1, TIMEOUT));
+
+		peripheral.simulateLinkLoss();
+		assertTrue(mCallbacks.await("onLinklossOccur", 1, TIMEOUT));
+		assertTrue("Device not reconnected", mCallbacks.await("onDeviceReady", 2, TIMEOUT));
+		// The direct connection is a new one, so the services had to be discovered again
+		assertEquals(2, peripheral.getServiceDiscoveryCount());
+
+		assertTrue(notifyHeartRate(peripheral, 90));
+		assertTrue(mCallbacks.await("onHRValueReceived", 1, TIMEOUT));
+		assertEquals(0, mCallbacks.count("onDeviceDisconnected"));
+		assertEquals(0, mCallbacks.count("onError"));
+	}
+
+	public void testBackgroundReconnectionReusesServices() throws Exception {
+		final SimulatedPeripheral peripheral = createHeartRateSensorWithDatabaseHash("AA:BB:CC:DD:EE:08");
+		mManager = createReconnectingManager();
+		mManager.connect(peripheral);
+		assertTrue("Device not ready", mCallbacks.await("onDeviceReady", 1, TIMEOUT));
+
+		// Both direct attempts fail, then the manager waits for the device in the background
+		peripheral.setAvailable(false);
+		assertTrue(mCallbacks.await("onLinklossOccur", 1, TIMEOUT));
+		Thread.sleep(1000);
+		assertEquals(1, mCallbacks.count("onDeviceConnected"));
+
+		peripheral.setAvailable(true);
+		assertTrue("Device not reconnected", mCallbacks.await("onDeviceReady", 2, TIMEOUT));
+		// The Database Hash has not changed, so the services discovered on the first connection were used
+		assertEquals(1, peripheral.getServiceDiscoveryCount());
+
+		assertTrue(notifyHeartRate(peripheral, 90));
+		assertTrue(mCallbacks.await("onHRValueReceived", 1, TIMEOUT));
+		assertEquals(0, mCallbacks.count("onDeviceDisconnected"));
+	}
+
+	public void testChangedDatabaseHashDiscoversServices() throws Exception {
+		final SimulatedPeripheral peripheral = createHeartRateSensorWithDatabaseHash("AA:BB:CC:DD:EE:09");
+		mManager = createReconnectingManager();
+		mManager.connect(peripheral);
+		assertTrue("Device not ready", mCallbacks.await("onDeviceReady", 1, TIMEOUT));
+
+		peripheral.setAvailable(false);
+		assertTrue(mCallbacks.await("onLinklossOccur", 1, TIMEOUT));
+		Thread.sleep(1000);
+		// f.e. the firmware has been updated while the device was out of range
+		final byte[] hash = new byte[16];
+		hash[0] = 1;
+		peripheral.setValue(DATABASE_HASH_CHARACTERISTIC_UUID, hash);
+
+		peripheral.setAvailable(true);
+		assertTrue("Device not reconnected", mCallbacks.await("onDeviceReady", 2, TIMEOUT));
+		assertEquals(2, peripheral.getServiceDiscoveryCount());
+	}
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.profile.simulator;
+
+import android.os.SystemClock;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import no.nordicsemi.android.nrftoolbox.profile.BleManagerCallbacks;
+
+/**
+ * Records the names of the {@link BleManagerCallbacks} methods called by a manager, so that a test may wait for them. Profile callbacks are recorded by subclasses
+ * using {@link #record(String)}.
+ */
+public class RecordingCallbacks implements BleManagerCallbacks {
+	private final List<String> mEvents = new ArrayList<>();
+
+	/**
+	 * Records the event and wakes up the test waiting for it.
+	 *
+	 * @param event the event name, usually the name of the callback method
+	 */
+	protected synchronized void record(final String event) {
+		mEvents.add(event);
+		notifyAll();
+	}
+
+	/**
+	 * Returns how many times the event has been recorded.
+	 */
+	public synchronized int count(final String event) {
+		int count = 0;
+		for (final String e : mEvents) {
+			if (e.equals(event))
+				count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Waits until the event has been recorded the given number of times.
+	 *
+	 * @param event   the event name
+	 * @param count   the expected number of events
+	 * @param timeout the timeout in milliseconds
+	 * @return true if the event has been recorded in time, false otherwise
+	 */
+	public synchronized boolean await(final String event, final int count, final long timeout) throws InterruptedException {
+		final long end = SystemClock.uptimeMillis() + timeout;
+		while (count(event) < count) {
+			final long left = end - SystemClock.uptimeMillis();
+			if (left <= 0)
+				return false;
+			wait(left);
+		}
+		return true;
+	}
+
+	/**
+	 * Returns a copy of all events recorded so far, in order.
+	 */
+	public synchronized List<String> getEvents() {
+		return new ArrayList<>(mEvents);
+	}
+
+	@Override
+	public void onDeviceConnected() {
+		record("onDeviceConnected");
+	}
+
+	@Override
+	public void onDeviceDisconnecting() {
+		record("onDeviceDisconnecting");
+	}
+
+	@Override
+	public void onDeviceDisconnected() {
+		record("onDeviceDisconnected");
+	}
+
+	@Override
+	public void onLinklossOccur() {
+		record("onLinklossOccur");
+	}
+
+	@Override
+	public void onServicesDiscovered(final boolean optionalServicesFound) {
+		record("onServicesDiscovered");
+	}
+
+	@Override
+	public void onDeviceReady() {
+		record("onDeviceReady");
+	}
+
+	@Override
+	public void onBatteryValueReceived(final int value) {
+		record("onBatteryValueReceived");
+	}
+
+	@Override
+	public void onMtuChanged(final int mtu) {
+		record("onMtuChanged");
+	}
+
+	@Override
+	public void onBondingRequired() {
+		record("onBondingRequired");
+	}
+
+	@Override
+	public void onBonded() {
+		record("onBonded");
+	}
+
+	@Override
+	public void onError(final String message, final int errorCode) {
+		record("onError");
+	}
+
+	@Override
+	public void onOperationTimeout(final String message) {
+		record("onOperationTimeout");
+	}
+
+	@Override
+	public void onDeviceNotSupported() {
+		record("onDeviceNotSupported");
+	}
+}
@@ -50,6 +50,7 @@ import android.widget.Toast;
 import java.util.List;
 
 import no.nordicsemi.android.nrftoolbox.adapter.AppAdapter;
+import no.nordicsemi.android.nrftoolbox.session.SessionsActivity;
 
 public class FeaturesActivity extends AppCompatActivity {
 	private static final String MCP_CATEGORY = "no.nordicsemi.android.nrftoolbox.LAUNCHER";
@@ -99,7 +100,7 @@ public class FeaturesActivity extends AppCompatActivity {
 
 	@Override
 	public boolean onCreateOptionsMenu(final Menu menu) {
-		getMenuInflater().inflate(R.menu.help, menu);
+		getMenuInflater().inflate(R.menu.features, menu);
 		return true;
 	}
 
@@ -125,6 +126,9 @@ public class FeaturesActivity extends AppCompatActivity {
 		}
 
 		switch (item.getItemId()) {
+		case R.id.action_sessions:
+			startActivity(new Intent(this, SessionsActivity.class));
+			break;
 		case R.id.action_about:
 			final AppHelpFragment fragment = AppHelpFragment.getInstance(R.string.about_text, true);
 			fragment.show(getSupportFragmentManager(), null);
@@ -30,11 +30,14 @@ import java.util.UUID;
 import no.nordicsemi.android.nrftoolbox.R;
 import no.nordicsemi.android.nrftoolbox.profile.BleManager;
 import no.nordicsemi.android.nrftoolbox.profile.BleProfileActivity;
+import no.nordicsemi.android.nrftoolbox.session.SessionRecorder;
 
 // TODO The BPMActivity should be rewritten to use the service approach, like other do.
 public class BPMActivity extends BleProfileActivity implements BPMManagerCallbacks {
 	@SuppressWarnings("unused")
 	private static final String TAG = "BPMActivity";
+	/** 1 kPa in mmHg. All pressures are recorded in mmHg, whatever unit the device uses. */
+	private static final float KPA_TO_MMHG = 7.50062f;
 
 	private TextView mSystolicView;
 	private TextView mSystolicUnitView;
@@ -44,11 +47,27 @@ public class BPMActivity extends BleProfileActivity implements BPMManagerCallbac
 	private TextView mMeanAPUnitView;
 	private TextView mPulseView;
 	private TextView mTimestampView;
+	/** Records the measurements from the device ready event until disconnection */
+	private SessionRecorder mRecorder;
+	/**
+	 * The values of the measurement being parsed, in the order of the recorder columns. The manager reports the pressure, the time stamp and the pulse rate
+	 * of each measurement, in this order, so the sample is recorded when the pulse rate is read. Used only on the manager's thread.
+	 */
+	private final float[] mSample = new float[5];
+	private long mSampleTime;
 
 	@Override
 	protected void onCreateView(final Bundle savedInstanceState) {
 		setContentView(R.layout.activity_feature_bpm);
 		setGUI();
+
+		mRecorder = new SessionRecorder(this, "BPM", "systolic_mmhg", "diastolic_mmhg", "mean_arterial_pressure_mmhg", "cuff_pressure_mmhg", "pulse_rate");
+	}
+
+	@Override
+	protected void onDestroy() {
+		super.onDestroy();
+		mRecorder.stop();
 	}
 
 	private void setGUI() {
@@ -108,11 +127,22 @@ public class BPMActivity extends BleProfileActivity implements BPMManagerCallbac
 
 	@Override
 	public void onDeviceReady() {
-		// this may notify user
+		mRecorder.start();
+	}
+
+	@Override
+	public void onDeviceDisconnected() {
+		super.onDeviceDisconnected();
+		mRecorder.stop();
 	}
 
 	@Override
 	public void onBloodPressureMeasurementRead(final float systolic, final float diastolic, final float meanArterialPressure, final int unit) {
+		final float factor = unit == UNIT_kPa ? KPA_TO_MMHG : 1.0f;
+		mSample[0] = systolic * factor;
+		mSample[1] = diastolic * factor;
+		mSample[2] = meanArterialPressure * factor;
+		mSample[3] = Float.NaN;
 		runOnUiThread(new Runnable() {
 			@Override
 			public void run() {
@@ -129,6 +159,8 @@ public class BPMActivity extends BleProfileActivity implements BPMManagerCallbac
 
 	@Override
 	public void onIntermediateCuffPressureRead(final float cuffPressure, final int unit) {
+		mSample[0] = mSample[1] = mSample[2] = Float.NaN;
+		mSample[3] = cuffPressure * (unit == UNIT_kPa ? KPA_TO_MMHG : 1.0f);
 		runOnUiThread(new Runnable() {
 			@Override
 			public void run() {
@@ -145,6 +177,8 @@ public class BPMActivity extends BleProfileActivity implements BPMManagerCallbac
 
 	@Override
 	public void onPulseRateRead(final float pulseRate) {
+		mSample[4] = pulseRate >= 0 ? pulseRate : Float.NaN;
+		mRecorder.recordAt(mSampleTime, mSample);
 		runOnUiThread(new Runnable() {
 			@Override
 			public void run() {
@@ -158,6 +192,8 @@ public class BPMActivity extends BleProfileActivity implements BPMManagerCallbac
 
 	@Override
 	public void onTimestampRead(final Calendar calendar) {
+		// Stored measurements are recorded with the time they were taken
+		mSampleTime = calendar != null ? calendar.getTimeInMillis() : System.currentTimeMillis();
 		runOnUiThread(new Runnable() {
 			@Override
 			public void run() {
@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.bpm;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.provider.BaseColumns;
+
+import java.util.Calendar;
+import java.util.List;
+
+/**
+ * Stores blood pressure records of each device, so that they don't have to be downloaded again in the next session.
+ * The Blood Pressure Measurement has no sequence number, so records are identified by the device address and the time stamp, see {@link #getLastTime(String)}.
+ * <p>BPMManager uses the store only on its own thread, see {@link no.nordicsemi.android.nrftoolbox.profile.BleManager#getHandler()}.</p>
+ */
+public class BPMDatabaseHelper {
+	/** Database file name */
+	private static final String DATABASE_NAME = "toolbox_bpm.db";
+	/** Database version */
+	private static final int DATABASE_VERSION = 1;
+
+	private interface Tables {
+		/** Blood pressure records table. See {@link RecordColumns} for column names. */
+		public static final String RECORDS = "records";
+	}
+
+	private interface RecordColumns extends BaseColumns {
+		/** The device address */
+		public static final String DEVICE = "device";
+		/** The time stamp in milliseconds */
+		public static final String TIME = "time";
+		public static final String SYSTOLIC = "systolic";
+		public static final String DIASTOLIC = "diastolic";
+		public static final String PULSE_RATE = "pulse_rate";
+	}
+
+	private static final String[] RECORD_PROJECTION = new String[] { RecordColumns.TIME, RecordColumns.SYSTOLIC, RecordColumns.DIASTOLIC, RecordColumns.PULSE_RATE };
+	private static final String[] MAX_TIME_PROJECTION = new String[] { "MAX(" + RecordColumns.TIME + ")" };
+
+	private static final String DEVICE_SELECTION = RecordColumns.DEVICE + "=?";
+
+	/** The helper shared by all instances. It keeps the database open once it has been opened. */
+	private static SQLiteHelper mDatabaseHelper;
+
+	private final Context mContext;
+
+	/**
+	 * Creates the store. The database is not opened here, but on the first call of any other method, as opening may create or upgrade it.
+	 *
+	 * @param context the context
+	 */
+	public BPMDatabaseHelper(final Context context) {
+		mContext = context.getApplicationContext();
+	}
+
+	private SQLiteDatabase getDatabase() {
+		return getDatabaseHelper(mContext).getWritableDatabase();
+	}
+
+	private static synchronized SQLiteHelper getDatabaseHelper(final Context context) {
+		if (mDatabaseHelper == null)
+			mDatabaseHelper = new SQLiteHelper(context);
+		return mDatabaseHelper;
+	}
+
+	/**
+	 * Returns the time stamp of the newest record stored for the device. Records taken later have not been downloaded yet.
+	 *
+	 * @param device the device address
+	 * @return the time in milliseconds or -1 if there are no records of this device
+	 */
+	public long getLastTime(final String device) {
+		final Cursor cursor = getDatabase().query(Tables.RECORDS, MAX_TIME_PROJECTION, DEVICE_SELECTION, new String[] { device }, null, null, null);
+		try {
+			if (cursor.moveToNext() && !cursor.isNull(0))
+				return cursor.getLong(0);
+			return -1;
+		} finally {
+			cursor.close();
+		}
+	}
+
+	/**
+	 * Reads all records of the device, from the oldest, and appends them to the given list.
+	 *
+	 * @param device  the device address
+	 * @param records the list to add the records to
+	 */
+	public void loadRecords(final String device, final List<BPMRecord> records) {
+		final Cursor cursor = getDatabase().query(Tables.RECORDS, RECORD_PROJECTION, DEVICE_SELECTION, new String[] { device }, null, null, RecordColumns.TIME + " ASC");
+		try {
+			while (cursor.moveToNext()) {
+				final BPMRecord record = new BPMRecord();
+				record.time = Calendar.getInstance();
+				record.time.setTimeInMillis(cursor.getLong(0));
+				record.systolic = cursor.getFloat(1);
+				record.diastolic = cursor.getFloat(2);
+				record.pulseRate = cursor.getFloat(3);
+				records.add(record);
+			}
+		} finally {
+			cursor.close();
+		}
+	}
+
+	/**
+	 * Saves the record. A record with the same time stamp is replaced.
+	 *
+	 * @param device the device address
+	 * @param record the record with the time stamp set
+	 * @return the row id or -1 if error occurred
+	 */
+	public long saveRecord(final String device, final BPMRecord record) {
+		final ContentValues values = new ContentValues();
+		values.put(RecordColumns.DEVICE, device);
+		values.put(RecordColumns.TIME, record.time.getTimeInMillis());
+		values.put(RecordColumns.SYSTOLIC, record.systolic);
+		values.put(RecordColumns.DIASTOLIC, record.diastolic);
+		values.put(RecordColumns.PULSE_RATE, record.pulseRate);
+		return getDatabase().replace(Tables.RECORDS, null, values);
+	}
+
+	/**
+	 * Removes all records of the device.
+	 *
+	 * @param device the device address
+	 * @return number of rows removed
+	 */
+	public int deleteRecords(final String device) {
+		return getDatabase().delete(Tables.RECORDS, DEVICE_SELECTION, new String[] { device });
+	}
+
+	private static class SQLiteHelper extends SQLiteOpenHelper {
+
+		/**
+		 * The SQL code that creates the Records table. The unique constraint creates the index used to find records of a device and the last time stamp.
+		 *
+		 * <pre>
+		 * ---------------------------------------------------------------------------------------------------------------------------------------------------
+		 *                                                                      RECORDS
+		 * ---------------------------------------------------------------------------------------------------------------------------------------------------
+		 * | _id (int, pk, auto increment) | device (text) | time (int) | systolic (real) | diastolic (real) | pulse_rate (real) | unique(device, time) |
+		 * ---------------------------------------------------------------------------------------------------------------------------------------------------
+		 * </pre>
+		 */
+		private static final String CREATE_RECORDS = "CREATE TABLE " + Tables.RECORDS + "(" + RecordColumns._ID + " INTEGER PRIMARY KEY AUTOINCREMENT, "
+				+ RecordColumns.DEVICE + " TEXT NOT NULL, " + RecordColumns.TIME + " INTEGER NOT NULL, " + RecordColumns.SYSTOLIC + " REAL NOT NULL DEFAULT(0), "
+				+ RecordColumns.DIASTOLIC + " REAL NOT NULL DEFAULT(0), " + RecordColumns.PULSE_RATE + " REAL NOT NULL DEFAULT(0), "
+				+ "UNIQUE(" + RecordColumns.DEVICE + ", " + RecordColumns.TIME + "))";
+
+		public SQLiteHelper(Context context) {
+			super(context, DATABASE_NAME, null, DATABASE_VERSION);
+		}
+
+		@Override
+		public void onCreate(final SQLiteDatabase db) {
+			db.execSQL(CREATE_RECORDS);
+		}
+
+		@Override
+		public void onUpgrade(final SQLiteDatabase db, final int oldVersion, final int newVersion) {
+			// This method does nothing for now.
+			switch (oldVersion) {
+				case 1:
+					// do nothing
+			}
+		}
+	}
+}
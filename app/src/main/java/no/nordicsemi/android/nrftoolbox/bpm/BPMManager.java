@@ -26,18 +26,22 @@ import android.bluetooth.BluetoothGattCharacteristic;
 import android.bluetooth.BluetoothGattService;
 import android.content.Context;
 import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Queue;
 import java.util.UUID;
 
-import no.nordicsemi.android.log.Logger;
+import no.nordicsemi.android.log.LogContract;
 import no.nordicsemi.android.nrftoolbox.parser.BloodPressureMeasurementParser;
 import no.nordicsemi.android.nrftoolbox.parser.IntermediateCuffPressureParser;
 import no.nordicsemi.android.nrftoolbox.profile.BleManager;
+import no.nordicsemi.android.nrftoolbox.utility.DataReader;
 import no.nordicsemi.android.nrftoolbox.utility.DebugLogger;
 import no.nordicsemi.android.nrftoolbox.utility.ParserUtils;
 
@@ -59,6 +63,8 @@ public class BPMManager extends BleManager<BPMManagerCallbacks> {
 
 	private BluetoothGattCharacteristic mBPMCharacteristic, mICPCharacteristic, mRecordAccessControlPointCharacteristic;
 	private BluetoothGattCharacteristic mCurrentTimeCharacteristic;
+	/** The reader is reused for every notification so that decoding does not allocate */
+	private final DataReader mReader = new DataReader();
 
 	private static BPMManager managerInstance = null;
 
@@ -101,7 +107,12 @@ public class BPMManager extends BleManager<BPMManagerCallbacks> {
 	private final static int FILTER_TYPE_USER_FACING_TIME = 2;
 
 	private final LinkedList<BPMRecord> mRecords = new LinkedList<>();
+	/** The local record store. Records with a time stamp are saved as they are received, so only newer ones have to be requested in the next session */
+	private final BPMDatabaseHelper mDatabaseHelper;
+	/** The time of the newest record shown before {@link #refreshRecords()}, or -1. Older records sent again by the device are not added to the list twice */
+	private volatile long mSyncedUntil = -1;
 	private boolean mAbort;
+	/** The UI thread handler. The records list is modified only on the UI thread, the records are parsed and stored on the manager's thread, see {@link #getHandler()} */
 	private Handler mHandler;
 
 	/**
@@ -114,9 +125,34 @@ public class BPMManager extends BleManager<BPMManagerCallbacks> {
 		return managerInstance;
 	}
 
+	private static final ValueFormatter ICP_FORMATTER = new ValueFormatter() {
+		@Override
+		public String format(final byte[] data) {
+			return IntermediateCuffPressureParser.parse(data);
+		}
+	};
+	private static final ValueFormatter BPM_FORMATTER = new ValueFormatter() {
+		@Override
+		public String format(final byte[] data) {
+			return BloodPressureMeasurementParser.parse(data);
+		}
+	};
+
 	private BPMManager(final Context context) {
 		super(context);
-		mHandler = new Handler();
+		mHandler = new Handler(Looper.getMainLooper());
+		mDatabaseHelper = new BPMDatabaseHelper(context);
+	}
+
+	@Override
+	protected int getInitializationConnectionPriority() {
+		return BluetoothGatt.CONNECTION_PRIORITY_HIGH;
+	}
+
+	@Override
+	protected int getReadyConnectionPriority() {
+		// High priority is requested again for the time of each Record Access Control Point operation
+		return BluetoothGatt.CONNECTION_PRIORITY_BALANCED;
 	}
 
 	@Override
@@ -146,13 +182,13 @@ public class BPMManager extends BleManager<BPMManagerCallbacks> {
 
 		@Override
 		protected boolean isRequiredServiceSupported(final BluetoothGatt gatt) {
-			BluetoothGattService service = gatt.getService(BP_SERVICE_UUID);
+			BluetoothGattService service = getService(BP_SERVICE_UUID);
 			if (service != null) {
 				mBPMCharacteristic = service.getCharacteristic(BPM_CHARACTERISTIC_UUID);
 				mICPCharacteristic = service.getCharacteristic(ICP_CHARACTERISTIC_UUID);
 				mRecordAccessControlPointCharacteristic = service.getCharacteristic(RACP_CHARACTERISTIC);
 			}
-			BluetoothGattService mCurrentTimeService = gatt.getService(CURRENT_TIME);
+			BluetoothGattService mCurrentTimeService = getService(CURRENT_TIME);
 			if (mCurrentTimeService != null) {
 				mCurrentTimeCharacteristic = mCurrentTimeService.getCharacteristic(CURRENT_TIME_CHARACTERISTIC);
 			}
@@ -164,6 +200,24 @@ public class BPMManager extends BleManager<BPMManagerCallbacks> {
 			return mICPCharacteristic != null;
 		}
 
+		@Override
+		protected void onDeviceReady() {
+			// Show the records stored in the previous sessions. They are read here, on the manager's thread, and replace the data set on the UI thread.
+			if (mRecordAccessControlPointCharacteristic != null) {
+				final List<BPMRecord> records = new ArrayList<>();
+				mDatabaseHelper.loadRecords(getAddress(), records);
+				mHandler.post(new Runnable() {
+					@Override
+					public void run() {
+						mRecords.clear();
+						mRecords.addAll(records);
+						mCallbacks.onDatasetChanged();
+					}
+				});
+			}
+			super.onDeviceReady();
+		}
+
 		@Override
 		protected void onDeviceDisconnected() {
 			mICPCharacteristic = null;
@@ -172,75 +226,72 @@ public class BPMManager extends BleManager<BPMManagerCallbacks> {
 		}
 
 		@Override
-		protected void onCharacteristicNotified(final BluetoothGatt gatt, final BluetoothGattCharacteristic characteristic) {
+		protected void onCharacteristicNotified(final BluetoothGatt gatt, final BluetoothGattCharacteristic characteristic, final byte[] data) {
 			// Intermediate Cuff Pressure characteristic read
-			if (mLogSession != null)
-				Logger.a(mLogSession, IntermediateCuffPressureParser.parse(characteristic));
+			log(LogContract.Log.Level.APPLICATION, ICP_FORMATTER, data);
 
-			parseBPMValue(characteristic);
+			parseBPMValue(characteristic, data);
 		}
 
 		@Override
-		protected void onCharacteristicIndicated(final BluetoothGatt gatt, final BluetoothGattCharacteristic characteristic) {
+		protected void onCharacteristicIndicated(final BluetoothGatt gatt, final BluetoothGattCharacteristic characteristic, final byte[] data) {
 			// Blood Pressure Measurement characteristic read
-			if (mLogSession != null)
-				Logger.a(mLogSession, BloodPressureMeasurementParser.parse(characteristic));
+			log(LogContract.Log.Level.APPLICATION, BPM_FORMATTER, data);
 
 			if (characteristic.getUuid().equals(BPM_CHARACTERISTIC_UUID)) {
-				parseBPMValue(characteristic);
+				parseBPMValue(characteristic, data);
 			}
 
 			if (characteristic.getUuid().equals(RACP_CHARACTERISTIC)) {
-				processedRacp(characteristic);
+				processedRacp(data);
 			}
 		}
 
 		@Override
 		protected void onCharacteristicWrite(BluetoothGatt gatt, BluetoothGattCharacteristic characteristic) {
 			super.onCharacteristicWrite(gatt, characteristic);
-			Log.d(TAG, ParserUtils.parse(characteristic));
+			Log.d(TAG, ParserUtils.parse(characteristic.getValue()));
 		}
 
-		private void parseBPMValue(final BluetoothGattCharacteristic characteristic) {
+		private void parseBPMValue(final BluetoothGattCharacteristic characteristic, final byte[] data) {
 			// Both BPM and ICP have the same structure.
 
 			// first byte - flags
-			int offset = 0;
-			final int flags = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT8, offset++);
+			final DataReader reader = mReader.reset(data);
+			final int flags = reader.getUint8();
 			// See BPMManagerCallbacks.UNIT_* for unit options
 			final int unit = flags & 0x01;
-			final boolean timestampPresent = (flags & 0x02) > 0;
-			final boolean pulseRatePresent = (flags & 0x04) > 0;
+			final boolean timestampPresent = DataReader.isSet(flags, 0x02);
+			final boolean pulseRatePresent = DataReader.isSet(flags, 0x04);
 
 			final BPMRecord record = new BPMRecord();
 
 			if (BPM_CHARACTERISTIC_UUID.equals(characteristic.getUuid())) {
 				// following bytes - systolic, diastolic and mean arterial pressure
-				final float systolic = characteristic.getFloatValue(BluetoothGattCharacteristic.FORMAT_SFLOAT, offset);
-				final float diastolic = characteristic.getFloatValue(BluetoothGattCharacteristic.FORMAT_SFLOAT, offset + 2);
-				final float meanArterialPressure = characteristic.getFloatValue(BluetoothGattCharacteristic.FORMAT_SFLOAT, offset + 4);
-				offset += 6;
+				final float systolic = reader.getSFloat();
+				final float diastolic = reader.getSFloat();
+				final float meanArterialPressure = reader.getSFloat();
 
 				record.systolic = systolic;
 				record.diastolic = diastolic;
 				mCallbacks.onBloodPressureMeasurementRead(systolic, diastolic, meanArterialPressure, unit);
 			} else if (ICP_CHARACTERISTIC_UUID.equals(characteristic.getUuid())) {
 				// following bytes - cuff pressure. Diastolic and MAP are unused
-				final float cuffPressure = characteristic.getFloatValue(BluetoothGattCharacteristic.FORMAT_SFLOAT, offset);
-				offset += 6;
+				final float cuffPressure = reader.getSFloat();
+				reader.skip(4);
 				mCallbacks.onIntermediateCuffPressureRead(cuffPressure, unit);
 			}
 
 			// parse timestamp if present
 			if (timestampPresent) {
 				final Calendar calendar = Calendar.getInstance();
-				calendar.set(Calendar.YEAR, characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT16, offset));
-				calendar.set(Calendar.MONTH, characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT8, offset + 2) - 1); // months are 1-based
-				calendar.set(Calendar.DAY_OF_MONTH, characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT8, offset + 3));
-				calendar.set(Calendar.HOUR_OF_DAY, characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT8, offset + 4));
-				calendar.set(Calendar.MINUTE, characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT8, offset + 5));
-				calendar.set(Calendar.SECOND, characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT8, offset + 6));
-				offset += 7;
+				calendar.set(Calendar.YEAR, reader.getUint16());
+				calendar.set(Calendar.MONTH, reader.getUint8() - 1); // months are 1-based
+				calendar.set(Calendar.DAY_OF_MONTH, reader.getUint8());
+				calendar.set(Calendar.HOUR_OF_DAY, reader.getUint8());
+				calendar.set(Calendar.MINUTE, reader.getUint8());
+				calendar.set(Calendar.SECOND, reader.getUint8());
+				calendar.set(Calendar.MILLISECOND, 0); // the time stamp identifies the stored record
 
 				record.time = calendar;
 				mCallbacks.onTimestampRead(calendar);
@@ -249,28 +300,39 @@ public class BPMManager extends BleManager<BPMManagerCallbacks> {
 
 			// parse pulse rate if present
 			if (pulseRatePresent) {
-				final float pulseRate = characteristic.getFloatValue(BluetoothGattCharacteristic.FORMAT_SFLOAT, offset);
-				// offset += 2;
+				final float pulseRate = reader.getSFloat();
 				record.pulseRate = pulseRate;
 				mCallbacks.onPulseRateRead(pulseRate);
 			} else
 				mCallbacks.onPulseRateRead(-1.0f);
 
 			if (BPM_CHARACTERISTIC_UUID.equals(characteristic.getUuid())) {
-				mRecords.add(record);
-				mCallbacks.onDatasetChanged();
+				if (record.time != null) {
+					mDatabaseHelper.saveRecord(getAddress(), record);
+					// The 'greater than or equal to' filter returns also the records from the minute of the last one
+					if (record.time.getTimeInMillis() <= mSyncedUntil)
+						return;
+				}
+				// data set modifications must be done in UI thread
+				mHandler.post(new Runnable() {
+					@Override
+					public void run() {
+						mRecords.add(record);
+						mCallbacks.onDatasetChanged();
+					}
+				});
 			}
 		}
 
-		private void processedRacp(BluetoothGattCharacteristic characteristic) {
+		private void processedRacp(final byte[] data) {
 			// Record Access Control Point characteristic
 			int offset = 0;
-			final int opCode = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT8, offset);
+			final int opCode = DataReader.uint8(data, offset);
 			offset += 2; // skip the operator
 
 			if (opCode == OP_CODE_NUMBER_OF_STORED_RECORDS_RESPONSE) {
 				// We've obtained the number of all records
-				final int number = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT16, offset);
+				final int number = DataReader.uint16(data, offset);
 
 				mCallbacks.onNumberOfRecordsRequested(number);
 
@@ -278,14 +340,17 @@ public class BPMManager extends BleManager<BPMManagerCallbacks> {
 				if (number > 0) {
 					final BluetoothGattCharacteristic racpCharacteristic = mRecordAccessControlPointCharacteristic;
 					setOpCode(racpCharacteristic, OP_CODE_REPORT_STORED_RECORDS, OPERATOR_ALL_RECORDS);
-					writeCharacteristic(racpCharacteristic);
+					writeRacpOperation(racpCharacteristic);
 				} else {
+					requestConnectionPriority(getReadyConnectionPriority());
 					mCallbacks.onOperationCompleted();
 				}
 			} else if (opCode == OP_CODE_RESPONSE_CODE) {
-				final int requestedOpCode = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT8, offset);
-				final int responseCode = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT8, offset + 1);
+				final int requestedOpCode = DataReader.uint8(data, offset);
+				final int responseCode = DataReader.uint8(data, offset + 1);
 				DebugLogger.d(TAG, "Response result for: " + requestedOpCode + " is: " + responseCode);
+				// The operation has finished, the records are no longer being transferred
+				requestConnectionPriority(getReadyConnectionPriority());
 
 				switch (responseCode) {
 					case RESPONSE_SUCCESS:
@@ -312,13 +377,31 @@ public class BPMManager extends BleManager<BPMManagerCallbacks> {
 	};
 
 	/**
-	 * Clears the records list locally
+	 * Clears the records list locally. The records stored for the device are kept, see {@link #deleteStoredRecords()}.
 	 */
 	public void clear() {
 		mRecords.clear();
+		mSyncedUntil = -1;
 		mCallbacks.onDatasetChanged();
 	}
 
+	/**
+	 * Clears the records list and removes all records stored locally for the current device. The next {@link #refreshRecords()} will download all records again.
+	 */
+	public void deleteStoredRecords() {
+		clear();
+
+		final String address = getAddress();
+		if (address != null) {
+			getHandler().post(new Runnable() {
+				@Override
+				public void run() {
+					mDatabaseHelper.deleteRecords(address);
+				}
+			});
+		}
+	}
+
 	/**
 	 * Returns all records as a sparse array where sequence number is the key.
 	 *
@@ -341,7 +424,7 @@ public class BPMManager extends BleManager<BPMManagerCallbacks> {
 
 		final BluetoothGattCharacteristic characteristic = mRecordAccessControlPointCharacteristic;
 		setOpCode(characteristic, OP_CODE_REPORT_STORED_RECORDS, OPERATOR_LAST_RECORD);
-		writeCharacteristic(characteristic);
+		writeRacpOperation(characteristic);
 	}
 
 	/**
@@ -358,7 +441,7 @@ public class BPMManager extends BleManager<BPMManagerCallbacks> {
 
 		final BluetoothGattCharacteristic characteristic = mRecordAccessControlPointCharacteristic;
 		setOpCode(characteristic, OP_CODE_REPORT_STORED_RECORDS, OPERATOR_ALL_RECORDS);
-		writeCharacteristic(characteristic);
+		writeRacpOperation(characteristic);
 	}
 
 	/**
@@ -375,31 +458,46 @@ public class BPMManager extends BleManager<BPMManagerCallbacks> {
 	}
 
 	/**
-	 * Sends the request to obtain from the glucose device all records newer than the newest one from local storage. The data will be returned to Glucose Measurement characteristic as a notification
-	 * followed by Record Access Control Point indication with status code ({@link #RESPONSE_SUCCESS} or other in case of error.
+	 * Sends the request to obtain from the blood pressure device all records newer than the newest one from local storage. The data will be returned to Blood Pressure Measurement characteristic
+	 * as an indication followed by Record Access Control Point indication with status code ({@link #RESPONSE_SUCCESS} or other in case of error.
 	 * <p>
-	 * Refresh button will not download records older than the oldest in the local memory. F.e. if you have pressed Last and then Refresh, than it will try to get only newer records. However if there
-	 * are no records, it will download all existing (using {@link #getAllRecords()}).
+	 * The Blood Pressure Measurement has no sequence number, so the records are filtered by the user facing time of the newest stored record. If there are no records stored for the device,
+	 * it will download all existing (using {@link #getAllRecords()}).
 	 * </p>
 	 */
 	public void refreshRecords() {
 		if (mRecordAccessControlPointCharacteristic == null)
 			return;
 
-		if (mRecords.size() == 0) {
-			getAllRecords();
-		} else {
-//			mCallbacks.onOperationStarted();
-//
-//			// obtain the last sequence number
-//			final int sequenceNumber = mRecords.keyAt(mRecords.size() - 1) + 1;
-//
-//			final BluetoothGattCharacteristic characteristic = mRecordAccessControlPointCharacteristic;
-//			setOpCode(characteristic, OP_CODE_REPORT_STORED_RECORDS, OPERATOR_GREATER_THEN_OR_EQUAL, sequenceNumber);
-//			writeCharacteristic(characteristic);
-			// Info:
-			// Operators OPERATOR_LESS_THEN_OR_EQUAL and OPERATOR_RANGE are not supported by Nordic Semiconductor Glucose Service in SDK 4.4.2.
-		}
+		// The stored records are read on the manager's thread
+		getHandler().post(new Runnable() {
+			@Override
+			public void run() {
+				final BluetoothGattCharacteristic characteristic = mRecordAccessControlPointCharacteristic;
+				if (characteristic == null)
+					return;
+
+				final long lastTime = mDatabaseHelper.getLastTime(getAddress());
+				if (lastTime < 0) {
+					// getAllRecords() clears the records list, which may only be done on the UI thread
+					mHandler.post(new Runnable() {
+						@Override
+						public void run() {
+							getAllRecords();
+						}
+					});
+				} else {
+					mCallbacks.onOperationStarted();
+					mSyncedUntil = lastTime;
+
+					final Calendar calendar = Calendar.getInstance();
+					calendar.setTimeInMillis(lastTime);
+
+					setOpCodeFilter(characteristic, OP_CODE_REPORT_STORED_RECORDS, OPERATOR_GREATER_THEN_OR_EQUAL, getUserFacingTime(calendar));
+					writeRacpOperation(characteristic);
+				}
+			}
+		});
 	}
 
 	/**
@@ -415,7 +513,7 @@ public class BPMManager extends BleManager<BPMManagerCallbacks> {
 
 		final BluetoothGattCharacteristic characteristic = mRecordAccessControlPointCharacteristic;
 		setOpCode(characteristic, OP_CODE_REPORT_STORED_RECORDS, OPERATOR_FIRST_RECORD);
-		writeCharacteristic(characteristic);
+		writeRacpOperation(characteristic);
 	}
 
 	/**
@@ -432,7 +530,7 @@ public class BPMManager extends BleManager<BPMManagerCallbacks> {
 
 		final BluetoothGattCharacteristic characteristic = mRecordAccessControlPointCharacteristic;
 		setOpCode(characteristic, OP_CODE_DELETE_STORED_RECORDS, OPERATOR_ALL_RECORDS);
-		writeCharacteristic(characteristic);
+		writeRacpOperation(characteristic);
 	}
 
 	public void getSpecificRecord(Date date, boolean greater) {
@@ -444,6 +542,16 @@ public class BPMManager extends BleManager<BPMManagerCallbacks> {
 
 		Calendar calendar = Calendar.getInstance();
 		calendar.setTime(date);
+
+		final BluetoothGattCharacteristic characteristic = mRecordAccessControlPointCharacteristic;
+		setOpCodeFilter(characteristic, OP_CODE_REPORT_STORED_RECORDS, greater ? OPERATOR_GREATER_THEN_OR_EQUAL : OPERATOR_LESS_THEN_OR_EQUAL, getUserFacingTime(calendar));
+		writeRacpOperation(characteristic);
+	}
+
+	/**
+	 * Returns the user facing time operand, with the seconds set to 0, as bytes for {@link #setOpCodeFilter(BluetoothGattCharacteristic, int, int, Integer...)}.
+	 */
+	private static Integer[] getUserFacingTime(final Calendar calendar) {
 		int year = calendar.get(Calendar.YEAR);
 		int month = calendar.get(Calendar.MONTH) + 1;
 		int day = calendar.get(Calendar.DAY_OF_MONTH);
@@ -458,10 +566,7 @@ public class BPMManager extends BleManager<BPMManagerCallbacks> {
 		array[4] = hour & 0xff;
 		array[5] = min & 0xff;
 		array[6] = 0;
-
-		final BluetoothGattCharacteristic characteristic = mRecordAccessControlPointCharacteristic;
-		setOpCodeFilter(characteristic, OP_CODE_REPORT_STORED_RECORDS, greater ? OPERATOR_GREATER_THEN_OR_EQUAL : OPERATOR_LESS_THEN_OR_EQUAL, array);
-		writeCharacteristic(characteristic);
+		return array;
 	}
 
 	public void getRecordsBySequence(int seq, boolean greater) {
@@ -473,6 +578,18 @@ public class BPMManager extends BleManager<BPMManagerCallbacks> {
 
 		final BluetoothGattCharacteristic characteristic = mRecordAccessControlPointCharacteristic;
 		setOpCode(characteristic, OP_CODE_REPORT_STORED_RECORDS, greater ? OPERATOR_GREATER_THEN_OR_EQUAL : OPERATOR_LESS_THEN_OR_EQUAL, seq);
+		writeRacpOperation(characteristic);
+	}
+
+	/**
+	 * Writes the Record Access Control Point operation. The records are sent one by one in separate notifications, so the high connection priority
+	 * is requested for the time of the operation. The ready connection priority is restored when the response has been received.
+	 *
+	 * @param characteristic
+	 *            the Record Access Control Point characteristic with the operation set
+	 */
+	private void writeRacpOperation(final BluetoothGattCharacteristic characteristic) {
+		requestConnectionPriority(BluetoothGatt.CONNECTION_PRIORITY_HIGH);
 		writeCharacteristic(characteristic);
 	}
 
@@ -124,13 +124,13 @@ public class BPMRacpActivity extends BleProfileActivity implements PopupMenu.OnM
     public boolean onMenuItemClick(MenuItem item) {
         switch (item.getItemId()) {
             case R.id.action_refresh:
-                showToast("Same as all");
+                mBPMManager.refreshRecords();
                 break;
             case R.id.action_first:
                 mBPMManager.getFirstRecord();
                 break;
             case R.id.action_clear:
-                mBPMManager.clear();
+                mBPMManager.deleteStoredRecords();
                 break;
             case R.id.action_delete_all:
                 mBPMManager.deleteAllRecords();
@@ -22,14 +22,10 @@
 
 package no.nordicsemi.android.nrftoolbox.csc;
 
-import android.content.BroadcastReceiver;
-import android.content.Context;
 import android.content.Intent;
-import android.content.IntentFilter;
 import android.content.SharedPreferences;
 import android.os.Bundle;
 import android.preference.PreferenceManager;
-import android.support.v4.content.LocalBroadcastManager;
 import android.view.Menu;
 import android.widget.TextView;
 
@@ -51,6 +47,8 @@ public class CSCActivity extends BleProfileServiceReadyActivity<CSCService.CSCBi
 	private TextView mTotalDistanceUnitView;
 	private TextView mGearRatioView;
 
+	private CSCService.CSCBinder mBinder;
+
 	@Override
 	protected void onCreateView(final Bundle savedInstanceState) {
 		setContentView(R.layout.activity_feature_csc);
@@ -59,13 +57,7 @@ public class CSCActivity extends BleProfileServiceReadyActivity<CSCService.CSCBi
 
 	@Override
 	protected void onInitialize(final Bundle savedInstanceState) {
-		LocalBroadcastManager.getInstance(this).registerReceiver(mBroadcastReceiver, makeIntentFilter());
-	}
-
-	@Override
-	protected void onDestroy() {
-		super.onDestroy();
-		LocalBroadcastManager.getInstance(this).unregisterReceiver(mBroadcastReceiver);
+		// empty
 	}
 
 	private void setGui() {
@@ -163,12 +155,15 @@ public class CSCActivity extends BleProfileServiceReadyActivity<CSCService.CSCBi
 
 	@Override
 	protected void onServiceBinded(final CSCService.CSCBinder binder) {
-		// not used
+		mBinder = binder;
+		binder.setCSCListener(mCSCListener);
 	}
 
 	@Override
 	protected void onServiceUnbinded() {
-		// not used
+		if (mBinder != null)
+			mBinder.setCSCListener(null);
+		mBinder = null;
 	}
 
 	@Override
@@ -217,30 +212,17 @@ public class CSCActivity extends BleProfileServiceReadyActivity<CSCService.CSCBi
 		mCadenceView.setText(String.format("%d", cadence));
 	}
 
-	private final  BroadcastReceiver mBroadcastReceiver = new BroadcastReceiver() {
+	private final CSCService.CSCListener mCSCListener = new CSCService.CSCListener() {
 		@Override
-		public void onReceive(final Context context, final Intent intent) {
-			final String action = intent.getAction();
-
-			if (CSCService.BROADCAST_WHEEL_DATA.equals(action)) {
-				final float speed = intent.getFloatExtra(CSCService.EXTRA_SPEED, 0.0f); // [m/s]
-				final float distance = intent.getFloatExtra(CSCService.EXTRA_DISTANCE, CSCManagerCallbacks.NOT_AVAILABLE);
-				final float totalDistance = intent.getFloatExtra(CSCService.EXTRA_TOTAL_DISTANCE, CSCManagerCallbacks.NOT_AVAILABLE);
-				// Update GUI
-				onMeasurementReceived(speed, distance, totalDistance);
-			} else if (CSCService.BROADCAST_CRANK_DATA.equals(action)) {
-				final float ratio = intent.getFloatExtra(CSCService.EXTRA_GEAR_RATIO, 0);
-				final int cadence = intent.getIntExtra(CSCService.EXTRA_CADENCE, 0);
-				// Update GUI
-				onGearRatioUpdate(ratio, cadence);
-			}
+		public void onWheelMeasurementReceived(final float speed, final float distance, final float totalDistance) {
+			// Update GUI
+			onMeasurementReceived(speed, distance, totalDistance);
 		}
-	};
 
-	private static IntentFilter makeIntentFilter() {
-		final IntentFilter intentFilter = new IntentFilter();
-		intentFilter.addAction(CSCService.BROADCAST_WHEEL_DATA);
-		intentFilter.addAction(CSCService.BROADCAST_CRANK_DATA);
-		return intentFilter;
-	}
+		@Override
+		public void onCrankMeasurementReceived(final float gearRatio, final int cadence) {
+			// Update GUI
+			onGearRatioUpdate(gearRatio, cadence);
+		}
+	};
 }
@@ -31,9 +31,11 @@ import java.util.LinkedList;
 import java.util.Queue;
 import java.util.UUID;
 
-import no.nordicsemi.android.log.Logger;
+import no.nordicsemi.android.log.LogContract;
 import no.nordicsemi.android.nrftoolbox.profile.BleManager;
 import no.nordicsemi.android.nrftoolbox.parser.CSCMeasurementParser;
+import no.nordicsemi.android.nrftoolbox.utility.DataReader;
+import no.nordicsemi.android.nrftoolbox.utility.ExponentialBackoff;
 
 public class CSCManager extends BleManager<CSCManagerCallbacks> {
 	/** Cycling Speed and Cadence service UUID */
@@ -45,11 +47,37 @@ public class CSCManager extends BleManager<CSCManagerCallbacks> {
 	private static final byte CRANK_REVOLUTION_DATA_PRESENT = 0x02; // 1 bit
 
 	private BluetoothGattCharacteristic mCSCMeasurementCharacteristic;
+	/** The reader is reused for every notification so that decoding does not allocate */
+	private final DataReader mReader = new DataReader();
+
+	private static final ValueFormatter CSC_MEASUREMENT_FORMATTER = new ValueFormatter() {
+		@Override
+		public String format(final byte[] data) {
+			return CSCMeasurementParser.parse(data);
+		}
+	};
 
 	public CSCManager(final Context context) {
 		super(context);
 	}
 
+	@Override
+	protected int getInitializationConnectionPriority() {
+		return BluetoothGatt.CONNECTION_PRIORITY_HIGH;
+	}
+
+	@Override
+	protected int getReadyConnectionPriority() {
+		// Measurements are notified about once a second, there is no need to keep the short connection interval
+		return BluetoothGatt.CONNECTION_PRIORITY_LOW_POWER;
+	}
+
+	@Override
+	protected ExponentialBackoff createReconnectBackoff() {
+		// Sensors mounted on a bike go out of range often and come back a moment later
+		return new ExponentialBackoff(DEFAULT_RECONNECT_INITIAL_DELAY, DEFAULT_RECONNECT_MAX_DELAY, DEFAULT_RECONNECT_DIRECT_ATTEMPTS, DEFAULT_RECONNECT_JITTER);
+	}
+
 	@Override
 	protected BleManagerGattCallback getGattCallback() {
 		return mGattCallback;
@@ -69,7 +97,7 @@ public class CSCManager extends BleManager<CSCManagerCallbacks> {
 
 		@Override
 		public boolean isRequiredServiceSupported(final BluetoothGatt gatt) {
-			final BluetoothGattService service = gatt.getService(CYCLING_SPEED_AND_CADENCE_SERVICE_UUID);
+			final BluetoothGattService service = getService(CYCLING_SPEED_AND_CADENCE_SERVICE_UUID);
 			if (service != null) {
 				mCSCMeasurementCharacteristic = service.getCharacteristic(CSC_MEASUREMENT_CHARACTERISTIC_UUID);
 			}
@@ -82,35 +110,27 @@ public class CSCManager extends BleManager<CSCManagerCallbacks> {
 		}
 
 		@Override
-		public void onCharacteristicNotified(final BluetoothGatt gatt, final BluetoothGattCharacteristic characteristic) {
-			if (mLogSession != null)
-				Logger.a(mLogSession, CSCMeasurementParser.parse(characteristic));
+		public void onCharacteristicNotified(final BluetoothGatt gatt, final BluetoothGattCharacteristic characteristic, final byte[] data) {
+			log(LogContract.Log.Level.APPLICATION, CSC_MEASUREMENT_FORMATTER, data);
 
 			// Decode the new data
-			int offset = 0;
-			final int flags = characteristic.getValue()[offset]; // 1 byte
-			offset += 1;
+			final DataReader reader = mReader.reset(data);
+			final int flags = reader.getUint8(); // 1 byte
 
-			final boolean wheelRevPresent = (flags & WHEEL_REVOLUTIONS_DATA_PRESENT) > 0;
-			final boolean crankRevPreset = (flags & CRANK_REVOLUTION_DATA_PRESENT) > 0;
+			final boolean wheelRevPresent = DataReader.isSet(flags, WHEEL_REVOLUTIONS_DATA_PRESENT);
+			final boolean crankRevPreset = DataReader.isSet(flags, CRANK_REVOLUTION_DATA_PRESENT);
 
 			if (wheelRevPresent) {
-				final int wheelRevolutions = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT32, offset);
-				offset += 4;
-
-				final int lastWheelEventTime = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT16, offset); // 1/1024 s
-				offset += 2;
+				final int wheelRevolutions = reader.getUint32();
+				final int lastWheelEventTime = reader.getUint16(); // 1/1024 s
 
 				// Notify listener about the new measurement
 				mCallbacks.onWheelMeasurementReceived(wheelRevolutions, lastWheelEventTime);
 			}
 
 			if (crankRevPreset) {
-				final int crankRevolutions = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT16, offset);
-				offset += 2;
-
-				final int lastCrankEventTime = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT16, offset);
-				// offset += 2;
+				final int crankRevolutions = reader.getUint16();
+				final int lastCrankEventTime = reader.getUint16();
 
 				// Notify listener about the new measurement
 				mCallbacks.onCrankMeasurementReceived(crankRevolutions, lastCrankEventTime);
@@ -31,52 +31,120 @@ import android.content.Intent;
 import android.content.IntentFilter;
 import android.content.SharedPreferences;
 import android.preference.PreferenceManager;
-import android.support.v4.content.LocalBroadcastManager;
 import android.support.v7.app.NotificationCompat;
 
+import java.io.File;
+
 import no.nordicsemi.android.log.Logger;
 import no.nordicsemi.android.nrftoolbox.FeaturesActivity;
 import no.nordicsemi.android.nrftoolbox.R;
 import no.nordicsemi.android.nrftoolbox.profile.BleManager;
 import no.nordicsemi.android.nrftoolbox.profile.BleProfileService;
+import no.nordicsemi.android.nrftoolbox.profile.ConflatedEvent;
+import no.nordicsemi.android.nrftoolbox.session.SessionRecorder;
 import no.nordicsemi.android.nrftoolbox.csc.settings.SettingsFragment;
 
 public class CSCService extends BleProfileService implements CSCManagerCallbacks {
 	private static final String TAG = "CSCService";
 
-	public static final String BROADCAST_WHEEL_DATA = "no.nordicsemi.android.nrftoolbox.csc.BROADCAST_WHEEL_DATA";
-	public static final String EXTRA_SPEED = "no.nordicsemi.android.nrftoolbox.csc.EXTRA_SPEED";
-	/** Distance in meters */
-	public static final String EXTRA_DISTANCE = "no.nordicsemi.android.nrftoolbox.csc.EXTRA_DISTANCE";
-	/** Total distance in meters */
-	public static final String EXTRA_TOTAL_DISTANCE = "no.nordicsemi.android.nrftoolbox.csc.EXTRA_TOTAL_DISTANCE";
-
-	public static final String BROADCAST_CRANK_DATA = "no.nordicsemi.android.nrftoolbox.csc.BROADCAST_CRANK_DATA";
-	public static final String EXTRA_GEAR_RATIO = "no.nordicsemi.android.nrftoolbox.csc.EXTRA_GEAR_RATIO";
-	public static final String EXTRA_CADENCE = "no.nordicsemi.android.nrftoolbox.csc.EXTRA_CADENCE";
-
 	private static final String ACTION_DISCONNECT = "no.nordicsemi.android.nrftoolbox.csc.ACTION_DISCONNECT";
 
 	private CSCManager mManager;
 
-	private int mFirstWheelRevolutions = -1;
-	private int mLastWheelRevolutions = -1;
-	private int mLastWheelEventTime = -1;
-	private float mWheelCadence = -1;
-	private int mLastCrankRevolutions = -1;
-	private int mLastCrankEventTime = -1;
+	private final CSCCalculator mCalculator = new CSCCalculator();
+	/** Records speed, distance, total distance, cadence and gear ratio from the device ready event until disconnection */
+	private SessionRecorder mRecorder;
 
 	private final static int NOTIFICATION_ID = 200;
 	private final static int OPEN_ACTIVITY_REQ = 0;
 	private final static int DISCONNECT_REQ = 1;
 
+	private final WheelEvent mWheelEvent = new WheelEvent();
+	private final CrankEvent mCrankEvent = new CrankEvent();
+
 	private final LocalBinder mBinder = new CSCBinder();
 
+	/**
+	 * The listener of the calculated values. It is notified on the UI thread with the latest values only, values received in the meantime are dropped.
+	 */
+	public interface CSCListener {
+		/**
+		 * Called when the speed and distances have changed.
+		 *
+		 * @param speed         the speed in m/s
+		 * @param distance      the distance in meters since the connection was established
+		 * @param totalDistance the total distance in meters
+		 */
+		void onWheelMeasurementReceived(final float speed, final float distance, final float totalDistance);
+
+		/**
+		 * Called when the gear ratio and cadence have changed.
+		 *
+		 * @param gearRatio the gear ratio
+		 * @param cadence   the crank cadence in RPM
+		 */
+		void onCrankMeasurementReceived(final float gearRatio, final int cadence);
+	}
+
 	/**
 	 * This local binder is an interface for the bonded activity to operate with the RSC sensor
 	 */
 	public class CSCBinder extends LocalBinder {
-		// empty
+		/**
+		 * Sets the listener of the measurements. The activity must set <code>null</code> before it unbinds from the service.
+		 *
+		 * @param listener the listener or <code>null</code>
+		 */
+		public void setCSCListener(final CSCListener listener) {
+			mWheelEvent.setListener(listener);
+			mCrankEvent.setListener(listener);
+		}
+	}
+
+	private static final class WheelEvent extends ConflatedEvent<CSCListener> {
+		private float mSpeed;
+		private float mDistance;
+		private float mTotalDistance;
+
+		synchronized void set(final float speed, final float distance, final float totalDistance) {
+			mSpeed = speed;
+			mDistance = distance;
+			mTotalDistance = totalDistance;
+			publish();
+		}
+
+		@Override
+		protected void deliver(final CSCListener listener) {
+			final float speed, distance, totalDistance;
+			synchronized (this) {
+				speed = mSpeed;
+				distance = mDistance;
+				totalDistance = mTotalDistance;
+			}
+			listener.onWheelMeasurementReceived(speed, distance, totalDistance);
+		}
+	}
+
+	private static final class CrankEvent extends ConflatedEvent<CSCListener> {
+		private float mGearRatio;
+		private int mCadence;
+
+		synchronized void set(final float gearRatio, final int cadence) {
+			mGearRatio = gearRatio;
+			mCadence = cadence;
+			publish();
+		}
+
+		@Override
+		protected void deliver(final CSCListener listener) {
+			final float gearRatio;
+			final int cadence;
+			synchronized (this) {
+				gearRatio = mGearRatio;
+				cadence = mCadence;
+			}
+			listener.onCrankMeasurementReceived(gearRatio, cadence);
+		}
 	}
 
 	@Override
@@ -96,6 +164,8 @@ public class CSCService extends BleProfileService implements CSCManagerCallbacks
 		final IntentFilter filter = new IntentFilter();
 		filter.addAction(ACTION_DISCONNECT);
 		registerReceiver(mDisconnectActionBroadcastReceiver, filter);
+
+		mRecorder = new SessionRecorder(this, "CSC", "speed", "distance", "total_distance", "cadence", "gear_ratio");
 	}
 
 	@Override
@@ -103,10 +173,30 @@ public class CSCService extends BleProfileService implements CSCManagerCallbacks
 		// when user has disconnected from the sensor, we have to cancel the notification that we've created some milliseconds before using unbindService
 		cancelNotification();
 		unregisterReceiver(mDisconnectActionBroadcastReceiver);
+		mRecorder.stop();
 
 		super.onDestroy();
 	}
 
+	@Override
+	public void onDeviceReady() {
+		super.onDeviceReady();
+		mRecorder.start();
+
+		final File capture = mRecorder.getCaptureFile();
+		if (capture != null)
+			mManager.startCapture(capture);
+	}
+
+	@Override
+	public void onDeviceDisconnected() {
+		mManager.stopCapture();
+		mRecorder.stop();
+		mWheelEvent.clear();
+		mCrankEvent.clear();
+		super.onDeviceDisconnected();
+	}
+
 	@Override
 	protected void onRebind() {
 		// when the activity rebinds to the service, remove the notification
@@ -132,60 +222,22 @@ public class CSCService extends BleProfileService implements CSCManagerCallbacks
 		final SharedPreferences preferences = PreferenceManager.getDefaultSharedPreferences(this);
 		final int circumference = Integer.parseInt(preferences.getString(SettingsFragment.SETTINGS_WHEEL_SIZE, String.valueOf(SettingsFragment.SETTINGS_WHEEL_SIZE_DEFAULT))); // [mm]
 
-		if (mFirstWheelRevolutions < 0)
-			mFirstWheelRevolutions = wheelRevolutions;
+		if (mCalculator.onWheelMeasurement(wheelRevolutions, lastWheelEventTime, circumference)) {
+			mWheelEvent.set(mCalculator.getSpeed(), mCalculator.getDistance(), mCalculator.getTotalDistance());
 
-		if (mLastWheelEventTime == lastWheelEventTime)
-			return;
-
-		if (mLastWheelRevolutions >= 0) {
-			float timeDifference;
-			if (lastWheelEventTime < mLastWheelEventTime)
-				timeDifference = (65535 + lastWheelEventTime - mLastWheelEventTime) / 1024.0f; // [s]
-			else
-				timeDifference = (lastWheelEventTime - mLastWheelEventTime) / 1024.0f; // [s]
-			final float distanceDifference = (wheelRevolutions - mLastWheelRevolutions) * circumference / 1000.0f; // [m]
-			final float totalDistance = (float) wheelRevolutions * (float) circumference / 1000.0f; // [m]
-			final float distance = (float) (wheelRevolutions - mFirstWheelRevolutions) * (float) circumference / 1000.0f; // [m]
-			final float speed = distanceDifference / timeDifference;
-			mWheelCadence = (wheelRevolutions - mLastWheelRevolutions) * 60.0f / timeDifference;
-
-			final Intent broadcast = new Intent(BROADCAST_WHEEL_DATA);
-			broadcast.putExtra(EXTRA_SPEED, speed);
-			broadcast.putExtra(EXTRA_DISTANCE, distance);
-			broadcast.putExtra(EXTRA_TOTAL_DISTANCE, totalDistance);
-			LocalBroadcastManager.getInstance(this).sendBroadcast(broadcast);
+			mRecorder.record(mCalculator.getSpeed(), mCalculator.getDistance(), mCalculator.getTotalDistance(), Float.NaN, Float.NaN);
 		}
-		mLastWheelRevolutions = wheelRevolutions;
-		mLastWheelEventTime = lastWheelEventTime;
 	}
 
 	@Override
 	public void onCrankMeasurementReceived(int crankRevolutions, int lastCrankEventTime) {
 		Logger.a(getLogSession(), "Crank rev: " + crankRevolutions + "\nLast crank event time: " + lastCrankEventTime + " ms");
 
-		if (mLastCrankEventTime == lastCrankEventTime)
-			return;
+		if (mCalculator.onCrankMeasurement(crankRevolutions, lastCrankEventTime)) {
+			mCrankEvent.set(mCalculator.getGearRatio(), (int) mCalculator.getCrankCadence());
 
-		if (mLastCrankRevolutions >= 0) {
-			float timeDifference;
-			if (lastCrankEventTime < mLastCrankEventTime)
-				timeDifference = (65535 + lastCrankEventTime - mLastCrankEventTime) / 1024.0f; // [s]
-			else
-				timeDifference = (lastCrankEventTime - mLastCrankEventTime) / 1024.0f; // [s]
-
-			final float crankCadence = (crankRevolutions - mLastCrankRevolutions) * 60.0f / timeDifference;
-			if (crankCadence > 0) {
-				final float gearRatio = mWheelCadence / crankCadence;
-
-				final Intent broadcast = new Intent(BROADCAST_CRANK_DATA);
-				broadcast.putExtra(EXTRA_GEAR_RATIO, gearRatio);
-				broadcast.putExtra(EXTRA_CADENCE, (int) crankCadence);
-				LocalBroadcastManager.getInstance(this).sendBroadcast(broadcast);
-			}
+			mRecorder.record(Float.NaN, Float.NaN, Float.NaN, mCalculator.getCrankCadence(), mCalculator.getGearRatio());
 		}
-		mLastCrankRevolutions = crankRevolutions;
-		mLastCrankEventTime = lastCrankEventTime;
 	}
 
 	/**
@@ -114,7 +114,7 @@ public class GlucoseActivity extends BleProfileExpandableListActivity implements
 			mGlucoseManager.getFirstRecord();
 			break;
 		case R.id.action_clear:
-			mGlucoseManager.clear();
+			mGlucoseManager.deleteStoredRecords();
 			break;
 		case R.id.action_delete_all:
 			mGlucoseManager.deleteAllRecords();
@@ -206,6 +206,12 @@ public class GlucoseActivity extends BleProfileExpandableListActivity implements
 		onOperationFailed();
 	}
 
+	@Override
+	public void onOperationTimeout(final String message) {
+		super.onOperationTimeout(message);
+		onOperationFailed();
+	}
+
 	@Override
 	public void onDatasetChanged() {
 		runOnUiThread(new Runnable() {
@@ -0,0 +1,296 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.gls;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.provider.BaseColumns;
+import android.util.SparseArray;
+
+import java.util.Calendar;
+
+/**
+ * Stores glucose records of each device, so that they don't have to be downloaded again in the next session.
+ * Records are identified by the device address and the sequence number, see {@link #getLastSequenceNumber(String)}.
+ * <p>The methods do disk I/O and should be called on the manager's thread, never on the UI thread.</p>
+ */
+public class GlucoseDatabaseHelper {
+	/** Database file name */
+	private static final String DATABASE_NAME = "toolbox_gls.db";
+	/** Database version */
+	private static final int DATABASE_VERSION = 1;
+
+	private interface Tables {
+		/** Glucose records table. See {@link RecordColumns} for column names. */
+		public static final String RECORDS = "records";
+	}
+
+	private interface RecordColumns extends BaseColumns {
+		/** The device address */
+		public static final String DEVICE = "device";
+		public static final String SEQUENCE_NUMBER = "sequence_number";
+		/** The base time in milliseconds */
+		public static final String TIME = "time";
+		public static final String TIME_OFFSET = "time_offset";
+		public static final String CONCENTRATION = "concentration";
+		public static final String UNIT = "unit";
+		public static final String TYPE = "type";
+		public static final String SAMPLE_LOCATION = "sample_location";
+		public static final String STATUS = "status";
+		/** 1 if the measurement context columns below are set, 0 otherwise */
+		public static final String HAS_CONTEXT = "has_context";
+		public static final String CARBOHYDRATE_ID = "carbohydrate_id";
+		public static final String CARBOHYDRATE_UNITS = "carbohydrate_units";
+		public static final String MEAL = "meal";
+		public static final String TESTER = "tester";
+		public static final String HEALTH = "health";
+		public static final String EXERCISE_DURATION = "exercise_duration";
+		public static final String EXERCISE_INTENSITY = "exercise_intensity";
+		public static final String MEDICATION_ID = "medication_id";
+		public static final String MEDICATION_QUANTITY = "medication_quantity";
+		public static final String MEDICATION_UNIT = "medication_unit";
+		public static final String HBA1C = "hba1c";
+	}
+
+	private static final String[] RECORD_PROJECTION = new String[] { RecordColumns.SEQUENCE_NUMBER, RecordColumns.TIME, RecordColumns.TIME_OFFSET,
+			RecordColumns.CONCENTRATION, RecordColumns.UNIT, RecordColumns.TYPE, RecordColumns.SAMPLE_LOCATION, RecordColumns.STATUS, RecordColumns.HAS_CONTEXT,
+			RecordColumns.CARBOHYDRATE_ID, RecordColumns.CARBOHYDRATE_UNITS, RecordColumns.MEAL, RecordColumns.TESTER, RecordColumns.HEALTH,
+			RecordColumns.EXERCISE_DURATION, RecordColumns.EXERCISE_INTENSITY, RecordColumns.MEDICATION_ID, RecordColumns.MEDICATION_QUANTITY,
+			RecordColumns.MEDICATION_UNIT, RecordColumns.HBA1C };
+	private static final String[] MAX_SEQUENCE_NUMBER_PROJECTION = new String[] { "MAX(" + RecordColumns.SEQUENCE_NUMBER + ")" };
+
+	private static final String DEVICE_SELECTION = RecordColumns.DEVICE + "=?";
+	private static final String RECORD_SELECTION = RecordColumns.DEVICE + "=? AND " + RecordColumns.SEQUENCE_NUMBER + "=?";
+
+	/** The helper shared by all instances. It keeps the database open once it has been opened. */
+	private static SQLiteHelper mDatabaseHelper;
+
+	private final Context mContext;
+
+	/**
+	 * Creates the store. The database is not opened here, but on the first call of any other method, as opening may create or upgrade it.
+	 *
+	 * @param context the context
+	 */
+	public GlucoseDatabaseHelper(final Context context) {
+		mContext = context.getApplicationContext();
+	}
+
+	private SQLiteDatabase getDatabase() {
+		return getDatabaseHelper(mContext).getWritableDatabase();
+	}
+
+	private static synchronized SQLiteHelper getDatabaseHelper(final Context context) {
+		if (mDatabaseHelper == null)
+			mDatabaseHelper = new SQLiteHelper(context);
+		return mDatabaseHelper;
+	}
+
+	/**
+	 * Returns the highest sequence number of the records stored for the device. Records with higher numbers have not been downloaded yet.
+	 *
+	 * @param device the device address
+	 * @return the sequence number or -1 if there are no records of this device
+	 */
+	public int getLastSequenceNumber(final String device) {
+		final Cursor cursor = getDatabase().query(Tables.RECORDS, MAX_SEQUENCE_NUMBER_PROJECTION, DEVICE_SELECTION, new String[] { device }, null, null, null);
+		try {
+			if (cursor.moveToNext() && !cursor.isNull(0))
+				return cursor.getInt(0);
+			return -1;
+		} finally {
+			cursor.close();
+		}
+	}
+
+	/**
+	 * Reads all records of the device into the given array, where the sequence number is the key.
+	 *
+	 * @param device  the device address
+	 * @param records the array to put the records to
+	 */
+	public void loadRecords(final String device, final SparseArray<GlucoseRecord> records) {
+		final Cursor cursor = getDatabase().query(Tables.RECORDS, RECORD_PROJECTION, DEVICE_SELECTION, new String[] { device }, null, null, RecordColumns.SEQUENCE_NUMBER + " ASC");
+		try {
+			while (cursor.moveToNext()) {
+				final GlucoseRecord record = new GlucoseRecord();
+				record.sequenceNumber = cursor.getInt(0);
+				record.time = Calendar.getInstance();
+				record.time.setTimeInMillis(cursor.getLong(1));
+				record.timeOffset = cursor.getInt(2);
+				record.glucoseConcentration = cursor.getFloat(3);
+				record.unit = cursor.getInt(4);
+				record.type = cursor.getInt(5);
+				record.sampleLocation = cursor.getInt(6);
+				record.status = cursor.getInt(7);
+				if (cursor.getInt(8) != 0) {
+					final GlucoseRecord.MeasurementContext context = record.context = new GlucoseRecord.MeasurementContext();
+					context.carbohydrateId = cursor.getInt(9);
+					context.carbohydrateUnits = cursor.getFloat(10);
+					context.meal = cursor.getInt(11);
+					context.tester = cursor.getInt(12);
+					context.health = cursor.getInt(13);
+					context.exerciseDuration = cursor.getInt(14);
+					context.exerciseIntensity = cursor.getInt(15);
+					context.medicationId = cursor.getInt(16);
+					context.medicationQuantity = cursor.getFloat(17);
+					context.medicationUnit = cursor.getInt(18);
+					context.HbA1c = cursor.getFloat(19);
+				}
+				records.put(record.sequenceNumber, record);
+			}
+		} finally {
+			cursor.close();
+		}
+	}
+
+	/**
+	 * Saves the records and measurement contexts in a single transaction. This is much faster than saving them one by one when the whole device memory is downloaded.
+	 *
+	 * @param device   the device address
+	 * @param records  the records to be saved, with the measurement context if it has been received
+	 * @param contexts the measurement contexts of records saved before, where the sequence number is the key
+	 */
+	public void saveRecords(final String device, final SparseArray<GlucoseRecord> records, final SparseArray<GlucoseRecord.MeasurementContext> contexts) {
+		final SQLiteDatabase database = getDatabase();
+		database.beginTransaction();
+		try {
+			for (int i = 0; i < records.size(); ++i)
+				saveRecord(device, records.valueAt(i));
+			for (int i = 0; i < contexts.size(); ++i)
+				saveContext(device, contexts.keyAt(i), contexts.valueAt(i));
+			database.setTransactionSuccessful();
+		} finally {
+			database.endTransaction();
+		}
+	}
+
+	/**
+	 * Saves the record. A record with the same sequence number is replaced.
+	 *
+	 * @param device the device address
+	 * @param record the record, with or without the measurement context, see {@link #saveContext(String, int, GlucoseRecord.MeasurementContext)}
+	 * @return the row id or -1 if error occurred
+	 */
+	public long saveRecord(final String device, final GlucoseRecord record) {
+		final ContentValues values = new ContentValues();
+		values.put(RecordColumns.DEVICE, device);
+		values.put(RecordColumns.SEQUENCE_NUMBER, record.sequenceNumber);
+		values.put(RecordColumns.TIME, record.time.getTimeInMillis());
+		values.put(RecordColumns.TIME_OFFSET, record.timeOffset);
+		values.put(RecordColumns.CONCENTRATION, record.glucoseConcentration);
+		values.put(RecordColumns.UNIT, record.unit);
+		values.put(RecordColumns.TYPE, record.type);
+		values.put(RecordColumns.SAMPLE_LOCATION, record.sampleLocation);
+		values.put(RecordColumns.STATUS, record.status);
+		if (record.context != null)
+			putContext(values, record.context);
+		else
+			values.put(RecordColumns.HAS_CONTEXT, 0);
+		return getDatabase().replace(Tables.RECORDS, null, values);
+	}
+
+	/**
+	 * Saves the measurement context of the record with given sequence number.
+	 *
+	 * @param device         the device address
+	 * @param sequenceNumber the sequence number of the record
+	 * @param context        the measurement context
+	 * @return number of rows updated, 0 if the record was not found
+	 */
+	public int saveContext(final String device, final int sequenceNumber, final GlucoseRecord.MeasurementContext context) {
+		final ContentValues values = new ContentValues();
+		putContext(values, context);
+		return getDatabase().update(Tables.RECORDS, values, RECORD_SELECTION, new String[] { device, String.valueOf(sequenceNumber) });
+	}
+
+	private void putContext(final ContentValues values, final GlucoseRecord.MeasurementContext context) {
+		values.put(RecordColumns.HAS_CONTEXT, 1);
+		values.put(RecordColumns.CARBOHYDRATE_ID, context.carbohydrateId);
+		values.put(RecordColumns.CARBOHYDRATE_UNITS, context.carbohydrateUnits);
+		values.put(RecordColumns.MEAL, context.meal);
+		values.put(RecordColumns.TESTER, context.tester);
+		values.put(RecordColumns.HEALTH, context.health);
+		values.put(RecordColumns.EXERCISE_DURATION, context.exerciseDuration);
+		values.put(RecordColumns.EXERCISE_INTENSITY, context.exerciseIntensity);
+		values.put(RecordColumns.MEDICATION_ID, context.medicationId);
+		values.put(RecordColumns.MEDICATION_QUANTITY, context.medicationQuantity);
+		values.put(RecordColumns.MEDICATION_UNIT, context.medicationUnit);
+		values.put(RecordColumns.HBA1C, context.HbA1c);
+	}
+
+	/**
+	 * Removes all records of the device.
+	 *
+	 * @param device the device address
+	 * @return number of rows removed
+	 */
+	public int deleteRecords(final String device) {
+		return getDatabase().delete(Tables.RECORDS, DEVICE_SELECTION, new String[] { device });
+	}
+
+	private static class SQLiteHelper extends SQLiteOpenHelper {
+
+		/**
+		 * The SQL code that creates the Records table. The unique constraint creates the index used to find records of a device and the last sequence number.
+		 *
+		 * <pre>
+		 * ----------------------------------------------------------------------------------------------------------------------------
+		 *                                                           RECORDS
+		 * ----------------------------------------------------------------------------------------------------------------------------
+		 * | _id (int, pk, auto increment) | device (text) | sequence_number (int) | time (int) | ... | unique(device, sequence_number) |
+		 * ----------------------------------------------------------------------------------------------------------------------------
+		 * </pre>
+		 */
+		private static final String CREATE_RECORDS = "CREATE TABLE " + Tables.RECORDS + "(" + RecordColumns._ID + " INTEGER PRIMARY KEY AUTOINCREMENT, "
+				+ RecordColumns.DEVICE + " TEXT NOT NULL, " + RecordColumns.SEQUENCE_NUMBER + " INTEGER NOT NULL, " + RecordColumns.TIME + " INTEGER NOT NULL, "
+				+ RecordColumns.TIME_OFFSET + " INTEGER NOT NULL DEFAULT(0), " + RecordColumns.CONCENTRATION + " REAL NOT NULL DEFAULT(0), "
+				+ RecordColumns.UNIT + " INTEGER NOT NULL DEFAULT(0), " + RecordColumns.TYPE + " INTEGER NOT NULL DEFAULT(0), "
+				+ RecordColumns.SAMPLE_LOCATION + " INTEGER NOT NULL DEFAULT(0), " + RecordColumns.STATUS + " INTEGER NOT NULL DEFAULT(0), "
+				+ RecordColumns.HAS_CONTEXT + " INTEGER NOT NULL DEFAULT(0), " + RecordColumns.CARBOHYDRATE_ID + " INTEGER, " + RecordColumns.CARBOHYDRATE_UNITS + " REAL, "
+				+ RecordColumns.MEAL + " INTEGER, " + RecordColumns.TESTER + " INTEGER, " + RecordColumns.HEALTH + " INTEGER, "
+				+ RecordColumns.EXERCISE_DURATION + " INTEGER, " + RecordColumns.EXERCISE_INTENSITY + " INTEGER, " + RecordColumns.MEDICATION_ID + " INTEGER, "
+				+ RecordColumns.MEDICATION_QUANTITY + " REAL, " + RecordColumns.MEDICATION_UNIT + " INTEGER, " + RecordColumns.HBA1C + " REAL, "
+				+ "UNIQUE(" + RecordColumns.DEVICE + ", " + RecordColumns.SEQUENCE_NUMBER + "))";
+
+		public SQLiteHelper(Context context) {
+			super(context, DATABASE_NAME, null, DATABASE_VERSION);
+		}
+
+		@Override
+		public void onCreate(final SQLiteDatabase db) {
+			db.execSQL(CREATE_RECORDS);
+		}
+
+		@Override
+		public void onUpgrade(final SQLiteDatabase db, final int oldVersion, final int newVersion) {
+			// This method does nothing for now.
+			switch (oldVersion) {
+				case 1:
+					// do nothing
+			}
+		}
+	}
+}
@@ -26,6 +26,7 @@ import android.bluetooth.BluetoothGattCharacteristic;
 import android.bluetooth.BluetoothGattService;
 import android.content.Context;
 import android.os.Handler;
+import android.os.Looper;
 import android.util.SparseArray;
 
 import java.util.Calendar;
@@ -34,11 +35,12 @@ import java.util.LinkedList;
 import java.util.Queue;
 import java.util.UUID;
 
-import no.nordicsemi.android.log.Logger;
+import no.nordicsemi.android.log.LogContract;
 import no.nordicsemi.android.nrftoolbox.profile.BleManager;
 import no.nordicsemi.android.nrftoolbox.parser.GlucoseMeasurementContextParser;
 import no.nordicsemi.android.nrftoolbox.parser.GlucoseMeasurementParser;
 import no.nordicsemi.android.nrftoolbox.parser.RecordAccessControlPointParser;
+import no.nordicsemi.android.nrftoolbox.utility.DataReader;
 import no.nordicsemi.android.nrftoolbox.utility.DebugLogger;
 
 @SuppressWarnings("unused")
@@ -60,52 +62,33 @@ public class GlucoseManager extends BleManager<GlucoseManagerCallbacks> {
 
     private static final UUID CURRENT_TIME_CHARACTERISTIC = UUID.fromString("00002A2B-0000-1000-8000-00805f9b34fb");
 
-	private final static int OP_CODE_REPORT_STORED_RECORDS = 1;
-	private final static int OP_CODE_DELETE_STORED_RECORDS = 2;
-	private final static int OP_CODE_ABORT_OPERATION = 3;
-	private final static int OP_CODE_REPORT_NUMBER_OF_RECORDS = 4;
-	private final static int OP_CODE_NUMBER_OF_STORED_RECORDS_RESPONSE = 5;
-	private final static int OP_CODE_RESPONSE_CODE = 6;
-
-	private final static int OPERATOR_NULL = 0;
-	private final static int OPERATOR_ALL_RECORDS = 1;
-	private final static int OPERATOR_LESS_THEN_OR_EQUAL = 2;
-	private final static int OPERATOR_GREATER_THEN_OR_EQUAL = 3;
-	private final static int OPERATOR_WITHING_RANGE = 4;
-	private final static int OPERATOR_FIRST_RECORD = 5;
-	private final static int OPERATOR_LAST_RECORD = 6;
-
-	/**
-	 * The filter type is used for range operators ({@link #OPERATOR_LESS_THEN_OR_EQUAL}, {@link #OPERATOR_GREATER_THEN_OR_EQUAL}, {@link #OPERATOR_WITHING_RANGE}.<br/>
-	 * The syntax of the operand is: [Filter Type][Minimum][Maximum].<br/>
-	 * This filter selects the records by the sequence number.
-	 */
-	private final static int FILTER_TYPE_SEQUENCE_NUMBER = 1;
-	/**
-	 * The filter type is used for range operators ({@link #OPERATOR_LESS_THEN_OR_EQUAL}, {@link #OPERATOR_GREATER_THEN_OR_EQUAL}, {@link #OPERATOR_WITHING_RANGE}.<br/>
-	 * The syntax of the operand is: [Filter Type][Minimum][Maximum].<br/>
-	 * This filter selects the records by the user facing time (base time + offset time).
-	 */
-	private final static int FILTER_TYPE_USER_FACING_TIME = 2;
-
-	private final static int RESPONSE_SUCCESS = 1;
-	private final static int RESPONSE_OP_CODE_NOT_SUPPORTED = 2;
-	private final static int RESPONSE_INVALID_OPERATOR = 3;
-	private final static int RESPONSE_OPERATOR_NOT_SUPPORTED = 4;
-	private final static int RESPONSE_INVALID_OPERAND = 5;
-	private final static int RESPONSE_NO_RECORDS_FOUND = 6;
-	private final static int RESPONSE_ABORT_UNSUCCESSFUL = 7;
-	private final static int RESPONSE_PROCEDURE_NOT_COMPLETED = 8;
-	private final static int RESPONSE_OPERAND_NOT_SUPPORTED = 9;
-
 	private BluetoothGattCharacteristic mGlucoseMeasurementCharacteristic;
 	private BluetoothGattCharacteristic mGlucoseMeasurementContextCharacteristic;
 	private BluetoothGattCharacteristic mRecordAccessControlPointCharacteristic;
     private BluetoothGattCharacteristic mDateTimeCharacteristic;
 
 	private final SparseArray<GlucoseRecord> mRecords = new SparseArray<>();
+	/** The local record store. Records are saved on the manager's thread as they are received, so only newer ones have to be requested in the next session */
+	private final GlucoseDatabaseHelper mDatabaseHelper;
+	/** The maximum number of records saved and inserted into {@link #mRecords} together */
+	private static final int BATCH_SIZE = 50;
+	/** The maximum time in milliseconds a received record waits for the rest of its batch */
+	private static final long BATCH_TIMEOUT = 250;
+	/** Records parsed on the manager's thread, waiting to be saved and inserted into {@link #mRecords} on the UI thread. Used only on the manager's thread. */
+	private final SparseArray<GlucoseRecord> mBatchRecords = new SparseArray<>();
+	/** Measurement contexts of records from previous batches, where the sequence number is the key. Used only on the manager's thread. */
+	private final SparseArray<GlucoseRecord.MeasurementContext> mBatchContexts = new SparseArray<>();
+	private boolean mFlushBatchScheduled;
 	private boolean mAbort;
+	/** The UI thread handler. Records are parsed on the manager's thread, see {@link #getHandler()} */
 	private Handler mHandler;
+
+	private final Runnable mFlushBatchTask = new Runnable() {
+		@Override
+		public void run() {
+			flushBatch();
+		}
+	};
 	private static GlucoseManager mInstance;
 
 	/**
@@ -117,9 +100,40 @@ public class GlucoseManager extends BleManager<GlucoseManagerCallbacks> {
 		return mInstance;
 	}
 
+	private static final ValueFormatter GM_FORMATTER = new ValueFormatter() {
+		@Override
+		public String format(final byte[] data) {
+			return GlucoseMeasurementParser.parse(data);
+		}
+	};
+	private static final ValueFormatter GM_CONTEXT_FORMATTER = new ValueFormatter() {
+		@Override
+		public String format(final byte[] data) {
+			return GlucoseMeasurementContextParser.parse(data);
+		}
+	};
+	private static final ValueFormatter RACP_FORMATTER = new ValueFormatter() {
+		@Override
+		public String format(final byte[] data) {
+			return RecordAccessControlPointParser.parse(data);
+		}
+	};
+
 	public GlucoseManager(final Context context) {
 		super(context);
-		mHandler = new Handler();
+		mHandler = new Handler(Looper.getMainLooper());
+		mDatabaseHelper = new GlucoseDatabaseHelper(context);
+	}
+
+	@Override
+	protected int getInitializationConnectionPriority() {
+		return BluetoothGatt.CONNECTION_PRIORITY_HIGH;
+	}
+
+	@Override
+	protected int getReadyConnectionPriority() {
+		// High priority is requested again for the time of each Record Access Control Point operation
+		return BluetoothGatt.CONNECTION_PRIORITY_BALANCED;
 	}
 
 	@Override
@@ -146,13 +160,13 @@ public class GlucoseManager extends BleManager<GlucoseManagerCallbacks> {
 
 		@Override
 		public boolean isRequiredServiceSupported(final BluetoothGatt gatt) {
-			final BluetoothGattService service = gatt.getService(GLS_SERVICE_UUID);
+			final BluetoothGattService service = getService(GLS_SERVICE_UUID);
 			if (service != null) {
 				mGlucoseMeasurementCharacteristic = service.getCharacteristic(GM_CHARACTERISTIC);
 				mGlucoseMeasurementContextCharacteristic = service.getCharacteristic(GM_CONTEXT_CHARACTERISTIC);
 				mRecordAccessControlPointCharacteristic = service.getCharacteristic(RACP_CHARACTERISTIC);
 			}
-            final BluetoothGattService mCurrentTime = gatt.getService(CURRENT_TIME);
+            final BluetoothGattService mCurrentTime = getService(CURRENT_TIME);
             if (mCurrentTime != null) {
                 mDateTimeCharacteristic = mCurrentTime.getCharacteristic(CURRENT_TIME_CHARACTERISTIC);
             }
@@ -164,8 +178,27 @@ public class GlucoseManager extends BleManager<GlucoseManagerCallbacks> {
 			return mGlucoseMeasurementContextCharacteristic != null;
 		}
 
+		@Override
+		protected void onDeviceReady() {
+			// Show the records stored in the previous sessions. They are read here, on the manager's thread, and inserted into the data set on the UI thread.
+			final SparseArray<GlucoseRecord> records = new SparseArray<>();
+			mDatabaseHelper.loadRecords(getAddress(), records);
+			if (records.size() > 0) {
+				mHandler.post(new Runnable() {
+					@Override
+					public void run() {
+						for (int i = 0; i < records.size(); ++i)
+							mRecords.put(records.keyAt(i), records.valueAt(i));
+						mCallbacks.onDatasetChanged();
+					}
+				});
+			}
+			super.onDeviceReady();
+		}
+
 		@Override
 		protected void onDeviceDisconnected() {
+			flushBatch();
 			mGlucoseMeasurementCharacteristic = null;
 			mGlucoseMeasurementContextCharacteristic = null;
 			mRecordAccessControlPointCharacteristic = null;
@@ -173,34 +206,32 @@ public class GlucoseManager extends BleManager<GlucoseManagerCallbacks> {
         }
 
 		@Override
-		public void onCharacteristicNotified(BluetoothGatt gatt, BluetoothGattCharacteristic characteristic) {
+		public void onCharacteristicNotified(final BluetoothGatt gatt, final BluetoothGattCharacteristic characteristic, final byte[] data) {
 			final UUID uuid = characteristic.getUuid();
 
 			if (GM_CHARACTERISTIC.equals(uuid)) {
-				if (mLogSession != null)
-					Logger.a(mLogSession, GlucoseMeasurementParser.parse(characteristic));
+				log(LogContract.Log.Level.APPLICATION, GM_FORMATTER, data);
 
 				int offset = 0;
-				final int flags = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT8, offset);
+				final int flags = DataReader.uint8(data, offset);
 				offset += 1;
 
 				final boolean timeOffsetPresent = (flags & 0x01) > 0;
 				final boolean typeAndLocationPresent = (flags & 0x02) > 0;
 				final int concentrationUnit = (flags & 0x04) > 0 ? GlucoseRecord.UNIT_molpl : GlucoseRecord.UNIT_kgpl;
 				final boolean sensorStatusAnnunciationPresent = (flags & 0x08) > 0;
-				final boolean contextInfoFollows = (flags & 0x10) > 0;
 
 				// create and fill the new record
 				final GlucoseRecord record = new GlucoseRecord();
-				record.sequenceNumber = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT16, offset);
+				record.sequenceNumber = DataReader.uint16(data, offset);
 				offset += 2;
 
-				final int year = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT16, offset);
-				final int month = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT8, offset + 2) - 1; // months are 1-based
-				final int day = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT8, offset + 3);
-				final int hours = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT8, offset + 4);
-				final int minutes = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT8, offset + 5);
-				final int seconds = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT8, offset + 6);
+				final int year = DataReader.uint16(data, offset);
+				final int month = DataReader.uint8(data, offset + 2) - 1; // months are 1-based
+				final int day = DataReader.uint8(data, offset + 3);
+				final int hours = DataReader.uint8(data, offset + 4);
+				final int minutes = DataReader.uint8(data, offset + 5);
+				final int seconds = DataReader.uint8(data, offset + 6);
 				offset += 7;
 
 				final Calendar calendar = Calendar.getInstance();
@@ -209,21 +240,21 @@ public class GlucoseManager extends BleManager<GlucoseManagerCallbacks> {
 
 				if (timeOffsetPresent) {
 					// time offset is ignored in the current release
-					record.timeOffset = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_SINT16, offset);
+					record.timeOffset = DataReader.sint16(data, offset);
 					offset += 2;
 				}
 
 				if (typeAndLocationPresent) {
-					record.glucoseConcentration = characteristic.getFloatValue(BluetoothGattCharacteristic.FORMAT_SFLOAT, offset);
+					record.glucoseConcentration = DataReader.sfloat(data, offset);
 					record.unit = concentrationUnit;
-					final int typeAndLocation = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT8, offset + 2);
+					final int typeAndLocation = DataReader.uint8(data, offset + 2);
 					record.type = (typeAndLocation & 0xF0) >> 4; // TODO this way or around?
 					record.sampleLocation = (typeAndLocation & 0x0F);
 					offset += 3;
 				}
 
 				if (sensorStatusAnnunciationPresent) {
-					record.status = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT16, offset);
+					record.status = DataReader.uint16(data, offset);
 				}
 				// This allows you to check other values that are not provided by the Nordic Semiconductor's Glucose Service in SDK 4.4.2.
 				//				record.status = 0x1A;
@@ -241,24 +272,16 @@ public class GlucoseManager extends BleManager<GlucoseManagerCallbacks> {
 				//				record.context.medicationUnit = GlucoseRecord.MeasurementContext.UNIT_kg;
 				//				record.context.HbA1c = 213.3f;
 
-				// data set modifications must be done in UI thread
-				mHandler.post(new Runnable() {
-					@Override
-					public void run() {
-						// insert the new record to storage
-						mRecords.put(record.sequenceNumber, record);
-
-						// if there is no context information following the measurement data, notify callback about the new record
-						if (!contextInfoFollows)
-							mCallbacks.onDatasetChanged();
-					}
-				});
+				mBatchRecords.put(record.sequenceNumber, record);
+				if (mBatchRecords.size() >= BATCH_SIZE)
+					flushBatch();
+				else
+					scheduleFlushBatch();
 			} else if (GM_CONTEXT_CHARACTERISTIC.equals(uuid)) {
-				if (mLogSession != null)
-					Logger.a(mLogSession, GlucoseMeasurementContextParser.parse(characteristic));
+				log(LogContract.Log.Level.APPLICATION, GM_CONTEXT_FORMATTER, data);
 
 				int offset = 0;
-				final int flags = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT8, offset);
+				final int flags = DataReader.uint8(data, offset);
 				offset += 1;
 
 				final boolean carbohydratePresent = (flags & 0x01) > 0;
@@ -270,105 +293,108 @@ public class GlucoseManager extends BleManager<GlucoseManagerCallbacks> {
 				final boolean hbA1cPresent = (flags & 0x40) > 0;
 				final boolean moreFlagsPresent = (flags & 0x80) > 0;
 
-				final int sequenceNumber = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT16, offset);
+				final int sequenceNumber = DataReader.uint16(data, offset);
 				offset += 2;
 
-				final GlucoseRecord record = mRecords.get(sequenceNumber);
-				if (record == null) {
-					DebugLogger.w(TAG, "Context information with unknown sequence number: " + sequenceNumber);
-					return;
-				}
-
 				final GlucoseRecord.MeasurementContext context = new GlucoseRecord.MeasurementContext();
-				record.context = context;
 
 				if (moreFlagsPresent)
 					offset += 1;
 
 				if (carbohydratePresent) {
-					context.carbohydrateId = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT8, offset);
-					context.carbohydrateUnits = characteristic.getFloatValue(BluetoothGattCharacteristic.FORMAT_SFLOAT, offset + 1);
+					context.carbohydrateId = DataReader.uint8(data, offset);
+					context.carbohydrateUnits = DataReader.sfloat(data, offset + 1);
 					offset += 3;
 				}
 
 				if (mealPresent) {
-					context.meal = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT8, offset);
+					context.meal = DataReader.uint8(data, offset);
 					offset += 1;
 				}
 
 				if (testerHealthPresent) {
-					final int testerHealth = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT8, offset);
+					final int testerHealth = DataReader.uint8(data, offset);
 					context.tester = (testerHealth & 0xF0) >> 4;
 					context.health = (testerHealth & 0x0F);
 					offset += 1;
 				}
 
 				if (exercisePresent) {
-					context.exerciseDuration = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT16, offset);
-					context.exerciseIntensity = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT8, offset + 2);
+					context.exerciseDuration = DataReader.uint16(data, offset);
+					context.exerciseIntensity = DataReader.uint8(data, offset + 2);
 					offset += 3;
 				}
 
 				if (medicationPresent) {
-					context.medicationId = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT8, offset);
-					context.medicationQuantity = characteristic.getFloatValue(BluetoothGattCharacteristic.FORMAT_SFLOAT, offset + 1);
+					context.medicationId = DataReader.uint8(data, offset);
+					context.medicationQuantity = DataReader.sfloat(data, offset + 1);
 					context.medicationUnit = medicationUnit;
 					offset += 3;
 				}
 
 				if (hbA1cPresent) {
-					context.HbA1c = characteristic.getFloatValue(BluetoothGattCharacteristic.FORMAT_SFLOAT, offset);
+					context.HbA1c = DataReader.sfloat(data, offset);
 				}
 
-				// notify callback about the new record
-				mCallbacks.onDatasetChanged();
+				// The measurement has been received before. It is either in the current batch or has been saved with a previous one.
+				final GlucoseRecord record = mBatchRecords.get(sequenceNumber);
+				if (record != null)
+					record.context = context;
+				else
+					mBatchContexts.put(sequenceNumber, context);
+				scheduleFlushBatch();
 			}
 		}
 
 		@Override
-		protected void onCharacteristicIndicated(final BluetoothGatt gatt, final BluetoothGattCharacteristic characteristic) {
-			if (mLogSession != null)
-				Logger.a(mLogSession, RecordAccessControlPointParser.parse(characteristic));
+		protected void onCharacteristicIndicated(final BluetoothGatt gatt, final BluetoothGattCharacteristic characteristic, final byte[] data) {
+			log(LogContract.Log.Level.APPLICATION, RACP_FORMATTER, data);
 
 			// Record Access Control Point characteristic
 			int offset = 0;
-			final int opCode = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT8, offset);
+			final int opCode = DataReader.uint8(data, offset);
 			offset += 2; // skip the operator
 
-			if (opCode == OP_CODE_NUMBER_OF_STORED_RECORDS_RESPONSE) {
+			// All records requested before have been received
+			flushBatch();
+
+			if (opCode == RecordAccessControlPoint.OP_CODE_NUMBER_OF_STORED_RECORDS_RESPONSE) {
 				// We've obtained the number of all records
-				final int number = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT16, offset);
+				final int number = DataReader.uint16(data, offset);
 
 				mCallbacks.onNumberOfRecordsRequested(number);
 
 				// Request the records
 				if (number > 0) {
 					final BluetoothGattCharacteristic racpCharacteristic = mRecordAccessControlPointCharacteristic;
-					setOpCode(racpCharacteristic, OP_CODE_REPORT_STORED_RECORDS, OPERATOR_ALL_RECORDS);
-					writeCharacteristic(racpCharacteristic);
+					racpCharacteristic.setValue(RecordAccessControlPoint.createOperation(RecordAccessControlPoint.OP_CODE_REPORT_STORED_RECORDS, RecordAccessControlPoint.OPERATOR_ALL_RECORDS));
+					writeRacpOperation(racpCharacteristic);
 				} else {
+					requestConnectionPriority(getReadyConnectionPriority());
 					mCallbacks.onOperationCompleted();
 				}
-			} else if (opCode == OP_CODE_RESPONSE_CODE) {
-				final int requestedOpCode = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT8, offset);
-				final int responseCode = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT8, offset + 1);
+			} else if (opCode == RecordAccessControlPoint.OP_CODE_RESPONSE_CODE) {
+				final int requestedOpCode = DataReader.uint8(data, offset);
+				final int responseCode = DataReader.uint8(data, offset + 1);
 				DebugLogger.d(TAG, "Response result for: " + requestedOpCode + " is: " + responseCode);
+				// The operation has finished, the records are no longer being transferred
+				requestConnectionPriority(getReadyConnectionPriority());
 
 				switch (responseCode) {
-				case RESPONSE_SUCCESS:
+				case RecordAccessControlPoint.RESPONSE_SUCCESS:
 					if (!mAbort)
 						mCallbacks.onOperationCompleted();
 					else
 						mCallbacks.onOperationAborted();
 					break;
-				case RESPONSE_NO_RECORDS_FOUND:
+				case RecordAccessControlPoint.RESPONSE_NO_RECORDS_FOUND:
 					mCallbacks.onOperationCompleted();
 					break;
-				case RESPONSE_OP_CODE_NOT_SUPPORTED:
+				case RecordAccessControlPoint.RESPONSE_OP_CODE_NOT_SUPPORTED:
 					mCallbacks.onOperationNotSupported();
 					break;
-				case RESPONSE_PROCEDURE_NOT_COMPLETED:
-				case RESPONSE_ABORT_UNSUCCESSFUL:
+				case RecordAccessControlPoint.RESPONSE_PROCEDURE_NOT_COMPLETED:
+				case RecordAccessControlPoint.RESPONSE_ABORT_UNSUCCESSFUL:
 				default:
 					mCallbacks.onOperationFailed();
 					break;
@@ -378,69 +404,72 @@ public class GlucoseManager extends BleManager<GlucoseManagerCallbacks> {
 		}
 	};
 
+	private void scheduleFlushBatch() {
+		if (!mFlushBatchScheduled)
+			mFlushBatchScheduled = getHandler().postDelayed(mFlushBatchTask, BATCH_TIMEOUT);
+	}
+
 	/**
-	 * Writes given operation parameters to the characteristic
-	 * 
-	 * @param characteristic
-	 *            the characteristic to write. This must be the Record Access Control Point characteristic
-	 * @param opCode
-	 *            the operation code
-	 * @param operator
-	 *            the operator (see {@link #OPERATOR_NULL} and others
-	 * @param params
-	 *            optional parameters (one for >=, <=, two for the range, none for other operators)
+	 * Saves the received records and measurement contexts in one transaction and inserts them into {@link #mRecords} on the UI thread, followed by a single
+	 * {@link GlucoseManagerCallbacks#onDatasetChanged()} call. Must be called on the manager's thread.
 	 */
-	private void setOpCode(final BluetoothGattCharacteristic characteristic, final int opCode, final int operator, final Integer... params) {
-		final int size = 2 + ((params.length > 0) ? 1 : 0) + params.length * 2; // 1 byte for opCode, 1 for operator, 1 for filter type (if parameters exists) and 2 for each parameter
-		characteristic.setValue(new byte[size]);
-
-		// write the operation code
-		int offset = 0;
-		characteristic.setValue(opCode, BluetoothGattCharacteristic.FORMAT_UINT8, offset);
-		offset += 1;
-
-		// write the operator. This is always present but may be equal to OPERATOR_NULL
-		characteristic.setValue(operator, BluetoothGattCharacteristic.FORMAT_UINT8, offset);
-		offset += 1;
-
-		// if parameters exists, append them. Parameters should be sorted from minimum to maximum. Currently only one or two params are allowed
-		if (params.length > 0) {
-			// our implementation use only sequence number as a filer type
-			characteristic.setValue(FILTER_TYPE_SEQUENCE_NUMBER, BluetoothGattCharacteristic.FORMAT_UINT8, offset);
-			offset += 1;
-
-			for (final Integer i : params) {
-				characteristic.setValue(i, BluetoothGattCharacteristic.FORMAT_UINT16, offset);
-				offset += 2;
-			}
+	private void flushBatch() {
+		if (mFlushBatchScheduled) {
+			getHandler().removeCallbacks(mFlushBatchTask);
+			mFlushBatchScheduled = false;
 		}
-	}
-
-    private void setOpCodeFilter(final BluetoothGattCharacteristic characteristic, final int opCode, final int operator, final Integer... params) {
-        final int size = 2 + ((params.length > 0) ? 1 : 0) + params.length; // 1 byte for opCode, 1 for operator, 1 for filter type (if parameters exists) and 2 for each parameter
-        characteristic.setValue(new byte[size]);
-
-        // write the operation code
-        int offset = 0;
-        characteristic.setValue(opCode, BluetoothGattCharacteristic.FORMAT_UINT8, offset);
-        offset += 1;
+		if (mBatchRecords.size() == 0 && mBatchContexts.size() == 0)
+			return;
 
-        // write the operator. This is always present but may be equal to OPERATOR_NULL
-        characteristic.setValue(operator, BluetoothGattCharacteristic.FORMAT_UINT8, offset);
-        offset += 1;
+		final SparseArray<GlucoseRecord> records = mBatchRecords.clone();
+		final SparseArray<GlucoseRecord.MeasurementContext> contexts = mBatchContexts.clone();
+		mBatchRecords.clear();
+		mBatchContexts.clear();
+		mDatabaseHelper.saveRecords(getAddress(), records, contexts);
+
+		// data set modifications must be done in UI thread
+		mHandler.post(new Runnable() {
+			@Override
+			public void run() {
+				for (int i = 0; i < records.size(); ++i)
+					mRecords.put(records.keyAt(i), records.valueAt(i));
+				for (int i = 0; i < contexts.size(); ++i) {
+					final int sequenceNumber = contexts.keyAt(i);
+					final GlucoseRecord record = mRecords.get(sequenceNumber);
+					if (record == null) {
+						DebugLogger.w(TAG, "Context information with unknown sequence number: " + sequenceNumber);
+						continue;
+					}
+					record.context = contexts.valueAt(i);
+				}
+				mCallbacks.onDatasetChanged();
+			}
+		});
+	}
 
-        // if parameters exists, append them. Parameters should be sorted from minimum to maximum. Currently only one or two params are allowed
-        if (params.length > 0) {
-            // our implementation use only sequence number as a filer type
-            characteristic.setValue(FILTER_TYPE_USER_FACING_TIME, BluetoothGattCharacteristic.FORMAT_UINT8, offset);
-            offset += 1;
+	/**
+	 * Removes the records and measurement contexts waiting in the current batch without saving them. Must be called on the manager's thread.
+	 */
+	private void discardBatch() {
+		if (mFlushBatchScheduled) {
+			getHandler().removeCallbacks(mFlushBatchTask);
+			mFlushBatchScheduled = false;
+		}
+		mBatchRecords.clear();
+		mBatchContexts.clear();
+	}
 
-            for (final Integer i : params) {
-                characteristic.setValue(i, BluetoothGattCharacteristic.FORMAT_UINT8, offset);
-                offset += 1;
-            }
-        }
-    }
+	/**
+	 * Writes the Record Access Control Point operation. The records are sent one by one in separate notifications, so the high connection priority
+	 * is requested for the time of the operation. The ready connection priority is restored when the response has been received.
+	 *
+	 * @param characteristic
+	 *            the Record Access Control Point characteristic with the operation set
+	 */
+	private void writeRacpOperation(final BluetoothGattCharacteristic characteristic) {
+		requestConnectionPriority(BluetoothGatt.CONNECTION_PRIORITY_HIGH);
+		writeCharacteristic(characteristic);
+	}
 
 	/**
 	 * Returns all records as a sparse array where sequence number is the key.
@@ -452,16 +481,40 @@ public class GlucoseManager extends BleManager<GlucoseManagerCallbacks> {
 	}
 
 	/**
-	 * Clears the records list locally
+	 * Clears the records list locally. The records stored for the device are kept, see {@link #deleteStoredRecords()}.
 	 */
 	public void clear() {
 		mRecords.clear();
 		mCallbacks.onDatasetChanged();
 	}
 
+	/**
+	 * Clears the records list and removes all records stored locally for the current device. The next {@link #refreshRecords()} will download all records again.
+	 * Records received but not saved yet are discarded, so that the pending batch does not insert them again.
+	 */
+	public void deleteStoredRecords() {
+		final String address = getAddress();
+		getHandler().post(new Runnable() {
+			@Override
+			public void run() {
+				discardBatch();
+				if (address != null)
+					mDatabaseHelper.deleteRecords(address);
+
+				// Batches flushed before have already been posted to the UI thread, the list is cleared after them
+				mHandler.post(new Runnable() {
+					@Override
+					public void run() {
+						clear();
+					}
+				});
+			}
+		});
+	}
+
 	/**
 	 * Sends the request to obtain the last (most recent) record from glucose device. The data will be returned to Glucose Measurement characteristic as a notification followed by Record Access
-	 * Control Point indication with status code ({@link #RESPONSE_SUCCESS} or other in case of error.
+	 * Control Point indication with status code ({@link RecordAccessControlPoint#RESPONSE_SUCCESS} or other in case of error.
 	 */
 	public void getLastRecord() {
 		if (mRecordAccessControlPointCharacteristic == null)
@@ -471,13 +524,13 @@ public class GlucoseManager extends BleManager<GlucoseManagerCallbacks> {
 		mCallbacks.onOperationStarted();
 
 		final BluetoothGattCharacteristic characteristic = mRecordAccessControlPointCharacteristic;
-		setOpCode(characteristic, OP_CODE_REPORT_STORED_RECORDS, OPERATOR_LAST_RECORD);
-		writeCharacteristic(characteristic);
+		characteristic.setValue(RecordAccessControlPoint.createOperation(RecordAccessControlPoint.OP_CODE_REPORT_STORED_RECORDS, RecordAccessControlPoint.OPERATOR_LAST_RECORD));
+		writeRacpOperation(characteristic);
 	}
 
 	/**
 	 * Sends the request to obtain the first (oldest) record from glucose device. The data will be returned to Glucose Measurement characteristic as a notification followed by Record Access Control
-	 * Point indication with status code ({@link #RESPONSE_SUCCESS} or other in case of error.
+	 * Point indication with status code ({@link RecordAccessControlPoint#RESPONSE_SUCCESS} or other in case of error.
 	 */
 	public void getFirstRecord() {
 		if (mRecordAccessControlPointCharacteristic == null)
@@ -487,13 +540,13 @@ public class GlucoseManager extends BleManager<GlucoseManagerCallbacks> {
 		mCallbacks.onOperationStarted();
 
 		final BluetoothGattCharacteristic characteristic = mRecordAccessControlPointCharacteristic;
-		setOpCode(characteristic, OP_CODE_REPORT_STORED_RECORDS, OPERATOR_FIRST_RECORD);
-		writeCharacteristic(characteristic);
+		characteristic.setValue(RecordAccessControlPoint.createOperation(RecordAccessControlPoint.OP_CODE_REPORT_STORED_RECORDS, RecordAccessControlPoint.OPERATOR_FIRST_RECORD));
+		writeRacpOperation(characteristic);
 	}
 
 	/**
-	 * Sends the request to obtain all records from glucose device. Initially we want to notify him/her about the number of the records so the {@link #OP_CODE_REPORT_NUMBER_OF_RECORDS} is send. The
-	 * data will be returned to Glucose Measurement characteristic as a notification followed by Record Access Control Point indication with status code ({@link #RESPONSE_SUCCESS} or other in case of
+	 * Sends the request to obtain all records from glucose device. Initially we want to notify him/her about the number of the records so the {@link RecordAccessControlPoint#OP_CODE_REPORT_NUMBER_OF_RECORDS} is send. The
+	 * data will be returned to Glucose Measurement characteristic as a notification followed by Record Access Control Point indication with status code ({@link RecordAccessControlPoint#RESPONSE_SUCCESS} or other in case of
 	 * error.
 	 */
 	public void getAllRecords() {
@@ -504,36 +557,54 @@ public class GlucoseManager extends BleManager<GlucoseManagerCallbacks> {
 		mCallbacks.onOperationStarted();
 
 		final BluetoothGattCharacteristic characteristic = mRecordAccessControlPointCharacteristic;
-		setOpCode(characteristic, OP_CODE_REPORT_NUMBER_OF_RECORDS, OPERATOR_ALL_RECORDS);
-		writeCharacteristic(characteristic);
+		characteristic.setValue(RecordAccessControlPoint.createOperation(RecordAccessControlPoint.OP_CODE_REPORT_NUMBER_OF_RECORDS, RecordAccessControlPoint.OPERATOR_ALL_RECORDS));
+		writeRacpOperation(characteristic);
 	}
 
 	/**
 	 * Sends the request to obtain from the glucose device all records newer than the newest one from local storage. The data will be returned to Glucose Measurement characteristic as a notification
-	 * followed by Record Access Control Point indication with status code ({@link #RESPONSE_SUCCESS} or other in case of error.
+	 * followed by Record Access Control Point indication with status code ({@link RecordAccessControlPoint#RESPONSE_SUCCESS} or other in case of error.
 	 * <p>
-	 * Refresh button will not download records older than the oldest in the local memory. F.e. if you have pressed Last and then Refresh, than it will try to get only newer records. However if there
-	 * are no records, it will download all existing (using {@link #getAllRecords()}).
+	 * Refresh button will not download records older than the newest one stored for the device, or shown in the local memory. F.e. if you have pressed Last and then Refresh, than it will try to get
+	 * only newer records. However if there are no records, it will download all existing (using {@link #getAllRecords()}).
 	 * </p>
 	 */
 	public void refreshRecords() {
 		if (mRecordAccessControlPointCharacteristic == null)
 			return;
 
-		if (mRecords.size() == 0) {
-			getAllRecords();
-		} else {
-			mCallbacks.onOperationStarted();
+		// The records shown are read here, on the UI thread, and the stored ones on the manager's thread
+		final int lastShownSequenceNumber = mRecords.size() > 0 ? mRecords.keyAt(mRecords.size() - 1) : -1;
+		getHandler().post(new Runnable() {
+			@Override
+			public void run() {
+				final BluetoothGattCharacteristic characteristic = mRecordAccessControlPointCharacteristic;
+				if (characteristic == null)
+					return;
 
-			// obtain the last sequence number
-			final int sequenceNumber = mRecords.keyAt(mRecords.size() - 1) + 1;
+				// obtain the last sequence number, including records received but not saved yet
+				int lastSequenceNumber = Math.max(lastShownSequenceNumber, mDatabaseHelper.getLastSequenceNumber(getAddress()));
+				if (mBatchRecords.size() > 0)
+					lastSequenceNumber = Math.max(lastSequenceNumber, mBatchRecords.keyAt(mBatchRecords.size() - 1));
+				if (lastSequenceNumber < 0) {
+					// getAllRecords() clears the records list, which may only be done on the UI thread
+					mHandler.post(new Runnable() {
+						@Override
+						public void run() {
+							getAllRecords();
+						}
+					});
+				} else {
+					mCallbacks.onOperationStarted();
 
-			final BluetoothGattCharacteristic characteristic = mRecordAccessControlPointCharacteristic;
-			setOpCode(characteristic, OP_CODE_REPORT_STORED_RECORDS, OPERATOR_GREATER_THEN_OR_EQUAL, sequenceNumber);
-			writeCharacteristic(characteristic);
-			// Info:
-			// Operators OPERATOR_LESS_THEN_OR_EQUAL and OPERATOR_RANGE are not supported by Nordic Semiconductor Glucose Service in SDK 4.4.2.
-		}
+					final int sequenceNumber = lastSequenceNumber + 1;
+					characteristic.setValue(RecordAccessControlPoint.createOperation(RecordAccessControlPoint.OP_CODE_REPORT_STORED_RECORDS, RecordAccessControlPoint.OPERATOR_GREATER_THEN_OR_EQUAL, sequenceNumber));
+					writeRacpOperation(characteristic);
+					// Info:
+					// Operators OPERATOR_LESS_THEN_OR_EQUAL and OPERATOR_RANGE are not supported by Nordic Semiconductor Glucose Service in SDK 4.4.2.
+				}
+			}
+		});
 	}
 
 	public void getSpecificRecord(Date date) {
@@ -554,7 +625,7 @@ public class GlucoseManager extends BleManager<GlucoseManagerCallbacks> {
 
         String strHexYear = "0" + Integer.toHexString(year);
 
-        Integer[] array = new Integer[7];
+        int[] array = new int[7];
         array[0] = Integer.parseInt(strHexYear.substring(2), 16);
         array[1] = Integer.parseInt(strHexYear.substring(0, 2), 16);
         array[2] = Integer.parseInt(Integer.toHexString(month), 16);
@@ -564,8 +635,8 @@ public class GlucoseManager extends BleManager<GlucoseManagerCallbacks> {
         array[6] = Integer.parseInt(Integer.toHexString(0), 16);
 
 		final BluetoothGattCharacteristic characteristic = mRecordAccessControlPointCharacteristic;
-        setOpCodeFilter(characteristic, OP_CODE_REPORT_STORED_RECORDS, OPERATOR_GREATER_THEN_OR_EQUAL, array);
-        writeCharacteristic(characteristic);
+        characteristic.setValue(RecordAccessControlPoint.createUserFacingTimeOperation(RecordAccessControlPoint.OP_CODE_REPORT_STORED_RECORDS, RecordAccessControlPoint.OPERATOR_GREATER_THEN_OR_EQUAL, array));
+        writeRacpOperation(characteristic);
 	}
 
 	/**
@@ -577,12 +648,12 @@ public class GlucoseManager extends BleManager<GlucoseManagerCallbacks> {
 
 		mAbort = true;
 		final BluetoothGattCharacteristic characteristic = mRecordAccessControlPointCharacteristic;
-		setOpCode(characteristic, OP_CODE_ABORT_OPERATION, OPERATOR_NULL);
+		characteristic.setValue(RecordAccessControlPoint.createOperation(RecordAccessControlPoint.OP_CODE_ABORT_OPERATION, RecordAccessControlPoint.OPERATOR_NULL));
 		writeCharacteristic(characteristic);
 	}
 
 	/**
-	 * Sends the request to delete all data from the device. A Record Access Control Point indication with status code ({@link #RESPONSE_SUCCESS} (or other in case of error) will be send.
+	 * Sends the request to delete all data from the device. A Record Access Control Point indication with status code ({@link RecordAccessControlPoint#RESPONSE_SUCCESS} (or other in case of error) will be send.
 	 *
 	 * FIXME This method is not supported by Nordic Semiconductor Glucose Service in SDK 4.4.2.
 	 */
@@ -594,8 +665,8 @@ public class GlucoseManager extends BleManager<GlucoseManagerCallbacks> {
 		mCallbacks.onOperationStarted();
 
 		final BluetoothGattCharacteristic characteristic = mRecordAccessControlPointCharacteristic;
-		setOpCode(characteristic, OP_CODE_DELETE_STORED_RECORDS, OPERATOR_ALL_RECORDS);
-		writeCharacteristic(characteristic);
+		characteristic.setValue(RecordAccessControlPoint.createOperation(RecordAccessControlPoint.OP_CODE_DELETE_STORED_RECORDS, RecordAccessControlPoint.OPERATOR_ALL_RECORDS));
+		writeRacpOperation(characteristic);
 	}
 
     /**
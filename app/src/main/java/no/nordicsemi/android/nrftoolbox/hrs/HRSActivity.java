@@ -21,24 +21,24 @@
  */
 package no.nordicsemi.android.nrftoolbox.hrs;
 
-import android.graphics.Point;
 import android.os.Bundle;
 import android.os.Handler;
 import android.support.annotation.NonNull;
-import android.view.ViewGroup;
 import android.widget.TextView;
 
-import org.achartengine.GraphicalView;
-
+import java.io.File;
 import java.util.UUID;
 
 import no.nordicsemi.android.nrftoolbox.R;
+import no.nordicsemi.android.nrftoolbox.chart.RingBufferSeries;
 import no.nordicsemi.android.nrftoolbox.profile.BleManager;
 import no.nordicsemi.android.nrftoolbox.profile.BleProfileActivity;
+import no.nordicsemi.android.nrftoolbox.session.SessionRecorder;
+import no.nordicsemi.android.nrftoolbox.widget.RealTimePlotView;
 
 /**
  * HRSActivity is the main Heart rate activity. It implements HRSManagerCallbacks to receive callbacks from HRSManager class. The activity supports portrait and landscape orientations. The activity
- * uses external library AChartEngine to show real time graph of HR values.
+ * uses {@link RealTimePlotView} to show real time graph of HR values.
  */
 // TODO The HRSActivity should be rewritten to use the service approach, like other do.
 public class HRSActivity extends BleProfileActivity implements HRSManagerCallbacks {
@@ -57,9 +57,15 @@ public class HRSActivity extends BleProfileActivity implements HRSManagerCallbac
 
 	private boolean isGraphInProgress = false;
 
-	private GraphicalView mGraphView;
-	private LineGraphView mLineGraph;
-	private TextView mHRSValue, mHRSPosition;
+	/** One hour of values. The series is kept when the activity is recreated, like the counter */
+	private static final RingBufferSeries mGraphSeries = new RingBufferSeries(3600);
+	private RealTimePlotView mGraphView;
+	private TextView mHRSValue, mHRSPosition, mHRVValues;
+
+	/** Fed with RR intervals on the GATT thread, the statistics are passed to the UI thread as primitives */
+	private final HRVCalculator mHRVCalculator = new HRVCalculator();
+	/** Records heart rate values and RR intervals in milliseconds from the device ready event until disconnection */
+	private SessionRecorder mRecorder;
 
 	private int mHrmValue = 0;
 	private int mCounter = 0;
@@ -68,19 +74,16 @@ public class HRSActivity extends BleProfileActivity implements HRSManagerCallbac
 	protected void onCreateView(final Bundle savedInstanceState) {
 		setContentView(R.layout.activity_feature_hrs);
 		setGUI();
+
+		mRecorder = new SessionRecorder(this, "HRS", "heart_rate", "rr_interval");
 	}
 
 	private void setGUI() {
-		mLineGraph = LineGraphView.getLineGraphView();
 		mHRSValue = (TextView) findViewById(R.id.text_hrs_value);
 		mHRSPosition = (TextView) findViewById(R.id.text_hrs_position);
-		showGraph();
-	}
-
-	private void showGraph() {
-		mGraphView = mLineGraph.getView(this);
-		ViewGroup layout = (ViewGroup) findViewById(R.id.graph_hrs);
-		layout.addView(mGraphView);
+		mHRVValues = (TextView) findViewById(R.id.text_hrs_hrv);
+		mGraphView = (RealTimePlotView) findViewById(R.id.graph_hrs);
+		mGraphView.setSeries(mGraphSeries);
 	}
 
 	@Override
@@ -111,6 +114,7 @@ public class HRSActivity extends BleProfileActivity implements HRSManagerCallbac
 		super.onDestroy();
 
 		stopShowGraph();
+		mRecorder.stop();
 	}
 
 	@Override
@@ -135,8 +139,7 @@ public class HRSActivity extends BleProfileActivity implements HRSManagerCallbac
 
 	private void updateGraph(final int hrmValue) {
 		mCounter++;
-		mLineGraph.addValue(new Point(mCounter, hrmValue));
-		mGraphView.repaint();
+		mGraphView.addValue(mCounter, hrmValue);
 	}
 
 	private Runnable mRepeatTask = new Runnable() {
@@ -179,6 +182,15 @@ public class HRSActivity extends BleProfileActivity implements HRSManagerCallbac
 		});
 	}
 
+	private void setHRVValuesOnView(final float rmssd, final float sdnn, final float pnn50) {
+		runOnUiThread(new Runnable() {
+			@Override
+			public void run() {
+				mHRVValues.setText(getString(R.string.hrs_hrv_values, rmssd, sdnn, pnn50));
+			}
+		});
+	}
+
 	private void setHRSPositionOnView(final String position) {
 		runOnUiThread(new Runnable() {
 			@Override
@@ -199,6 +211,11 @@ public class HRSActivity extends BleProfileActivity implements HRSManagerCallbac
 
 	@Override
 	public void onDeviceReady() {
+		mHRVCalculator.clear();
+		mRecorder.start();
+		final File capture = mRecorder.getCaptureFile();
+		if (capture != null)
+			HRSManager.getInstance(getApplicationContext()).startCapture(capture);
 		startShowGraph();
 	}
 
@@ -211,16 +228,31 @@ public class HRSActivity extends BleProfileActivity implements HRSManagerCallbac
 	public void onHRValueReceived(int value) {
 		mHrmValue = value;
 		setHRSValueOnView(mHrmValue);
+		mRecorder.record(value, Float.NaN);
+
+		// RR intervals from this measurement, if any, have already been added
+		final HRVCalculator calculator = mHRVCalculator;
+		if (calculator.isReady())
+			setHRVValuesOnView(calculator.getRMSSD(), calculator.getSDNN(), calculator.getPNN50());
+	}
+
+	@Override
+	public void onRRIntervalReceived(final int rrInterval) {
+		mHRVCalculator.addInterval(rrInterval);
+		mRecorder.record(Float.NaN, rrInterval * 1000.0f / 1024.0f); // RR interval is in [1/1024s]
 	}
 
 	@Override
 	public void onDeviceDisconnected() {
 		super.onDeviceDisconnected();
+		HRSManager.getInstance(getApplicationContext()).stopCapture();
+		mRecorder.stop();
 		runOnUiThread(new Runnable() {
 			@Override
 			public void run() {
 				mHRSValue.setText(R.string.not_available_value);
 				mHRSPosition.setText(R.string.not_available);
+				mHRVValues.setText(R.string.hrs_hrv_not_available);
 				stopShowGraph();
 			}
 		});
@@ -230,12 +262,12 @@ public class HRSActivity extends BleProfileActivity implements HRSManagerCallbac
 	protected void setDefaultUI() {
 		mHRSValue.setText(R.string.not_available_value);
 		mHRSPosition.setText(R.string.not_available);
+		mHRVValues.setText(R.string.hrs_hrv_not_available);
 		clearGraph();
 	}
 
 	private void clearGraph() {
-		mLineGraph.clearGraph();
-		mGraphView.repaint();
+		mGraphView.clear();
 		mCounter = 0;
 		mHrmValue = 0;
 	}
@@ -30,11 +30,12 @@ import java.util.LinkedList;
 import java.util.Queue;
 import java.util.UUID;
 
-import no.nordicsemi.android.log.Logger;
+import no.nordicsemi.android.log.LogContract;
 import no.nordicsemi.android.nrftoolbox.R;
 import no.nordicsemi.android.nrftoolbox.profile.BleManager;
 import no.nordicsemi.android.nrftoolbox.parser.BodySensorLocationParser;
 import no.nordicsemi.android.nrftoolbox.parser.HeartRateMeasurementParser;
+import no.nordicsemi.android.nrftoolbox.utility.DataReader;
 
 /**
  * HRSManager class performs BluetoothGatt operations for connection, service discovery, enabling notification and reading characteristics. All operations required to connect to device with BLE HR
@@ -45,6 +46,9 @@ public class HRSManager extends BleManager<HRSManagerCallbacks> {
 	private static final UUID HR_SENSOR_LOCATION_CHARACTERISTIC_UUID = UUID.fromString("00002A38-0000-1000-8000-00805f9b34fb");
 	private static final UUID HR_CHARACTERISTIC_UUID = UUID.fromString("00002A37-0000-1000-8000-00805f9b34fb");
 
+	private static final byte ENERGY_EXPENDED_PRESENT = 0x08; // 1 bit
+	private static final byte RR_INTERVAL_PRESENT = 0x10; // 1 bit
+
 	private BluetoothGattCharacteristic mHRCharacteristic, mHRLocationCharacteristic;
 
 	private static HRSManager managerInstance = null;
@@ -59,10 +63,34 @@ public class HRSManager extends BleManager<HRSManagerCallbacks> {
 		return managerInstance;
 	}
 
+	private static final ValueFormatter BODY_SENSOR_LOCATION_FORMATTER = new ValueFormatter() {
+		@Override
+		public String format(final byte[] data) {
+			return BodySensorLocationParser.parse(data);
+		}
+	};
+	private static final ValueFormatter HR_MEASUREMENT_FORMATTER = new ValueFormatter() {
+		@Override
+		public String format(final byte[] data) {
+			return HeartRateMeasurementParser.parse(data);
+		}
+	};
+
 	public HRSManager(final Context context) {
 		super(context);
 	}
 
+	@Override
+	protected int getInitializationConnectionPriority() {
+		return BluetoothGatt.CONNECTION_PRIORITY_HIGH;
+	}
+
+	@Override
+	protected int getReadyConnectionPriority() {
+		// Measurements are notified about once a second, there is no need to keep the short connection interval
+		return BluetoothGatt.CONNECTION_PRIORITY_LOW_POWER;
+	}
+
 	@Override
 	protected BleManagerGattCallback getGattCallback() {
 		return mGattCallback;
@@ -84,7 +112,7 @@ public class HRSManager extends BleManager<HRSManagerCallbacks> {
 
 		@Override
 		protected boolean isRequiredServiceSupported(final BluetoothGatt gatt) {
-			final BluetoothGattService service = gatt.getService(HR_SERVICE_UUID);
+			final BluetoothGattService service = getService(HR_SERVICE_UUID);
 			if (service != null) {
 				mHRCharacteristic = service.getCharacteristic(HR_CHARACTERISTIC_UUID);
 			}
@@ -93,7 +121,7 @@ public class HRSManager extends BleManager<HRSManagerCallbacks> {
 
 		@Override
 		protected boolean isOptionalServiceSupported(final BluetoothGatt gatt) {
-			final BluetoothGattService service = gatt.getService(HR_SERVICE_UUID);
+			final BluetoothGattService service = getService(HR_SERVICE_UUID);
 			if (service != null) {
 				mHRLocationCharacteristic = service.getCharacteristic(HR_SENSOR_LOCATION_CHARACTERISTIC_UUID);
 			}
@@ -102,8 +130,7 @@ public class HRSManager extends BleManager<HRSManagerCallbacks> {
 
 		@Override
 		public void onCharacteristicRead(final BluetoothGatt gatt, final BluetoothGattCharacteristic characteristic) {
-			if (mLogSession != null)
-				Logger.a(mLogSession, BodySensorLocationParser.parse(characteristic));
+			log(LogContract.Log.Level.APPLICATION, BODY_SENSOR_LOCATION_FORMATTER, characteristic.getValue());
 
 			final String sensorPosition = getBodySensorPosition(characteristic.getValue()[0]);
 			//This will send callback to HRSActivity when HR sensor position on body is found in HR device
@@ -117,15 +144,26 @@ public class HRSManager extends BleManager<HRSManagerCallbacks> {
 		}
 
 		@Override
-		public void onCharacteristicNotified(final BluetoothGatt gatt, final BluetoothGattCharacteristic characteristic) {
-			if (mLogSession != null)
-				Logger.a(mLogSession, HeartRateMeasurementParser.parse(characteristic));
+		public void onCharacteristicNotified(final BluetoothGatt gatt, final BluetoothGattCharacteristic characteristic, final byte[] data) {
+			log(LogContract.Log.Level.APPLICATION, HR_MEASUREMENT_FORMATTER, data);
 
+			final int flags = data[0];
+			int offset = 1;
 			int hrValue;
-			if (isHeartRateInUINT16(characteristic.getValue()[0])) {
-				hrValue = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT16, 1);
+			if (isHeartRateInUINT16(data[0])) {
+				hrValue = DataReader.uint16(data, offset);
+				offset += 2;
 			} else {
-				hrValue = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT8, 1);
+				hrValue = DataReader.uint8(data, offset);
+				offset += 1;
+			}
+			if (DataReader.isSet(flags, ENERGY_EXPENDED_PRESENT))
+				offset += 2;
+
+			// RR intervals are passed one by one as primitives, so that no list is allocated for every beat
+			if (DataReader.isSet(flags, RR_INTERVAL_PRESENT)) {
+				for (; offset + 1 < data.length; offset += 2)
+					mCallbacks.onRRIntervalReceived(DataReader.uint16(data, offset));
 			}
 			//This will send callback to HRSActivity when new HR value is received from HR device
 			mCallbacks.onHRValueReceived(hrValue);
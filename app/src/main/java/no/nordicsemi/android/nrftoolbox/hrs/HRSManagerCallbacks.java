@@ -40,4 +40,13 @@ public interface HRSManagerCallbacks extends BleManagerCallbacks {
 	 *            the new value
 	 */
 	public void onHRValueReceived(int value);
+
+	/**
+	 * Called for each RR interval received in the Heart Rate Measurement, in the order they were measured. The sensor may send a few intervals in
+	 * one notification, this method is called for each of them before {@link #onHRValueReceived(int)}.
+	 *
+	 * @param rrInterval
+	 *            the RR interval in 1/1024 s
+	 */
+	public void onRRIntervalReceived(int rrInterval);
 }
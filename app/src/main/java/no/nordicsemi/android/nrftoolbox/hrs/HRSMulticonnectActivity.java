@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.hrs;
+
+import android.bluetooth.BluetoothAdapter;
+import android.bluetooth.BluetoothDevice;
+import android.bluetooth.BluetoothManager;
+import android.content.BroadcastReceiver;
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.content.ServiceConnection;
+import android.os.Bundle;
+import android.os.IBinder;
+import android.support.v4.content.LocalBroadcastManager;
+import android.support.v7.app.AppCompatActivity;
+import android.support.v7.widget.Toolbar;
+import android.view.LayoutInflater;
+import android.view.MenuItem;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.AdapterView;
+import android.widget.BaseAdapter;
+import android.widget.ListView;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import no.nordicsemi.android.log.ILogSession;
+import no.nordicsemi.android.log.Logger;
+import no.nordicsemi.android.nrftoolbox.R;
+import no.nordicsemi.android.nrftoolbox.profile.BleProfileService;
+import no.nordicsemi.android.nrftoolbox.profile.multiconnect.BleMulticonnectProfileService;
+import no.nordicsemi.android.nrftoolbox.scanner.ScannerFragment;
+
+/**
+ * Shows the heart rate of several sensors connected at the same time using the {@link HRSMulticonnectService}. The connections are kept by the service when
+ * the activity is closed. Selecting a sensor on the list disconnects it.
+ */
+public class HRSMulticonnectActivity extends AppCompatActivity implements ScannerFragment.OnDeviceSelectedListener {
+	private static final int REQUEST_ENABLE_BT = 2;
+
+	private HRSMulticonnectService.HRSBinder mService;
+	private boolean mBound;
+	private SensorsAdapter mAdapter;
+
+	private final ServiceConnection mServiceConnection = new ServiceConnection() {
+		@Override
+		public void onServiceConnected(final ComponentName name, final IBinder service) {
+			mService = (HRSMulticonnectService.HRSBinder) service;
+			mAdapter.setDevices(mService.getManagedDevices());
+		}
+
+		@Override
+		public void onServiceDisconnected(final ComponentName name) {
+			mService = null;
+			mAdapter.setDevices(null);
+		}
+	};
+
+	private final BroadcastReceiver mBroadcastReceiver = new BroadcastReceiver() {
+		@Override
+		public void onReceive(final Context context, final Intent intent) {
+			final String action = intent.getAction();
+
+			if (BleMulticonnectProfileService.BROADCAST_DEVICES_UPDATED.equals(action)) {
+				if (mService != null)
+					mAdapter.setDevices(mService.getManagedDevices());
+			} else if (BleProfileService.BROADCAST_ERROR.equals(action)) {
+				final String message = intent.getStringExtra(BleProfileService.EXTRA_ERROR_MESSAGE);
+				final int errorCode = intent.getIntExtra(BleProfileService.EXTRA_ERROR_CODE, 0);
+				Toast.makeText(HRSMulticonnectActivity.this, message + " (" + errorCode + ")", Toast.LENGTH_SHORT).show();
+			}
+		}
+	};
+
+	@Override
+	protected void onCreate(final Bundle savedInstanceState) {
+		super.onCreate(savedInstanceState);
+		setContentView(R.layout.activity_feature_hrs_multiconnect);
+
+		final Toolbar toolbar = (Toolbar) findViewById(R.id.toolbar_actionbar);
+		setSupportActionBar(toolbar);
+		getSupportActionBar().setDisplayHomeAsUpEnabled(true);
+
+		final ListView list = (ListView) findViewById(android.R.id.list);
+		list.setEmptyView(findViewById(android.R.id.empty));
+		list.setAdapter(mAdapter = new SensorsAdapter());
+		list.setOnItemClickListener(new AdapterView.OnItemClickListener() {
+			@Override
+			public void onItemClick(final AdapterView<?> parent, final View view, final int position, final long id) {
+				if (mService != null)
+					mService.disconnect(mAdapter.getItem(position).getAddress());
+			}
+		});
+	}
+
+	@Override
+	protected void onStart() {
+		super.onStart();
+
+		final IntentFilter filter = new IntentFilter();
+		filter.addAction(BleMulticonnectProfileService.BROADCAST_DEVICES_UPDATED);
+		filter.addAction(BleProfileService.BROADCAST_ERROR);
+		LocalBroadcastManager.getInstance(this).registerReceiver(mBroadcastReceiver, filter);
+
+		// The service is started so that it keeps the connections when the activity unbinds. It stops itself when unbound with no devices.
+		final Intent service = new Intent(this, HRSMulticonnectService.class);
+		startService(service);
+		mBound = bindService(service, mServiceConnection, 0);
+	}
+
+	@Override
+	protected void onStop() {
+		super.onStop();
+
+		LocalBroadcastManager.getInstance(this).unregisterReceiver(mBroadcastReceiver);
+		if (mBound)
+			unbindService(mServiceConnection);
+		mBound = false;
+		mService = null;
+	}
+
+	@Override
+	public boolean onOptionsItemSelected(final MenuItem item) {
+		switch (item.getItemId()) {
+			case android.R.id.home:
+				onBackPressed();
+				return true;
+		}
+		return super.onOptionsItemSelected(item);
+	}
+
+	/**
+	 * Called when user press ADD SENSOR button. See layout files -> onClick attribute.
+	 */
+	public void onAddSensorClicked(final View view) {
+		if (isBLEEnabled()) {
+			final ScannerFragment dialog = ScannerFragment.getInstance(HRSManager.HR_SERVICE_UUID);
+			dialog.show(getSupportFragmentManager(), "scan_fragment");
+		} else {
+			final Intent enableIntent = new Intent(BluetoothAdapter.ACTION_REQUEST_ENABLE);
+			startActivityForResult(enableIntent, REQUEST_ENABLE_BT);
+		}
+	}
+
+	@Override
+	public void onDeviceSelected(final BluetoothDevice device, final String name) {
+		if (mService == null)
+			return;
+
+		final ILogSession logSession = Logger.newSession(getApplicationContext(), getString(R.string.hrs_feature_title), device.getAddress(), name);
+		mService.connect(device, logSession);
+	}
+
+	@Override
+	public void onDialogCanceled() {
+		// do nothing
+	}
+
+	private boolean isBLEEnabled() {
+		final BluetoothManager bluetoothManager = (BluetoothManager) getSystemService(Context.BLUETOOTH_SERVICE);
+		final BluetoothAdapter adapter = bluetoothManager.getAdapter();
+		return adapter != null && adapter.isEnabled();
+	}
+
+	private class SensorsAdapter extends BaseAdapter {
+		private final List<BluetoothDevice> mDevices = new ArrayList<>();
+
+		public void setDevices(final List<BluetoothDevice> devices) {
+			mDevices.clear();
+			if (devices != null)
+				mDevices.addAll(devices);
+			notifyDataSetChanged();
+		}
+
+		@Override
+		public int getCount() {
+			return mDevices.size();
+		}
+
+		@Override
+		public BluetoothDevice getItem(final int position) {
+			return mDevices.get(position);
+		}
+
+		@Override
+		public long getItemId(final int position) {
+			return position;
+		}
+
+		@Override
+		public View getView(final int position, final View convertView, final ViewGroup parent) {
+			View view = convertView;
+			if (view == null)
+				view = LayoutInflater.from(HRSMulticonnectActivity.this).inflate(R.layout.activity_feature_hrs_multiconnect_item, parent, false);
+
+			final BluetoothDevice device = getItem(position);
+			final String address = device.getAddress();
+			final String name = device.getName();
+			((TextView) view.findViewById(R.id.name)).setText(name != null ? name : address);
+
+			final TextView stateView = (TextView) view.findViewById(R.id.state);
+			final TextView heartRateView = (TextView) view.findViewById(R.id.heart_rate);
+			final TextView batteryView = (TextView) view.findViewById(R.id.battery);
+			if (mService == null) {
+				stateView.setText(R.string.not_available);
+				heartRateView.setText(R.string.not_available_value);
+				batteryView.setText(R.string.not_available);
+				return view;
+			}
+
+			switch (mService.getConnectionState(address)) {
+				case BleProfileService.STATE_CONNECTED:
+					stateView.setText(mService.isReady(address) ? R.string.hrs_multiconnect_state_ready : R.string.hrs_multiconnect_state_connected);
+					break;
+				case BleProfileService.STATE_CONNECTING:
+					stateView.setText(R.string.hrs_multiconnect_state_connecting);
+					break;
+				case BleProfileService.STATE_DISCONNECTING:
+					stateView.setText(R.string.hrs_multiconnect_state_disconnecting);
+					break;
+				case BleProfileService.STATE_LINK_LOSS:
+					stateView.setText(R.string.hrs_multiconnect_state_link_loss);
+					break;
+				default:
+					stateView.setText(R.string.hrs_multiconnect_state_disconnected);
+					break;
+			}
+
+			final int heartRate = mService.getHeartRate(address);
+			if (heartRate >= 0)
+				heartRateView.setText(String.valueOf(heartRate));
+			else
+				heartRateView.setText(R.string.not_available_value);
+
+			final int batteryLevel = mService.getBatteryLevel(address);
+			if (batteryLevel >= 0)
+				batteryView.setText(getString(R.string.battery, batteryLevel));
+			else
+				batteryView.setText(R.string.not_available);
+			return view;
+		}
+	}
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.hrs;
+
+import android.bluetooth.BluetoothDevice;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import no.nordicsemi.android.nrftoolbox.profile.BleManager;
+import no.nordicsemi.android.nrftoolbox.profile.multiconnect.BleMulticonnectProfileService;
+
+/**
+ * Keeps connections to several Heart Rate sensors at the same time. The latest heart rate of each sensor is kept in the service and may be obtained using
+ * the {@link HRSBinder}. A new value is announced with the merged {@link #BROADCAST_DEVICES_UPDATED} broadcast, so a few sensors notifying every second
+ * do not cause a broadcast per measurement.
+ */
+public class HRSMulticonnectService extends BleMulticonnectProfileService {
+	@SuppressWarnings("unused")
+	private static final String TAG = "HRSMulticonnectService";
+
+	/** The latest values of the managed sensors, by address. Values are written on the managers' threads and read on the UI thread. */
+	private final Map<String, SensorValues> mValues = new ConcurrentHashMap<>();
+
+	private final LocalBinder mBinder = new HRSBinder();
+
+	private static final class SensorValues {
+		private volatile int heartRate = -1;
+		private volatile String position;
+	}
+
+	/**
+	 * This local binder is an interface for the bonded activity to obtain the values of the sensors.
+	 */
+	public class HRSBinder extends LocalBinder {
+		/**
+		 * Returns the last heart rate value received from the device with given address.
+		 *
+		 * @param address the device address
+		 * @return the heart rate in bpm, or -1 if no value has been received yet
+		 */
+		public int getHeartRate(final String address) {
+			final SensorValues values = mValues.get(address);
+			return values != null ? values.heartRate : -1;
+		}
+
+		/**
+		 * Returns the body sensor location of the device with given address.
+		 *
+		 * @param address the device address
+		 * @return the sensor position, or null if unknown
+		 */
+		public String getSensorPosition(final String address) {
+			final SensorValues values = mValues.get(address);
+			return values != null ? values.position : null;
+		}
+	}
+
+	@Override
+	protected LocalBinder getBinder() {
+		return mBinder;
+	}
+
+	@Override
+	protected BleManager<HRSManagerCallbacks> initializeManager() {
+		return new HRSManager(this);
+	}
+
+	@Override
+	protected DeviceCallbacks createDeviceCallbacks(final BluetoothDevice device) {
+		final SensorValues values = new SensorValues();
+		mValues.put(device.getAddress(), values);
+		return new HRSDeviceCallbacks(device, values);
+	}
+
+	@Override
+	protected void onDeviceRemoved(final BluetoothDevice device) {
+		mValues.remove(device.getAddress());
+		super.onDeviceRemoved(device);
+	}
+
+	private class HRSDeviceCallbacks extends DeviceCallbacks implements HRSManagerCallbacks {
+		private final SensorValues mSensorValues;
+
+		private HRSDeviceCallbacks(final BluetoothDevice device, final SensorValues values) {
+			super(device);
+			mSensorValues = values;
+		}
+
+		@Override
+		public void onHRSensorPositionFound(final String position) {
+			mSensorValues.position = position;
+			scheduleDevicesUpdated();
+		}
+
+		@Override
+		public void onHRValueReceived(final int value) {
+			mSensorValues.heartRate = value;
+			scheduleDevicesUpdated();
+		}
+
+		@Override
+		public void onRRIntervalReceived(final int rrInterval) {
+			// RR intervals are not shown for several sensors
+		}
+	}
+}
@@ -21,14 +21,10 @@
  */
 package no.nordicsemi.android.nrftoolbox.hts;
 
-import android.content.BroadcastReceiver;
-import android.content.Context;
 import android.content.Intent;
-import android.content.IntentFilter;
 import android.content.SharedPreferences;
 import android.os.Bundle;
 import android.preference.PreferenceManager;
-import android.support.v4.content.LocalBroadcastManager;
 import android.view.Menu;
 import android.widget.TextView;
 
@@ -55,6 +51,8 @@ public class HTSActivity extends BleProfileServiceReadyActivity<HTSService.RSCBi
 	private TextView mHTSUnit;
 	private Double mValueC;
 
+	private HTSService.RSCBinder mBinder;
+
 	@Override
 	protected void onCreateView(final Bundle savedInstanceState) {
 		setContentView(R.layout.activity_feature_hts);
@@ -71,20 +69,12 @@ public class HTSActivity extends BleProfileServiceReadyActivity<HTSService.RSCBi
 
 	@Override
 	protected void onInitialize(final Bundle savedInstanceState) {
-		LocalBroadcastManager.getInstance(this).registerReceiver(mBroadcastReceiver, makeIntentFilter());
-
 		if (savedInstanceState != null) {
 			if (savedInstanceState.containsKey(VALUE))
 				mValueC = savedInstanceState.getDouble(VALUE);
 		}
 	}
 
-	@Override
-	protected void onDestroy() {
-		super.onDestroy();
-		LocalBroadcastManager.getInstance(this).unregisterReceiver(mBroadcastReceiver);
-	}
-
 	private void setGUI() {
 		mHTSValue = (TextView) findViewById(R.id.text_hts_value);
 		mHTSUnit = (TextView) findViewById(R.id.text_hts_unit);
@@ -128,12 +118,15 @@ public class HTSActivity extends BleProfileServiceReadyActivity<HTSService.RSCBi
 
 	@Override
 	protected void onServiceBinded(final HTSService.RSCBinder binder) {
-		// not used
+		mBinder = binder;
+		binder.setHTSListener(mHTSListener);
 	}
 
 	@Override
 	protected void onServiceUnbinded() {
-		// not used
+		if (mBinder != null)
+			mBinder.setHTSListener(null);
+		mBinder = null;
 	}
 
 	@Override
@@ -201,22 +194,11 @@ public class HTSActivity extends BleProfileServiceReadyActivity<HTSService.RSCBi
 		mHTSValue.setText(mFormattedTemp.format(value));
 	}
 
-	private final BroadcastReceiver mBroadcastReceiver = new BroadcastReceiver() {
+	private final HTSService.HTSListener mHTSListener = new HTSService.HTSListener() {
 		@Override
-		public void onReceive(final Context context, final Intent intent) {
-			final String action = intent.getAction();
-
-			if (HTSService.BROADCAST_HTS_MEASUREMENT.equals(action)) {
-				final double value = intent.getDoubleExtra(HTSService.EXTRA_TEMPERATURE, 0.0f);
-				// Update GUI
-				setHTSValueOnView(value);
-			}
+		public void onHTValueReceived(final double value) {
+			// Update GUI
+			setHTSValueOnView(value);
 		}
 	};
-
-	private static IntentFilter makeIntentFilter() {
-		final IntentFilter intentFilter = new IntentFilter();
-		intentFilter.addAction(HTSService.BROADCAST_HTS_MEASUREMENT);
-		return intentFilter;
-	}
 }
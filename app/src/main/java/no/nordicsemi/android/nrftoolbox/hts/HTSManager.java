@@ -30,9 +30,10 @@ import java.util.LinkedList;
 import java.util.Queue;
 import java.util.UUID;
 
-import no.nordicsemi.android.log.Logger;
+import no.nordicsemi.android.log.LogContract;
 import no.nordicsemi.android.nrftoolbox.parser.TemperatureMeasurementParser;
 import no.nordicsemi.android.nrftoolbox.profile.BleManager;
+import no.nordicsemi.android.nrftoolbox.utility.DataReader;
 import no.nordicsemi.android.nrftoolbox.utility.DebugLogger;
 
 /**
@@ -49,13 +50,15 @@ public class HTSManager extends BleManager<HTSManagerCallbacks> {
 
 	private BluetoothGattCharacteristic mHTCharacteristic;
 
-	private final static int HIDE_MSB_8BITS_OUT_OF_32BITS = 0x00FFFFFF;
-	private final static int HIDE_MSB_8BITS_OUT_OF_16BITS = 0x00FF;
-	private final static int SHIFT_LEFT_8BITS = 8;
-	private final static int SHIFT_LEFT_16BITS = 16;
-	private final static int GET_BIT24 = 0x00400000;
 	private final static int FIRST_BIT_MASK = 0x01;
 
+	private static final ValueFormatter HT_MEASUREMENT_FORMATTER = new ValueFormatter() {
+		@Override
+		public String format(final byte[] data) {
+			return TemperatureMeasurementParser.parse(data);
+		}
+	};
+
 	public HTSManager(final Context context) {
 		super(context);
 	}
@@ -79,7 +82,7 @@ public class HTSManager extends BleManager<HTSManagerCallbacks> {
 
 		@Override
 		protected boolean isRequiredServiceSupported(final BluetoothGatt gatt) {
-			final BluetoothGattService service = gatt.getService(HT_SERVICE_UUID);
+			final BluetoothGattService service = getService(HT_SERVICE_UUID);
 			if (service != null) {
 				mHTCharacteristic = service.getCharacteristic(HT_MEASUREMENT_CHARACTERISTIC_UUID);
 			}
@@ -92,12 +95,11 @@ public class HTSManager extends BleManager<HTSManagerCallbacks> {
 		}
 
 		@Override
-		public void onCharacteristicIndicated(final BluetoothGatt gatt, final BluetoothGattCharacteristic characteristic) {
-			if (mLogSession != null)
-				Logger.a(mLogSession, TemperatureMeasurementParser.parse(characteristic));
+		public void onCharacteristicIndicated(final BluetoothGatt gatt, final BluetoothGattCharacteristic characteristic, final byte[] data) {
+			log(LogContract.Log.Level.APPLICATION, HT_MEASUREMENT_FORMATTER, data);
 
 			try {
-				final double tempValue = decodeTemperature(characteristic.getValue());
+				final double tempValue = decodeTemperature(data);
 				mCallbacks.onHTValueReceived(tempValue);
 			} catch (Exception e) {
 				DebugLogger.e(TAG, "Invalid temperature value", e);
@@ -109,40 +111,16 @@ public class HTSManager extends BleManager<HTSManagerCallbacks> {
 	 * This method decode temperature value received from Health Thermometer device First byte {0} of data is flag and first bit of flag shows unit information of temperature. if bit 0 has value 1
 	 * then unit is Fahrenheit and Celsius otherwise Four bytes {1 to 4} after Flag bytes represent the temperature value in IEEE-11073 32-bit Float format
 	 */
-	private double decodeTemperature(byte[] data) throws Exception {
-		double temperatureValue;
-		byte flag = data[0];
-		byte exponential = data[4];
-		short firstOctet = convertNegativeByteToPositiveShort(data[1]);
-		short secondOctet = convertNegativeByteToPositiveShort(data[2]);
-		short thirdOctet = convertNegativeByteToPositiveShort(data[3]);
-		int mantissa = ((thirdOctet << SHIFT_LEFT_16BITS) | (secondOctet << SHIFT_LEFT_8BITS) | (firstOctet)) & HIDE_MSB_8BITS_OUT_OF_32BITS;
-		mantissa = getTwosComplimentOfNegativeMantissa(mantissa);
-		temperatureValue = (mantissa * Math.pow(10, exponential));
+	private double decodeTemperature(final byte[] data) throws Exception {
+		double temperatureValue = DataReader.float32(data, 1);
 
 		/*
 		 * Conversion of temperature unit from Fahrenheit to Celsius if unit is in Fahrenheit
 		 * Celsius = (Fahrenheit -32) 5/9
 		 */
-		if ((flag & FIRST_BIT_MASK) != 0) {
+		if (DataReader.isSet(data[0], FIRST_BIT_MASK)) {
 			temperatureValue = (float) ((temperatureValue - 32) * (5 / 9.0));
 		}
 		return temperatureValue;
 	}
-
-	private short convertNegativeByteToPositiveShort(byte octet) {
-		if (octet < 0) {
-			return (short) (octet & HIDE_MSB_8BITS_OUT_OF_16BITS);
-		} else {
-			return octet;
-		}
-	}
-
-	private int getTwosComplimentOfNegativeMantissa(int mantissa) {
-		if ((mantissa & GET_BIT24) != 0) {
-			return ((((~mantissa) & HIDE_MSB_8BITS_OUT_OF_32BITS) + 1) * (-1));
-		} else {
-			return mantissa;
-		}
-	}
 }
@@ -29,19 +29,19 @@ import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
-import android.support.v4.content.LocalBroadcastManager;
 import android.support.v7.app.NotificationCompat;
 
+import java.io.File;
+
 import no.nordicsemi.android.log.Logger;
 import no.nordicsemi.android.nrftoolbox.FeaturesActivity;
 import no.nordicsemi.android.nrftoolbox.R;
 import no.nordicsemi.android.nrftoolbox.profile.BleManager;
 import no.nordicsemi.android.nrftoolbox.profile.BleProfileService;
+import no.nordicsemi.android.nrftoolbox.profile.ConflatedEvent;
+import no.nordicsemi.android.nrftoolbox.session.SessionRecorder;
 
 public class HTSService extends BleProfileService implements HTSManagerCallbacks {
-	public static final String BROADCAST_HTS_MEASUREMENT = "no.nordicsemi.android.nrftoolbox.hts.BROADCAST_HTS_MEASUREMENT";
-	public static final String EXTRA_TEMPERATURE = "no.nordicsemi.android.nrftoolbox.hts.EXTRA_TEMPERATURE";
-
 	private final static String ACTION_DISCONNECT = "no.nordicsemi.android.nrftoolbox.hts.ACTION_DISCONNECT";
 
 	private final static int NOTIFICATION_ID = 267;
@@ -49,14 +49,55 @@ public class HTSService extends BleProfileService implements HTSManagerCallbacks
 	private final static int DISCONNECT_REQ = 1;
 
 	private HTSManager mManager;
+	/** Records the temperature from the device ready event until disconnection */
+	private SessionRecorder mRecorder;
+
+	private final TemperatureEvent mTemperatureEvent = new TemperatureEvent();
 
 	private final LocalBinder mBinder = new RSCBinder();
 
+	/**
+	 * The listener of the temperature measurements. It is notified on the UI thread with the latest value only.
+	 */
+	public interface HTSListener {
+		/**
+		 * Called when a new temperature value has been received.
+		 *
+		 * @param value the temperature in Celsius
+		 */
+		void onHTValueReceived(final double value);
+	}
+
 	/**
 	 * This local binder is an interface for the bonded activity to operate with the HTS sensor
 	 */
 	public class RSCBinder extends LocalBinder {
-		// empty
+		/**
+		 * Sets the listener of the measurements. The activity must set <code>null</code> before it unbinds from the service.
+		 *
+		 * @param listener the listener or <code>null</code>
+		 */
+		public void setHTSListener(final HTSListener listener) {
+			mTemperatureEvent.setListener(listener);
+		}
+	}
+
+	private static final class TemperatureEvent extends ConflatedEvent<HTSListener> {
+		private double mValue;
+
+		synchronized void set(final double value) {
+			mValue = value;
+			publish();
+		}
+
+		@Override
+		protected void deliver(final HTSListener listener) {
+			final double value;
+			synchronized (this) {
+				value = mValue;
+			}
+			listener.onHTValueReceived(value);
+		}
 	}
 
 	@Override
@@ -76,6 +117,8 @@ public class HTSService extends BleProfileService implements HTSManagerCallbacks
 		final IntentFilter filter = new IntentFilter();
 		filter.addAction(ACTION_DISCONNECT);
 		registerReceiver(mDisconnectActionBroadcastReceiver, filter);
+
+		mRecorder = new SessionRecorder(this, "HTS", "temperature");
 	}
 
 	@Override
@@ -83,10 +126,29 @@ public class HTSService extends BleProfileService implements HTSManagerCallbacks
 		// when user has disconnected from the sensor, we have to cancel the notification that we've created some milliseconds before using unbindService
 		cancelNotification();
 		unregisterReceiver(mDisconnectActionBroadcastReceiver);
+		mRecorder.stop();
 
 		super.onDestroy();
 	}
 
+	@Override
+	public void onDeviceReady() {
+		super.onDeviceReady();
+		mRecorder.start();
+
+		final File capture = mRecorder.getCaptureFile();
+		if (capture != null)
+			mManager.startCapture(capture);
+	}
+
+	@Override
+	public void onDeviceDisconnected() {
+		mManager.stopCapture();
+		mRecorder.stop();
+		mTemperatureEvent.clear();
+		super.onDeviceDisconnected();
+	}
+
 	@Override
 	protected void onRebind() {
 		// when the activity rebinds to the service, remove the notification
@@ -107,9 +169,9 @@ public class HTSService extends BleProfileService implements HTSManagerCallbacks
 
 	@Override
 	public void onHTValueReceived(final double value) {
-		final Intent broadcast = new Intent(BROADCAST_HTS_MEASUREMENT);
-		broadcast.putExtra(EXTRA_TEMPERATURE, value);
-		LocalBroadcastManager.getInstance(this).sendBroadcast(broadcast);
+		mTemperatureEvent.set(value);
+
+		mRecorder.record((float) value);
 
 		if (!mBinded) {
 			// Here we may update the notification to display the current temperature.
@@ -33,14 +33,25 @@ import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
 import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
 
+import java.io.File;
+import java.io.IOException;
+
+import java.util.Arrays;
+import java.util.LinkedList;
 import java.util.Queue;
 import java.util.UUID;
 
 import no.nordicsemi.android.log.ILogSession;
+import no.nordicsemi.android.log.LogContract;
 import no.nordicsemi.android.log.Logger;
 import no.nordicsemi.android.nrftoolbox.error.GattError;
+import no.nordicsemi.android.nrftoolbox.session.CaptureWriter;
+import no.nordicsemi.android.nrftoolbox.utility.DataReader;
 import no.nordicsemi.android.nrftoolbox.utility.DebugLogger;
+import no.nordicsemi.android.nrftoolbox.utility.ExponentialBackoff;
 import no.nordicsemi.android.nrftoolbox.utility.ParserUtils;
 
 /**
@@ -54,7 +65,10 @@ import no.nordicsemi.android.nrftoolbox.utility.ParserUtils;
  * it tries to enable Battery Level notifications, to get battery updates from the device.</li>
  * <li>Afterwards, the manager initializes the device using given queue of commands. See {@link BleManagerGattCallback#initGatt(BluetoothGatt)} method for more details.</li>
  * <li>When initialization complete, the {@link BleManagerCallbacks#onDeviceReady()} callback is called.</li>
- * </ol>The manager also is responsible for parsing the Battery Level values and calling {@link BleManagerCallbacks#onBatteryValueReceived(int)} method.</p>
+ * </ol>All GATT operations, also those requested after the initialization, are executed one by one using an operation queue, as Android allows only one operation at a time.
+ * See {@link #enqueue(Request)} for more details.
+ * The manager also is responsible for parsing the Battery Level values and calling {@link BleManagerCallbacks#onBatteryValueReceived(int)} method.</p>
+ * <p>GATT events are handled on a thread owned by the manager (see {@link #getHandler()}), not on the UI thread. Callbacks in {@link BleManagerCallbacks} are called from that thread.</p>
  * <p>Events from all profiles are being logged into the nRF Logger application,
  * which may be downloaded from Google Play: <a href="https://play.google.com/store/apps/details?id=no.nordicsemi.android.log">https://play.google.com/store/apps/details?id=no.nordicsemi.android.log</a></p>
  * <p>The nRF Logger application allows you to see application logs without need to connect it to the computer.</p>
@@ -71,23 +85,91 @@ public abstract class BleManager<E extends BleManagerCallbacks> {
 
 	private final static UUID GENERIC_ATTRIBUTE_SERVICE = UUID.fromString("00001801-0000-1000-8000-00805f9b34fb");
 	private final static UUID SERVICE_CHANGED_CHARACTERISTIC = UUID.fromString("00002A05-0000-1000-8000-00805f9b34fb");
+	private final static UUID DATABASE_HASH_CHARACTERISTIC = UUID.fromString("00002B2A-0000-1000-8000-00805f9b34fb");
+
+	/** The default ATT MTU. The maximum size of data in a single packet is MTU - 3 bytes. */
+	protected final static int DEFAULT_MTU = 23;
+
+	/** A value returned from {@link #getInitializationConnectionPriority()} or {@link #getReadyConnectionPriority()} when the connection priority should not be changed. */
+	protected final static int CONNECTION_PRIORITY_UNCHANGED = -1;
 
 	private final static String ERROR_CONNECTION_STATE_CHANGE = "Error on connection state change";
 	private final static String ERROR_DISCOVERY_SERVICE = "Error on discovering services";
 	private final static String ERROR_AUTH_ERROR_WHILE_BONDED = "Phone has lost bonding information";
 	private final static String ERROR_WRITE_DESCRIPTOR = "Error on writing descriptor";
 	private final static String ERROR_READ_CHARACTERISTIC = "Error on reading characteristic";
+	private final static String ERROR_WRITE_CHARACTERISTIC = "Error on writing characteristic";
+	private final static String ERROR_OPERATION_TIMEOUT = "Operation timed out";
+	private final static String ERROR_DISCOVERY_TIMEOUT = "Service discovery timed out";
+	private final static String ERROR_BONDING_FAILED = "Bonding failed";
+
+	/**
+	 * The error code passed to {@link BleManagerCallbacks#onError(String, int)} when the service discovery has not completed in time.
+	 * It's also the status given to {@link OnRequestCompletedListener} for a request that timed out, which is reported with
+	 * {@link BleManagerCallbacks#onOperationTimeout(String)}. The value is not used by the Bluetooth stack.
+	 */
+	public final static int ERROR_TIMEOUT = 0x1000;
+
+	/** The default time in milliseconds after which an operation without response is considered lost. See {@link #getOperationTimeout()}. */
+	protected final static long DEFAULT_OPERATION_TIMEOUT = 5000;
+	/** The default number of times an operation that has timed out is sent again. See {@link #getOperationRetryCount()}. */
+	protected final static int DEFAULT_OPERATION_RETRY_COUNT = 2;
+	/** The delay before the first retry. It's doubled with each next retry of the same request. */
+	private final static long RETRY_INITIAL_DELAY = 250;
+	/** The time given to the service discovery before the connection is reported as stalled. */
+	private final static long SERVICE_DISCOVERY_TIMEOUT = 30000;
+	/** The time given to the user to accept the pairing or enter the passkey, during which the request that required bonding waits. */
+	private final static long BONDING_TIMEOUT = 60000;
+
+	/** The delay before the first direct reconnection attempt after a link loss. See {@link #createReconnectBackoff()}. */
+	protected final static long DEFAULT_RECONNECT_INITIAL_DELAY = 500;
+	/** The maximum delay between reconnection attempts */
+	protected final static long DEFAULT_RECONNECT_MAX_DELAY = 8000;
+	/** The number of direct reconnection attempts before the manager falls back to the background connection */
+	protected final static int DEFAULT_RECONNECT_DIRECT_ATTEMPTS = 4;
+	/** The fraction by which each reconnection delay is randomized */
+	protected final static float DEFAULT_RECONNECT_JITTER = 0.2f;
 
 	/**
 	 * The log session or null if nRF Logger is not installed.
 	 */
 	protected ILogSession mLogSession;
+	private int mLogLevel = LogContract.Log.Level.DEBUG;
 	protected E mCallbacks;
+	/** The thread on which all GATT events are handled. It is started when needed and stopped in {@link #close()}. */
+	private HandlerThread mHandlerThread;
 	private Handler mHandler;
-	private BluetoothGatt mBluetoothGatt;
+	private final Object mHandlerLock = new Object();
+	/** The connection to the device, or null if the manager is not connecting or connected. Read from the manager's, Binder and broadcast threads. */
+	private volatile GattTransport mTransport;
 	private Context mContext;
-	private boolean mUserDisconnected;
-	private boolean mConnected;
+	private volatile boolean mUserDisconnected;
+	private volatile boolean mConnected;
+	/** Delays of the reconnection attempts, or null if the manager does not reconnect after a link loss. See {@link #createReconnectBackoff()}. */
+	private ExponentialBackoff mReconnectBackoff;
+	/** True from a link loss until the device has been connected again. Set on the manager's thread. */
+	private volatile boolean mReconnecting;
+	/** The value of the Database Hash characteristic read during the last initialization, or null if the device does not have one. */
+	private byte[] mDatabaseHash;
+	private int mMtu = DEFAULT_MTU;
+	private GattOperationScheduler mScheduler;
+	/** Writes received notifications and indications to a file, see {@link #startCapture(File)}. Used only on the manager's thread. */
+	private CaptureWriter mCaptureWriter;
+
+	/** The handler of the thread shared by all managers, on which the deferred log messages are formatted and saved. */
+	private static Handler sLogHandler;
+	private static final ValueFormatter HEX_FORMATTER = new ValueFormatter() {
+		@Override
+		public String format(final byte[] data) {
+			return ParserUtils.parse(data);
+		}
+	};
+	private static final ValueFormatter BATTERY_LEVEL_FORMATTER = new ValueFormatter() {
+		@Override
+		public String format(final byte[] data) {
+			return "Battery level received: " + DataReader.uint8(data, 0) + "%";
+		}
+	};
 
 	private BroadcastReceiver mBondingBroadcastReceiver = new BroadcastReceiver() {
 		@Override
@@ -97,7 +179,8 @@ public abstract class BleManager<E extends BleManagerCallbacks> {
 			final int previousBondState = intent.getIntExtra(BluetoothDevice.EXTRA_PREVIOUS_BOND_STATE, -1);
 
 			// Skip other devices
-			if (mBluetoothGatt == null || !device.getAddress().equals(mBluetoothGatt.getDevice().getAddress()))
+			final GattTransport transport = mTransport;
+			if (transport == null || !device.getAddress().equals(transport.getAddress()))
 				return;
 
 			Logger.d(mLogSession, "[Broadcast] Action received: " + BluetoothDevice.ACTION_BOND_STATE_CHANGED + ", bond state changed to: " + bondStateToString(bondState) + " (" + bondState + ")");
@@ -110,14 +193,16 @@ public abstract class BleManager<E extends BleManagerCallbacks> {
 				case BluetoothDevice.BOND_BONDED:
 					Logger.i(mLogSession, "Device bonded");
 					mCallbacks.onBonded();
-
-					// Start initializing again.
-					// In fact, bonding forces additional, internal service discovery (at least on Nexus devices), so this method may safely be used to start this process again.
-					Logger.v(mLogSession, "Discovering Services...");
-					Logger.d(mLogSession, "gatt.discoverServices()");
-					mBluetoothGatt.discoverServices();
 					break;
 			}
+
+			// The request waiting for bonding is resumed on the manager's thread
+			getHandler().post(new Runnable() {
+				@Override
+				public void run() {
+					getGattCallback().onBondStateChanged(transport, bondState, previousBondState);
+				}
+			});
 		}
 	};
 
@@ -127,7 +212,8 @@ public abstract class BleManager<E extends BleManagerCallbacks> {
 			final BluetoothDevice device = intent.getParcelableExtra(BluetoothDevice.EXTRA_DEVICE);
 
 			// Skip other devices
-			if (mBluetoothGatt == null || !device.getAddress().equals(mBluetoothGatt.getDevice().getAddress()))
+			final GattTransport transport = mTransport;
+			if (transport == null || !device.getAddress().equals(transport.getAddress()))
 				return;
 
 			// String values are used as the constants are not available for Android 4.3.
@@ -145,7 +231,6 @@ public abstract class BleManager<E extends BleManagerCallbacks> {
 
 	public BleManager(final Context context) {
 		mContext = context;
-		mHandler = new Handler();
 		mUserDisconnected = false;
 
 		// Register bonding broadcast receiver
@@ -162,6 +247,33 @@ public abstract class BleManager<E extends BleManagerCallbacks> {
 		return mContext;
 	}
 
+	/**
+	 * Sets the scheduler shared with other managers connected at the same time. Operations of managers sharing a scheduler are not executed in parallel.
+	 * Must be set before connecting.
+	 *
+	 * @param scheduler the shared scheduler, or null to execute operations independently (default)
+	 */
+	public void setOperationScheduler(final GattOperationScheduler scheduler) {
+		mScheduler = scheduler;
+	}
+
+	/**
+	 * Returns the handler of the thread owned by this manager. All {@link BleManagerGattCallback} methods are called on this thread, so the manager may parse
+	 * data and keep its state there without synchronization. Only the results should be passed to the UI thread.
+	 *
+	 * @return the handler of the manager's thread
+	 */
+	protected final Handler getHandler() {
+		synchronized (mHandlerLock) {
+			if (mHandler == null) {
+				mHandlerThread = new HandlerThread(getClass().getSimpleName());
+				mHandlerThread.start();
+				mHandler = new Handler(mHandlerThread.getLooper());
+			}
+			return mHandler;
+		}
+	}
+
 	/**
 	 * This method must return the gatt callback used by the manager.
 	 * This method must not create a new gatt callback each time it is being invoked, but rather return a single object.
@@ -180,26 +292,125 @@ public abstract class BleManager<E extends BleManagerCallbacks> {
 		return false;
 	}
 
+	/**
+	 * Returns the backoff used to reconnect after a link loss, or null if the manager should not reconnect by itself. The default implementation returns null,
+	 * in which case only a connection made with {@link #shouldAutoConnect()} returning true is restored, by Android.
+	 * <p>
+	 * When a backoff is returned, a lost device is connected directly (autoConnect=false) after each delay given by the backoff. When it has no attempts left,
+	 * the manager falls back to a background connection (autoConnect=true) that lasts until the device is back in range. If the device exposes the Database Hash
+	 * characteristic and the services discovered before are still known, the hash is read instead of discovering the services again, which is skipped when the hash
+	 * has not changed. The method is called for each {@link #connect(GattTransport)}.
+	 * </p>
+	 *
+	 * @return a new backoff, for example <code>new ExponentialBackoff(DEFAULT_RECONNECT_INITIAL_DELAY, DEFAULT_RECONNECT_MAX_DELAY, DEFAULT_RECONNECT_DIRECT_ATTEMPTS, DEFAULT_RECONNECT_JITTER)</code>
+	 */
+	protected ExponentialBackoff createReconnectBackoff() {
+		return null;
+	}
+
+	/**
+	 * Returns the MTU that will be requested from the device during initialization, before executing the queue returned by
+	 * {@link BleManagerGattCallback#initGatt(BluetoothGatt)}. The default implementation returns {@link #DEFAULT_MTU}, in which case the MTU is not requested.
+	 * The MTU request is ignored on Android versions older than 5.0 (Lollipop).
+	 *
+	 * @return the preferred MTU, up to 517
+	 */
+	protected int getPreferredMtu() {
+		return DEFAULT_MTU;
+	}
+
+	/**
+	 * Returns the time in milliseconds after which a request without response is considered lost. The request is then sent again, up to
+	 * {@link #getOperationRetryCount()} times, with increasing delays. When there are no more attempts left, {@link BleManagerCallbacks#onOperationTimeout(String)}
+	 * is called and the queue moves to the next request. A single request may override it with {@link Request#setTimeout(long)}.
+	 * <p>A request rejected for insufficient authentication is not timed out while Android bonds with the device. It is sent again when the device
+	 * has been bonded.</p>
+	 *
+	 * @return the timeout in milliseconds, or 0 to wait for the response forever. The default implementation returns {@link #DEFAULT_OPERATION_TIMEOUT}
+	 */
+	protected long getOperationTimeout() {
+		return DEFAULT_OPERATION_TIMEOUT;
+	}
+
+	/**
+	 * Returns the number of times a request that has timed out is sent again before it is reported as failed. A single request may override it with
+	 * {@link Request#setRetryCount(int)}.
+	 *
+	 * @return the number of retries. The default implementation returns {@link #DEFAULT_OPERATION_RETRY_COUNT}
+	 */
+	protected int getOperationRetryCount() {
+		return DEFAULT_OPERATION_RETRY_COUNT;
+	}
+
+	/**
+	 * Returns the connection priority requested when the device has been connected, before the initialization requests are executed.
+	 * A higher priority (shorter connection interval) makes the service discovery and initialization faster. The priority is ignored on Android versions older than 5.0 (Lollipop).
+	 * The default implementation returns {@link #CONNECTION_PRIORITY_UNCHANGED}.
+	 *
+	 * @return one of {@link BluetoothGatt#CONNECTION_PRIORITY_HIGH}, {@link BluetoothGatt#CONNECTION_PRIORITY_BALANCED}, {@link BluetoothGatt#CONNECTION_PRIORITY_LOW_POWER}
+	 * or {@link #CONNECTION_PRIORITY_UNCHANGED}
+	 */
+	protected int getInitializationConnectionPriority() {
+		return CONNECTION_PRIORITY_UNCHANGED;
+	}
+
+	/**
+	 * Returns the connection priority requested after the initialization requests have been executed, just before the device is ready.
+	 * Profiles receiving data at a low rate should return {@link BluetoothGatt#CONNECTION_PRIORITY_LOW_POWER} here to save battery.
+	 * The default implementation returns {@link #CONNECTION_PRIORITY_UNCHANGED}.
+	 *
+	 * @return one of {@link BluetoothGatt#CONNECTION_PRIORITY_HIGH}, {@link BluetoothGatt#CONNECTION_PRIORITY_BALANCED}, {@link BluetoothGatt#CONNECTION_PRIORITY_LOW_POWER}
+	 * or {@link #CONNECTION_PRIORITY_UNCHANGED}
+	 */
+	protected int getReadyConnectionPriority() {
+		return CONNECTION_PRIORITY_UNCHANGED;
+	}
+
+	/**
+	 * Returns the current ATT MTU. The maximum size of data that can be sent in a single packet is (MTU - 3) bytes.
+	 *
+	 * @return the current MTU, {@link #DEFAULT_MTU} until a new MTU has been negotiated
+	 */
+	protected final int getMtu() {
+		return mMtu;
+	}
+
 	/**
 	 * Connects to the Bluetooth Smart device
 	 *
 	 * @param device a device to connect to
 	 */
 	public void connect(final BluetoothDevice device) {
+		connect(new BluetoothGattTransport(device));
+	}
+
+	/**
+	 * Connects to the device using given transport, for example a {@link no.nordicsemi.android.nrftoolbox.profile.simulator.SimulatedPeripheral}.
+	 * When the transport does not use the Android Bluetooth API, the {@link BluetoothGatt} objects passed to the {@link BleManagerGattCallback} methods
+	 * are <code>null</code> and services should be obtained using {@link #getService(UUID)}.
+	 *
+	 * @param transport the transport to connect with
+	 */
+	public void connect(final GattTransport transport) {
 		if (mConnected)
 			return;
 
-		if (mBluetoothGatt != null) {
+		if (mTransport != null) {
 			Logger.d(mLogSession, "gatt.close()");
-			mBluetoothGatt.close();
-			mBluetoothGatt = null;
+			mTransport.close();
+			mTransport = null;
 		}
 
 		final boolean autoConnect = shouldAutoConnect();
-		mUserDisconnected = !autoConnect; // We will receive Linkloss events only when the device is connected with autoConnect=true
+		mReconnectBackoff = createReconnectBackoff();
+		mReconnecting = false;
+		mDatabaseHash = null;
+		// We will receive Linkloss events only when the device is connected with autoConnect=true or the manager reconnects by itself
+		mUserDisconnected = !autoConnect && mReconnectBackoff == null;
 		Logger.v(mLogSession, "Connecting...");
 		Logger.d(mLogSession, "gatt = device.connectGatt(autoConnect = " + autoConnect + ")");
-		mBluetoothGatt = device.connectGatt(mContext, autoConnect, getGattCallback());
+		mTransport = transport;
+		transport.connect(mContext, autoConnect, mTransportCallback);
 	}
 
 	/**
@@ -209,11 +420,12 @@ public abstract class BleManager<E extends BleManagerCallbacks> {
 	public boolean disconnect() {
 		mUserDisconnected = true;
 
-		if (mConnected && mBluetoothGatt != null) {
+		final GattTransport transport = mTransport;
+		if (mConnected && transport != null) {
 			Logger.v(mLogSession, "Disconnecting...");
 			mCallbacks.onDeviceDisconnecting();
 			Logger.d(mLogSession, "gatt.disconnect()");
-			mBluetoothGatt.disconnect();
+			transport.disconnect();
 			return true;
 		}
 		return false;
@@ -229,11 +441,144 @@ public abstract class BleManager<E extends BleManagerCallbacks> {
 		} catch (Exception e) {
 			// the receiver must have been not registered or unregistered before
 		}
-		if (mBluetoothGatt != null) {
-			mBluetoothGatt.close();
-			mBluetoothGatt = null;
+		synchronized (mHandlerLock) {
+			if (mHandler != null) {
+				mHandler.removeCallbacks(mDirectReconnectTask);
+				mHandler.removeCallbacks(mBackgroundReconnectTask);
+			}
+		}
+		if (mTransport != null) {
+			mTransport.close();
+			mTransport = null;
 		}
 		mUserDisconnected = false;
+		mReconnecting = false;
+		if (mScheduler != null)
+			mScheduler.remove(this);
+		stopCapture();
+
+		synchronized (mHandlerLock) {
+			if (mHandlerThread != null) {
+				// Events already posted are still delivered. The thread will be started again on the next connection.
+				mHandlerThread.quitSafely();
+				mHandlerThread = null;
+				mHandler = null;
+			}
+		}
+	}
+
+	/**
+	 * Schedules the next reconnection attempt after a link loss or a failed attempt. Direct attempts are made while the backoff allows them, then the manager waits
+	 * for the device in the background.
+	 */
+	private void scheduleReconnect() {
+		final boolean direct = mReconnectBackoff.hasAttemptsLeft();
+		final long delay = mReconnectBackoff.nextDelay();
+		Logger.v(mLogSession, (direct ? "Reconnecting in " : "Reconnecting in the background in ") + delay + " ms...");
+		getHandler().postDelayed(direct ? mDirectReconnectTask : mBackgroundReconnectTask, delay);
+	}
+
+	/**
+	 * Connects directly to the device with a new connection, which is faster than the background connection but times out after about 30 seconds.
+	 * The connection on which the services were discovered is kept by the transport for the background connection.
+	 */
+	private final Runnable mDirectReconnectTask = new Runnable() {
+		@Override
+		public void run() {
+			final GattTransport transport = mTransport;
+			if (transport == null || mUserDisconnected || mConnected)
+				return;
+			Logger.v(mLogSession, "Reconnecting (attempt " + mReconnectBackoff.getAttempt() + ")...");
+			Logger.d(mLogSession, "gatt = device.connectGatt(autoConnect = false)");
+			transport.reconnectDirectly(mContext, mTransportCallback);
+		}
+	};
+
+	/**
+	 * Reuses the connection on which the services were discovered to connect in the background, as soon as the device becomes available.
+	 * The services are kept, so the discovery may be skipped if the Database Hash has not changed.
+	 */
+	private final Runnable mBackgroundReconnectTask = new Runnable() {
+		@Override
+		public void run() {
+			final GattTransport transport = mTransport;
+			if (transport == null || mUserDisconnected || mConnected)
+				return;
+			Logger.v(mLogSession, "Waiting for the device...");
+			Logger.d(mLogSession, "gatt.connect()");
+			if (!transport.reconnect()) {
+				Logger.d(mLogSession, "gatt = device.connectGatt(autoConnect = true)");
+				transport.connect(mContext, true, mTransportCallback);
+			}
+		}
+	};
+
+	/**
+	 * Starts writing all received notifications and indications, with the time they were received, to the file. The capture may be replayed later
+	 * using {@link no.nordicsemi.android.nrftoolbox.profile.simulator.CaptureReplay}. A capture in progress is closed.
+	 * The profiles capture only when the user has enabled session recording, see
+	 * {@link no.nordicsemi.android.nrftoolbox.session.SessionRecorder#getCaptureFile()}.
+	 *
+	 * @param file the capture file, overwritten if it exists
+	 */
+	public void startCapture(final File file) {
+		getHandler().post(new Runnable() {
+			@Override
+			public void run() {
+				closeCapture();
+				try {
+					mCaptureWriter = CaptureWriter.create(file);
+				} catch (final IOException e) {
+					DebugLogger.e(TAG, "Creating capture file failed", e);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Writes the remaining captured values and closes the capture file. Does nothing if the capture has not been started.
+	 */
+	public void stopCapture() {
+		// Without the manager's thread no capture can be open. Do not start the thread only to stop it, e.g. in close().
+		final Handler handler;
+		synchronized (mHandlerLock) {
+			handler = mHandler;
+		}
+		if (handler == null)
+			return;
+
+		handler.post(new Runnable() {
+			@Override
+			public void run() {
+				closeCapture();
+			}
+		});
+	}
+
+	private void closeCapture() {
+		final CaptureWriter writer = mCaptureWriter;
+		if (writer == null)
+			return;
+
+		mCaptureWriter = null;
+		try {
+			writer.close();
+		} catch (final IOException e) {
+			DebugLogger.e(TAG, "Closing capture file failed", e);
+		}
+	}
+
+	private void capture(final BluetoothGattCharacteristic characteristic, final boolean indication, final byte[] data) {
+		final CaptureWriter writer = mCaptureWriter;
+		if (writer == null)
+			return;
+
+		try {
+			writer.add(System.currentTimeMillis(), characteristic.getService().getUuid(), characteristic.getUuid(), characteristic.getProperties(), indication, data);
+		} catch (final IOException e) {
+			DebugLogger.e(TAG, "Writing capture failed", e);
+			closeCapture();
+		}
 	}
 
 	/**
@@ -248,6 +593,56 @@ public abstract class BleManager<E extends BleManagerCallbacks> {
 		mLogSession = session;
 	}
 
+	/**
+	 * Sets the minimum level of messages logged with {@link #log(int, ValueFormatter, byte[])}. Values of messages below this level are not even formatted.
+	 * By default all levels are logged.
+	 *
+	 * @param level one of the {@link LogContract.Log.Level} constants
+	 */
+	public void setLogLevel(final int level) {
+		mLogLevel = level;
+	}
+
+	/**
+	 * Returns true if a log session is set and messages with given level will be logged.
+	 *
+	 * @param level one of the {@link LogContract.Log.Level} constants
+	 */
+	protected final boolean isLogEnabled(final int level) {
+		return mLogSession != null && level >= mLogLevel;
+	}
+
+	/**
+	 * Logs the value in a human readable form. Nothing is done when the log session is not set or the level is disabled. Otherwise the raw value is passed
+	 * to the background log thread and the formatter is called there, so that building strings does not slow down the thread delivering notifications.
+	 * The array must not be modified afterwards. Values delivered to the {@link BleManagerGattCallback} are never modified by Android.
+	 *
+	 * @param level     one of the {@link LogContract.Log.Level} constants
+	 * @param formatter the formatter that will convert the value to a log message
+	 * @param data      the value to be logged
+	 */
+	protected final void log(final int level, final ValueFormatter formatter, final byte[] data) {
+		if (isLogEnabled(level) && data != null)
+			getLogHandler().post(new DeferredLog(mLogSession, level, null, null, formatter, data));
+	}
+
+	/**
+	 * Logs "[prefix][uuid], value: [data in HEX]" on the log thread.
+	 */
+	private void logValue(final int level, final String prefix, final UUID uuid, final byte[] data) {
+		if (isLogEnabled(level))
+			getLogHandler().post(new DeferredLog(mLogSession, level, prefix, uuid, HEX_FORMATTER, data));
+	}
+
+	private static synchronized Handler getLogHandler() {
+		if (sLogHandler == null) {
+			final HandlerThread thread = new HandlerThread("BleManagerLog", Process.THREAD_PRIORITY_BACKGROUND);
+			thread.start();
+			sLogHandler = new Handler(thread.getLooper());
+		}
+		return sLogHandler;
+	}
+
 	/**
 	 * Sets the manager callback listener
 	 *
@@ -283,6 +678,19 @@ public abstract class BleManager<E extends BleManagerCallbacks> {
 		return BATTERY_LEVEL_CHARACTERISTIC.equals(characteristic.getUuid());
 	}
 
+	/**
+	 * Returns the Database Hash characteristic from the Generic Attribute service, if the transport knows the services of the device.
+	 *
+	 * @param transport the transport
+	 * @return the characteristic or null
+	 */
+	private BluetoothGattCharacteristic getDatabaseHashCharacteristic(final GattTransport transport) {
+		final BluetoothGattService gaService = transport.getService(GENERIC_ATTRIBUTE_SERVICE);
+		if (gaService == null)
+			return null;
+		return gaService.getCharacteristic(DATABASE_HASH_CHARACTERISTIC);
+	}
+
 	/**
 	 * Returns true if this descriptor is from the Battery Level characteristic.
 	 *
@@ -300,20 +708,19 @@ public abstract class BleManager<E extends BleManagerCallbacks> {
 	 * When the device is bonded and has the Generic Attribute service and the Service Changed characteristic this method enables indications on this characteristic.
 	 * In case one of the requirements is not fulfilled this method returns <code>false</code>.
 	 *
-	 * @param gatt the gatt device with services discovered
 	 * @return <code>true</code> when the request has been sent, <code>false</code> when the device is not bonded, does not have the Generic Attribute service, the GA service does not have
 	 * the Service Changed characteristic or this characteristic does not have the CCCD.
 	 */
-	private boolean ensureServiceChangedEnabled(final BluetoothGatt gatt) {
-		if (gatt == null)
+	private boolean ensureServiceChangedEnabled() {
+		final GattTransport transport = mTransport;
+		if (transport == null)
 			return false;
 
 		// The Service Changed indications have sense only on bonded devices
-		final BluetoothDevice device = gatt.getDevice();
-		if (device.getBondState() != BluetoothDevice.BOND_BONDED)
+		if (transport.getBondState() != BluetoothDevice.BOND_BONDED)
 			return false;
 
-		final BluetoothGattService gaService = gatt.getService(GENERIC_ATTRIBUTE_SERVICE);
+		final BluetoothGattService gaService = transport.getService(GENERIC_ATTRIBUTE_SERVICE);
 		if (gaService == null)
 			return false;
 
@@ -322,7 +729,43 @@ public abstract class BleManager<E extends BleManagerCallbacks> {
 			return false;
 
 		Logger.i(mLogSession, "Service Changed characteristic found on a bonded device");
-		return enableIndications(scCharacteristic);
+		return internalEnableIndications(scCharacteristic);
+	}
+
+	/**
+	 * Returns the discovered service with given UUID. Unlike {@link BluetoothGatt#getService(UUID)} this method works with every {@link GattTransport}.
+	 *
+	 * @param uuid the service UUID
+	 * @return the service, or null if not found or not connected
+	 */
+	protected final BluetoothGattService getService(final UUID uuid) {
+		final GattTransport transport = mTransport;
+		return transport != null ? transport.getService(uuid) : null;
+	}
+
+	/**
+	 * Adds the request to the operation queue. Android allows only one GATT operation at a time, so all requests are executed one after another,
+	 * in the order they were enqueued. The next request is started as soon as the callback of the previous one has been received.
+	 * Requests enqueued before the device is ready are executed after the initialization queue returned by {@link BleManagerGattCallback#initGatt(BluetoothGatt)}.
+	 *
+	 * @param request the request to be executed
+	 * @return true if the request has been enqueued, false if the device is not connected
+	 */
+	protected final boolean enqueue(final Request request) {
+		if (!mConnected || request == null)
+			return false;
+
+		getGattCallback().enqueue(request);
+		return true;
+	}
+
+	/**
+	 * Enqueues the request to enable notifications on given characteristic.
+	 *
+	 * @return true if the request has been enqueued
+	 */
+	protected final boolean enableNotifications(final BluetoothGattCharacteristic characteristic) {
+		return characteristic != null && enqueue(Request.newEnableNotificationsRequest(characteristic));
 	}
 
 	/**
@@ -330,8 +773,8 @@ public abstract class BleManager<E extends BleManagerCallbacks> {
 	 *
 	 * @return true is the request has been sent, false if one of the arguments was <code>null</code> or the characteristic does not have the CCCD.
 	 */
-	protected final boolean enableNotifications(final BluetoothGattCharacteristic characteristic) {
-		final BluetoothGatt gatt = mBluetoothGatt;
+	private boolean internalEnableNotifications(final BluetoothGattCharacteristic characteristic) {
+		final GattTransport gatt = mTransport;
 		if (gatt == null || characteristic == null)
 			return false;
 
@@ -352,13 +795,22 @@ public abstract class BleManager<E extends BleManagerCallbacks> {
 		return false;
 	}
 
+	/**
+	 * Enqueues the request to enable indications on given characteristic.
+	 *
+	 * @return true if the request has been enqueued
+	 */
+	protected final boolean enableIndications(final BluetoothGattCharacteristic characteristic) {
+		return characteristic != null && enqueue(Request.newEnableIndicationsRequest(characteristic));
+	}
+
 	/**
 	 * Enables indications on given characteristic
 	 *
 	 * @return true is the request has been sent, false if one of the arguments was <code>null</code> or the characteristic does not have the CCCD.
 	 */
-	protected final boolean enableIndications(final BluetoothGattCharacteristic characteristic) {
-		final BluetoothGatt gatt = mBluetoothGatt;
+	private boolean internalEnableIndications(final BluetoothGattCharacteristic characteristic) {
+		final GattTransport gatt = mTransport;
 		if (gatt == null || characteristic == null)
 			return false;
 
@@ -379,14 +831,24 @@ public abstract class BleManager<E extends BleManagerCallbacks> {
 		return false;
 	}
 
+	/**
+	 * Enqueues the read request to the given characteristic.
+	 *
+	 * @param characteristic the characteristic to read
+	 * @return true if the request has been enqueued
+	 */
+	protected final boolean readCharacteristic(final BluetoothGattCharacteristic characteristic) {
+		return characteristic != null && enqueue(Request.newReadRequest(characteristic));
+	}
+
 	/**
 	 * Sends the read request to the given characteristic.
 	 *
 	 * @param characteristic the characteristic to read
 	 * @return true if request has been sent
 	 */
-	protected final boolean readCharacteristic(final BluetoothGattCharacteristic characteristic) {
-		final BluetoothGatt gatt = mBluetoothGatt;
+	private boolean internalReadCharacteristic(final BluetoothGattCharacteristic characteristic) {
+		final GattTransport gatt = mTransport;
 		if (gatt == null || characteristic == null)
 			return false;
 
@@ -400,14 +862,25 @@ public abstract class BleManager<E extends BleManagerCallbacks> {
 		return gatt.readCharacteristic(characteristic);
 	}
 
+	/**
+	 * Enqueues the write request to the given characteristic. The current value and write type of the characteristic are copied to the request,
+	 * so the characteristic may be modified again before the request is executed.
+	 *
+	 * @param characteristic the characteristic to write to
+	 * @return true if the request has been enqueued
+	 */
+	protected final boolean writeCharacteristic(final BluetoothGattCharacteristic characteristic) {
+		return characteristic != null && enqueue(Request.newWriteRequest(characteristic, characteristic.getValue()));
+	}
+
 	/**
 	 * Writes the characteristic value to the given characteristic.
 	 *
 	 * @param characteristic the characteristic to write to
 	 * @return true if request has been sent
 	 */
-	protected final boolean writeCharacteristic(final BluetoothGattCharacteristic characteristic) {
-		final BluetoothGatt gatt = mBluetoothGatt;
+	private boolean internalWriteCharacteristic(final BluetoothGattCharacteristic characteristic) {
+		final GattTransport gatt = mTransport;
 		if (gatt == null || characteristic == null)
 			return false;
 
@@ -421,13 +894,22 @@ public abstract class BleManager<E extends BleManagerCallbacks> {
 		return gatt.writeCharacteristic(characteristic);
 	}
 
+	/**
+	 * Enqueues the request to read the battery level from the device.
+	 *
+	 * @return true if the request has been enqueued
+	 */
+	public final boolean readBatteryLevel() {
+		return enqueue(Request.newReadBatteryLevelRequest());
+	}
+
 	/**
 	 * Reads the battery level from the device.
 	 *
 	 * @return true if request has been sent
 	 */
-	public final boolean readBatteryLevel() {
-		final BluetoothGatt gatt = mBluetoothGatt;
+	private boolean internalReadBatteryLevel() {
+		final GattTransport gatt = mTransport;
 		if (gatt == null)
 			return false;
 
@@ -441,12 +923,21 @@ public abstract class BleManager<E extends BleManagerCallbacks> {
 
 		// Check characteristic property
 		final int properties = batteryLevelCharacteristic.getProperties();
-		if ((properties & BluetoothGattCharacteristic.PROPERTY_READ) == 0) {
-			return setBatteryNotifications(true);
-		}
+		if ((properties & BluetoothGattCharacteristic.PROPERTY_READ) == 0)
+			return false;
 
 		Logger.a(mLogSession, "Reading battery level...");
-		return readCharacteristic(batteryLevelCharacteristic);
+		return internalReadCharacteristic(batteryLevelCharacteristic);
+	}
+
+	/**
+	 * Enqueues the request to enable or disable notifications on the Battery Level characteristic.
+	 *
+	 * @param enable <code>true</code> to enable battery notifications, false to disable
+	 * @return true if the request has been enqueued
+	 */
+	public boolean setBatteryNotifications(final boolean enable) {
+		return enqueue(enable ? Request.newEnableBatteryLevelNotificationsRequest() : Request.newDisableBatteryLevelNotificationsRequest());
 	}
 
 	/**
@@ -455,8 +946,8 @@ public abstract class BleManager<E extends BleManagerCallbacks> {
 	 * @param enable <code>true</code> to enable battery notifications, false to disable
 	 * @return true if request has been sent
 	 */
-	public boolean setBatteryNotifications(final boolean enable) {
-		final BluetoothGatt gatt = mBluetoothGatt;
+	private boolean internalSetBatteryNotifications(final boolean enable) {
+		final GattTransport gatt = mTransport;
 		if (gatt == null) {
 			return false;
 		}
@@ -493,28 +984,161 @@ public abstract class BleManager<E extends BleManagerCallbacks> {
 		return false;
 	}
 
+	/**
+	 * Enqueues the request to change the ATT MTU. This request is ignored on Android versions older than 5.0 (Lollipop).
+	 *
+	 * @param mtu the requested MTU, up to 517 bytes
+	 * @return true if the request has been enqueued
+	 */
+	protected final boolean requestMtu(final int mtu) {
+		return enqueue(Request.newMtuRequest(mtu));
+	}
+
+	/**
+	 * Requests the new MTU from the remote device.
+	 *
+	 * @param mtu the requested MTU
+	 * @return true if request has been sent
+	 */
+	private boolean internalRequestMtu(final int mtu) {
+		final GattTransport gatt = mTransport;
+		if (gatt == null)
+			return false;
+
+		Logger.v(mLogSession, "Requesting new MTU...");
+		Logger.d(mLogSession, "gatt.requestMtu(" + mtu + ")");
+		return gatt.requestMtu(mtu);
+	}
+
+	/**
+	 * Enqueues the request to change the connection priority. This request is ignored on Android versions older than 5.0 (Lollipop).
+	 *
+	 * @param priority one of {@link BluetoothGatt#CONNECTION_PRIORITY_HIGH}, {@link BluetoothGatt#CONNECTION_PRIORITY_BALANCED} or {@link BluetoothGatt#CONNECTION_PRIORITY_LOW_POWER}
+	 * @return true if the request has been enqueued
+	 */
+	protected final boolean requestConnectionPriority(final int priority) {
+		return enqueue(Request.newConnectionPriorityRequest(priority));
+	}
+
+	/**
+	 * Requests the new connection priority. Android does not report when the new connection parameters have been applied,
+	 * so the request is completed as soon as it has been sent.
+	 *
+	 * @param priority the requested connection priority
+	 * @return true if request has been sent
+	 */
+	private boolean internalRequestConnectionPriority(final int priority) {
+		final GattTransport gatt = mTransport;
+		if (gatt == null)
+			return false;
+
+		Logger.v(mLogSession, "Requesting connection priority: " + connectionPriorityToString(priority) + "...");
+		Logger.d(mLogSession, "gatt.requestConnectionPriority(" + priority + ")");
+		return gatt.requestConnectionPriority(priority);
+	}
+
+	/**
+	 * Converts a characteristic value to a log message. See {@link BleManager#log(int, ValueFormatter, byte[])}.
+	 */
+	protected interface ValueFormatter {
+		/**
+		 * Called on the log thread when the message is going to be logged.
+		 *
+		 * @param data the value to be formatted
+		 * @return the log message
+		 */
+		String format(final byte[] data);
+	}
+
+	/**
+	 * A log message which value is formatted when the task is executed on the log thread.
+	 */
+	private static final class DeferredLog implements Runnable {
+		private final ILogSession mSession;
+		private final int mLevel;
+		private final String mPrefix;
+		private final UUID mUuid;
+		private final ValueFormatter mFormatter;
+		private final byte[] mData;
+
+		private DeferredLog(final ILogSession session, final int level, final String prefix, final UUID uuid, final ValueFormatter formatter, final byte[] data) {
+			mSession = session;
+			mLevel = level;
+			mPrefix = prefix;
+			mUuid = uuid;
+			mFormatter = formatter;
+			mData = data;
+		}
+
+		@Override
+		public void run() {
+			final String value = mFormatter.format(mData);
+			if (mPrefix != null)
+				Logger.log(mSession, mLevel, mPrefix + mUuid + ", value: " + value);
+			else
+				Logger.log(mSession, mLevel, value);
+		}
+	}
+
+	/**
+	 * The listener notified when a request from the operation queue has been completed.
+	 */
+	protected interface OnRequestCompletedListener {
+		/**
+		 * Called when the request has finished, successfully or not.
+		 *
+		 * @param request the completed request
+		 * @param status  {@link BluetoothGatt#GATT_SUCCESS} or the error code. {@link BluetoothGatt#GATT_FAILURE} is returned when the request could not be sent,
+		 *                for example when the characteristic does not have the required property
+		 */
+		void onRequestCompleted(final Request request, final int status);
+	}
+
 	protected static final class Request {
 		private enum Type {
 			WRITE,
 			READ,
 			ENABLE_NOTIFICATIONS,
-			ENABLE_INDICATIONS
+			ENABLE_INDICATIONS,
+			READ_BATTERY_LEVEL,
+			ENABLE_BATTERY_LEVEL_NOTIFICATIONS,
+			DISABLE_BATTERY_LEVEL_NOTIFICATIONS,
+			ENABLE_SERVICE_CHANGED_INDICATIONS,
+			REQUEST_MTU,
+			REQUEST_CONNECTION_PRIORITY
 		}
 
 		private final Type type;
 		private final BluetoothGattCharacteristic characteristic;
 		private final byte[] value;
+		private final int writeType;
+		private final int intValue;
+		private OnRequestCompletedListener listener;
+		/** The timeout in milliseconds, or -1 to use {@link BleManager#getOperationTimeout()}. */
+		private long timeout = -1;
+		/** The number of retries, or -1 to use {@link BleManager#getOperationRetryCount()}. */
+		private int retryCount = -1;
+		/** The number of the current attempt, 0 for the first one. Accessed only when the request is the current one. */
+		private int attempt;
+
+		private Request(final Type type) {
+			this(type, null, null, BluetoothGattCharacteristic.WRITE_TYPE_DEFAULT, 0);
+		}
+
+		private Request(final Type type, final int intValue) {
+			this(type, null, null, BluetoothGattCharacteristic.WRITE_TYPE_DEFAULT, intValue);
+		}
 
 		private Request(final Type type, final BluetoothGattCharacteristic characteristic) {
-			this.type = type;
-			this.characteristic = characteristic;
-			this.value = null;
+			this(type, characteristic, null, BluetoothGattCharacteristic.WRITE_TYPE_DEFAULT, 0);
 		}
 
-		private Request(final Type type, final BluetoothGattCharacteristic characteristic, final byte[] value) {
+		private Request(final Type type, final BluetoothGattCharacteristic characteristic, final byte[] value, final int writeType, final int intValue) {
 			this.type = type;
 			this.characteristic = characteristic;
 			this.value = value;
+			this.writeType = writeType;
+			this.intValue = intValue;
 		}
 
 		public static Request newReadRequest(final BluetoothGattCharacteristic characteristic) {
@@ -522,7 +1146,11 @@ public abstract class BleManager<E extends BleManagerCallbacks> {
 		}
 
 		public static Request newWriteRequest(final BluetoothGattCharacteristic characteristic, final byte[] value) {
-			return new Request(Type.WRITE, characteristic, value);
+			return new Request(Type.WRITE, characteristic, value, characteristic != null ? characteristic.getWriteType() : BluetoothGattCharacteristic.WRITE_TYPE_DEFAULT, 0);
+		}
+
+		public static Request newWriteRequest(final BluetoothGattCharacteristic characteristic, final byte[] value, final int writeType) {
+			return new Request(Type.WRITE, characteristic, value, writeType, 0);
 		}
 
 		public static Request newEnableNotificationsRequest(final BluetoothGattCharacteristic characteristic) {
@@ -532,16 +1160,237 @@ public abstract class BleManager<E extends BleManagerCallbacks> {
 		public static Request newEnableIndicationsRequest(final BluetoothGattCharacteristic characteristic) {
 			return new Request(Type.ENABLE_INDICATIONS, characteristic);
 		}
+
+		public static Request newMtuRequest(final int mtu) {
+			return new Request(Type.REQUEST_MTU, mtu);
+		}
+
+		public static Request newConnectionPriorityRequest(final int priority) {
+			return new Request(Type.REQUEST_CONNECTION_PRIORITY, priority);
+		}
+
+		private static Request newReadBatteryLevelRequest() {
+			return new Request(Type.READ_BATTERY_LEVEL);
+		}
+
+		private static Request newEnableBatteryLevelNotificationsRequest() {
+			return new Request(Type.ENABLE_BATTERY_LEVEL_NOTIFICATIONS);
+		}
+
+		private static Request newDisableBatteryLevelNotificationsRequest() {
+			return new Request(Type.DISABLE_BATTERY_LEVEL_NOTIFICATIONS);
+		}
+
+		private static Request newEnableServiceChangedIndicationsRequest() {
+			return new Request(Type.ENABLE_SERVICE_CHANGED_INDICATIONS);
+		}
+
+		/**
+		 * Sets the listener that will be notified when this request has been completed.
+		 *
+		 * @param listener the listener
+		 * @return the request
+		 */
+		public Request setOnRequestCompletedListener(final OnRequestCompletedListener listener) {
+			this.listener = listener;
+			return this;
+		}
+
+		/**
+		 * Sets the time after which the request is considered lost, overriding {@link BleManager#getOperationTimeout()}.
+		 *
+		 * @param timeout the timeout in milliseconds, or 0 to wait for the response forever
+		 * @return the request
+		 */
+		public Request setTimeout(final long timeout) {
+			this.timeout = timeout;
+			return this;
+		}
+
+		/**
+		 * Sets how many times the request is sent again after it has timed out, overriding {@link BleManager#getOperationRetryCount()}.
+		 *
+		 * @param retryCount the number of retries, 0 to report the first timeout as an error
+		 * @return the request
+		 */
+		public Request setRetryCount(final int retryCount) {
+			this.retryCount = retryCount;
+			return this;
+		}
+
+		/**
+		 * Returns the characteristic this request is targeting, or null for requests not related to a characteristic.
+		 *
+		 * @return the characteristic
+		 */
+		public BluetoothGattCharacteristic getCharacteristic() {
+			return characteristic;
+		}
+
+		/**
+		 * Returns the value to be written, or null for requests other than write.
+		 *
+		 * @return the value
+		 */
+		public byte[] getValue() {
+			return value;
+		}
+	}
+
+	/**
+	 * Android calls {@link BluetoothGattCallback} methods on a Binder thread. This callback, given to the {@link GattTransport},
+	 * moves every event to the manager's thread (see {@link #getHandler()}), where the {@link BleManagerGattCallback} handles it. The notified value is
+	 * captured by the transport on the Binder thread, as the next notification replaces the value of the characteristic.
+	 */
+	private final GattTransport.Callback mTransportCallback = new GattTransport.Callback() {
+		@Override
+		public void onConnectionStateChange(final int status, final int newState) {
+			getHandler().post(new Runnable() {
+				@Override
+				public void run() {
+					getGattCallback().onConnectionStateChange(getGatt(), status, newState);
+				}
+			});
+		}
+
+		@Override
+		public void onServicesDiscovered(final int status) {
+			getHandler().post(new Runnable() {
+				@Override
+				public void run() {
+					getGattCallback().onServicesDiscovered(getGatt(), status);
+				}
+			});
+		}
+
+		@Override
+		public void onCharacteristicRead(final BluetoothGattCharacteristic characteristic, final int status) {
+			getHandler().post(new Runnable() {
+				@Override
+				public void run() {
+					getGattCallback().onCharacteristicRead(getGatt(), characteristic, status);
+				}
+			});
+		}
+
+		@Override
+		public void onCharacteristicWrite(final BluetoothGattCharacteristic characteristic, final int status) {
+			getHandler().post(new Runnable() {
+				@Override
+				public void run() {
+					getGattCallback().onCharacteristicWrite(getGatt(), characteristic, status);
+				}
+			});
+		}
+
+		@Override
+		public void onDescriptorWrite(final BluetoothGattDescriptor descriptor, final int status) {
+			getHandler().post(new Runnable() {
+				@Override
+				public void run() {
+					getGattCallback().onDescriptorWrite(getGatt(), descriptor, status);
+				}
+			});
+		}
+
+		@Override
+		public void onCharacteristicChanged(final BluetoothGattCharacteristic characteristic, final byte[] data) {
+			getHandler().post(new Runnable() {
+				@Override
+				public void run() {
+					getGattCallback().onCharacteristicChanged(getGatt(), characteristic, data);
+				}
+			});
+		}
+
+		@Override
+		public void onMtuChanged(final int mtu, final int status) {
+			getHandler().post(new Runnable() {
+				@Override
+				public void run() {
+					getGattCallback().onMtuChanged(getGatt(), mtu, status);
+				}
+			});
+		}
+	};
+
+	/**
+	 * Returns the {@link BluetoothGatt} object passed to the {@link BleManagerGattCallback} methods. It's null when the transport does not use the Android Bluetooth API.
+	 */
+	private BluetoothGatt getGatt() {
+		final GattTransport transport = mTransport;
+		return transport != null ? transport.getGatt() : null;
+	}
+
+	/**
+	 * Returns the address of the device the manager is connected or connecting to, or null. It may be used to keep data of each device separately.
+	 */
+	protected final String getAddress() {
+		final GattTransport transport = mTransport;
+		return transport != null ? transport.getAddress() : null;
+	}
+
+	private int getBondState() {
+		final GattTransport transport = mTransport;
+		return transport != null ? transport.getBondState() : BluetoothDevice.BOND_NONE;
 	}
 
 	protected abstract class BleManagerGattCallback extends BluetoothGattCallback {
+		private final Queue<Request> mTaskQueue = new LinkedList<>();
 		private Queue<Request> mInitQueue;
 		private boolean mInitInProgress;
+		/** True when the Database Hash is being read after a reconnection, before deciding whether to discover the services again. Used only on the manager's thread. */
+		private boolean mDatabaseHashCheckInProgress;
+		/** True when the services discovered before are used as the Database Hash has not changed, so it does not have to be read again. Used only on the manager's thread. */
+		private boolean mDatabaseHashVerified;
+		/** A flag set to true when a request has been sent and its callback has not been received yet, or when the device is not yet initialized. */
+		private boolean mOperationInProgress;
+		private Request mCurrentRequest;
+		/** The watchdog of the current attempt. Used only on the manager's thread. */
+		private Runnable mOperationTimeoutTask;
+		/** The request that failed for insufficient authentication and waits until the device is bonded, or null. Used only on the manager's thread. */
+		private Request mBondingRequest;
+
+		/** Fails the request waiting for bonding when the user has not finished the pairing in time. */
+		private final Runnable mBondingTimeoutTask = new Runnable() {
+			@Override
+			public void run() {
+				if (takeBondingRequest() == null)
+					return;
+				Logger.e(mLogSession, "Error: device not bonded in " + BONDING_TIMEOUT + " ms");
+				mCallbacks.onOperationTimeout(ERROR_OPERATION_TIMEOUT);
+				completeRequest(ERROR_TIMEOUT);
+			}
+		};
+
+		/** Reports a connection that has not finished the service discovery in time. Android sometimes never calls back, leaving the device connected but unusable. */
+		private final Runnable mDiscoveryTimeoutTask = new Runnable() {
+			@Override
+			public void run() {
+				if (!mConnected)
+					return;
+				Logger.e(mLogSession, "Service discovery has not finished in " + SERVICE_DISCOVERY_TIMEOUT + " ms");
+				mCallbacks.onError(ERROR_DISCOVERY_TIMEOUT, ERROR_TIMEOUT);
+			}
+		};
+
+		/** Called by the {@link GattOperationScheduler} when it is this manager's turn to execute an operation. */
+		private final Runnable mResumeTask = new Runnable() {
+			@Override
+			public void run() {
+				getHandler().post(new Runnable() {
+					@Override
+					public void run() {
+						nextRequest();
+					}
+				});
+			}
+		};
 
 		/**
 		 * This method should return <code>true</code> when the gatt device supports the required services.
 		 *
-		 * @param gatt the gatt device with services discovered
+		 * @param gatt the gatt device with services discovered, or null when the transport does not use the Android Bluetooth API. Use {@link BleManager#getService(UUID)} to find services
 		 * @return <code>true</code> when the device has teh required service
 		 */
 		protected abstract boolean isRequiredServiceSupported(final BluetoothGatt gatt);
@@ -550,7 +1399,7 @@ public abstract class BleManager<E extends BleManagerCallbacks> {
 		 * This method should return <code>true</code> when the gatt device supports the optional services.
 		 * The default implementation returns <code>false</code>.
 		 *
-		 * @param gatt the gatt device with services discovered
+		 * @param gatt the gatt device with services discovered, or null when the transport does not use the Android Bluetooth API. Use {@link BleManager#getService(UUID)} to find services
 		 * @return <code>true</code> when the device has teh optional service
 		 */
 		protected boolean isOptionalServiceSupported(final BluetoothGatt gatt) {
@@ -559,12 +1408,13 @@ public abstract class BleManager<E extends BleManagerCallbacks> {
 
 		/**
 		 * This method should return a list of requests needed to initialize the profile.
-		 * Enabling Service Change indications for bonded devices and reading the Battery Level value and enabling Battery Level notifications
-		 * is handled before executing this queue. The queue should not have requests that are not available, e.g. should not
-		 * read an optional service when it is not supported by the connected device.
+		 * Requesting the initialization connection priority, enabling Service Change indications for bonded devices, reading the Battery Level value, enabling Battery Level notifications
+		 * and requesting the MTU (see {@link BleManager#getPreferredMtu()}) is handled before executing this queue. The connection priority returned by
+		 * {@link BleManager#getReadyConnectionPriority()} is requested after this queue. Requests that are not supported by the device (e.g. reading a characteristic without the READ property)
+		 * are skipped, but the queue should not have requests for characteristics that were not found.
 		 * <p>This method is called when the services has been discovered and the device is supported (has required service).</p>
 		 *
-		 * @param gatt the gatt device with services discovered
+		 * @param gatt the gatt device with services discovered, or null when the transport does not use the Android Bluetooth API. Use {@link BleManager#getService(UUID)} to find services
 		 * @return the queue of requests
 		 */
 		protected abstract Queue<Request> initGatt(final BluetoothGatt gatt);
@@ -609,11 +1459,27 @@ public abstract class BleManager<E extends BleManagerCallbacks> {
 			// do nothing
 		}
 
-		protected void onCharacteristicNotified(final BluetoothGatt gatt, final BluetoothGattCharacteristic characteristic) {
+		/**
+		 * Called when a notification has been received. The value of the characteristic may already have been replaced by the next notification,
+		 * use the given data instead.
+		 *
+		 * @param gatt           GATT client
+		 * @param characteristic the characteristic that has been notified
+		 * @param data           the value received in this notification
+		 */
+		protected void onCharacteristicNotified(final BluetoothGatt gatt, final BluetoothGattCharacteristic characteristic, final byte[] data) {
 			// do nothing
 		}
 
-		protected void onCharacteristicIndicated(final BluetoothGatt gatt, final BluetoothGattCharacteristic characteristic) {
+		/**
+		 * Called when an indication has been received. The value of the characteristic may already have been replaced by the next indication,
+		 * use the given data instead.
+		 *
+		 * @param gatt           GATT client
+		 * @param characteristic the characteristic that has been indicated
+		 * @param data           the value received in this indication
+		 */
+		protected void onCharacteristicIndicated(final BluetoothGatt gatt, final BluetoothGattCharacteristic characteristic, final byte[] data) {
 			// do nothing
 		}
 
@@ -628,8 +1494,16 @@ public abstract class BleManager<E extends BleManagerCallbacks> {
 
 			if (status == BluetoothGatt.GATT_SUCCESS && newState == BluetoothProfile.STATE_CONNECTED) {
 				// Notify the parent activity/service
-				Logger.i(mLogSession, "Connected to " + gatt.getDevice().getAddress());
+				Logger.i(mLogSession, "Connected to " + getAddress());
 				mConnected = true;
+				final boolean reconnected = mReconnecting;
+				mReconnecting = false;
+				if (mReconnectBackoff != null)
+					mReconnectBackoff.reset();
+				// Requests enqueued from now on will wait until the device is initialized
+				synchronized (this) {
+					mOperationInProgress = true;
+				}
 				mCallbacks.onDeviceConnected();
 
 				/*
@@ -648,28 +1522,61 @@ public abstract class BleManager<E extends BleManagerCallbacks> {
 				 * NOTE: This applies only for bonded devices with Service Changed characteristic, but to be sure we will postpone
 				 * service discovery for all devices.
 				 */
-				mHandler.postDelayed(new Runnable() {
+				getHandler().postDelayed(new Runnable() {
 					@Override
 					public void run() {
 						// Some proximity tags (e.g. nRF PROXIMITY) initialize bonding automatically when connected.
-						if (gatt.getDevice().getBondState() != BluetoothDevice.BOND_BONDING) {
-							Logger.v(mLogSession, "Discovering Services...");
-							Logger.d(mLogSession, "gatt.discoverServices()");
-							gatt.discoverServices();
+						final GattTransport transport = mTransport;
+						if (transport != null && transport.getBondState() != BluetoothDevice.BOND_BONDING) {
+							// After a reconnection the services may still be known. They are valid if the Database Hash has not changed.
+							if (reconnected && checkDatabaseHash(transport))
+								return;
+							discoverServices(transport);
 						}
 					}
 				}, 600);
 			} else {
 				if (newState == BluetoothProfile.STATE_DISCONNECTED) {
+					final boolean wasConnected = mConnected;
 					if (status != BluetoothGatt.GATT_SUCCESS)
 						Logger.w(mLogSession, "Error: (0x" + Integer.toHexString(status) + "): " + GattError.parseConnectionError(status));
 
+					// Pending requests are dropped. They can't be executed without a connection.
+					synchronized (this) {
+						mTaskQueue.clear();
+						mInitQueue = null;
+						mInitInProgress = false;
+						mOperationInProgress = false;
+						mCurrentRequest = null;
+					}
+					mDatabaseHashCheckInProgress = false;
+					mDatabaseHashVerified = false;
+					takeBondingRequest();
+					if (mScheduler != null)
+						mScheduler.remove(BleManager.this);
+					getHandler().removeCallbacks(mDiscoveryTimeoutTask);
+
 					onDeviceDisconnected();
 					mConnected = false;
+					mMtu = DEFAULT_MTU;
 					if (mUserDisconnected) {
 						Logger.i(mLogSession, "Disconnected");
 						mCallbacks.onDeviceDisconnected();
 						close();
+					} else if (mReconnectBackoff != null) {
+						if (wasConnected) {
+							Logger.w(mLogSession, "Connection lost");
+							mCallbacks.onLinklossOccur();
+							mReconnecting = true;
+						}
+						if (mReconnecting) {
+							scheduleReconnect();
+						} else {
+							// The first connection attempt has failed, there is nothing to reconnect to
+							Logger.i(mLogSession, "Disconnected");
+							mCallbacks.onDeviceDisconnected();
+							close();
+						}
 					} else {
 						Logger.w(mLogSession, "Connection lost");
 						mCallbacks.onLinklossOccur();
@@ -685,8 +1592,52 @@ public abstract class BleManager<E extends BleManagerCallbacks> {
 			}
 		}
 
+		private void discoverServices(final GattTransport transport) {
+			Logger.v(mLogSession, "Discovering Services...");
+			Logger.d(mLogSession, "gatt.discoverServices()");
+			if (transport.discoverServices())
+				getHandler().postDelayed(mDiscoveryTimeoutTask, SERVICE_DISCOVERY_TIMEOUT);
+		}
+
+		/**
+		 * Reads the Database Hash characteristic from the services discovered before the link loss. Android keeps them when the connection is reused,
+		 * see {@link GattTransport#reconnect()}.
+		 *
+		 * @param transport the transport
+		 * @return true if the hash is being read, false if the services have to be discovered
+		 */
+		private boolean checkDatabaseHash(final GattTransport transport) {
+			if (mDatabaseHash == null)
+				return false;
+			final BluetoothGattCharacteristic characteristic = getDatabaseHashCharacteristic(transport);
+			if (characteristic == null)
+				return false;
+
+			Logger.v(mLogSession, "Checking Database Hash...");
+			Logger.d(mLogSession, "gatt.readCharacteristic(" + characteristic.getUuid() + ")");
+			mDatabaseHashCheckInProgress = transport.readCharacteristic(characteristic);
+			if (mDatabaseHashCheckInProgress)
+				getHandler().postDelayed(mDiscoveryTimeoutTask, SERVICE_DISCOVERY_TIMEOUT);
+			return mDatabaseHashCheckInProgress;
+		}
+
+		private void onDatabaseHashRead(final BluetoothGatt gatt, final BluetoothGattCharacteristic characteristic, final int status) {
+			getHandler().removeCallbacks(mDiscoveryTimeoutTask);
+			if (status == BluetoothGatt.GATT_SUCCESS && Arrays.equals(mDatabaseHash, characteristic.getValue())) {
+				Logger.i(mLogSession, "Database Hash unchanged, using services discovered before");
+				mDatabaseHashVerified = true;
+				onServicesDiscovered(gatt, BluetoothGatt.GATT_SUCCESS);
+			} else {
+				Logger.i(mLogSession, "Database Hash changed");
+				final GattTransport transport = mTransport;
+				if (transport != null)
+					discoverServices(transport);
+			}
+		}
+
 		@Override
 		public final void onServicesDiscovered(final BluetoothGatt gatt, final int status) {
+			getHandler().removeCallbacks(mDiscoveryTimeoutTask);
 			if (status == BluetoothGatt.GATT_SUCCESS) {
 				Logger.i(mLogSession, "Services Discovered");
 				if (isRequiredServiceSupported(gatt)) {
@@ -698,19 +1649,41 @@ public abstract class BleManager<E extends BleManagerCallbacks> {
 					// Notify the parent activity
 					mCallbacks.onServicesDiscovered(optionalServicesFound);
 
-					// Obtain the queue of initialization requests
-					mInitInProgress = true;
-					mInitQueue = initGatt(gatt);
-
+					// Obtain the queue of initialization requests.
 					// When the device is bonded and has Service Changed characteristic, the indications must be enabled first.
-					// In case this method returns true we have to continue in the onDescriptorWrite callback
-					if (ensureServiceChangedEnabled(gatt))
-						return;
-
-					// We have discovered services, let's start by reading the battery level value. If the characteristic is not readable, try to enable notifications.
-					// If there is no Battery service, proceed with the initialization queue.
-					if (!readBatteryLevel())
-						nextRequest();
+					// Then we read the battery level value and enable Battery Level notifications. Requests not supported by the device are skipped.
+					final LinkedList<Request> initQueue = new LinkedList<>();
+					final int initPriority = getInitializationConnectionPriority();
+					if (initPriority != CONNECTION_PRIORITY_UNCHANGED)
+						initQueue.add(Request.newConnectionPriorityRequest(initPriority));
+					initQueue.add(Request.newEnableServiceChangedIndicationsRequest());
+					// The hash lets the next reconnection skip the service discovery, unless it has just been compared
+					final BluetoothGattCharacteristic databaseHash = mReconnectBackoff != null && mTransport != null ? getDatabaseHashCharacteristic(mTransport) : null;
+					if (databaseHash != null && !mDatabaseHashVerified)
+						initQueue.add(Request.newReadRequest(databaseHash));
+					mDatabaseHashVerified = false;
+					initQueue.add(Request.newReadBatteryLevelRequest());
+					initQueue.add(Request.newEnableBatteryLevelNotificationsRequest());
+					// Larger MTU allows to send more data in each packet
+					final int mtu = getPreferredMtu();
+					if (mtu > DEFAULT_MTU)
+						initQueue.add(Request.newMtuRequest(mtu));
+					final Queue<Request> requests = initGatt(gatt);
+					if (requests != null)
+						initQueue.addAll(requests);
+					// When initialized, the profile may switch to another connection priority
+					final int readyPriority = getReadyConnectionPriority();
+					if (readyPriority != CONNECTION_PRIORITY_UNCHANGED)
+						initQueue.add(Request.newConnectionPriorityRequest(readyPriority));
+
+					synchronized (this) {
+						mInitInProgress = true;
+						mInitQueue = initQueue;
+						// The services may have been discovered again (e.g. after bonding), in which case the current request will never complete
+						mCurrentRequest = null;
+						mOperationInProgress = false;
+					}
+					nextRequest();
 				} else {
 					Logger.w(mLogSession, "Device is not supported");
 					mCallbacks.onDeviceNotSupported();
@@ -724,142 +1697,408 @@ public abstract class BleManager<E extends BleManagerCallbacks> {
 
 		@Override
 		public final void onCharacteristicRead(final BluetoothGatt gatt, final BluetoothGattCharacteristic characteristic, final int status) {
+			if (mDatabaseHashCheckInProgress) {
+				mDatabaseHashCheckInProgress = false;
+				onDatabaseHashRead(gatt, characteristic, status);
+				return;
+			}
 			if (status == BluetoothGatt.GATT_SUCCESS) {
-				Logger.i(mLogSession, "Read Response received from " + characteristic.getUuid() + ", value: " + ParserUtils.parse(characteristic));
+				logValue(LogContract.Log.Level.INFO, "Read Response received from ", characteristic.getUuid(), characteristic.getValue());
 
 				if (isBatteryLevelCharacteristic(characteristic)) {
-					final int batteryValue = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT8, 0);
-					Logger.a(mLogSession, "Battery level received: " + batteryValue + "%");
+					final int batteryValue = DataReader.uint8(characteristic.getValue(), 0);
+					log(LogContract.Log.Level.APPLICATION, BATTERY_LEVEL_FORMATTER, characteristic.getValue());
 					mCallbacks.onBatteryValueReceived(batteryValue);
-
-					// The Battery Level value has been read. Let's try to enable Battery Level notifications.
-					// If the Battery Level characteristic does not have the NOTIFY property, proceed with the initialization queue.
-					if (!setBatteryNotifications(true))
-						nextRequest();
+				} else if (DATABASE_HASH_CHARACTERISTIC.equals(characteristic.getUuid())) {
+					mDatabaseHash = characteristic.getValue().clone();
 				} else {
-					// The value has been read. Notify the manager and proceed with the initialization queue.
+					// The value has been read. Notify the manager.
 					onCharacteristicRead(gatt, characteristic);
-					nextRequest();
 				}
+				completeRequest(status);
 			} else if (status == BluetoothGatt.GATT_INSUFFICIENT_AUTHENTICATION) {
-				if (gatt.getDevice().getBondState() != BluetoothDevice.BOND_NONE) {
+				if (getBondState() != BluetoothDevice.BOND_NONE) {
 					DebugLogger.w(TAG, ERROR_AUTH_ERROR_WHILE_BONDED);
 					mCallbacks.onError(ERROR_AUTH_ERROR_WHILE_BONDED, status);
+					completeRequest(status);
+				} else {
+					waitForBonding();
 				}
 			} else {
 				DebugLogger.e(TAG, "onCharacteristicRead error " + status);
 				onError(ERROR_READ_CHARACTERISTIC, status);
+				completeRequest(status);
 			}
 		}
 
 		@Override
 		public void onCharacteristicWrite(final BluetoothGatt gatt, final BluetoothGattCharacteristic characteristic, final int status) {
 			if (status == BluetoothGatt.GATT_SUCCESS) {
-				Logger.i(mLogSession, "Data written to " + characteristic.getUuid() + ", value: " + ParserUtils.parse(characteristic.getValue()));
-				// The value has been written. Notify the manager and proceed with the initialization queue.
+				logValue(LogContract.Log.Level.INFO, "Data written to ", characteristic.getUuid(), characteristic.getValue());
+				// The value has been written. Notify the manager.
 				onCharacteristicWrite(gatt, characteristic);
-				nextRequest();
+				completeRequest(status);
 			} else if (status == BluetoothGatt.GATT_INSUFFICIENT_AUTHENTICATION) {
-				if (gatt.getDevice().getBondState() != BluetoothDevice.BOND_NONE) {
+				if (getBondState() != BluetoothDevice.BOND_NONE) {
 					DebugLogger.w(TAG, ERROR_AUTH_ERROR_WHILE_BONDED);
 					mCallbacks.onError(ERROR_AUTH_ERROR_WHILE_BONDED, status);
+					completeRequest(status);
+				} else {
+					waitForBonding();
 				}
 			} else {
-				DebugLogger.e(TAG, "onCharacteristicRead error " + status);
-				onError(ERROR_READ_CHARACTERISTIC, status);
+				DebugLogger.e(TAG, "onCharacteristicWrite error " + status);
+				onError(ERROR_WRITE_CHARACTERISTIC, status);
+				completeRequest(status);
 			}
 		}
 
 		@Override
 		public final void onDescriptorWrite(final BluetoothGatt gatt, final BluetoothGattDescriptor descriptor, final int status) {
 			if (status == BluetoothGatt.GATT_SUCCESS) {
-				Logger.i(mLogSession, "Data written to descr. " + descriptor.getUuid() + ", value: " + ParserUtils.parse(descriptor));
+				Logger.i(mLogSession, "Data written to descr. " + descriptor.getUuid() + ", value: " + ParserUtils.parse(descriptor.getValue()));
 
 				if (isServiceChangedCCCD(descriptor)) {
 					Logger.a(mLogSession, "Service Changed notifications enabled");
-					if (!readBatteryLevel())
-						nextRequest();
 				} else if (isBatteryLevelCCCD(descriptor)) {
 					final byte[] value = descriptor.getValue();
 					if (value != null && value.length > 0 && value[0] == 0x01) {
 						Logger.a(mLogSession, "Battery Level notifications enabled");
-						nextRequest();
 					} else
 						Logger.a(mLogSession, "Battery Level notifications disabled");
-				} else {
-					nextRequest();
 				}
+				completeRequest(status);
 			} else if (status == BluetoothGatt.GATT_INSUFFICIENT_AUTHENTICATION) {
-				if (gatt.getDevice().getBondState() != BluetoothDevice.BOND_NONE) {
+				if (getBondState() != BluetoothDevice.BOND_NONE) {
 					DebugLogger.w(TAG, ERROR_AUTH_ERROR_WHILE_BONDED);
 					mCallbacks.onError(ERROR_AUTH_ERROR_WHILE_BONDED, status);
+					completeRequest(status);
+				} else {
+					waitForBonding();
 				}
 			} else {
 				DebugLogger.e(TAG, "onDescriptorWrite error " + status);
 				onError(ERROR_WRITE_DESCRIPTOR, status);
+				completeRequest(status);
 			}
 		}
 
 		@Override
 		public final void onCharacteristicChanged(final BluetoothGatt gatt, final BluetoothGattCharacteristic characteristic) {
-			final String data = ParserUtils.parse(characteristic);
+			onCharacteristicChanged(gatt, characteristic, characteristic.getValue());
+		}
 
+		private void onCharacteristicChanged(final BluetoothGatt gatt, final BluetoothGattCharacteristic characteristic, final byte[] data) {
 			if (isBatteryLevelCharacteristic(characteristic)) {
-				Logger.i(mLogSession, "Notification received from " + characteristic.getUuid() + ", value: " + data);
-				final int batteryValue = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT8, 0);
-				Logger.a(mLogSession, "Battery level received: " + batteryValue + "%");
+				capture(characteristic, false, data);
+				logValue(LogContract.Log.Level.INFO, "Notification received from ", characteristic.getUuid(), data);
+				final int batteryValue = DataReader.uint8(data, 0);
+				log(LogContract.Log.Level.APPLICATION, BATTERY_LEVEL_FORMATTER, data);
 				mCallbacks.onBatteryValueReceived(batteryValue);
 			} else {
 				final BluetoothGattDescriptor cccd = characteristic.getDescriptor(CLIENT_CHARACTERISTIC_CONFIG_DESCRIPTOR_UUID);
 				final boolean notifications = cccd == null || cccd.getValue() == null || cccd.getValue().length != 2 || cccd.getValue()[0] == 0x01;
+				capture(characteristic, !notifications, data);
 
 				if (notifications) {
-					Logger.i(mLogSession, "Notification received from " + characteristic.getUuid() + ", value: " + data);
-					onCharacteristicNotified(gatt, characteristic);
+					logValue(LogContract.Log.Level.INFO, "Notification received from ", characteristic.getUuid(), data);
+					onCharacteristicNotified(gatt, characteristic, data);
 				} else { // indications
-					Logger.i(mLogSession, "Indication received from " + characteristic.getUuid() + ", value: " + data);
-					onCharacteristicIndicated(gatt, characteristic);
+					logValue(LogContract.Log.Level.INFO, "Indication received from ", characteristic.getUuid(), data);
+					onCharacteristicIndicated(gatt, characteristic, data);
 				}
 			}
 		}
 
+		@Override
+		public final void onMtuChanged(final BluetoothGatt gatt, final int mtu, final int status) {
+			if (status == BluetoothGatt.GATT_SUCCESS) {
+				Logger.i(mLogSession, "MTU changed to: " + mtu);
+				mMtu = mtu;
+				mCallbacks.onMtuChanged(mtu);
+			} else {
+				DebugLogger.e(TAG, "onMtuChanged error " + status);
+				Logger.w(mLogSession, "MTU request failed (0x" + Integer.toHexString(status) + "): " + GattError.parse(status));
+			}
+			completeRequest(status);
+		}
+
 		/**
-		 * Executes the next initialization request. If the last element from the queue has been executed a {@link #onDeviceReady()} callback is called.
+		 * Adds the request to the operation queue and starts it if no other operation is in progress.
+		 *
+		 * @param request the request to be executed
+		 */
+		private void enqueue(final Request request) {
+			synchronized (this) {
+				mTaskQueue.add(request);
+			}
+			nextRequest();
+		}
+
+		/**
+		 * Marks the current request as completed, notifies its listener and starts the next request.
+		 * The listener is called without holding the queue lock, so it may safely enqueue new requests.
+		 *
+		 * @param status the status of the operation
+		 */
+		private void completeRequest(final int status) {
+			final Request request;
+			synchronized (this) {
+				request = mCurrentRequest;
+				mCurrentRequest = null;
+				mOperationInProgress = false;
+			}
+
+			if (request != null && request.listener != null)
+				request.listener.onRequestCompleted(request, status);
+			// Give other managers sharing the scheduler a chance to execute their operations
+			if (mScheduler != null)
+				mScheduler.release(BleManager.this);
+			nextRequest();
+		}
+
+		/**
+		 * Returns true if there is a request waiting to be executed and no operation is in progress.
+		 */
+		private synchronized boolean hasPendingRequest() {
+			return !mOperationInProgress && (mInitInProgress || !mTaskQueue.isEmpty());
+		}
+
+		/**
+		 * Executes the next request. Initialization requests are executed first. If the last element from the initialization queue has been executed
+		 * a {@link #onDeviceReady()} callback is called. Afterwards, the requests enqueued with {@link BleManager#enqueue(Request)} are executed.
+		 * Requests that could not be sent are skipped.
 		 */
 		private void nextRequest() {
-			final Queue<Request> requests = mInitQueue;
+			// With a scheduler shared with other managers, wait for our turn before taking the request
+			final GattOperationScheduler scheduler = mScheduler;
+			if (scheduler != null && hasPendingRequest() && !scheduler.acquire(BleManager.this, mResumeTask))
+				return;
 
-			// Get the first request from the queue
-			final Request request = requests != null ? requests.poll() : null;
+			final Request request;
+			boolean idle = false;
+			synchronized (this) {
+				if (mOperationInProgress)
+					return;
 
-			// Are we done?
-			if (request == null) {
-				if (mInitInProgress) {
+				// Get the first request from the init queue
+				Request next = mInitQueue != null ? mInitQueue.poll() : null;
+
+				// Are we done with initializing?
+				if (next == null && mInitInProgress) {
 					mInitInProgress = false;
-					onDeviceReady();
+					mInitQueue = null;
+				} else {
+					// Get the first request from the task queue
+					if (next == null)
+						next = mTaskQueue.poll();
+					if (next != null) {
+						next.attempt = 0;
+						mOperationInProgress = true;
+						mCurrentRequest = next;
+					} else {
+						idle = true;
+					}
 				}
+				request = next;
+			}
+
+			if (idle) {
+				if (scheduler != null)
+					scheduler.release(BleManager.this);
+				return;
+			}
+
+			if (request == null) {
+				onDeviceReady();
+				nextRequest();
 				return;
 			}
 
+			executeRequest(request);
+		}
+
+		/**
+		 * Sends the current request and starts its timeout. Requests that could not be sent are skipped, unless they are being retried after a timeout,
+		 * in which case the Bluetooth stack may still be busy with the lost operation.
+		 *
+		 * @param request the current request
+		 */
+		private void executeRequest(final Request request) {
+			boolean result = false;
 			switch (request.type) {
 				case READ: {
-					readCharacteristic(request.characteristic);
+					result = internalReadCharacteristic(request.characteristic);
 					break;
 				}
 				case WRITE: {
 					final BluetoothGattCharacteristic characteristic = request.characteristic;
-					characteristic.setValue(request.value);
-					writeCharacteristic(characteristic);
+					if (characteristic != null) {
+						characteristic.setValue(request.value);
+						characteristic.setWriteType(request.writeType);
+						result = internalWriteCharacteristic(characteristic);
+					}
 					break;
 				}
 				case ENABLE_NOTIFICATIONS: {
-					enableNotifications(request.characteristic);
+					result = internalEnableNotifications(request.characteristic);
 					break;
 				}
 				case ENABLE_INDICATIONS: {
-					enableIndications(request.characteristic);
+					result = internalEnableIndications(request.characteristic);
+					break;
+				}
+				case READ_BATTERY_LEVEL: {
+					result = internalReadBatteryLevel();
 					break;
 				}
+				case ENABLE_BATTERY_LEVEL_NOTIFICATIONS: {
+					result = internalSetBatteryNotifications(true);
+					break;
+				}
+				case DISABLE_BATTERY_LEVEL_NOTIFICATIONS: {
+					result = internalSetBatteryNotifications(false);
+					break;
+				}
+				case ENABLE_SERVICE_CHANGED_INDICATIONS: {
+					result = ensureServiceChangedEnabled();
+					break;
+				}
+				case REQUEST_MTU: {
+					result = internalRequestMtu(request.intValue);
+					break;
+				}
+				case REQUEST_CONNECTION_PRIORITY: {
+					result = internalRequestConnectionPriority(request.intValue);
+					// There is no callback for this operation, the request is complete when sent
+					if (result) {
+						completeRequest(BluetoothGatt.GATT_SUCCESS);
+						return;
+					}
+					break;
+				}
+			}
+
+			if (result) {
+				final long timeout = request.timeout >= 0 ? request.timeout : getOperationTimeout();
+				if (timeout > 0)
+					getHandler().postDelayed(mOperationTimeoutTask = new OperationTimeoutTask(request, request.attempt), timeout);
+			} else if (request.attempt > 0) {
+				retryOrFail(request);
+			} else {
+				// The request could not be sent, e.g. the characteristic does not have the required property. Skip it.
+				completeRequest(BluetoothGatt.GATT_FAILURE);
+			}
+		}
+
+		/**
+		 * Returns true if the given attempt of the request is still in progress. Responses to lost operations may arrive after the request has been completed.
+		 */
+		private synchronized boolean isCurrentAttempt(final Request request, final int attempt) {
+			return mCurrentRequest == request && request.attempt == attempt;
+		}
+
+		/**
+		 * Sends the current request again after a delay growing with each attempt, or reports the timeout when no more attempts are left.
+		 * The request remains the current one until then, so no other request is started in the meantime.
+		 *
+		 * @param request the request that has timed out
+		 */
+		private void retryOrFail(final Request request) {
+			final int retryCount = request.retryCount >= 0 ? request.retryCount : getOperationRetryCount();
+			if (request.attempt < retryCount) {
+				final int attempt = ++request.attempt;
+				final long delay = RETRY_INITIAL_DELAY << (attempt - 1);
+				Logger.w(mLogSession, "Retrying " + request.type + " in " + delay + " ms (attempt " + (attempt + 1) + " of " + (retryCount + 1) + ")");
+				getHandler().postDelayed(new Runnable() {
+					@Override
+					public void run() {
+						if (isCurrentAttempt(request, attempt))
+							executeRequest(request);
+					}
+				}, delay);
+				return;
+			}
+
+			Logger.e(mLogSession, "Error: " + request.type + " has not completed after " + (request.attempt + 1) + " attempt(s)");
+			mCallbacks.onOperationTimeout(ERROR_OPERATION_TIMEOUT);
+			completeRequest(ERROR_TIMEOUT);
+		}
+
+		/**
+		 * Suspends the current request until the device is bonded. Android starts bonding by itself when an operation fails for insufficient authentication,
+		 * and accepting the pairing or entering a passkey takes longer than the operation timeout, so the watchdog is stopped until
+		 * {@link #onBondStateChanged(GattTransport, int, int)} resumes the request or {@link #BONDING_TIMEOUT} passes.
+		 */
+		private void waitForBonding() {
+			final Request request;
+			synchronized (this) {
+				request = mCurrentRequest;
+			}
+			if (request == null)
+				return;
+
+			Logger.v(mLogSession, "Waiting for bonding...");
+			getHandler().removeCallbacks(mOperationTimeoutTask);
+			mBondingRequest = request;
+			getHandler().postDelayed(mBondingTimeoutTask, BONDING_TIMEOUT);
+		}
+
+		/**
+		 * Returns the request waiting for bonding, if it is still the current one, and stops waiting.
+		 */
+		private Request takeBondingRequest() {
+			final Request request = mBondingRequest;
+			mBondingRequest = null;
+			getHandler().removeCallbacks(mBondingTimeoutTask);
+			return request != null && isCurrentAttempt(request, request.attempt) ? request : null;
+		}
+
+		/**
+		 * Called on the manager's thread when the bond state of the device has changed. The request waiting for bonding is sent again when the device has
+		 * been bonded, or completed with an error when the bonding failed.
+		 */
+		private void onBondStateChanged(final GattTransport transport, final int bondState, final int previousBondState) {
+			if (bondState == BluetoothDevice.BOND_BONDED) {
+				final Request request = takeBondingRequest();
+				if (request != null) {
+					Logger.v(mLogSession, "Sending " + request.type + " again after bonding");
+					executeRequest(request);
+					return;
+				}
+
+				// The bonding has been started by the device. Start initializing again.
+				// In fact, bonding forces additional, internal service discovery (at least on Nexus devices), so this method may safely be used to start this process again.
+				Logger.v(mLogSession, "Discovering Services...");
+				Logger.d(mLogSession, "gatt.discoverServices()");
+				transport.discoverServices();
+			} else if (bondState == BluetoothDevice.BOND_NONE && previousBondState == BluetoothDevice.BOND_BONDING) {
+				if (takeBondingRequest() == null)
+					return;
+				Logger.e(mLogSession, ERROR_BONDING_FAILED);
+				mCallbacks.onError(ERROR_BONDING_FAILED, BluetoothGatt.GATT_INSUFFICIENT_AUTHENTICATION);
+				completeRequest(BluetoothGatt.GATT_INSUFFICIENT_AUTHENTICATION);
+			}
+		}
+
+		/**
+		 * The watchdog of a single attempt. It fires when the response to the request has not been received in time.
+		 */
+		private final class OperationTimeoutTask implements Runnable {
+			private final Request mRequest;
+			private final int mAttempt;
+
+			private OperationTimeoutTask(final Request request, final int attempt) {
+				mRequest = request;
+				mAttempt = attempt;
+			}
+
+			@Override
+			public void run() {
+				if (!isCurrentAttempt(mRequest, mAttempt) || mBondingRequest == mRequest)
+					return;
+				Logger.w(mLogSession, mRequest.type + " timed out");
+				retryOrFail(mRequest);
 			}
 		}
 	}
@@ -919,6 +2158,18 @@ public abstract class BleManager<E extends BleManagerCallbacks> {
 		}
 	}
 
+	protected String connectionPriorityToString(final int priority) {
+		switch (priority) {
+			case BluetoothGatt.CONNECTION_PRIORITY_HIGH:
+				return "HIGH (11.25-15ms, 0, 20s)";
+			case BluetoothGatt.CONNECTION_PRIORITY_LOW_POWER:
+				return "LOW POWER (100-125ms, 2, 20s)";
+			default:
+			case BluetoothGatt.CONNECTION_PRIORITY_BALANCED:
+				return "BALANCED (30-50ms, 0, 20s)";
+		}
+	}
+
 	/**
 	 * Converts the connection state to String value
 	 * @param state the connection state
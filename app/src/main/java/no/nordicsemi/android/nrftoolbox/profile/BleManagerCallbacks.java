@@ -71,6 +71,15 @@ public interface BleManagerCallbacks {
 	 */
 	public void onBatteryValueReceived(final int value);
 
+	/**
+	 * Called when the ATT MTU has been negotiated with the device. The maximum size of data that can be sent in a single packet is (MTU - 3) bytes.
+	 * This method is not called when the MTU was not requested or on Android versions older than 5.0 (Lollipop). The default MTU is 23.
+	 *
+	 * @param mtu
+	 *            the agreed MTU
+	 */
+	public void onMtuChanged(final int mtu);
+
 	/**
 	 * Called when an {@link BluetoothGatt#GATT_INSUFFICIENT_AUTHENTICATION} error occurred and the device bond state is NOT_BONDED
 	 */
@@ -91,6 +100,15 @@ public interface BleManagerCallbacks {
 	 */
 	public void onError(final String message, final int errorCode);
 
+	/**
+	 * Called when a request from the operation queue has not been answered after all retries. The request is skipped and the queue moves on,
+	 * so the connection may still be used. Unlike {@link #onError(String, int)} it should not be handled by disconnecting.
+	 *
+	 * @param message
+	 *            the error message
+	 */
+	public void onOperationTimeout(final String message);
+
 	/**
 	 * Called when service discovery has finished but the main services were not found on the device.
 	 */
@@ -290,6 +290,11 @@ public abstract class BleProfileActivity extends AppCompatActivity implements Bl
 		});
 	}
 
+	@Override
+	public void onMtuChanged(final int mtu) {
+		// empty default implementation
+	}
+
 	@Override
 	public void onBondingRequired() {
 		showToast(R.string.bonding);
@@ -306,6 +311,12 @@ public abstract class BleProfileActivity extends AppCompatActivity implements Bl
 		showToast(message + " (" + errorCode + ")");
 	}
 
+	@Override
+	public void onOperationTimeout(final String message) {
+		DebugLogger.w(TAG, "Operation timed out: " + message);
+		showToast(message);
+	}
+
 	@Override
 	public void onDeviceNotSupported() {
 		showToast(R.string.not_supported);
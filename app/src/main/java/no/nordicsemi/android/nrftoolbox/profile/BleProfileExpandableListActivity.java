@@ -299,6 +299,11 @@ public abstract class BleProfileExpandableListActivity extends ExpandableListAct
 		});
 	}
 
+	@Override
+	public void onMtuChanged(final int mtu) {
+		// empty default implementation
+	}
+
 	@Override
 	public void onBondingRequired() {
 		showToast(R.string.bonding);
@@ -315,6 +320,12 @@ public abstract class BleProfileExpandableListActivity extends ExpandableListAct
 		showToast(message + " (" + errorCode + ")");
 	}
 
+	@Override
+	public void onOperationTimeout(final String message) {
+		DebugLogger.w(TAG, "Operation timed out: " + message);
+		showToast(message);
+	}
+
 	@Override
 	public void onDeviceNotSupported() {
 		showToast(R.string.not_supported);
@@ -161,9 +161,10 @@ public abstract class BleProfileService extends Service implements BleManagerCal
 
 		if (mActivityFinished && mConnected) {
 			mActivityFinished = false;
-			// This method will read the Battery Level value, if possible and then try to enable battery notifications (if it has NOTIFY property).
-			// If the Battery Level characteristic has only the NOTIFY property, it will only try to enable notifications.
+			// Read the Battery Level value, if possible and then try to enable battery notifications (if it has NOTIFY property).
+			// Requests not supported by the Battery Level characteristic are skipped by the manager.
 			mBleManager.readBatteryLevel();
+			mBleManager.setBatteryNotifications(true);
 		}
 	}
 
@@ -346,6 +347,11 @@ public abstract class BleProfileService extends Service implements BleManagerCal
 		LocalBroadcastManager.getInstance(this).sendBroadcast(broadcast);
 	}
 
+	@Override
+	public void onMtuChanged(final int mtu) {
+		// empty default implementation
+	}
+
 	@Override
 	public void onBondingRequired() {
 		showToast(no.nordicsemi.android.nrftoolbox.common.R.string.bonding);
@@ -375,6 +381,15 @@ public abstract class BleProfileService extends Service implements BleManagerCal
 		stopSelf();
 	}
 
+	@Override
+	public void onOperationTimeout(final String message) {
+		// A single lost request does not make the connection unusable, the activity only shows the error
+		final Intent broadcast = new Intent(BROADCAST_ERROR);
+		broadcast.putExtra(EXTRA_ERROR_MESSAGE, message);
+		broadcast.putExtra(EXTRA_ERROR_CODE, BleManager.ERROR_TIMEOUT);
+		LocalBroadcastManager.getInstance(this).sendBroadcast(broadcast);
+	}
+
 	/**
 	 * Shows a message as a Toast notification. This method is thread safe, you can call it from any thread
 	 * 
@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.profile;
+
+import android.annotation.TargetApi;
+import android.bluetooth.BluetoothDevice;
+import android.bluetooth.BluetoothGatt;
+import android.bluetooth.BluetoothGattCallback;
+import android.bluetooth.BluetoothGattCharacteristic;
+import android.bluetooth.BluetoothGattDescriptor;
+import android.bluetooth.BluetoothGattService;
+import android.bluetooth.BluetoothProfile;
+import android.content.Context;
+import android.os.Build;
+
+import java.util.UUID;
+
+/**
+ * The {@link GattTransport} using the Android Bluetooth API.
+ */
+public class BluetoothGattTransport implements GattTransport {
+	private final BluetoothDevice mDevice;
+	private BluetoothGatt mBluetoothGatt;
+	/** The connection on which the services were discovered, kept during direct reconnection attempts for {@link #reconnect()} */
+	private BluetoothGatt mRetainedGatt;
+
+	public BluetoothGattTransport(final BluetoothDevice device) {
+		mDevice = device;
+	}
+
+	@Override
+	public String getAddress() {
+		return mDevice.getAddress();
+	}
+
+	@Override
+	public int getBondState() {
+		return mDevice.getBondState();
+	}
+
+	@Override
+	public BluetoothGatt getGatt() {
+		return mBluetoothGatt;
+	}
+
+	@Override
+	public synchronized void connect(final Context context, final boolean autoConnect, final Callback callback) {
+		mBluetoothGatt = connectGatt(context, autoConnect, callback);
+	}
+
+	private BluetoothGatt connectGatt(final Context context, final boolean autoConnect, final Callback callback) {
+		return mDevice.connectGatt(context, autoConnect, new BluetoothGattCallback() {
+			@Override
+			public void onConnectionStateChange(final BluetoothGatt gatt, final int status, final int newState) {
+				if (newState == BluetoothProfile.STATE_CONNECTED)
+					releaseRetainedGatt(gatt);
+				callback.onConnectionStateChange(status, newState);
+			}
+
+			@Override
+			public void onServicesDiscovered(final BluetoothGatt gatt, final int status) {
+				callback.onServicesDiscovered(status);
+			}
+
+			@Override
+			public void onCharacteristicRead(final BluetoothGatt gatt, final BluetoothGattCharacteristic characteristic, final int status) {
+				callback.onCharacteristicRead(characteristic, status);
+			}
+
+			@Override
+			public void onCharacteristicWrite(final BluetoothGatt gatt, final BluetoothGattCharacteristic characteristic, final int status) {
+				callback.onCharacteristicWrite(characteristic, status);
+			}
+
+			@Override
+			public void onDescriptorWrite(final BluetoothGatt gatt, final BluetoothGattDescriptor descriptor, final int status) {
+				callback.onDescriptorWrite(descriptor, status);
+			}
+
+			@Override
+			public void onCharacteristicChanged(final BluetoothGatt gatt, final BluetoothGattCharacteristic characteristic) {
+				// The value must be captured on the Binder thread, the next notification replaces it
+				callback.onCharacteristicChanged(characteristic, characteristic.getValue());
+			}
+
+			@Override
+			public void onMtuChanged(final BluetoothGatt gatt, final int mtu, final int status) {
+				callback.onMtuChanged(mtu, status);
+			}
+		});
+	}
+
+	@Override
+	public void disconnect() {
+		if (mBluetoothGatt != null)
+			mBluetoothGatt.disconnect();
+	}
+
+	@Override
+	public synchronized void close() {
+		if (mBluetoothGatt != null) {
+			mBluetoothGatt.close();
+			mBluetoothGatt = null;
+		}
+		releaseRetainedGatt(null);
+	}
+
+	@Override
+	public synchronized boolean reconnect() {
+		if (mRetainedGatt != null) {
+			if (mBluetoothGatt != null)
+				mBluetoothGatt.close();
+			mBluetoothGatt = mRetainedGatt;
+			mRetainedGatt = null;
+		}
+		return mBluetoothGatt != null && mBluetoothGatt.connect();
+	}
+
+	@Override
+	public synchronized void reconnectDirectly(final Context context, final Callback callback) {
+		if (mBluetoothGatt != null) {
+			// Only the first client knows the services, the ones used for failed direct attempts have never been connected
+			if (mRetainedGatt == null && !mBluetoothGatt.getServices().isEmpty())
+				mRetainedGatt = mBluetoothGatt;
+			else
+				mBluetoothGatt.close();
+		}
+		mBluetoothGatt = connectGatt(context, false, callback);
+	}
+
+	/**
+	 * Closes the retained connection when another one has been established, or when the transport is closed.
+	 *
+	 * @param connected the connection that has been established, or null
+	 */
+	private synchronized void releaseRetainedGatt(final BluetoothGatt connected) {
+		if (mRetainedGatt != null && mRetainedGatt != connected) {
+			mRetainedGatt.close();
+			mRetainedGatt = null;
+		}
+	}
+
+	@Override
+	public boolean discoverServices() {
+		return mBluetoothGatt != null && mBluetoothGatt.discoverServices();
+	}
+
+	@Override
+	public BluetoothGattService getService(final UUID uuid) {
+		return mBluetoothGatt != null ? mBluetoothGatt.getService(uuid) : null;
+	}
+
+	@Override
+	public boolean setCharacteristicNotification(final BluetoothGattCharacteristic characteristic, final boolean enable) {
+		return mBluetoothGatt != null && mBluetoothGatt.setCharacteristicNotification(characteristic, enable);
+	}
+
+	@Override
+	public boolean readCharacteristic(final BluetoothGattCharacteristic characteristic) {
+		return mBluetoothGatt != null && mBluetoothGatt.readCharacteristic(characteristic);
+	}
+
+	@Override
+	public boolean writeCharacteristic(final BluetoothGattCharacteristic characteristic) {
+		return mBluetoothGatt != null && mBluetoothGatt.writeCharacteristic(characteristic);
+	}
+
+	@Override
+	public boolean writeDescriptor(final BluetoothGattDescriptor descriptor) {
+		return mBluetoothGatt != null && mBluetoothGatt.writeDescriptor(descriptor);
+	}
+
+	@TargetApi(Build.VERSION_CODES.LOLLIPOP)
+	@Override
+	public boolean requestMtu(final int mtu) {
+		return mBluetoothGatt != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP && mBluetoothGatt.requestMtu(mtu);
+	}
+
+	@TargetApi(Build.VERSION_CODES.LOLLIPOP)
+	@Override
+	public boolean requestConnectionPriority(final int priority) {
+		return mBluetoothGatt != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP && mBluetoothGatt.requestConnectionPriority(priority);
+	}
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.profile;
+
+import android.os.Handler;
+import android.os.Looper;
+
+/**
+ * A reusable measurement event passed from a profile service to the listener set by the binded activity. The values are kept in primitive fields of the
+ * subclass and delivered on the UI thread. If new values are published before the pending event has been delivered, they overwrite the stale ones and the
+ * listener is called only once, with the latest values.
+ * <p>
+ * Subclasses must set their fields and call {@link #publish()} in a block synchronized on the event, and copy the fields in {@link #deliver(Object)} the same
+ * way, calling the listener outside of the synchronized block.
+ * </p>
+ *
+ * @param <L> the listener type
+ */
+public abstract class ConflatedEvent<L> implements Runnable {
+	private final Handler mHandler = new Handler(Looper.getMainLooper());
+	private volatile L mListener;
+	/** True if the event has been posted to the UI thread and not delivered yet */
+	private boolean mPending;
+	/** True if values have been published since the last {@link #clear()} */
+	private boolean mHasValues;
+
+	/**
+	 * Sets the listener that will be notified on the UI thread. If values have already been published, the listener will get the latest of them.
+	 *
+	 * @param listener the new listener or <code>null</code> to stop delivering the event
+	 */
+	public void setListener(final L listener) {
+		mListener = listener;
+
+		synchronized (this) {
+			if (listener != null && mHasValues)
+				post();
+		}
+	}
+
+	/**
+	 * Forgets the published values and cancels the pending delivery, e.g. when the device has disconnected.
+	 */
+	public synchronized void clear() {
+		mHasValues = false;
+		mPending = false;
+		mHandler.removeCallbacks(this);
+	}
+
+	/**
+	 * Schedules delivery of the current values unless one is already pending. Must be called in a block synchronized on this event.
+	 */
+	protected final void publish() {
+		mHasValues = true;
+		if (mListener != null)
+			post();
+	}
+
+	private void post() {
+		if (!mPending)
+			mPending = mHandler.post(this);
+	}
+
+	@Override
+	public final void run() {
+		synchronized (this) {
+			mPending = false;
+		}
+
+		final L listener = mListener;
+		if (listener != null)
+			deliver(listener);
+	}
+
+	/**
+	 * Copies the current values and passes them to the listener. Called on the UI thread.
+	 *
+	 * @param listener the listener
+	 */
+	protected abstract void deliver(final L listener);
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.profile;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Queue;
+
+/**
+ * Schedules GATT operations of several {@link BleManager}s connected at the same time. Android performs GATT operations of all connections in a single
+ * Bluetooth stack and is known to drop or fail requests when several connections send them in parallel. Managers sharing a scheduler take turns:
+ * only one of them may have an operation in progress, and the turn is passed to the next waiting manager after each completed operation,
+ * so a long initialization of one device does not starve the others.
+ * <p>Notifications and indications are not affected. Use {@link BleManager#setOperationScheduler(GattOperationScheduler)} to share a scheduler.</p>
+ */
+public class GattOperationScheduler {
+	private final Queue<Waiter> mWaiting = new LinkedList<>();
+	private Object mOwner;
+
+	private static final class Waiter {
+		private final Object owner;
+		private final Runnable resumeTask;
+
+		private Waiter(final Object owner, final Runnable resumeTask) {
+			this.owner = owner;
+			this.resumeTask = resumeTask;
+		}
+	}
+
+	/**
+	 * Requests the turn for the given owner. If another owner has an operation in progress the owner is added to the waiting queue and the resume task
+	 * will be run when it gets its turn.
+	 *
+	 * @param owner      the manager that wants to start an operation
+	 * @param resumeTask the task to be run when the turn is granted later. It should not block, as it's called from the thread releasing the turn
+	 * @return true if the operation may be started now, false if the owner must wait
+	 */
+	/* package */ synchronized boolean acquire(final Object owner, final Runnable resumeTask) {
+		if (mOwner == null || mOwner == owner) {
+			mOwner = owner;
+			return true;
+		}
+
+		for (final Waiter waiter : mWaiting) {
+			if (waiter.owner == owner)
+				return false;
+		}
+		mWaiting.add(new Waiter(owner, resumeTask));
+		return false;
+	}
+
+	/**
+	 * Releases the turn if it is held by the given owner and grants it to the first waiting owner.
+	 *
+	 * @param owner the manager that has completed its operation or has nothing more to do
+	 */
+	/* package */ void release(final Object owner) {
+		final Waiter next;
+		synchronized (this) {
+			if (mOwner != owner)
+				return;
+			next = mWaiting.poll();
+			mOwner = next != null ? next.owner : null;
+		}
+
+		if (next != null)
+			next.resumeTask.run();
+	}
+
+	/**
+	 * Removes the owner from the waiting queue and releases its turn. Called when the manager has disconnected.
+	 *
+	 * @param owner the manager to be removed
+	 */
+	/* package */ void remove(final Object owner) {
+		synchronized (this) {
+			final Iterator<Waiter> iterator = mWaiting.iterator();
+			while (iterator.hasNext()) {
+				if (iterator.next().owner == owner)
+					iterator.remove();
+			}
+		}
+		release(owner);
+	}
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.profile;
+
+import android.bluetooth.BluetoothGatt;
+import android.bluetooth.BluetoothGattCharacteristic;
+import android.bluetooth.BluetoothGattDescriptor;
+import android.bluetooth.BluetoothGattService;
+import android.content.Context;
+
+import java.util.UUID;
+
+/**
+ * The connection to a single GATT server used by the {@link BleManager}. The default implementation, {@link BluetoothGattTransport}, uses the Android
+ * Bluetooth API. Other implementations, like the {@link no.nordicsemi.android.nrftoolbox.profile.simulator.SimulatedPeripheral}, allow to use
+ * the managers without a radio.
+ * <p>The methods behave like their {@link BluetoothGatt} counterparts: operations return <code>false</code> when they could not be started and report
+ * the result through the {@link Callback} later, from any thread.</p>
+ */
+public interface GattTransport {
+
+	/**
+	 * The events of the transport. Unlike {@link android.bluetooth.BluetoothGattCallback} they do not contain the {@link BluetoothGatt} object.
+	 */
+	interface Callback {
+		void onConnectionStateChange(final int status, final int newState);
+
+		void onServicesDiscovered(final int status);
+
+		void onCharacteristicRead(final BluetoothGattCharacteristic characteristic, final int status);
+
+		void onCharacteristicWrite(final BluetoothGattCharacteristic characteristic, final int status);
+
+		void onDescriptorWrite(final BluetoothGattDescriptor descriptor, final int status);
+
+		/**
+		 * Called when a notification or indication has been received.
+		 *
+		 * @param characteristic the characteristic
+		 * @param data           the received value. The value of the characteristic may already be replaced by the next notification
+		 */
+		void onCharacteristicChanged(final BluetoothGattCharacteristic characteristic, final byte[] data);
+
+		void onMtuChanged(final int mtu, final int status);
+	}
+
+	/**
+	 * Returns the address of the remote device.
+	 *
+	 * @return the device address
+	 */
+	String getAddress();
+
+	/**
+	 * Returns the bond state of the remote device.
+	 *
+	 * @return one of the BluetoothDevice.BOND_* constants
+	 */
+	int getBondState();
+
+	/**
+	 * Returns the underlying {@link BluetoothGatt} object, if there is one.
+	 *
+	 * @return the gatt object, or null if the transport does not use the Android Bluetooth API or is not connected
+	 */
+	BluetoothGatt getGatt();
+
+	/**
+	 * Starts connecting to the device. The result is reported with {@link Callback#onConnectionStateChange(int, int)}.
+	 *
+	 * @param context     the context
+	 * @param autoConnect whether to connect as soon as the device becomes available
+	 * @param callback    the callback to report events to
+	 */
+	void connect(final Context context, final boolean autoConnect, final Callback callback);
+
+	void disconnect();
+
+	/**
+	 * Releases the connection. No events are reported afterwards.
+	 */
+	void close();
+
+	/**
+	 * Connects again to the device after the connection has been lost, reusing the connection started with
+	 * {@link #connect(Context, boolean, Callback)}. Like {@link BluetoothGatt#connect()} it connects in the background, as soon as the device
+	 * becomes available. The services discovered before are kept, if the transport supports it. If {@link #reconnectDirectly(Context, Callback)}
+	 * has been used since, the connection on which the services were discovered is reused and the direct one is released.
+	 *
+	 * @return false if there is no connection to reuse, e.g. after {@link #close()}
+	 */
+	boolean reconnect();
+
+	/**
+	 * Connects directly to the device after the connection has been lost, using a new connection. The previous connection is released, unless the
+	 * services have been discovered on it, in which case it is kept for {@link #reconnect()} until the new connection is established.
+	 *
+	 * @param context  the context
+	 * @param callback the callback to report events to
+	 */
+	void reconnectDirectly(final Context context, final Callback callback);
+
+	boolean discoverServices();
+
+	/**
+	 * Returns the service with given UUID, if discovered.
+	 *
+	 * @param uuid the service UUID
+	 * @return the service or null
+	 */
+	BluetoothGattService getService(final UUID uuid);
+
+	boolean setCharacteristicNotification(final BluetoothGattCharacteristic characteristic, final boolean enable);
+
+	boolean readCharacteristic(final BluetoothGattCharacteristic characteristic);
+
+	boolean writeCharacteristic(final BluetoothGattCharacteristic characteristic);
+
+	boolean writeDescriptor(final BluetoothGattDescriptor descriptor);
+
+	boolean requestMtu(final int mtu);
+
+	boolean requestConnectionPriority(final int priority);
+}
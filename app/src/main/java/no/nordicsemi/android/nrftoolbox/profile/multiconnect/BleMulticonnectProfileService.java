@@ -0,0 +1,613 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.profile.multiconnect;
+
+import android.app.Service;
+import android.bluetooth.BluetoothDevice;
+import android.content.Intent;
+import android.os.Binder;
+import android.os.Handler;
+import android.os.IBinder;
+import android.support.v4.content.LocalBroadcastManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+import no.nordicsemi.android.log.ILogSession;
+import no.nordicsemi.android.log.Logger;
+import no.nordicsemi.android.nrftoolbox.profile.BleManager;
+import no.nordicsemi.android.nrftoolbox.profile.BleManagerCallbacks;
+import no.nordicsemi.android.nrftoolbox.profile.BleProfileService;
+import no.nordicsemi.android.nrftoolbox.profile.GattOperationScheduler;
+
+/**
+ * The base service for profiles that may be connected to several devices at the same time. Each device gets its own {@link BleManager} instance, created
+ * with {@link #initializeManager()}, and its own {@link DeviceCallbacks}. All managers share a single {@link GattOperationScheduler}, so GATT operations
+ * of different connections are never executed in parallel, and connection attempts are started one after another.
+ * <p>The service uses the same actions and extras as {@link BleProfileService}. Each per-device broadcast contains the
+ * {@link BleProfileService#EXTRA_DEVICE_ADDRESS} extra. In addition, whenever the state or the battery level of any device changes, a single
+ * {@link #BROADCAST_DEVICES_UPDATED} broadcast with the state of all managed devices is sent. Changes made in a short period of time are merged.</p>
+ * <p>Callbacks are called from the threads of the managers.</p>
+ */
+public abstract class BleMulticonnectProfileService extends Service {
+	@SuppressWarnings("unused")
+	private static final String TAG = "BleMulticonnectProfileService";
+
+	/** Broadcast with the state of all managed devices. The arrays in the extras have the same order. */
+	public static final String BROADCAST_DEVICES_UPDATED = "no.nordicsemi.android.nrftoolbox.BROADCAST_DEVICES_UPDATED";
+
+	/** Addresses of all managed devices, in the order they were added. */
+	public static final String EXTRA_DEVICE_ADDRESSES = "no.nordicsemi.android.nrftoolbox.EXTRA_DEVICE_ADDRESSES";
+	/** Connection states of all managed devices, one of the BleProfileService.STATE_* values. */
+	public static final String EXTRA_CONNECTION_STATES = "no.nordicsemi.android.nrftoolbox.EXTRA_CONNECTION_STATES";
+	/** Battery levels of all managed devices, -1 if unknown. */
+	public static final String EXTRA_BATTERY_LEVELS = "no.nordicsemi.android.nrftoolbox.EXTRA_BATTERY_LEVELS";
+
+	/** The delay in milliseconds used to merge updates of several devices into one {@link #BROADCAST_DEVICES_UPDATED} broadcast. */
+	private static final long DEVICES_UPDATED_DELAY = 100;
+
+	/** The managed devices, by address. All access must be synchronized on the map. */
+	private final Map<String, DeviceState> mDevices = new LinkedHashMap<>();
+	/** Devices waiting for their connection attempt to be started. Synchronized on {@link #mDevices}. */
+	private final Queue<DeviceState> mPendingConnections = new LinkedList<>();
+	/** The device whose connection attempt is in progress. Synchronized on {@link #mDevices}. */
+	private DeviceState mConnectingDevice;
+
+	private final GattOperationScheduler mScheduler = new GattOperationScheduler();
+	private Handler mHandler;
+	private boolean mDevicesUpdatedScheduled;
+
+	protected boolean mBinded;
+
+	/**
+	 * The state of a single managed device.
+	 */
+	protected static final class DeviceState {
+		private final BluetoothDevice device;
+		private final BleManager<BleManagerCallbacks> manager;
+		private volatile int connectionState = BleProfileService.STATE_DISCONNECTED;
+		private volatile int batteryLevel = -1;
+		private volatile boolean ready;
+
+		private DeviceState(final BluetoothDevice device, final BleManager<BleManagerCallbacks> manager) {
+			this.device = device;
+			this.manager = manager;
+		}
+	}
+
+	public class LocalBinder extends Binder {
+		/**
+		 * Connects to the given device. If the device is already managed by the service this method does nothing.
+		 *
+		 * @param device the device to connect to
+		 */
+		public final void connect(final BluetoothDevice device) {
+			connect(device, null);
+		}
+
+		/**
+		 * Connects to the given device. If the device is already managed by the service this method does nothing.
+		 *
+		 * @param device  the device to connect to
+		 * @param session the log session for this connection, or null
+		 */
+		public final void connect(final BluetoothDevice device, final ILogSession session) {
+			BleMulticonnectProfileService.this.connect(device, session);
+		}
+
+		/**
+		 * Disconnects from the device with given address. The device is removed from the service when disconnected.
+		 *
+		 * @param address the device address
+		 */
+		public final void disconnect(final String address) {
+			BleMulticonnectProfileService.this.disconnect(address);
+		}
+
+		/**
+		 * Returns the list of devices managed by the service, in the order they were added.
+		 *
+		 * @return the managed devices
+		 */
+		public final List<BluetoothDevice> getManagedDevices() {
+			return BleMulticonnectProfileService.this.getManagedDevices();
+		}
+
+		/**
+		 * Returns the connection state of the device with given address.
+		 *
+		 * @param address the device address
+		 * @return one of the BleProfileService.STATE_* values, {@link BleProfileService#STATE_DISCONNECTED} if the device is not managed
+		 */
+		public final int getConnectionState(final String address) {
+			final DeviceState state = getDeviceState(address);
+			return state != null ? state.connectionState : BleProfileService.STATE_DISCONNECTED;
+		}
+
+		/**
+		 * Returns the last received battery level of the device with given address.
+		 *
+		 * @param address the device address
+		 * @return the battery level, or -1 if unknown
+		 */
+		public final int getBatteryLevel(final String address) {
+			final DeviceState state = getDeviceState(address);
+			return state != null ? state.batteryLevel : -1;
+		}
+
+		/**
+		 * Returns <code>true</code> if the device with given address is connected.
+		 *
+		 * @param address the device address
+		 * @return <code>true</code> if the device is connected, <code>false</code> otherwise
+		 */
+		public final boolean isConnected(final String address) {
+			return getConnectionState(address) == BleProfileService.STATE_CONNECTED;
+		}
+
+		/**
+		 * Returns <code>true</code> if the device with given address has been initialized.
+		 *
+		 * @param address the device address
+		 * @return <code>true</code> if the device is ready, <code>false</code> otherwise
+		 */
+		public final boolean isReady(final String address) {
+			final DeviceState state = getDeviceState(address);
+			return state != null && state.ready;
+		}
+	}
+
+	/**
+	 * Returns the binder implementation. This must return class implementing the additional manager interface that may be used in the binded activity.
+	 *
+	 * @return the service binder
+	 */
+	protected LocalBinder getBinder() {
+		// default implementation returns the basic binder. You can overwrite the LocalBinder with your own, wider implementation
+		return new LocalBinder();
+	}
+
+	@Override
+	public IBinder onBind(final Intent intent) {
+		mBinded = true;
+		return getBinder();
+	}
+
+	@Override
+	public void onRebind(final Intent intent) {
+		mBinded = true;
+	}
+
+	@Override
+	public boolean onUnbind(final Intent intent) {
+		mBinded = false;
+
+		// No devices left and nobody to add new ones
+		stopIfUnused();
+
+		// we must allow to rebind to the same service
+		return true;
+	}
+
+	@Override
+	public void onCreate() {
+		super.onCreate();
+
+		mHandler = new Handler();
+	}
+
+	@Override
+	public int onStartCommand(final Intent intent, final int flags, final int startId) {
+		// The devices are added using the binder
+		return START_NOT_STICKY;
+	}
+
+	@Override
+	public void onDestroy() {
+		super.onDestroy();
+
+		final List<DeviceState> devices;
+		synchronized (mDevices) {
+			devices = new ArrayList<>(mDevices.values());
+			mDevices.clear();
+			mPendingConnections.clear();
+			mConnectingDevice = null;
+		}
+		for (final DeviceState state : devices)
+			state.manager.close();
+		mHandler.removeCallbacks(mDevicesUpdatedTask);
+	}
+
+	/**
+	 * Creates a new manager instance. A new manager is created for each device.
+	 *
+	 * @return the manager
+	 */
+	@SuppressWarnings("rawtypes")
+	protected abstract BleManager initializeManager();
+
+	/**
+	 * Creates the callbacks for the manager of the given device. Override this method and return a subclass of {@link DeviceCallbacks} implementing
+	 * the callbacks interface of the profile manager.
+	 *
+	 * @param device the device
+	 * @return the callbacks
+	 */
+	protected DeviceCallbacks createDeviceCallbacks(final BluetoothDevice device) {
+		return new DeviceCallbacks(device);
+	}
+
+	@SuppressWarnings("unchecked")
+	private void connect(final BluetoothDevice device, final ILogSession session) {
+		final DeviceState state;
+		synchronized (mDevices) {
+			if (mDevices.containsKey(device.getAddress()))
+				return;
+
+			final BleManager<BleManagerCallbacks> manager = initializeManager();
+			manager.setGattCallbacks(createDeviceCallbacks(device));
+			manager.setOperationScheduler(mScheduler);
+			manager.setLogger(session);
+
+			state = new DeviceState(device, manager);
+			state.connectionState = BleProfileService.STATE_CONNECTING;
+			mDevices.put(device.getAddress(), state);
+			mPendingConnections.add(state);
+		}
+		Logger.i(session, "Connection scheduled");
+
+		final Intent broadcast = new Intent(BleProfileService.BROADCAST_CONNECTION_STATE);
+		broadcast.putExtra(BleProfileService.EXTRA_CONNECTION_STATE, BleProfileService.STATE_CONNECTING);
+		broadcast.putExtra(BleProfileService.EXTRA_DEVICE_ADDRESS, device.getAddress());
+		LocalBroadcastManager.getInstance(this).sendBroadcast(broadcast);
+		scheduleDevicesUpdated();
+
+		startNextConnection();
+	}
+
+	private void disconnect(final String address) {
+		final DeviceState state;
+		synchronized (mDevices) {
+			state = mDevices.get(address);
+			if (state == null)
+				return;
+
+			// The connection attempt has not been started yet, just forget the device
+			if (mPendingConnections.remove(state)) {
+				mDevices.remove(address);
+				state.connectionState = BleProfileService.STATE_DISCONNECTED;
+			}
+		}
+
+		if (state.connectionState == BleProfileService.STATE_DISCONNECTED) {
+			state.manager.close();
+			onDeviceRemoved(state.device);
+			return;
+		}
+		if (!state.manager.disconnect()) {
+			// The manager was not connected, it will not report the disconnection
+			state.manager.close();
+			removeDevice(state);
+		}
+	}
+
+	/**
+	 * Starts the next pending connection attempt, unless another one is in progress. Android does not handle parallel connection attempts well.
+	 */
+	private void startNextConnection() {
+		final DeviceState next;
+		synchronized (mDevices) {
+			if (mConnectingDevice != null)
+				return;
+			next = mPendingConnections.poll();
+			mConnectingDevice = next;
+		}
+		if (next != null)
+			next.manager.connect(next.device);
+	}
+
+	/**
+	 * Marks the connection attempt of the given device as finished and starts the next one.
+	 */
+	private void onConnectionAttemptFinished(final DeviceState state) {
+		synchronized (mDevices) {
+			if (mConnectingDevice != state)
+				return;
+			mConnectingDevice = null;
+		}
+		startNextConnection();
+	}
+
+	private void removeDevice(final DeviceState state) {
+		synchronized (mDevices) {
+			mDevices.remove(state.device.getAddress());
+			mPendingConnections.remove(state);
+		}
+		state.connectionState = BleProfileService.STATE_DISCONNECTED;
+		state.ready = false;
+		onConnectionAttemptFinished(state);
+		onDeviceRemoved(state.device);
+	}
+
+	/**
+	 * Called when the device has been disconnected and removed from the service.
+	 *
+	 * @param device the device
+	 */
+	protected void onDeviceRemoved(final BluetoothDevice device) {
+		scheduleDevicesUpdated();
+		stopIfUnused();
+	}
+
+	private void stopIfUnused() {
+		synchronized (mDevices) {
+			if (mBinded || !mDevices.isEmpty())
+				return;
+		}
+		stopSelf();
+	}
+
+	private DeviceState getDeviceState(final String address) {
+		synchronized (mDevices) {
+			return mDevices.get(address);
+		}
+	}
+
+	/**
+	 * Returns the list of devices managed by the service, in the order they were added.
+	 *
+	 * @return the managed devices
+	 */
+	protected List<BluetoothDevice> getManagedDevices() {
+		synchronized (mDevices) {
+			final List<BluetoothDevice> devices = new ArrayList<>(mDevices.size());
+			for (final DeviceState state : mDevices.values())
+				devices.add(state.device);
+			return devices;
+		}
+	}
+
+	/**
+	 * Returns the manager of the device with given address.
+	 *
+	 * @param address the device address
+	 * @return the manager, or null if the device is not managed by the service
+	 */
+	protected BleManager<BleManagerCallbacks> getManager(final String address) {
+		final DeviceState state = getDeviceState(address);
+		return state != null ? state.manager : null;
+	}
+
+	/**
+	 * Schedules the {@link #BROADCAST_DEVICES_UPDATED} broadcast. Several changes made within {@link #DEVICES_UPDATED_DELAY} are sent in one broadcast.
+	 * This method is thread safe.
+	 */
+	protected void scheduleDevicesUpdated() {
+		mHandler.post(new Runnable() {
+			@Override
+			public void run() {
+				if (mDevicesUpdatedScheduled)
+					return;
+				mDevicesUpdatedScheduled = true;
+				mHandler.postDelayed(mDevicesUpdatedTask, DEVICES_UPDATED_DELAY);
+			}
+		});
+	}
+
+	private final Runnable mDevicesUpdatedTask = new Runnable() {
+		@Override
+		public void run() {
+			mDevicesUpdatedScheduled = false;
+
+			final String[] addresses;
+			final int[] states;
+			final int[] batteryLevels;
+			synchronized (mDevices) {
+				final int count = mDevices.size();
+				addresses = new String[count];
+				states = new int[count];
+				batteryLevels = new int[count];
+
+				int i = 0;
+				for (final DeviceState state : mDevices.values()) {
+					addresses[i] = state.device.getAddress();
+					states[i] = state.connectionState;
+					batteryLevels[i] = state.batteryLevel;
+					i++;
+				}
+			}
+
+			final Intent broadcast = new Intent(BROADCAST_DEVICES_UPDATED);
+			broadcast.putExtra(EXTRA_DEVICE_ADDRESSES, addresses);
+			broadcast.putExtra(EXTRA_CONNECTION_STATES, states);
+			broadcast.putExtra(EXTRA_BATTERY_LEVELS, batteryLevels);
+			LocalBroadcastManager.getInstance(BleMulticonnectProfileService.this).sendBroadcast(broadcast);
+		}
+	};
+
+	/**
+	 * The callbacks of a single device manager. Each broadcast sent from here contains the device address. Override this class in the profile service
+	 * to implement the manager callbacks interface.
+	 */
+	protected class DeviceCallbacks implements BleManagerCallbacks {
+		private final BluetoothDevice mDevice;
+
+		protected DeviceCallbacks(final BluetoothDevice device) {
+			mDevice = device;
+		}
+
+		/**
+		 * Returns the device these callbacks belong to.
+		 *
+		 * @return the device
+		 */
+		protected final BluetoothDevice getDevice() {
+			return mDevice;
+		}
+
+		/**
+		 * Creates a broadcast intent with the device address.
+		 *
+		 * @param action the broadcast action
+		 * @return the intent
+		 */
+		protected final Intent createBroadcast(final String action) {
+			final Intent broadcast = new Intent(action);
+			broadcast.putExtra(BleProfileService.EXTRA_DEVICE_ADDRESS, mDevice.getAddress());
+			return broadcast;
+		}
+
+		protected final void sendBroadcast(final Intent broadcast) {
+			LocalBroadcastManager.getInstance(BleMulticonnectProfileService.this).sendBroadcast(broadcast);
+		}
+
+		private DeviceState getState() {
+			return getDeviceState(mDevice.getAddress());
+		}
+
+		private void sendConnectionState(final int connectionState) {
+			final DeviceState state = getState();
+			if (state != null)
+				state.connectionState = connectionState;
+
+			final Intent broadcast = createBroadcast(BleProfileService.BROADCAST_CONNECTION_STATE);
+			broadcast.putExtra(BleProfileService.EXTRA_CONNECTION_STATE, connectionState);
+			broadcast.putExtra(BleProfileService.EXTRA_DEVICE_NAME, mDevice.getName());
+			sendBroadcast(broadcast);
+			scheduleDevicesUpdated();
+		}
+
+		@Override
+		public void onDeviceConnected() {
+			sendConnectionState(BleProfileService.STATE_CONNECTED);
+		}
+
+		@Override
+		public void onDeviceDisconnecting() {
+			sendConnectionState(BleProfileService.STATE_DISCONNECTING);
+		}
+
+		@Override
+		public void onDeviceDisconnected() {
+			sendConnectionState(BleProfileService.STATE_DISCONNECTED);
+
+			final DeviceState state = getState();
+			if (state != null)
+				removeDevice(state);
+		}
+
+		@Override
+		public void onLinklossOccur() {
+			final DeviceState state = getState();
+			if (state != null)
+				state.ready = false;
+			sendConnectionState(BleProfileService.STATE_LINK_LOSS);
+
+			// The manager will reconnect automatically if it supports auto connect, let other devices connect in the meantime
+			if (state != null)
+				onConnectionAttemptFinished(state);
+		}
+
+		@Override
+		public void onServicesDiscovered(final boolean optionalServicesFound) {
+			final Intent broadcast = createBroadcast(BleProfileService.BROADCAST_SERVICES_DISCOVERED);
+			broadcast.putExtra(BleProfileService.EXTRA_SERVICE_PRIMARY, true);
+			broadcast.putExtra(BleProfileService.EXTRA_SERVICE_SECONDARY, optionalServicesFound);
+			sendBroadcast(broadcast);
+		}
+
+		@Override
+		public void onDeviceReady() {
+			final DeviceState state = getState();
+			if (state != null) {
+				state.ready = true;
+				onConnectionAttemptFinished(state);
+			}
+			sendBroadcast(createBroadcast(BleProfileService.BROADCAST_DEVICE_READY));
+		}
+
+		@Override
+		public void onDeviceNotSupported() {
+			final Intent broadcast = createBroadcast(BleProfileService.BROADCAST_SERVICES_DISCOVERED);
+			broadcast.putExtra(BleProfileService.EXTRA_SERVICE_PRIMARY, false);
+			broadcast.putExtra(BleProfileService.EXTRA_SERVICE_SECONDARY, false);
+			sendBroadcast(broadcast);
+
+			// no need for disconnecting, it will be disconnected by the manager automatically
+		}
+
+		@Override
+		public void onBatteryValueReceived(final int value) {
+			final DeviceState state = getState();
+			if (state != null)
+				state.batteryLevel = value;
+
+			final Intent broadcast = createBroadcast(BleProfileService.BROADCAST_BATTERY_LEVEL);
+			broadcast.putExtra(BleProfileService.EXTRA_BATTERY_LEVEL, value);
+			sendBroadcast(broadcast);
+			scheduleDevicesUpdated();
+		}
+
+		@Override
+		public void onMtuChanged(final int mtu) {
+			// empty default implementation
+		}
+
+		@Override
+		public void onBondingRequired() {
+			final Intent broadcast = createBroadcast(BleProfileService.BROADCAST_BOND_STATE);
+			broadcast.putExtra(BleProfileService.EXTRA_BOND_STATE, BluetoothDevice.BOND_BONDING);
+			sendBroadcast(broadcast);
+		}
+
+		@Override
+		public void onBonded() {
+			final Intent broadcast = createBroadcast(BleProfileService.BROADCAST_BOND_STATE);
+			broadcast.putExtra(BleProfileService.EXTRA_BOND_STATE, BluetoothDevice.BOND_BONDED);
+			sendBroadcast(broadcast);
+		}
+
+		@Override
+		public void onError(final String message, final int errorCode) {
+			final Intent broadcast = createBroadcast(BleProfileService.BROADCAST_ERROR);
+			broadcast.putExtra(BleProfileService.EXTRA_ERROR_MESSAGE, message);
+			broadcast.putExtra(BleProfileService.EXTRA_ERROR_CODE, errorCode);
+			sendBroadcast(broadcast);
+
+			// Only this device is disconnected, other connections are not affected
+			disconnect(mDevice.getAddress());
+		}
+
+		@Override
+		public void onOperationTimeout(final String message) {
+			// A single lost request does not make the connection unusable, the activity only shows the error
+			final Intent broadcast = createBroadcast(BleProfileService.BROADCAST_ERROR);
+			broadcast.putExtra(BleProfileService.EXTRA_ERROR_MESSAGE, message);
+			broadcast.putExtra(BleProfileService.EXTRA_ERROR_CODE, BleManager.ERROR_TIMEOUT);
+			sendBroadcast(broadcast);
+		}
+	}
+}
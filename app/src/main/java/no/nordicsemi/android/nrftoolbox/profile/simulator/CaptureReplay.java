@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.profile.simulator;
+
+import android.bluetooth.BluetoothGattService;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import no.nordicsemi.android.nrftoolbox.profile.BleManager;
+import no.nordicsemi.android.nrftoolbox.session.CaptureReader;
+import no.nordicsemi.android.nrftoolbox.utility.DebugLogger;
+
+/**
+ * Replays a capture written by {@link BleManager#startCapture(File)}. The captured values are sent by a {@link SimulatedPeripheral}, so they go through the same
+ * {@link BleManager} paths as values from a real device and reach the manager's onCharacteristicNotified(...) or onCharacteristicIndicated(...), depending on what
+ * the manager has enabled.
+ * <pre>
+ * final SimulatedPeripheral peripheral = CaptureReplay.createPeripheral("AA:BB:CC:DD:EE:FF", file);
+ * final CaptureReplay replay = new CaptureReplay(peripheral, file);
+ * manager.connect(peripheral);
+ * // when the device is ready:
+ * replay.start(CaptureReplay.REAL_TIME, listener);
+ * </pre>
+ * Values are sent with the captured time intervals divided by the speed, or one after another with {@link #MAX_SPEED}.
+ */
+public class CaptureReplay {
+	private static final String TAG = "CaptureReplay";
+
+	/** Replays the capture with the captured time intervals */
+	public static final float REAL_TIME = 1.0f;
+	/** Replays the capture as fast as possible */
+	public static final float MAX_SPEED = 0.0f;
+
+	/**
+	 * Notified about the end of the replay, on the replay thread.
+	 */
+	public interface Listener {
+		/**
+		 * Called when all values have been sent, or the replay has been stopped or failed.
+		 *
+		 * @param sent    the number of values sent
+		 * @param skipped the number of values not sent because notifications or indications of the characteristic were disabled
+		 */
+		void onReplayFinished(final int sent, final int skipped);
+	}
+
+	private final SimulatedPeripheral mPeripheral;
+	private final File mFile;
+	private Thread mThread;
+	private volatile boolean mStopped;
+
+	/**
+	 * Creates a simulated peripheral with the services and characteristics found in the capture.
+	 *
+	 * @param address the address of the simulated device
+	 * @param file    the capture file
+	 * @return the peripheral, which may be given to {@link BleManager#connect(no.nordicsemi.android.nrftoolbox.profile.GattTransport)}
+	 * @throws IOException if reading the capture failed
+	 */
+	public static SimulatedPeripheral createPeripheral(final String address, final File file) throws IOException {
+		final SimulatedPeripheral peripheral = new SimulatedPeripheral(address);
+		final Map<UUID, BluetoothGattService> services = new HashMap<>();
+		final Set<UUID> characteristics = new HashSet<>();
+
+		final CaptureReader reader = CaptureReader.open(file);
+		try {
+			while (reader.next()) {
+				final UUID characteristicUuid = reader.getCharacteristicUuid();
+				if (!characteristics.add(characteristicUuid))
+					continue;
+
+				final UUID serviceUuid = reader.getServiceUuid();
+				BluetoothGattService service = services.get(serviceUuid);
+				if (service == null) {
+					service = peripheral.addService(serviceUuid);
+					services.put(serviceUuid, service);
+				}
+				peripheral.addCharacteristic(service, characteristicUuid, reader.getProperties());
+			}
+		} finally {
+			reader.close();
+		}
+		return peripheral;
+	}
+
+	/**
+	 * Creates the replay.
+	 *
+	 * @param peripheral the peripheral that will send the values, usually created with {@link #createPeripheral(String, File)}. Additional services,
+	 *                   characteristics and write handlers may be added to it, e.g. to answer a control point
+	 * @param file       the capture file
+	 */
+	public CaptureReplay(final SimulatedPeripheral peripheral, final File file) {
+		mPeripheral = peripheral;
+		mFile = file;
+	}
+
+	/**
+	 * Starts sending the captured values on a new thread. The manager should be connected and ready, otherwise values are skipped.
+	 * A replay in progress is stopped.
+	 *
+	 * @param speed    the replay speed, f.e. {@link #REAL_TIME}, 10.0f for 10x, or {@link #MAX_SPEED}
+	 * @param listener the optional listener
+	 */
+	public synchronized void start(final float speed, final Listener listener) {
+		if (speed < 0)
+			throw new IllegalArgumentException("Speed must not be negative");
+		stop();
+
+		if (speed == MAX_SPEED)
+			mPeripheral.setLatency(0);
+		mStopped = false;
+		mThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				replay(speed, listener);
+			}
+		}, TAG);
+		mThread.start();
+	}
+
+	/**
+	 * Stops the replay. The values already sent may still be delivered.
+	 */
+	public synchronized void stop() {
+		final Thread thread = mThread;
+		if (thread == null)
+			return;
+
+		mThread = null;
+		mStopped = true;
+		thread.interrupt();
+	}
+
+	private void replay(final float speed, final Listener listener) {
+		int sent = 0;
+		int skipped = 0;
+		try {
+			final CaptureReader reader = CaptureReader.open(mFile);
+			try {
+				long firstTimestamp = -1;
+				final long startTime = System.nanoTime();
+				while (!mStopped && reader.next()) {
+					if (speed != MAX_SPEED) {
+						if (firstTimestamp < 0)
+							firstTimestamp = reader.getTimestamp();
+						// Values are scheduled relative to the start, so the delays do not accumulate
+						final long dueTime = startTime + (long) ((reader.getTimestamp() - firstTimestamp) * 1000000.0 / speed);
+						final long delay = (dueTime - System.nanoTime()) / 1000000L;
+						if (delay > 0)
+							Thread.sleep(delay);
+					}
+					if (mPeripheral.notify(reader.getCharacteristicUuid(), reader.getData()))
+						sent++;
+					else
+						skipped++;
+				}
+			} finally {
+				reader.close();
+			}
+		} catch (final InterruptedException e) {
+			// the replay has been stopped
+		} catch (final IOException e) {
+			// Interrupting the thread closes the file channel
+			if (!mStopped)
+				DebugLogger.e(TAG, "Replaying capture failed", e);
+		}
+
+		if (listener != null)
+			listener.onReplayFinished(sent, skipped);
+	}
+}
@@ -0,0 +1,646 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.profile.simulator;
+
+import android.bluetooth.BluetoothDevice;
+import android.bluetooth.BluetoothGatt;
+import android.bluetooth.BluetoothGattCharacteristic;
+import android.bluetooth.BluetoothGattDescriptor;
+import android.bluetooth.BluetoothGattService;
+import android.bluetooth.BluetoothProfile;
+import android.content.Context;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import no.nordicsemi.android.nrftoolbox.profile.BleManager;
+import no.nordicsemi.android.nrftoolbox.profile.GattTransport;
+
+/**
+ * An in-process GATT server that may be connected with {@link BleManager#connect(GattTransport)} instead of a real device. The services and characteristics
+ * are created with {@link #addService(UUID)} and {@link #addCharacteristic(BluetoothGattService, UUID, int)}, the values are set with {@link #setValue(UUID, byte[])}
+ * and sent with {@link #notify(UUID, byte[])}. Writes may be answered by a {@link WriteHandler}, for example to indicate the response to a control point command.
+ * <p>Like Android, the simulator allows only one operation at a time and reports events on its own thread, after the configured latency.
+ * Errors may be injected with {@link #failNextOperation(UUID, int)}, lost responses with {@link #setUnresponsive(UUID, boolean)} and link loss with {@link #simulateLinkLoss()}.
+ * A device out of range is simulated with {@link #setAvailable(boolean)}.</p>
+ * <p>The simulator needs no Bluetooth hardware, but it uses the android.bluetooth GATT attribute classes. On an Android runtime they are created directly.
+ * Local JVM tests, where the framework classes are not implemented, override {@link #createService(UUID, int)}, {@link #createCharacteristic(UUID, int, int)}
+ * and {@link #createDescriptor(UUID, int)} to return test doubles. The managers use a {@link android.os.HandlerThread}, so they may only be driven by the
+ * simulator in instrumented tests.</p>
+ */
+public class SimulatedPeripheral implements GattTransport {
+	private static final UUID CLIENT_CHARACTERISTIC_CONFIG_DESCRIPTOR_UUID = UUID.fromString("00002902-0000-1000-8000-00805f9b34fb");
+	/** The connection timeout status reported on link loss. */
+	private static final int GATT_CONN_TIMEOUT = 0x08;
+	/** The status reported when a direct connection fails. */
+	private static final int GATT_ERROR = 0x85;
+	private static final int DEFAULT_MAX_MTU = 247;
+
+	/**
+	 * Handles values written to a characteristic, on the simulator thread.
+	 */
+	public interface WriteHandler {
+		/**
+		 * Called when the value has been written to the characteristic, just before the write is confirmed to the client.
+		 *
+		 * @param peripheral     the simulator, which may be used to send notifications or indications in response
+		 * @param characteristic the characteristic
+		 * @param value          the written value
+		 */
+		void onWrite(final SimulatedPeripheral peripheral, final BluetoothGattCharacteristic characteristic, final byte[] value);
+	}
+
+	/**
+	 * Provides values sent periodically with {@link #notifyPeriodically(UUID, ValueSource, long)}.
+	 */
+	public interface ValueSource {
+		/**
+		 * Returns the next value to be sent.
+		 *
+		 * @return the value
+		 */
+		byte[] next();
+	}
+
+	private final String mAddress;
+	private final List<BluetoothGattService> mServices = new ArrayList<>();
+	private final Map<UUID, byte[]> mValues = new HashMap<>();
+	private final Map<UUID, WriteHandler> mWriteHandlers = new HashMap<>();
+	private final Map<UUID, Integer> mErrors = new HashMap<>();
+	private final Set<UUID> mUnresponsive = new HashSet<>();
+	/** The CCCD values written by the client, by characteristic UUID. */
+	private final Map<UUID, byte[]> mCccdValues = new HashMap<>();
+	private final List<ScheduledFuture<?>> mPeriodicTasks = new ArrayList<>();
+
+	private ScheduledExecutorService mExecutor;
+	private Callback mCallback;
+	private long mLatency = 30;
+	private int mBondState = BluetoothDevice.BOND_NONE;
+	private int mMaxMtu = DEFAULT_MAX_MTU;
+	private int mMtu = 23;
+	private boolean mConnected;
+	private boolean mServicesDiscovered;
+	/** True if the services have been discovered on a connection kept by {@link #reconnectDirectly(Context, Callback)} */
+	private boolean mRetainedServicesDiscovered;
+	private int mServiceDiscoveryCount;
+	private boolean mOperationInProgress;
+	private boolean mAvailable = true;
+	/** True if a background connection waits until the device is available */
+	private boolean mConnectionPending;
+
+	public SimulatedPeripheral(final String address) {
+		mAddress = address;
+	}
+
+	/**
+	 * Adds a primary service.
+	 *
+	 * @param uuid the service UUID
+	 * @return the service, to add characteristics to
+	 */
+	public synchronized BluetoothGattService addService(final UUID uuid) {
+		final BluetoothGattService service = createService(uuid, BluetoothGattService.SERVICE_TYPE_PRIMARY);
+		mServices.add(service);
+		return service;
+	}
+
+	/**
+	 * Adds a characteristic to the service. Characteristics with NOTIFY or INDICATE property get the Client Characteristic Configuration descriptor.
+	 *
+	 * @param service    the service created with {@link #addService(UUID)}
+	 * @param uuid       the characteristic UUID
+	 * @param properties the characteristic properties, e.g. {@link BluetoothGattCharacteristic#PROPERTY_NOTIFY}
+	 * @return the characteristic
+	 */
+	public synchronized BluetoothGattCharacteristic addCharacteristic(final BluetoothGattService service, final UUID uuid, final int properties) {
+		final BluetoothGattCharacteristic characteristic = createCharacteristic(uuid, properties,
+				BluetoothGattCharacteristic.PERMISSION_READ | BluetoothGattCharacteristic.PERMISSION_WRITE);
+		if ((properties & (BluetoothGattCharacteristic.PROPERTY_NOTIFY | BluetoothGattCharacteristic.PROPERTY_INDICATE)) != 0)
+			characteristic.addDescriptor(createDescriptor(CLIENT_CHARACTERISTIC_CONFIG_DESCRIPTOR_UUID,
+					BluetoothGattDescriptor.PERMISSION_READ | BluetoothGattDescriptor.PERMISSION_WRITE));
+		service.addCharacteristic(characteristic);
+		return characteristic;
+	}
+
+	/**
+	 * Creates a service object. Tests running without the Android framework override this method to return a test double.
+	 *
+	 * @param uuid the service UUID
+	 * @param type the service type, e.g. {@link BluetoothGattService#SERVICE_TYPE_PRIMARY}
+	 * @return the service
+	 */
+	protected BluetoothGattService createService(final UUID uuid, final int type) {
+		return new BluetoothGattService(uuid, type);
+	}
+
+	/**
+	 * Creates a characteristic object. Tests running without the Android framework override this method to return a test double.
+	 *
+	 * @param uuid        the characteristic UUID
+	 * @param properties  the characteristic properties
+	 * @param permissions the characteristic permissions
+	 * @return the characteristic
+	 */
+	protected BluetoothGattCharacteristic createCharacteristic(final UUID uuid, final int properties, final int permissions) {
+		return new BluetoothGattCharacteristic(uuid, properties, permissions);
+	}
+
+	/**
+	 * Creates a descriptor object. Tests running without the Android framework override this method to return a test double.
+	 *
+	 * @param uuid        the descriptor UUID
+	 * @param permissions the descriptor permissions
+	 * @return the descriptor
+	 */
+	protected BluetoothGattDescriptor createDescriptor(final UUID uuid, final int permissions) {
+		return new BluetoothGattDescriptor(uuid, permissions);
+	}
+
+	/**
+	 * Sets the value returned when the characteristic is read.
+	 *
+	 * @param characteristicUuid the characteristic UUID
+	 * @param value              the value
+	 */
+	public synchronized void setValue(final UUID characteristicUuid, final byte[] value) {
+		mValues.put(characteristicUuid, value);
+	}
+
+	/**
+	 * Sets the handler called when a value is written to the characteristic.
+	 *
+	 * @param characteristicUuid the characteristic UUID
+	 * @param handler            the handler, or null
+	 */
+	public synchronized void setWriteHandler(final UUID characteristicUuid, final WriteHandler handler) {
+		mWriteHandlers.put(characteristicUuid, handler);
+	}
+
+	/**
+	 * Sets the delay after which each operation is completed and each notification is delivered. The default is 30 ms.
+	 *
+	 * @param latency the latency in milliseconds
+	 */
+	public synchronized void setLatency(final long latency) {
+		mLatency = latency;
+	}
+
+	/**
+	 * Sets the bond state reported to the client.
+	 *
+	 * @param bondState one of the BluetoothDevice.BOND_* constants
+	 */
+	public synchronized void setBondState(final int bondState) {
+		mBondState = bondState;
+	}
+
+	/**
+	 * Sets the maximum MTU supported by the simulated device. The default is 247.
+	 *
+	 * @param maxMtu the maximum MTU
+	 */
+	public synchronized void setMaxMtu(final int maxMtu) {
+		mMaxMtu = maxMtu;
+	}
+
+	/**
+	 * Returns the negotiated MTU. Notifications longer than MTU - 3 bytes would be truncated by a real device.
+	 *
+	 * @return the current MTU
+	 */
+	public synchronized int getMtu() {
+		return mMtu;
+	}
+
+	/**
+	 * Makes the next read or write of the characteristic, or of its descriptor, fail with the given status.
+	 *
+	 * @param characteristicUuid the characteristic UUID
+	 * @param status             the GATT status, e.g. {@link BluetoothGatt#GATT_READ_NOT_PERMITTED}
+	 */
+	public synchronized void failNextOperation(final UUID characteristicUuid, final int status) {
+		mErrors.put(characteristicUuid, status);
+	}
+
+	/**
+	 * Makes the simulator never answer operations on the characteristic, or on its descriptor, like a device that stopped responding.
+	 *
+	 * @param characteristicUuid the characteristic UUID
+	 * @param unresponsive       true to drop the responses
+	 */
+	public synchronized void setUnresponsive(final UUID characteristicUuid, final boolean unresponsive) {
+		if (unresponsive)
+			mUnresponsive.add(characteristicUuid);
+		else
+			mUnresponsive.remove(characteristicUuid);
+	}
+
+	/**
+	 * Sends a notification or indication, depending on what the client has enabled.
+	 *
+	 * @param characteristicUuid the characteristic UUID
+	 * @param value              the value to be sent
+	 * @return true if the value will be sent, false if not connected or the client has not enabled notifications or indications
+	 */
+	public synchronized boolean notify(final UUID characteristicUuid, final byte[] value) {
+		final byte[] cccd = mCccdValues.get(characteristicUuid);
+		final BluetoothGattCharacteristic characteristic = findCharacteristic(characteristicUuid);
+		if (!mConnected || characteristic == null || cccd == null || cccd.length == 0 || cccd[0] == 0)
+			return false;
+
+		final byte[] data = value.clone();
+		mValues.put(characteristicUuid, data);
+		schedule(new Event() {
+			@Override
+			public void dispatch(final Callback callback) {
+				characteristic.setValue(data);
+				callback.onCharacteristicChanged(characteristic, data.clone());
+			}
+		}, mLatency);
+		return true;
+	}
+
+	/**
+	 * Sends values from the source periodically, e.g. to load-test a profile. Values are not sent while notifications are disabled.
+	 *
+	 * @param characteristicUuid the characteristic UUID
+	 * @param source             the source of values
+	 * @param period             the period in milliseconds
+	 */
+	public synchronized void notifyPeriodically(final UUID characteristicUuid, final ValueSource source, final long period) {
+		if (mExecutor == null)
+			return;
+
+		mPeriodicTasks.add(mExecutor.scheduleAtFixedRate(new Runnable() {
+			@Override
+			public void run() {
+				SimulatedPeripheral.this.notify(characteristicUuid, source.next());
+			}
+		}, period, period, TimeUnit.MILLISECONDS));
+	}
+
+	/**
+	 * Stops all periodic notifications.
+	 */
+	public synchronized void stopPeriodicNotifications() {
+		for (final ScheduledFuture<?> task : mPeriodicTasks)
+			task.cancel(false);
+		mPeriodicTasks.clear();
+	}
+
+	/**
+	 * Drops the connection as if the device went out of range.
+	 */
+	public synchronized void simulateLinkLoss() {
+		if (!mConnected)
+			return;
+		onDisconnected(GATT_CONN_TIMEOUT);
+	}
+
+	/**
+	 * Takes the device out of range or brings it back. The connection is lost when the device becomes unavailable. While it is unavailable, direct connections
+	 * fail and background connections wait until it is available again. The device is available by default.
+	 *
+	 * @param available false to take the device out of range
+	 */
+	public synchronized void setAvailable(final boolean available) {
+		mAvailable = available;
+		if (!available && mConnected)
+			onDisconnected(GATT_CONN_TIMEOUT);
+		if (available && mConnectionPending) {
+			mConnectionPending = false;
+			scheduleConnection(true);
+		}
+	}
+
+	/**
+	 * Returns how many times the services have been discovered, e.g. to check that they were reused after a reconnection.
+	 *
+	 * @return the number of service discoveries
+	 */
+	public synchronized int getServiceDiscoveryCount() {
+		return mServiceDiscoveryCount;
+	}
+
+	@Override
+	public String getAddress() {
+		return mAddress;
+	}
+
+	@Override
+	public synchronized int getBondState() {
+		return mBondState;
+	}
+
+	@Override
+	public BluetoothGatt getGatt() {
+		return null;
+	}
+
+	@Override
+	public synchronized void connect(final Context context, final boolean autoConnect, final Callback callback) {
+		mCallback = callback;
+		mServicesDiscovered = false;
+		mRetainedServicesDiscovered = false;
+		scheduleConnection(autoConnect);
+	}
+
+	@Override
+	public synchronized void disconnect() {
+		if (!mConnected)
+			return;
+		onDisconnected(BluetoothGatt.GATT_SUCCESS);
+	}
+
+	@Override
+	public synchronized void close() {
+		stopPeriodicNotifications();
+		if (mExecutor != null) {
+			mExecutor.shutdownNow();
+			mExecutor = null;
+		}
+		mCallback = null;
+		mConnected = false;
+		mServicesDiscovered = false;
+		mRetainedServicesDiscovered = false;
+		mConnectionPending = false;
+		mOperationInProgress = false;
+	}
+
+	@Override
+	public synchronized boolean reconnect() {
+		if (mCallback == null)
+			return false;
+		if (mRetainedServicesDiscovered) {
+			mServicesDiscovered = true;
+			mRetainedServicesDiscovered = false;
+		}
+		scheduleConnection(true);
+		return true;
+	}
+
+	@Override
+	public synchronized void reconnectDirectly(final Context context, final Callback callback) {
+		if (mServicesDiscovered)
+			mRetainedServicesDiscovered = true;
+		mServicesDiscovered = false;
+		mCallback = callback;
+		scheduleConnection(false);
+	}
+
+	@Override
+	public synchronized boolean discoverServices() {
+		if (!mConnected)
+			return false;
+
+		schedule(new Event() {
+			@Override
+			public void dispatch(final Callback callback) {
+				synchronized (SimulatedPeripheral.this) {
+					mServicesDiscovered = true;
+					mServiceDiscoveryCount++;
+				}
+				callback.onServicesDiscovered(BluetoothGatt.GATT_SUCCESS);
+			}
+		}, mLatency);
+		return true;
+	}
+
+	@Override
+	public synchronized BluetoothGattService getService(final UUID uuid) {
+		if (!mServicesDiscovered)
+			return null;
+		for (final BluetoothGattService service : mServices) {
+			if (service.getUuid().equals(uuid))
+				return service;
+		}
+		return null;
+	}
+
+	@Override
+	public synchronized boolean setCharacteristicNotification(final BluetoothGattCharacteristic characteristic, final boolean enable) {
+		return mConnected;
+	}
+
+	@Override
+	public synchronized boolean readCharacteristic(final BluetoothGattCharacteristic characteristic) {
+		if (!startOperation())
+			return false;
+
+		final UUID uuid = characteristic.getUuid();
+		final byte[] value = mValues.get(uuid);
+		final int status = takeStatus(uuid);
+		completeOperation(uuid, new Event() {
+			@Override
+			public void dispatch(final Callback callback) {
+				if (status == BluetoothGatt.GATT_SUCCESS)
+					characteristic.setValue(value != null ? value.clone() : new byte[0]);
+				callback.onCharacteristicRead(characteristic, status);
+			}
+		});
+		return true;
+	}
+
+	@Override
+	public synchronized boolean writeCharacteristic(final BluetoothGattCharacteristic characteristic) {
+		if (!startOperation())
+			return false;
+
+		final UUID uuid = characteristic.getUuid();
+		final byte[] value = characteristic.getValue() != null ? characteristic.getValue().clone() : new byte[0];
+		final int status = takeStatus(uuid);
+		final WriteHandler handler = mWriteHandlers.get(uuid);
+		if (status == BluetoothGatt.GATT_SUCCESS)
+			mValues.put(uuid, value);
+		completeOperation(uuid, new Event() {
+			@Override
+			public void dispatch(final Callback callback) {
+				if (status == BluetoothGatt.GATT_SUCCESS && handler != null)
+					handler.onWrite(SimulatedPeripheral.this, characteristic, value);
+				callback.onCharacteristicWrite(characteristic, status);
+			}
+		});
+		return true;
+	}
+
+	@Override
+	public synchronized boolean writeDescriptor(final BluetoothGattDescriptor descriptor) {
+		if (!startOperation())
+			return false;
+
+		final UUID uuid = descriptor.getCharacteristic().getUuid();
+		final int status = takeStatus(uuid);
+		if (status == BluetoothGatt.GATT_SUCCESS && CLIENT_CHARACTERISTIC_CONFIG_DESCRIPTOR_UUID.equals(descriptor.getUuid()))
+			mCccdValues.put(uuid, descriptor.getValue() != null ? descriptor.getValue().clone() : null);
+		completeOperation(uuid, new Event() {
+			@Override
+			public void dispatch(final Callback callback) {
+				callback.onDescriptorWrite(descriptor, status);
+			}
+		});
+		return true;
+	}
+
+	@Override
+	public synchronized boolean requestMtu(final int mtu) {
+		if (!startOperation())
+			return false;
+
+		mMtu = Math.min(mtu, mMaxMtu);
+		final int negotiatedMtu = mMtu;
+		completeOperation(null, new Event() {
+			@Override
+			public void dispatch(final Callback callback) {
+				callback.onMtuChanged(negotiatedMtu, BluetoothGatt.GATT_SUCCESS);
+			}
+		});
+		return true;
+	}
+
+	@Override
+	public synchronized boolean requestConnectionPriority(final int priority) {
+		return mConnected;
+	}
+
+	/**
+	 * An event delivered to the client on the simulator thread.
+	 */
+	private interface Event {
+		void dispatch(final Callback callback);
+	}
+
+	/**
+	 * Connects after the latency if the device is available. Otherwise a background connection waits for the device and a direct one fails.
+	 */
+	private void scheduleConnection(final boolean autoConnect) {
+		if (mExecutor == null)
+			mExecutor = Executors.newSingleThreadScheduledExecutor();
+
+		if (!mAvailable) {
+			if (autoConnect) {
+				mConnectionPending = true;
+			} else {
+				schedule(new Event() {
+					@Override
+					public void dispatch(final Callback callback) {
+						callback.onConnectionStateChange(GATT_ERROR, BluetoothProfile.STATE_DISCONNECTED);
+					}
+				}, mLatency);
+			}
+			return;
+		}
+
+		schedule(new Event() {
+			@Override
+			public void dispatch(final Callback callback) {
+				synchronized (SimulatedPeripheral.this) {
+					mConnected = true;
+					// The connection kept for the background reconnection is released
+					mRetainedServicesDiscovered = false;
+				}
+				callback.onConnectionStateChange(BluetoothGatt.GATT_SUCCESS, BluetoothProfile.STATE_CONNECTED);
+			}
+		}, mLatency);
+	}
+
+	private void schedule(final Event event, final long delay) {
+		if (mExecutor == null)
+			return;
+
+		mExecutor.schedule(new Runnable() {
+			@Override
+			public void run() {
+				final Callback callback;
+				synchronized (SimulatedPeripheral.this) {
+					callback = mCallback;
+				}
+				if (callback != null)
+					event.dispatch(callback);
+			}
+		}, delay, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Returns true and marks the operation as in progress if a new operation may be started. Like Android, only one operation may be in progress.
+	 */
+	private boolean startOperation() {
+		if (!mConnected || mOperationInProgress)
+			return false;
+		mOperationInProgress = true;
+		return true;
+	}
+
+	/**
+	 * Schedules the response to the current operation, unless the characteristic is unresponsive, in which case the operation never completes.
+	 */
+	private void completeOperation(final UUID characteristicUuid, final Event event) {
+		if (characteristicUuid != null && mUnresponsive.contains(characteristicUuid))
+			return;
+
+		schedule(new Event() {
+			@Override
+			public void dispatch(final Callback callback) {
+				synchronized (SimulatedPeripheral.this) {
+					mOperationInProgress = false;
+				}
+				event.dispatch(callback);
+			}
+		}, mLatency);
+	}
+
+	private int takeStatus(final UUID characteristicUuid) {
+		final Integer status = mErrors.remove(characteristicUuid);
+		return status != null ? status : BluetoothGatt.GATT_SUCCESS;
+	}
+
+	private void onDisconnected(final int status) {
+		// Like Android, the client keeps the services discovered before, they may be used again after reconnect()
+		mConnected = false;
+		mOperationInProgress = false;
+		mCccdValues.clear();
+		mMtu = 23;
+		schedule(new Event() {
+			@Override
+			public void dispatch(final Callback callback) {
+				callback.onConnectionStateChange(status, BluetoothProfile.STATE_DISCONNECTED);
+			}
+		}, mLatency);
+	}
+
+	private BluetoothGattCharacteristic findCharacteristic(final UUID uuid) {
+		for (final BluetoothGattService service : mServices) {
+			final BluetoothGattCharacteristic characteristic = service.getCharacteristic(uuid);
+			if (characteristic != null)
+				return characteristic;
+		}
+		return null;
+	}
+}
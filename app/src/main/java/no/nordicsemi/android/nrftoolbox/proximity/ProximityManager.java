@@ -184,7 +184,7 @@ public class ProximityManager extends BleManager<ProximityManagerCallbacks> {
 
 			if (!preparedWrite && value != null && value.length == 1) { // small validation
 				if (value[0] != NO_ALERT[0]) {
-					Logger.a(mLogSession, "[Server] Immediate alarm request received: " + AlertLevelParser.parse(characteristic));
+					Logger.a(mLogSession, "[Server] Immediate alarm request received: " + AlertLevelParser.parse(characteristic.getValue()));
 					mCallbacks.onAlarmTriggered();
 				} else {
 					Logger.a(mLogSession, "[Server] Immediate alarm request received: OFF");
@@ -285,7 +285,7 @@ public class ProximityManager extends BleManager<ProximityManagerCallbacks> {
 
 		@Override
 		protected boolean isRequiredServiceSupported(final BluetoothGatt gatt) {
-			final BluetoothGattService llService = gatt.getService(LINKLOSS_SERVICE_UUID);
+			final BluetoothGattService llService = getService(LINKLOSS_SERVICE_UUID);
 			if (llService != null) {
 				mLinklossCharacteristic = llService.getCharacteristic(ALERT_LEVEL_CHARACTERISTIC_UUID);
 			}
@@ -294,7 +294,7 @@ public class ProximityManager extends BleManager<ProximityManagerCallbacks> {
 
 		@Override
 		protected boolean isOptionalServiceSupported(final BluetoothGatt gatt) {
-			final BluetoothGattService iaService = gatt.getService(IMMEDIATE_ALERT_SERVICE_UUID);
+			final BluetoothGattService iaService = getService(IMMEDIATE_ALERT_SERVICE_UUID);
 			if (iaService != null) {
 				mAlertLevelCharacteristic = iaService.getCharacteristic(ALERT_LEVEL_CHARACTERISTIC_UUID);
 			}
@@ -22,14 +22,10 @@
 
 package no.nordicsemi.android.nrftoolbox.rsc;
 
-import android.content.BroadcastReceiver;
-import android.content.Context;
 import android.content.Intent;
-import android.content.IntentFilter;
 import android.content.SharedPreferences;
 import android.os.Bundle;
 import android.preference.PreferenceManager;
-import android.support.v4.content.LocalBroadcastManager;
 import android.view.Menu;
 import android.widget.TextView;
 
@@ -52,6 +48,8 @@ public class RSCActivity extends BleProfileServiceReadyActivity<RSCService.RSCBi
 	private TextView mStridesCountView;
 	private TextView mActivityView;
 
+	private RSCService.RSCBinder mBinder;
+
 	@Override
 	protected void onCreateView(final Bundle savedInstanceState) {
 		setContentView(R.layout.activity_feature_rsc);
@@ -60,13 +58,7 @@ public class RSCActivity extends BleProfileServiceReadyActivity<RSCService.RSCBi
 
 	@Override
 	protected void onInitialize(final Bundle savedInstanceState) {
-		LocalBroadcastManager.getInstance(this).registerReceiver(mBroadcastReceiver, makeIntentFilter());
-	}
-
-	@Override
-	protected void onDestroy() {
-		super.onDestroy();
-		LocalBroadcastManager.getInstance(this).unregisterReceiver(mBroadcastReceiver);
+		// empty
 	}
 
 	private void setGui() {
@@ -166,12 +158,15 @@ public class RSCActivity extends BleProfileServiceReadyActivity<RSCService.RSCBi
 
 	@Override
 	protected void onServiceBinded(final RSCService.RSCBinder binder) {
-		// not used
+		mBinder = binder;
+		binder.setRSCListener(mRSCListener);
 	}
 
 	@Override
 	protected void onServiceUnbinded() {
-		// not used
+		if (mBinder != null)
+			mBinder.setRSCListener(null);
+		mBinder = null;
 	}
 
 	@Override
@@ -247,31 +242,17 @@ public class RSCActivity extends BleProfileServiceReadyActivity<RSCService.RSCBi
 		mStridesCountView.setText(String.valueOf(strides));
 	}
 
-	private final BroadcastReceiver mBroadcastReceiver = new BroadcastReceiver() {
+	private final RSCService.RSCListener mRSCListener = new RSCService.RSCListener() {
 		@Override
-		public void onReceive(final Context context, final Intent intent) {
-			final String action = intent.getAction();
-
-			if (RSCService.BROADCAST_RSC_MEASUREMENT.equals(action)) {
-				final float speed = intent.getFloatExtra(RSCService.EXTRA_SPEED, 0.0f);
-				final int cadence = intent.getIntExtra(RSCService.EXTRA_CADENCE, 0);
-				final float totalDistance = intent.getFloatExtra(RSCService.EXTRA_TOTAL_DISTANCE, RSCManagerCallbacks.NOT_AVAILABLE);
-				final int activity = intent.getIntExtra(RSCService.EXTRA_ACTIVITY, RSCManagerCallbacks.ACTIVITY_WALKING);
-				// Update GUI
-				onMeasurementReceived(speed, cadence, totalDistance, activity);
-			} else if (RSCService.BROADCAST_STRIDES_UPDATE.equals(action)) {
-				final int strides = intent.getIntExtra(RSCService.EXTRA_STRIDES, 0);
-				final float distance = intent.getFloatExtra(RSCService.EXTRA_DISTANCE, 0);
-				// Update GUI
-				onStripesUpdate(distance, strides);
-			}
+		public void onMeasurementReceived(final float speed, final int cadence, final float totalDistance, final int activity) {
+			// Update GUI
+			RSCActivity.this.onMeasurementReceived(speed, cadence, totalDistance, activity);
 		}
-	};
 
-	private static IntentFilter makeIntentFilter() {
-		final IntentFilter intentFilter = new IntentFilter();
-		intentFilter.addAction(RSCService.BROADCAST_RSC_MEASUREMENT);
-		intentFilter.addAction(RSCService.BROADCAST_STRIDES_UPDATE);
-		return intentFilter;
-	}
+		@Override
+		public void onStridesUpdate(final float distance, final int strides) {
+			// Update GUI
+			onStripesUpdate(distance, strides);
+		}
+	};
 }
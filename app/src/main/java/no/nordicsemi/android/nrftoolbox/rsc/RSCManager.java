@@ -31,9 +31,10 @@ import java.util.LinkedList;
 import java.util.Queue;
 import java.util.UUID;
 
-import no.nordicsemi.android.log.Logger;
+import no.nordicsemi.android.log.LogContract;
 import no.nordicsemi.android.nrftoolbox.profile.BleManager;
 import no.nordicsemi.android.nrftoolbox.parser.RSCMeasurementParser;
+import no.nordicsemi.android.nrftoolbox.utility.DataReader;
 
 public class RSCManager extends BleManager<RSCManagerCallbacks> {
 	private static final byte INSTANTANEOUS_STRIDE_LENGTH_PRESENT = 0x01; // 1 bit
@@ -46,11 +47,31 @@ public class RSCManager extends BleManager<RSCManagerCallbacks> {
 	private static final UUID RSC_MEASUREMENT_CHARACTERISTIC_UUID = UUID.fromString("00002A53-0000-1000-8000-00805f9b34fb");
 
 	private BluetoothGattCharacteristic mRSCMeasurementCharacteristic;
+	/** The reader is reused for every notification so that decoding does not allocate */
+	private final DataReader mReader = new DataReader();
+
+	private static final ValueFormatter RSC_MEASUREMENT_FORMATTER = new ValueFormatter() {
+		@Override
+		public String format(final byte[] data) {
+			return RSCMeasurementParser.parse(data);
+		}
+	};
 
 	public RSCManager(final Context context) {
 		super(context);
 	}
 
+	@Override
+	protected int getInitializationConnectionPriority() {
+		return BluetoothGatt.CONNECTION_PRIORITY_HIGH;
+	}
+
+	@Override
+	protected int getReadyConnectionPriority() {
+		// Measurements are notified about once a second, there is no need to keep the short connection interval
+		return BluetoothGatt.CONNECTION_PRIORITY_LOW_POWER;
+	}
+
 	@Override
 	protected BleManagerGattCallback getGattCallback() {
 		return mGattCallback;
@@ -70,7 +91,7 @@ public class RSCManager extends BleManager<RSCManagerCallbacks> {
 
 		@Override
 		public boolean isRequiredServiceSupported(final BluetoothGatt gatt) {
-			final BluetoothGattService service = gatt.getService(RUNNING_SPEED_AND_CADENCE_SERVICE_UUID);
+			final BluetoothGattService service = getService(RUNNING_SPEED_AND_CADENCE_SERVICE_UUID);
 			if (service != null) {
 				mRSCMeasurementCharacteristic = service.getCharacteristic(RSC_MEASUREMENT_CHARACTERISTIC_UUID);
 			}
@@ -83,35 +104,28 @@ public class RSCManager extends BleManager<RSCManagerCallbacks> {
 		}
 
 		@Override
-		public void onCharacteristicNotified(final BluetoothGatt gatt, final BluetoothGattCharacteristic characteristic) {
-			if (mLogSession != null)
-				Logger.a(mLogSession, RSCMeasurementParser.parse(characteristic));
+		public void onCharacteristicNotified(final BluetoothGatt gatt, final BluetoothGattCharacteristic characteristic, final byte[] data) {
+			log(LogContract.Log.Level.APPLICATION, RSC_MEASUREMENT_FORMATTER, data);
 
 			// Decode the new data
-			int offset = 0;
-			final int flags = characteristic.getValue()[offset]; // 1 byte
-			offset += 1;
-
-			final boolean islmPresent = (flags & INSTANTANEOUS_STRIDE_LENGTH_PRESENT) > 0;
-			final boolean tdPreset = (flags & TOTAL_DISTANCE_PRESENT) > 0;
-			final boolean running = (flags & WALKING_OR_RUNNING_STATUS_BITS) > 0;
+			final DataReader reader = mReader.reset(data);
+			final int flags = reader.getUint8(); // 1 byte
 
-			final float instantaneousSpeed = (float) characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT16, offset) / 256.0f; // 1/256 m/s in [m/s]
-			offset += 2;
+			final boolean islmPresent = DataReader.isSet(flags, INSTANTANEOUS_STRIDE_LENGTH_PRESENT);
+			final boolean tdPreset = DataReader.isSet(flags, TOTAL_DISTANCE_PRESENT);
+			final boolean running = DataReader.isSet(flags, WALKING_OR_RUNNING_STATUS_BITS);
 
-			final int instantaneousCadence = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT8, offset); // [SPM]
-			offset += 1;
+			final float instantaneousSpeed = (float) reader.getUint16() / 256.0f; // 1/256 m/s in [m/s]
+			final int instantaneousCadence = reader.getUint8(); // [SPM]
 
 			float instantaneousStrideLength = RSCManagerCallbacks.NOT_AVAILABLE;
 			if (islmPresent) {
-				instantaneousStrideLength = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT16, offset); // [cm]
-				offset += 2;
+				instantaneousStrideLength = reader.getUint16(); // [cm]
 			}
 
 			float totalDistance = RSCManagerCallbacks.NOT_AVAILABLE;
 			if (tdPreset) {
-				totalDistance = (float) characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT32, offset) / 10.0f; // 1/10 m in [m]
-				//offset += 4;
+				totalDistance = (float) reader.getUint32AsLong() / 10.0f; // 1/10 m in [m]
 			}
 
 			// Notify listener about the new measurement
@@ -30,54 +30,125 @@ import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
 import android.os.Handler;
-import android.support.v4.content.LocalBroadcastManager;
 import android.support.v7.app.NotificationCompat;
 
+import java.io.File;
+
 import no.nordicsemi.android.log.Logger;
 import no.nordicsemi.android.nrftoolbox.FeaturesActivity;
 import no.nordicsemi.android.nrftoolbox.R;
 import no.nordicsemi.android.nrftoolbox.profile.BleManager;
 import no.nordicsemi.android.nrftoolbox.profile.BleProfileService;
+import no.nordicsemi.android.nrftoolbox.profile.ConflatedEvent;
+import no.nordicsemi.android.nrftoolbox.session.SessionRecorder;
 
 public class RSCService extends BleProfileService implements RSCManagerCallbacks {
 	private static final String TAG = "RSCService";
 
-	public static final String BROADCAST_RSC_MEASUREMENT = "no.nordicsemi.android.nrftoolbox.rsc.BROADCAST_RSC_MEASUREMENT";
-	public static final String EXTRA_SPEED = "no.nordicsemi.android.nrftoolbox.rsc.EXTRA_SPEED";
-	public static final String EXTRA_CADENCE = "no.nordicsemi.android.nrftoolbox.rsc.EXTRA_CADENCE";
-	public static final String EXTRA_TOTAL_DISTANCE = "no.nordicsemi.android.nrftoolbox.rsc.EXTRA_TOTAL_DISTANCE";
-	public static final String EXTRA_ACTIVITY = "no.nordicsemi.android.nrftoolbox.rsc.EXTRA_ACTIVITY";
-
-	public static final String BROADCAST_STRIDES_UPDATE = "no.nordicsemi.android.nrftoolbox.rsc.BROADCAST_STRIDES_UPDATE";
-	public static final String EXTRA_STRIDES = "no.nordicsemi.android.nrftoolbox.rsc.EXTRA_STRIDES";
-	public static final String EXTRA_DISTANCE = "no.nordicsemi.android.nrftoolbox.rsc.EXTRA_DISTANCE";
-
 	private final static String ACTION_DISCONNECT = "no.nordicsemi.android.nrftoolbox.rsc.ACTION_DISCONNECT";
 
 	private RSCManager mManager;
 
-	/** The last value of a cadence */
-	private float mCadence;
-	/** Trip distance in cm */
-	private float mDistance;
-	/** Stride length in cm */
-	private float mStrideLength;
-	/** Number of steps in the trip */
-	private int mStepsNumber;
-	private boolean mTaskInProgress;
+	private final StrideCounter mStrideCounter = new StrideCounter();
+	/** Records speed, cadence, total distance and stride length from the device ready event until disconnection */
+	private SessionRecorder mRecorder;
 	private final Handler mHandler = new Handler();
 
 	private final static int NOTIFICATION_ID = 200;
 	private final static int OPEN_ACTIVITY_REQ = 0;
 	private final static int DISCONNECT_REQ = 1;
 
+	private final MeasurementEvent mMeasurementEvent = new MeasurementEvent();
+	private final StridesEvent mStridesEvent = new StridesEvent();
+
 	private final LocalBinder mBinder = new RSCBinder();
 
+	/**
+	 * The listener of the measurements and strides updates. It is notified on the UI thread with the latest values only, values received in the meantime are dropped.
+	 */
+	public interface RSCListener {
+		/**
+		 * Called when a new measurement has been received.
+		 *
+		 * @param speed         the speed in m/s
+		 * @param cadence       the cadence in steps per minute
+		 * @param totalDistance the total distance in meters or {@link RSCManagerCallbacks#NOT_AVAILABLE}
+		 * @param activity      {@link RSCManagerCallbacks#ACTIVITY_WALKING} or {@link RSCManagerCallbacks#ACTIVITY_RUNNING}
+		 */
+		void onMeasurementReceived(final float speed, final int cadence, final float totalDistance, final int activity);
+
+		/**
+		 * Called when the strides counter has been updated.
+		 *
+		 * @param distance the distance in centimeters
+		 * @param strides  the number of strides
+		 */
+		void onStridesUpdate(final float distance, final int strides);
+	}
+
 	/**
 	 * This local binder is an interface for the binded activity to operate with the RSC sensor
 	 */
 	public class RSCBinder extends LocalBinder {
-		// empty
+		/**
+		 * Sets the listener of the measurements. The activity must set <code>null</code> before it unbinds from the service.
+		 *
+		 * @param listener the listener or <code>null</code>
+		 */
+		public void setRSCListener(final RSCListener listener) {
+			mMeasurementEvent.setListener(listener);
+			mStridesEvent.setListener(listener);
+		}
+	}
+
+	private static final class MeasurementEvent extends ConflatedEvent<RSCListener> {
+		private float mSpeed;
+		private int mCadence;
+		private float mTotalDistance;
+		private int mActivity;
+
+		synchronized void set(final float speed, final int cadence, final float totalDistance, final int activity) {
+			mSpeed = speed;
+			mCadence = cadence;
+			mTotalDistance = totalDistance;
+			mActivity = activity;
+			publish();
+		}
+
+		@Override
+		protected void deliver(final RSCListener listener) {
+			final float speed, totalDistance;
+			final int cadence, activity;
+			synchronized (this) {
+				speed = mSpeed;
+				cadence = mCadence;
+				totalDistance = mTotalDistance;
+				activity = mActivity;
+			}
+			listener.onMeasurementReceived(speed, cadence, totalDistance, activity);
+		}
+	}
+
+	private static final class StridesEvent extends ConflatedEvent<RSCListener> {
+		private float mDistance;
+		private int mStrides;
+
+		synchronized void set(final float distance, final int strides) {
+			mDistance = distance;
+			mStrides = strides;
+			publish();
+		}
+
+		@Override
+		protected void deliver(final RSCListener listener) {
+			final float distance;
+			final int strides;
+			synchronized (this) {
+				distance = mDistance;
+				strides = mStrides;
+			}
+			listener.onStridesUpdate(distance, strides);
+		}
 	}
 
 	@Override
@@ -97,6 +168,8 @@ public class RSCService extends BleProfileService implements RSCManagerCallbacks
 		final IntentFilter filter = new IntentFilter();
 		filter.addAction(ACTION_DISCONNECT);
 		registerReceiver(mDisconnectActionBroadcastReceiver, filter);
+
+		mRecorder = new SessionRecorder(this, "RSC", "speed", "cadence", "total_distance", "stride_length");
 	}
 
 	@Override
@@ -104,10 +177,30 @@ public class RSCService extends BleProfileService implements RSCManagerCallbacks
 		// when user has disconnected from the sensor, we have to cancel the notification that we've created some milliseconds before using unbindService
 		cancelNotification();
 		unregisterReceiver(mDisconnectActionBroadcastReceiver);
+		mRecorder.stop();
 
 		super.onDestroy();
 	}
 
+	@Override
+	public void onDeviceReady() {
+		super.onDeviceReady();
+		mRecorder.start();
+
+		final File capture = mRecorder.getCaptureFile();
+		if (capture != null)
+			mManager.startCapture(capture);
+	}
+
+	@Override
+	public void onDeviceDisconnected() {
+		mManager.stopCapture();
+		mRecorder.stop();
+		mMeasurementEvent.clear();
+		mStridesEvent.clear();
+		super.onDeviceDisconnected();
+	}
+
 	@Override
 	protected void onRebind() {
 		// when the activity rebinds to the service, remove the notification
@@ -132,40 +225,23 @@ public class RSCService extends BleProfileService implements RSCManagerCallbacks
 			if (!isConnected())
 				return;
 
-			mStepsNumber++;
-			mDistance += mStrideLength;
-			final Intent broadcast = new Intent(BROADCAST_STRIDES_UPDATE);
-			broadcast.putExtra(EXTRA_STRIDES, mStepsNumber);
-			broadcast.putExtra(EXTRA_DISTANCE, mDistance);
-			LocalBroadcastManager.getInstance(RSCService.this).sendBroadcast(broadcast);
-
-			if (mCadence > 0) {
-				final long interval = (long) (1000.0f * 65.0f / mCadence); // 60s + 5s for calibration in milliseconds
-				mHandler.postDelayed(mUpdateStridesTask, interval);
-			} else {
-				mTaskInProgress = false;
-			}
+			final boolean next = mStrideCounter.onStride();
+			mStridesEvent.set(mStrideCounter.getDistance(), mStrideCounter.getStepsNumber());
+
+			if (next)
+				mHandler.postDelayed(mUpdateStridesTask, mStrideCounter.getStrideInterval());
 		}
 	};
 
 	@Override
 	public void onMeasurementReceived(final float speed, final int cadence, final float totalDistance, final float strideLen, final int activity) {
-		final Intent broadcast = new Intent(BROADCAST_RSC_MEASUREMENT);
-		broadcast.putExtra(EXTRA_SPEED, speed);
-		broadcast.putExtra(EXTRA_CADENCE, cadence);
-		broadcast.putExtra(EXTRA_TOTAL_DISTANCE, totalDistance);
-		broadcast.putExtra(EXTRA_ACTIVITY, activity);
-		LocalBroadcastManager.getInstance(this).sendBroadcast(broadcast);
+		mMeasurementEvent.set(speed, cadence, totalDistance, activity);
 
-		// Start strides counter if not in progress
-		mCadence = cadence;
-		mStrideLength = strideLen;
-		if (!mTaskInProgress && cadence > 0) {
-			mTaskInProgress = true;
+		mRecorder.record(speed, cadence, totalDistance, strideLen);
 
-			final long interval = (long) (1000.0f * 65.0f / mCadence); // 60s + 5s for calibration in milliseconds
-			mHandler.postDelayed(mUpdateStridesTask, interval);
-		}
+		// Start strides counter if not in progress
+		if (mStrideCounter.onMeasurement(cadence, strideLen))
+			mHandler.postDelayed(mUpdateStridesTask, mStrideCounter.getStrideInterval());
 	}
 
 	/**
@@ -23,34 +23,56 @@ package no.nordicsemi.android.nrftoolbox.scanner;
 
 import android.bluetooth.BluetoothDevice;
 import android.content.Context;
+import android.os.SystemClock;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.BaseAdapter;
 import android.widget.ImageView;
+import android.widget.ListView;
 import android.widget.TextView;
 
-import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
 import no.nordicsemi.android.nrftoolbox.R;
+import no.nordicsemi.android.nrftoolbox.proximity.ProximityRanking;
 import no.nordicsemi.android.support.v18.scanner.ScanResult;
 
 /**
  * DeviceListAdapter class is list adapter for showing scanned Devices name, address and RSSI image based on RSSI values.
+ * <p>
+ * Devices are indexed by their addresses. When a batch of scan results contains only devices that are already on the list, their values are updated in
+ * place and only the visible rows showing them are bound again. The whole list is refreshed only when new devices have been found, stale ones removed
+ * or the order has changed.
+ * </p>
+ * <p>
+ * The RSSI values shown are smoothed by the {@link ProximityRanking}, which also keeps the not bonded devices ordered with the nearest one first.
+ * </p>
  */
 public class DeviceListAdapter extends BaseAdapter {
 	private static final int TYPE_TITLE = 0;
 	private static final int TYPE_ITEM = 1;
 	private static final int TYPE_EMPTY = 2;
 
-	private final ArrayList<ExtendedBluetoothDevice> mListBondedValues = new ArrayList<>();
-	private final ArrayList<ExtendedBluetoothDevice> mListValues = new ArrayList<>();
+	/** Bonded devices in the order returned by the adapter. They are never sorted nor removed, the ranking is used only to index them and filter RSSI. */
+	private final ProximityRanking<ExtendedBluetoothDevice> mListBondedValues = new ProximityRanking<>();
+	/** Not bonded devices, the nearest first */
+	private final ProximityRanking<ExtendedBluetoothDevice> mListValues = new ProximityRanking<>();
+	/** Devices changed by the current update, reused between updates */
+	private final HashSet<ExtendedBluetoothDevice> mChangedDevices = new HashSet<>();
 	private final Context mContext;
+	private final ListView mListView;
 
-	public DeviceListAdapter(Context context) {
+	/**
+	 * Creates the adapter.
+	 * @param context the context
+	 * @param listView the list view using this adapter, used to rebind only the rows that have changed
+	 */
+	public DeviceListAdapter(final Context context, final ListView listView) {
 		mContext = context;
+		mListView = listView;
 	}
 
 	/**
@@ -58,9 +80,9 @@ public class DeviceListAdapter extends BaseAdapter {
 	 * @param devices list of bonded devices.
 	 */
 	public void addBondedDevices(final Set<BluetoothDevice> devices) {
-		final List<ExtendedBluetoothDevice> bondedDevices = mListBondedValues;
+		final ProximityRanking<ExtendedBluetoothDevice> bondedDevices = mListBondedValues;
 		for (BluetoothDevice device : devices) {
-			bondedDevices.add(new ExtendedBluetoothDevice(device));
+			bondedDevices.add(device.getAddress(), new ExtendedBluetoothDevice(device));
 		}
 		notifyDataSetChanged();
 	}
@@ -70,26 +92,56 @@ public class DeviceListAdapter extends BaseAdapter {
 	 * @param results list of results from the scanner
 	 */
 	public void update(final List<ScanResult> results) {
+		final HashSet<ExtendedBluetoothDevice> changedDevices = mChangedDevices;
+		boolean listChanged = false;
+
 		for (final ScanResult result : results) {
-			final ExtendedBluetoothDevice device = findDevice(result);
+			final String address = result.getDevice().getAddress();
+			final long time = result.getTimestampNanos() / 1000000L; // the same time base as SystemClock.elapsedRealtime()
+
+			ProximityRanking<ExtendedBluetoothDevice> ranking = mListBondedValues;
+			ExtendedBluetoothDevice device = ranking.get(address);
+			if (device == null) {
+				ranking = mListValues;
+				device = ranking.get(address);
+			}
+
 			if (device == null) {
-				mListValues.add(new ExtendedBluetoothDevice(result));
+				mListValues.add(address, new ExtendedBluetoothDevice(result), result.getRssi(), time);
+				listChanged = true;
 			} else {
-				device.name = result.getScanRecord() != null ? result.getScanRecord().getDeviceName() : null;
-				device.rssi = result.getRssi();
+				ranking.update(address, result.getRssi(), time);
+				if (device.update(result, ranking.getRssi(address, result.getRssi())))
+					changedDevices.add(device);
 			}
 		}
-		notifyDataSetChanged();
+
+		// Remove devices that stopped advertising and move the nearest ones up
+		if (mListValues.removeStale(SystemClock.elapsedRealtime()) > 0)
+			listChanged = true;
+		if (mListValues.sort())
+			listChanged = true;
+
+		if (listChanged)
+			notifyDataSetChanged();
+		else if (!changedDevices.isEmpty())
+			rebindChangedRows(changedDevices);
+		changedDevices.clear();
 	}
 
-	private ExtendedBluetoothDevice findDevice(final ScanResult result) {
-		for (final ExtendedBluetoothDevice device : mListBondedValues)
-			if (device.matches(result))
-				return device;
-		for (final ExtendedBluetoothDevice device : mListValues)
-			if (device.matches(result))
-				return device;
-		return null;
+	/**
+	 * Binds again the visible rows that show any of the given devices. Rows that are not visible will be bound when scrolled to.
+	 */
+	private void rebindChangedRows(final Set<ExtendedBluetoothDevice> changedDevices) {
+		final ListView listView = mListView;
+		for (int i = 0; i < listView.getChildCount(); ++i) {
+			final Object tag = listView.getChildAt(i).getTag();
+			if (tag instanceof ViewHolder) {
+				final ViewHolder holder = (ViewHolder) tag;
+				if (changedDevices.contains(holder.device))
+					bindDevice(holder, holder.device);
+			}
+		}
 	}
 
 	public void clearDevices() {
@@ -113,15 +165,15 @@ public class DeviceListAdapter extends BaseAdapter {
 			if (position == 0)
 				return R.string.scanner_subtitle_not_bonded;
 			else
-				return mListValues.get(position - 1);
+				return mListValues.getItem(position - 1);
 		} else {
 			if (position == 0)
 				return R.string.scanner_subtitle_bonded;
 			if (position < bondedCount)
-				return mListBondedValues.get(position - 1);
+				return mListBondedValues.getItem(position - 1);
 			if (position == bondedCount)
 				return R.string.scanner_subtitle_not_bonded;
-			return mListValues.get(position - bondedCount - 1);
+			return mListValues.getItem(position - bondedCount - 1);
 		}
 	}
 
@@ -190,25 +242,32 @@ public class DeviceListAdapter extends BaseAdapter {
 
 			final ExtendedBluetoothDevice device = (ExtendedBluetoothDevice) getItem(position);
 			final ViewHolder holder = (ViewHolder) view.getTag();
-			final String name = device.name;
-			holder.name.setText(name != null ? name : mContext.getString(R.string.not_available));
-			holder.address.setText(device.device.getAddress());
-			if (!device.isBonded || device.rssi != ExtendedBluetoothDevice.NO_RSSI) {
-				final int rssiPercent = (int) (100.0f * (127.0f + device.rssi) / (127.0f + 20.0f));
-				holder.rssi.setImageLevel(rssiPercent);
-				holder.rssi.setVisibility(View.VISIBLE);
-			} else {
-				holder.rssi.setVisibility(View.GONE);
-			}
+			bindDevice(holder, device);
 			break;
 		}
 
 		return view;
 	}
 
+	private void bindDevice(final ViewHolder holder, final ExtendedBluetoothDevice device) {
+		holder.device = device;
+		final String name = device.name;
+		holder.name.setText(name != null ? name : mContext.getString(R.string.not_available));
+		holder.address.setText(device.device.getAddress());
+		if (!device.isBonded || device.rssi != ExtendedBluetoothDevice.NO_RSSI) {
+			final int rssiPercent = (int) (100.0f * (127.0f + device.rssi) / (127.0f + 20.0f));
+			holder.rssi.setImageLevel(rssiPercent);
+			holder.rssi.setVisibility(View.VISIBLE);
+		} else {
+			holder.rssi.setVisibility(View.GONE);
+		}
+	}
+
 	private class ViewHolder {
 		private TextView name;
 		private TextView address;
 		private ImageView rssi;
+		/** The device currently shown in the row */
+		private ExtendedBluetoothDevice device;
 	}
 }
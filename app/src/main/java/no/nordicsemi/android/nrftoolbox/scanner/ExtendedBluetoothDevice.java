@@ -22,6 +22,7 @@
 package no.nordicsemi.android.nrftoolbox.scanner;
 
 import android.bluetooth.BluetoothDevice;
+import android.text.TextUtils;
 
 import no.nordicsemi.android.support.v18.scanner.ScanResult;
 
@@ -50,4 +51,19 @@ public class ExtendedBluetoothDevice {
 	public boolean matches(final ScanResult scanResult) {
 		return device.getAddress().equals(scanResult.getDevice().getAddress());
 	}
+
+	/**
+	 * Updates the name and RSSI using a newer scan result of the same device.
+	 *
+	 * @param scanResult the scan result
+	 * @param rssi the filtered RSSI value to be shown instead of the raw one from the scan result
+	 * @return <code>true</code> if the name or RSSI has changed, <code>false</code> otherwise
+	 */
+	public boolean update(final ScanResult scanResult, final int rssi) {
+		final String name = scanResult.getScanRecord() != null ? scanResult.getScanRecord().getDeviceName() : null;
+		final boolean changed = rssi != this.rssi || !TextUtils.equals(name, this.name);
+		this.name = name;
+		this.rssi = rssi;
+		return changed;
+	}
 }
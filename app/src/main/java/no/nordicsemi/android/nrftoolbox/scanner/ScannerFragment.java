@@ -31,7 +31,6 @@ import android.content.Context;
 import android.content.DialogInterface;
 import android.content.pm.PackageManager;
 import android.os.Bundle;
-import android.os.Handler;
 import android.os.ParcelUuid;
 import android.support.annotation.NonNull;
 import android.support.v4.app.ActivityCompat;
@@ -51,11 +50,8 @@ import java.util.Set;
 import java.util.UUID;
 
 import no.nordicsemi.android.nrftoolbox.R;
-import no.nordicsemi.android.support.v18.scanner.BluetoothLeScannerCompat;
-import no.nordicsemi.android.support.v18.scanner.ScanCallback;
 import no.nordicsemi.android.support.v18.scanner.ScanFilter;
 import no.nordicsemi.android.support.v18.scanner.ScanResult;
-import no.nordicsemi.android.support.v18.scanner.ScanSettings;
 
 /**
  * ScannerFragment class scan required BLE devices and shows them in a list. This class scans and filter devices with standard BLE Service UUID and devices with custom BLE Service UUID. It contains a
@@ -66,22 +62,19 @@ public class ScannerFragment extends DialogFragment {
 	private final static String TAG = "ScannerFragment";
 
 	private final static String PARAM_UUID = "param_uuid";
-	private final static long SCAN_DURATION = 5000;
 
 	private final static int REQUEST_PERMISSION_REQ_CODE = 34; // any 8-bit number
 
 	private BluetoothAdapter mBluetoothAdapter;
 	private OnDeviceSelectedListener mListener;
 	private DeviceListAdapter mAdapter;
-	private final Handler mHandler = new Handler();
+	private ScanController mScanController;
 	private Button mScanButton;
 
 	private View mPermissionRationale;
 
 	private ParcelUuid mUuid;
 
-	private boolean mIsScanning = false;
-
 	public static ScannerFragment getInstance(final UUID uuid) {
 		final ScannerFragment fragment = new ScannerFragment();
 
@@ -137,6 +130,17 @@ public class ScannerFragment extends DialogFragment {
 
 		final BluetoothManager manager = (BluetoothManager) getActivity().getSystemService(Context.BLUETOOTH_SERVICE);
 		mBluetoothAdapter = manager.getAdapter();
+
+		final List<ScanFilter> filters = new ArrayList<>();
+		filters.add(new ScanFilter.Builder().setServiceUuid(mUuid).build());
+		mScanController = new ScanController(ScanPolicy.LOW_LATENCY_BURST, filters);
+		mScanController.addListener(mScanListener);
+	}
+
+	@Override
+	public void onDestroy() {
+		mScanController.removeListener(mScanListener);
+		super.onDestroy();
 	}
 
 	@Override
@@ -153,7 +157,7 @@ public class ScannerFragment extends DialogFragment {
 		final ListView listview = (ListView) dialogView.findViewById(android.R.id.list);
 
 		listview.setEmptyView(dialogView.findViewById(android.R.id.empty));
-		listview.setAdapter(mAdapter = new DeviceListAdapter(getActivity()));
+		listview.setAdapter(mAdapter = new DeviceListAdapter(getActivity(), listview));
 
 		builder.setTitle(R.string.scanner_title);
 		final AlertDialog dialog = builder.setView(dialogView).create();
@@ -174,7 +178,7 @@ public class ScannerFragment extends DialogFragment {
 			@Override
 			public void onClick(View v) {
 				if (v.getId() == R.id.action_cancel) {
-					if (mIsScanning) {
+					if (mScanController.isScanning()) {
 						dialog.cancel();
 					} else {
 						startScan();
@@ -236,54 +240,25 @@ public class ScannerFragment extends DialogFragment {
 			mPermissionRationale.setVisibility(View.GONE);
 
 		mAdapter.clearDevices();
-		mScanButton.setText(R.string.scanner_action_cancel);
-
-		final BluetoothLeScannerCompat scanner = BluetoothLeScannerCompat.getScanner();
-		final ScanSettings settings = new ScanSettings.Builder()
-				.setScanMode(ScanSettings.SCAN_MODE_LOW_LATENCY).setReportDelay(1000).setUseHardwareBatchingIfSupported(false).build();
-		final List<ScanFilter> filters = new ArrayList<>();
-		filters.add(new ScanFilter.Builder().setServiceUuid(mUuid).build());
-		scanner.startScan(filters, settings, scanCallback);
-
-		mIsScanning = true;
-		mHandler.postDelayed(new Runnable() {
-			@Override
-			public void run() {
-				if (mIsScanning) {
-					stopScan();
-				}
-			}
-		}, SCAN_DURATION);
+		mScanController.start();
 	}
 
 	/**
 	 * Stop scan if user tap Cancel button
 	 */
 	private void stopScan() {
-		if (mIsScanning) {
-			mScanButton.setText(R.string.scanner_action_scan);
-
-			final BluetoothLeScannerCompat scanner = BluetoothLeScannerCompat.getScanner();
-			scanner.stopScan(scanCallback);
-
-			mIsScanning = false;
-		}
+		mScanController.stop();
 	}
 
-	private ScanCallback scanCallback = new ScanCallback() {
-		@Override
-		public void onScanResult(final int callbackType, final ScanResult result) {
-			// do nothing
-		}
-
+	private final ScanController.Listener mScanListener = new ScanController.Listener() {
 		@Override
-		public void onBatchScanResults(final List<ScanResult> results) {
+		public void onScanResults(final List<ScanResult> results) {
 			mAdapter.update(results);
 		}
 
 		@Override
-		public void onScanFailed(final int errorCode) {
-			// should never be called
+		public void onScanStateChanged(final boolean scanning) {
+			mScanButton.setText(scanning ? R.string.scanner_action_cancel : R.string.scanner_action_scan);
 		}
 	};
 
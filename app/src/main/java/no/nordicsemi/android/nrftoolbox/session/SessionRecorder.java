@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.session;
+
+import android.content.Context;
+import android.preference.PreferenceManager;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+import no.nordicsemi.android.nrftoolbox.utility.DebugLogger;
+
+/**
+ * Records decoded samples of a profile to a session file in the application's external files directory (see {@link #getSessionsFolder(Context)}).
+ * A new file is created by each {@link #start()} if recording has been enabled by the user, see {@link #isEnabled(Context)}. Samples may be recorded
+ * from any thread. Sessions may be read with {@link SessionReader} and exported with {@link #exportToCsv(File)}, see {@link SessionsActivity}.
+ * The oldest files are deleted when a session is started and the folder has grown over {@link #MAX_FOLDER_SIZE}.
+ */
+public class SessionRecorder {
+	private static final String TAG = "SessionRecorder";
+
+	/** The folder with session files */
+	public static final String SESSIONS_FOLDER = "sessions";
+	/** The session file extension */
+	public static final String EXTENSION = ".nts";
+	/** The extension of the capture file of raw values, see {@link #getCaptureFile()} */
+	public static final String CAPTURE_EXTENSION = ".ntc";
+	/** The extension of the exported sessions, see {@link #exportToCsv(File)} */
+	public static final String CSV_EXTENSION = ".csv";
+	/** The maximum total size of the files in the sessions folder in bytes */
+	public static final long MAX_FOLDER_SIZE = 20 * 1024 * 1024;
+	/** The preference key of the session recording switch. Recording is disabled by default. */
+	public static final String SETTINGS_RECORD_SESSIONS = "settings_record_sessions";
+
+	private final Context mContext;
+	private final String mProfile;
+	private final String[] mColumns;
+	/** The sample reused by the fixed-arity record methods, guarded by this */
+	private final float[] mSample;
+	private SessionWriter mWriter;
+	/** The name of the current session file, without the extension */
+	private String mBaseName;
+
+	/**
+	 * Creates the recorder.
+	 *
+	 * @param context the context
+	 * @param profile the profile name, used as the file name prefix
+	 * @param columns the names of the recorded metrics
+	 */
+	public SessionRecorder(final Context context, final String profile, final String... columns) {
+		mContext = context.getApplicationContext();
+		mProfile = profile;
+		mColumns = columns;
+		mSample = new float[columns.length];
+	}
+
+	/**
+	 * Returns true if the user has enabled recording of sessions.
+	 */
+	public static boolean isEnabled(final Context context) {
+		return PreferenceManager.getDefaultSharedPreferences(context).getBoolean(SETTINGS_RECORD_SESSIONS, false);
+	}
+
+	/**
+	 * Returns the folder with the session files. The folder is created if it did not exist.
+	 */
+	public static File getSessionsFolder(final Context context) {
+		File folder = context.getExternalFilesDir(SESSIONS_FOLDER);
+		if (folder == null)
+			folder = new File(context.getFilesDir(), SESSIONS_FOLDER);
+		if (!folder.exists())
+			folder.mkdirs();
+		return folder;
+	}
+
+	/**
+	 * Starts a new session if recording is enabled. A session in progress is closed.
+	 */
+	public synchronized void start() {
+		stop();
+		if (!isEnabled(mContext))
+			return;
+
+		final File folder = getSessionsFolder(mContext);
+		final int deleted = SessionFolder.trim(folder, MAX_FOLDER_SIZE);
+		if (deleted > 0)
+			DebugLogger.d(TAG, deleted + " old session files deleted");
+
+		final String baseName = mProfile + "_" + new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.US).format(new Date());
+		final File file = new File(folder, baseName + EXTENSION);
+		try {
+			mWriter = SessionWriter.create(file, mProfile, mColumns);
+			mBaseName = baseName;
+			DebugLogger.d(TAG, "Recording session to " + file);
+		} catch (final IOException e) {
+			DebugLogger.e(TAG, "Creating session file failed", e);
+		}
+	}
+
+	/**
+	 * Returns the file for the raw values of the current session, next to the session file. The raw values may be captured with
+	 * {@link no.nordicsemi.android.nrftoolbox.profile.BleManager#startCapture(File)} and replayed with
+	 * {@link no.nordicsemi.android.nrftoolbox.profile.simulator.CaptureReplay}.
+	 * <p>Captures are made only together with a session, so they follow the same recording switch and are deleted with the other files of the
+	 * sessions folder when it grows over {@link #MAX_FOLDER_SIZE}.</p>
+	 *
+	 * @return the capture file, or null if the session has not been started, f.e. because recording is disabled
+	 */
+	public synchronized File getCaptureFile() {
+		if (mWriter == null)
+			return null;
+		return new File(getSessionsFolder(mContext), mBaseName + CAPTURE_EXTENSION);
+	}
+
+	/**
+	 * Records the values with the current time. Does nothing if the session has not been started.
+	 * <p>The varargs array is allocated on each call. Profiles with up to 5 columns should use the fixed-arity methods, which reuse a single sample.</p>
+	 *
+	 * @param values the value of each column, {@link Float#NaN} if not available
+	 */
+	public void record(final float... values) {
+		recordAt(System.currentTimeMillis(), values);
+	}
+
+	/**
+	 * Records the value of a single column profile with the current time. Does nothing if the session has not been started.
+	 */
+	public synchronized void record(final float v0) {
+		final float[] sample = getSample(1);
+		if (sample == null)
+			return;
+		sample[0] = v0;
+		recordAt(System.currentTimeMillis(), sample);
+	}
+
+	/**
+	 * Records the values of a 2 column profile with the current time. Does nothing if the session has not been started.
+	 */
+	public synchronized void record(final float v0, final float v1) {
+		final float[] sample = getSample(2);
+		if (sample == null)
+			return;
+		sample[0] = v0;
+		sample[1] = v1;
+		recordAt(System.currentTimeMillis(), sample);
+	}
+
+	/**
+	 * Records the values of a 3 column profile with the current time. Does nothing if the session has not been started.
+	 */
+	public synchronized void record(final float v0, final float v1, final float v2) {
+		final float[] sample = getSample(3);
+		if (sample == null)
+			return;
+		sample[0] = v0;
+		sample[1] = v1;
+		sample[2] = v2;
+		recordAt(System.currentTimeMillis(), sample);
+	}
+
+	/**
+	 * Records the values of a 4 column profile with the current time. Does nothing if the session has not been started.
+	 */
+	public synchronized void record(final float v0, final float v1, final float v2, final float v3) {
+		final float[] sample = getSample(4);
+		if (sample == null)
+			return;
+		sample[0] = v0;
+		sample[1] = v1;
+		sample[2] = v2;
+		sample[3] = v3;
+		recordAt(System.currentTimeMillis(), sample);
+	}
+
+	/**
+	 * Records the values of a 5 column profile with the current time. Does nothing if the session has not been started.
+	 */
+	public synchronized void record(final float v0, final float v1, final float v2, final float v3, final float v4) {
+		final float[] sample = getSample(5);
+		if (sample == null)
+			return;
+		sample[0] = v0;
+		sample[1] = v1;
+		sample[2] = v2;
+		sample[3] = v3;
+		sample[4] = v4;
+		recordAt(System.currentTimeMillis(), sample);
+	}
+
+	/**
+	 * Returns the reused sample if the session has been started and has the given number of columns. Must be called holding the lock.
+	 */
+	private float[] getSample(final int count) {
+		if (mWriter == null)
+			return null;
+		if (count != mSample.length) {
+			DebugLogger.w(TAG, "Sample skipped: expected " + mSample.length + " values, got " + count);
+			return null;
+		}
+		return mSample;
+	}
+
+	/**
+	 * Records the values with the given time, f.e. the time stamp sent by the device. Does nothing if the session has not been started.
+	 * A sample more than 24 days older than the previous one can not be stored and is skipped. The values are copied, so the caller may reuse the array.
+	 *
+	 * @param time   the time of the sample in milliseconds
+	 * @param values the value of each column, {@link Float#NaN} if not available
+	 */
+	public synchronized void recordAt(final long time, final float... values) {
+		final SessionWriter writer = mWriter;
+		if (writer == null)
+			return;
+
+		try {
+			writer.add(time, values);
+		} catch (final IllegalArgumentException e) {
+			DebugLogger.w(TAG, "Sample skipped: " + e.getMessage());
+		} catch (final IOException e) {
+			DebugLogger.e(TAG, "Writing session failed", e);
+			stop();
+		}
+	}
+
+	/**
+	 * Writes the remaining samples and closes the session file.
+	 */
+	public synchronized void stop() {
+		final SessionWriter writer = mWriter;
+		if (writer == null)
+			return;
+
+		mWriter = null;
+		try {
+			writer.close();
+		} catch (final IOException e) {
+			DebugLogger.e(TAG, "Closing session file failed", e);
+		}
+	}
+
+	/**
+	 * Exports the session to a CSV file with the same name, next to the session file.
+	 *
+	 * @param session the session file
+	 * @return the CSV file
+	 * @throws IOException if reading the session or writing the CSV file failed
+	 */
+	public static File exportToCsv(final File session) throws IOException {
+		final String name = session.getName();
+		final String baseName = name.endsWith(EXTENSION) ? name.substring(0, name.length() - EXTENSION.length()) : name;
+		final File csv = new File(session.getParentFile(), baseName + CSV_EXTENSION);
+
+		final SessionReader reader = SessionReader.open(session);
+		try {
+			final Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(csv), "UTF-8"));
+			try {
+				CsvExporter.export(reader, writer);
+			} finally {
+				writer.close();
+			}
+		} finally {
+			reader.close();
+		}
+		return csv;
+	}
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.session;
+
+import android.app.Activity;
+import android.content.ActivityNotFoundException;
+import android.content.Intent;
+import android.net.Uri;
+import android.os.Bundle;
+import android.preference.Preference;
+import android.preference.PreferenceCategory;
+import android.preference.PreferenceFragment;
+import android.text.format.Formatter;
+import android.widget.Toast;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import no.nordicsemi.android.nrftoolbox.R;
+import no.nordicsemi.android.nrftoolbox.utility.DebugLogger;
+
+/**
+ * Shows the recording switch and the list of recorded sessions, from the newest. A session is exported to CSV on a background thread and shared
+ * with {@link Intent#ACTION_SEND} when tapped.
+ */
+public class SessionsFragment extends PreferenceFragment {
+	private static final String TAG = "SessionsFragment";
+
+	private static final String KEY_SESSIONS = "sessions";
+	private static final String KEY_DELETE = "sessions_delete";
+
+	private static final FilenameFilter SESSION_FILTER = new FilenameFilter() {
+		@Override
+		public boolean accept(final File dir, final String filename) {
+			return filename.endsWith(SessionRecorder.EXTENSION);
+		}
+	};
+
+	private static final Comparator<File> NEWEST_FIRST = new Comparator<File>() {
+		@Override
+		public int compare(final File lhs, final File rhs) {
+			final long lhsModified = lhs.lastModified();
+			final long rhsModified = rhs.lastModified();
+			return lhsModified > rhsModified ? -1 : (lhsModified == rhsModified ? 0 : 1);
+		}
+	};
+
+	@Override
+	public void onCreate(final Bundle savedInstanceState) {
+		super.onCreate(savedInstanceState);
+
+		addPreferencesFromResource(R.xml.settings_sessions);
+
+		final Preference delete = findPreference(KEY_DELETE);
+		delete.setSummary(getString(R.string.sessions_delete_summary, Formatter.formatShortFileSize(getActivity(), SessionRecorder.MAX_FOLDER_SIZE)));
+		delete.setOnPreferenceClickListener(new Preference.OnPreferenceClickListener() {
+			@Override
+			public boolean onPreferenceClick(final Preference preference) {
+				// Sessions being recorded are deleted as well, their writers keep writing to the unlinked files until closed
+				final File[] files = SessionRecorder.getSessionsFolder(getActivity()).listFiles();
+				if (files != null)
+					for (final File file : files)
+						if (file.isFile())
+							file.delete();
+				fillSessions();
+				return true;
+			}
+		});
+	}
+
+	@Override
+	public void onResume() {
+		super.onResume();
+		fillSessions();
+	}
+
+	private void fillSessions() {
+		final PreferenceCategory category = (PreferenceCategory) findPreference(KEY_SESSIONS);
+		category.removeAll();
+
+		final File[] sessions = SessionRecorder.getSessionsFolder(getActivity()).listFiles(SESSION_FILTER);
+		if (sessions == null || sessions.length == 0) {
+			final Preference empty = new Preference(getActivity());
+			empty.setTitle(R.string.sessions_empty);
+			empty.setEnabled(false);
+			category.addPreference(empty);
+			return;
+		}
+
+		Arrays.sort(sessions, NEWEST_FIRST);
+		for (final File session : sessions) {
+			final Preference preference = new Preference(getActivity());
+			preference.setTitle(session.getName());
+			preference.setSummary(getString(R.string.sessions_item_summary, session.lastModified(), Formatter.formatShortFileSize(getActivity(), session.length())));
+			preference.setOnPreferenceClickListener(new Preference.OnPreferenceClickListener() {
+				@Override
+				public boolean onPreferenceClick(final Preference preference) {
+					share(session);
+					return true;
+				}
+			});
+			category.addPreference(preference);
+		}
+	}
+
+	/**
+	 * Exports the session to CSV on a background thread and opens the share dialog.
+	 */
+	private void share(final File session) {
+		final Activity activity = getActivity();
+		new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					final File csv = SessionRecorder.exportToCsv(session);
+					activity.runOnUiThread(new Runnable() {
+						@Override
+						public void run() {
+							final Intent intent = new Intent(Intent.ACTION_SEND);
+							intent.setType("text/csv");
+							intent.putExtra(Intent.EXTRA_STREAM, Uri.fromFile(csv));
+							intent.putExtra(Intent.EXTRA_SUBJECT, csv.getName());
+							try {
+								activity.startActivity(Intent.createChooser(intent, activity.getText(R.string.sessions_share_title)));
+							} catch (final ActivityNotFoundException e) {
+								Toast.makeText(activity, R.string.no_uri_application, Toast.LENGTH_SHORT).show();
+							}
+						}
+					});
+				} catch (final IOException e) {
+					DebugLogger.e(TAG, "Exporting session failed", e);
+					activity.runOnUiThread(new Runnable() {
+						@Override
+						public void run() {
+							Toast.makeText(activity, R.string.sessions_export_failed, Toast.LENGTH_SHORT).show();
+						}
+					});
+				}
+			}
+		}).start();
+	}
+}
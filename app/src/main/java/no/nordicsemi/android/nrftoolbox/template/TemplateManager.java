@@ -30,9 +30,10 @@ import java.util.LinkedList;
 import java.util.Queue;
 import java.util.UUID;
 
-import no.nordicsemi.android.log.Logger;
+import no.nordicsemi.android.log.LogContract;
 import no.nordicsemi.android.nrftoolbox.profile.BleManager;
 import no.nordicsemi.android.nrftoolbox.parser.TemplateParser;
+import no.nordicsemi.android.nrftoolbox.utility.DataReader;
 
 /**
  * Modify to template manager to match your requirements.
@@ -48,6 +49,13 @@ public class TemplateManager extends BleManager<TemplateManagerCallbacks> {
 	// TODO add more services and characteristics, if required
 	private BluetoothGattCharacteristic mCharacteristic;
 
+	private static final ValueFormatter TEMPLATE_FORMATTER = new ValueFormatter() {
+		@Override
+		public String format(final byte[] data) {
+			return TemplateParser.parse(data);
+		}
+	};
+
 	public TemplateManager(final Context context) {
 		super(context);
 	}
@@ -72,7 +80,7 @@ public class TemplateManager extends BleManager<TemplateManagerCallbacks> {
 
 		@Override
 		protected boolean isRequiredServiceSupported(final BluetoothGatt gatt) {
-			final BluetoothGattService service = gatt.getService(SERVICE_UUID);
+			final BluetoothGattService service = getService(SERVICE_UUID);
 			if (service != null) {
 				mCharacteristic = service.getCharacteristic(MEASUREMENT_CHARACTERISTIC_UUID);
 			}
@@ -95,26 +103,25 @@ public class TemplateManager extends BleManager<TemplateManagerCallbacks> {
 		}
 
 		@Override
-		protected void onCharacteristicNotified(final BluetoothGatt gatt, final BluetoothGattCharacteristic characteristic) {
+		protected void onCharacteristicNotified(final BluetoothGatt gatt, final BluetoothGattCharacteristic characteristic, final byte[] data) {
 			// TODO this method is called when a notification has been received
 			// This method may be removed from this class if not required
 
-			if (mLogSession != null)
-				Logger.a(mLogSession, TemplateParser.parse(characteristic));
+			log(LogContract.Log.Level.APPLICATION, TEMPLATE_FORMATTER, data);
 
 			int value;
-			final int flags = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT8, 0);
-			if ((flags & 0x01) > 0) {
-				value = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT16, 1);
+			final int flags = DataReader.uint8(data, 0);
+			if (DataReader.isSet(flags, 0x01)) {
+				value = DataReader.uint16(data, 1);
 			} else {
-				value = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT8, 1);
+				value = DataReader.uint8(data, 1);
 			}
 			//This will send callback to the Activity when new value is received from HR device
 			mCallbacks.onSampleValueReceived(value);
 		}
 
 		@Override
-		protected void onCharacteristicIndicated(final BluetoothGatt gatt, final BluetoothGattCharacteristic characteristic) {
+		protected void onCharacteristicIndicated(final BluetoothGatt gatt, final BluetoothGattCharacteristic characteristic, final byte[] data) {
 			// TODO this method is called when an indication has been received
 			// This method may be removed from this class if not required
 		}
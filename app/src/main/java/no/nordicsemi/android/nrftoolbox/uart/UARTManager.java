@@ -33,6 +33,7 @@ import java.util.LinkedList;
 import java.util.Queue;
 import java.util.UUID;
 
+import no.nordicsemi.android.log.Logger;
 import no.nordicsemi.android.nrftoolbox.profile.BleManager;
 
 public class UARTManager extends BleManager<UARTManagerCallbacks> {
@@ -42,12 +43,24 @@ public class UARTManager extends BleManager<UARTManagerCallbacks> {
 	private final static UUID UART_RX_CHARACTERISTIC_UUID = UUID.fromString("6E400002-B5A3-F393-E0A9-E50E24DCCA9E");
 	/** TX characteristic UUID */
 	private final static UUID UART_TX_CHARACTERISTIC_UUID = UUID.fromString("6E400003-B5A3-F393-E0A9-E50E24DCCA9E");
-	/** The maximum packet size is 20 bytes. */
-	private static final int MAX_PACKET_SIZE = 20;
+	/** The MTU requested from the device. nRF52 peripherals support ATT MTU up to 247 bytes, which gives 244 bytes of data in each packet. */
+	private static final int PREFERRED_MTU = 247;
+	/** The maximum number of messages waiting to be sent. New messages are rejected when the outgoing buffer is full. */
+	private static final int MAX_PENDING_MESSAGES = 32;
+	/** The number of packets kept in the operation queue in the streaming mode, so that the next packet is sent as soon as the previous one has been written. */
+	private static final int MAX_PACKETS_IN_FLIGHT = 4;
 
 	private BluetoothGattCharacteristic mRXCharacteristic, mTXCharacteristic;
+	/** A ring buffer of messages waiting to be sent. Guarded by the manager lock, as messages are added from any thread. */
+	private final byte[][] mPendingMessages = new byte[MAX_PENDING_MESSAGES][];
+	private int mPendingHead;
+	private int mPendingCount;
+	/** The message being sent, or null. This and the following fields are used only on the manager's thread. */
 	private byte[] mOutgoingBuffer;
 	private int mBufferOffset;
+	private int mPacketsInFlight;
+	private boolean mSendingFailed;
+	private volatile boolean mStreamingMode = true;
 
 	public UARTManager(final Context context) {
 		super(context);
@@ -72,7 +85,7 @@ public class UARTManager extends BleManager<UARTManagerCallbacks> {
 
 		@Override
 		public boolean isRequiredServiceSupported(final BluetoothGatt gatt) {
-			final BluetoothGattService service = gatt.getService(UART_SERVICE_UUID);
+			final BluetoothGattService service = getService(UART_SERVICE_UUID);
 			if (service != null) {
 				mRXCharacteristic = service.getCharacteristic(UART_RX_CHARACTERISTIC_UUID);
 				mTXCharacteristic = service.getCharacteristic(UART_TX_CHARACTERISTIC_UUID);
@@ -86,7 +99,7 @@ public class UARTManager extends BleManager<UARTManagerCallbacks> {
 				writeCommand = (rxProperties & BluetoothGattCharacteristic.PROPERTY_WRITE_NO_RESPONSE) > 0;
 
 				// Set the WRITE REQUEST type when the characteristic supports it. This will allow to send long write (also if the characteristic support it).
-				// In case there is no WRITE REQUEST property, this manager will divide texts longer then 20 bytes into up to 20 bytes chunks.
+				// In case there is no WRITE REQUEST property, this manager will divide texts longer then (MTU - 3) bytes into up to (MTU - 3) bytes chunks.
 				if (writeRequest)
 					mRXCharacteristic.setWriteType(BluetoothGattCharacteristic.WRITE_TYPE_DEFAULT);
 			}
@@ -98,36 +111,73 @@ public class UARTManager extends BleManager<UARTManagerCallbacks> {
 		protected void onDeviceDisconnected() {
 			mRXCharacteristic = null;
 			mTXCharacteristic = null;
+
+			// Pending requests have been removed from the operation queue, messages that were not sent are lost
+			synchronized (UARTManager.this) {
+				for (int i = 0; i < MAX_PENDING_MESSAGES; ++i)
+					mPendingMessages[i] = null;
+				mPendingHead = mPendingCount = 0;
+			}
+			mOutgoingBuffer = null;
+			mPacketsInFlight = 0;
 		}
 
 		@Override
-		public void onCharacteristicWrite(final BluetoothGatt gatt, final BluetoothGattCharacteristic characteristic) {
-			// When the whole buffer has been sent
+		public void onCharacteristicNotified(final BluetoothGatt gatt, final BluetoothGattCharacteristic characteristic, final byte[] data) {
+			mCallbacks.onDataReceived(new String(data));
+		}
+	};
+
+	/**
+	 * Called on the manager's thread when a packet from the current message has been written, or writing it has failed.
+	 */
+	private final OnRequestCompletedListener mPacketSentListener = new OnRequestCompletedListener() {
+		@Override
+		public void onRequestCompleted(final Request request, final int status) {
 			final byte[] buffer = mOutgoingBuffer;
+			if (buffer == null)
+				return;
+
+			mPacketsInFlight--;
+			if (status != BluetoothGatt.GATT_SUCCESS) {
+				// Skip the rest of the message
+				mSendingFailed = true;
+				mBufferOffset = buffer.length;
+			}
+
+			// When the whole buffer has been sent
 			if (mBufferOffset == buffer.length) {
-				try {
-					mCallbacks.onDataSent(new String(buffer, "UTF-8"));
-				} catch (final UnsupportedEncodingException e) {
-					// do nothing
+				if (mPacketsInFlight > 0)
+					return;
+
+				if (!mSendingFailed) {
+					try {
+						mCallbacks.onDataSent(new String(buffer, "UTF-8"));
+					} catch (final UnsupportedEncodingException e) {
+						// do nothing
+					}
 				}
-				mOutgoingBuffer = null;
+				startNextMessage();
 			} else { // Otherwise...
-				final int length = Math.min(buffer.length - mBufferOffset, MAX_PACKET_SIZE);
-				final byte[] data = new byte[length]; // We send at most 20 bytes
-				System.arraycopy(buffer, mBufferOffset, data, 0, length);
-				mBufferOffset += length;
-				mRXCharacteristic.setValue(data);
-				writeCharacteristic(mRXCharacteristic);
+				sendNextPackets();
 			}
 		}
+	};
 
+	/** Starts sending the buffered messages on the manager's thread, unless a message is being sent already. */
+	private final Runnable mStartSendingTask = new Runnable() {
 		@Override
-		public void onCharacteristicNotified(final BluetoothGatt gatt, final BluetoothGattCharacteristic characteristic) {
-			final String data = characteristic.getStringValue(0);
-			mCallbacks.onDataReceived(data);
+		public void run() {
+			if (mOutgoingBuffer == null)
+				startNextMessage();
 		}
 	};
 
+	@Override
+	protected int getPreferredMtu() {
+		return PREFERRED_MTU;
+	}
+
 	@Override
 	protected boolean shouldAutoConnect() {
 		// We want the connection to be kept
@@ -135,34 +185,106 @@ public class UARTManager extends BleManager<UARTManagerCallbacks> {
 	}
 
 	/**
-	 * Sends the given text to RX characteristic.
+	 * Enables or disables the streaming mode. In the streaming mode messages are sent using WRITE COMMAND (write without response) in up to (MTU - 3) bytes packets
+	 * and several packets are kept in the operation queue at a time. This gives much higher throughput than waiting for a response for each packet.
+	 * The streaming mode is used only if the RX characteristic has the WRITE WITHOUT RESPONSE property. It is enabled by default. When disabled, messages are sent
+	 * with WRITE REQUEST, if the characteristic supports it.
+	 *
+	 * @param enabled true to enable the streaming mode
+	 */
+	public void setStreamingMode(final boolean enabled) {
+		mStreamingMode = enabled;
+	}
+
+	/**
+	 * Sends the given text to RX characteristic. If another message is being sent, the text is added to the outgoing buffer and will be sent afterwards.
 	 * @param text the text to be sent
+	 * @return true if the text has been sent or buffered, false if not connected or the outgoing buffer is full
 	 */
-	public void send(final String text) {
+	public boolean send(final String text) {
 		// Are we connected?
+		if (mRXCharacteristic == null || TextUtils.isEmpty(text))
+			return false;
+
+		synchronized (this) {
+			if (mPendingCount == MAX_PENDING_MESSAGES) {
+				Logger.w(mLogSession, "Outgoing buffer full, message rejected");
+				return false;
+			}
+
+			mPendingMessages[(mPendingHead + mPendingCount) % MAX_PENDING_MESSAGES] = text.getBytes();
+			mPendingCount++;
+		}
+
+		// The writes are started on the manager's thread, not on the caller's one
+		getHandler().post(mStartSendingTask);
+		return true;
+	}
+
+	/**
+	 * Takes the next message from the outgoing buffer, or returns null if it is empty.
+	 */
+	private synchronized byte[] pollPendingMessage() {
+		if (mPendingCount == 0)
+			return null;
+
+		final byte[] message = mPendingMessages[mPendingHead];
+		mPendingMessages[mPendingHead] = null;
+		mPendingHead = (mPendingHead + 1) % MAX_PENDING_MESSAGES;
+		mPendingCount--;
+		return message;
+	}
+
+	/**
+	 * Takes the next message from the outgoing buffer and starts sending it. Must be called on the manager's thread.
+	 */
+	private void startNextMessage() {
+		mOutgoingBuffer = null;
 		if (mRXCharacteristic == null)
 			return;
 
-		// An outgoing buffer may not be null if there is already another packet being sent. We do nothing in this case.
-		if (!TextUtils.isEmpty(text) && mOutgoingBuffer == null) {
-			final byte[] buffer = mOutgoingBuffer = text.getBytes();
-			mBufferOffset = 0;
-
-			// Depending on whether the characteristic has the WRITE REQUEST property or not, we will either send it as it is (hoping the long write is implemented),
-			// or divide it into up to 20 bytes chunks and send them one by one.
-			final boolean writeRequest = (mRXCharacteristic.getProperties() & BluetoothGattCharacteristic.PROPERTY_WRITE) > 0;
-
-			if (!writeRequest) { // no WRITE REQUEST property
-				final int length = Math.min(buffer.length, MAX_PACKET_SIZE);
-				final byte[] data = new byte[length]; // We send at most 20 bytes
-				System.arraycopy(buffer, 0, data, 0, length);
-				mBufferOffset += length;
-				mRXCharacteristic.setValue(data);
-			} else { // there is WRITE REQUEST property
-				mRXCharacteristic.setValue(buffer);
-				mBufferOffset = buffer.length;
+		mOutgoingBuffer = pollPendingMessage();
+		mBufferOffset = 0;
+		mPacketsInFlight = 0;
+		mSendingFailed = false;
+		sendNextPackets();
+	}
+
+	/**
+	 * Enqueues the next packets of the current message. Must be called on the manager's thread.
+	 */
+	private void sendNextPackets() {
+		final BluetoothGattCharacteristic characteristic = mRXCharacteristic;
+		final byte[] buffer = mOutgoingBuffer;
+		if (characteristic == null || buffer == null)
+			return;
+
+		final int properties = characteristic.getProperties();
+		final boolean writeRequest = (properties & BluetoothGattCharacteristic.PROPERTY_WRITE) > 0;
+		final boolean writeCommand = (properties & BluetoothGattCharacteristic.PROPERTY_WRITE_NO_RESPONSE) > 0;
+		final boolean streaming = mStreamingMode && writeCommand;
+
+		// Depending on whether the characteristic has the WRITE REQUEST property or not, we will either send it as it is (hoping the long write is implemented),
+		// or divide it into up to (MTU - 3) bytes chunks and send them one by one. In the streaming mode the chunks are sent as WRITE COMMANDs, few at a time.
+		if (writeRequest && !streaming) {
+			mBufferOffset = buffer.length;
+			mPacketsInFlight++;
+			enqueue(Request.newWriteRequest(characteristic, buffer, BluetoothGattCharacteristic.WRITE_TYPE_DEFAULT).setOnRequestCompletedListener(mPacketSentListener));
+			return;
+		}
+
+		final int writeType = BluetoothGattCharacteristic.WRITE_TYPE_NO_RESPONSE;
+		final int maxPacketsInFlight = streaming ? MAX_PACKETS_IN_FLIGHT : 1;
+		final int maxPacketSize = getMtu() - 3;
+		while (mPacketsInFlight < maxPacketsInFlight && mBufferOffset < buffer.length) {
+			final byte[] data = PacketSplitter.getPacket(buffer, mBufferOffset, maxPacketSize); // We send at most (MTU - 3) bytes
+			mBufferOffset += data.length;
+			mPacketsInFlight++;
+			if (!enqueue(Request.newWriteRequest(characteristic, data, writeType).setOnRequestCompletedListener(mPacketSentListener))) {
+				// Disconnected in the meantime
+				mOutgoingBuffer = null;
+				return;
 			}
-			writeCharacteristic(mRXCharacteristic);
 		}
 	}
 }
@@ -83,6 +83,15 @@ public class UARTService extends BleProfileService implements UARTManagerCallbac
 			mManager.send(text);
 		}
 
+		/**
+		 * Enables or disables the high throughput streaming mode. See {@link UARTManager#setStreamingMode(boolean)}.
+		 *
+		 * @param enabled true to send messages using write without response, few packets at a time
+		 */
+		public void setStreamingMode(final boolean enabled) {
+			mManager.setStreamingMode(enabled);
+		}
+
 		@Override
 		public ILogSession getLogSession() {
 			return super.getLogSession();
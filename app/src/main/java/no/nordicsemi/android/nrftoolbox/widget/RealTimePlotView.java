@@ -0,0 +1,289 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.widget;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.util.AttributeSet;
+import android.view.View;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import no.nordicsemi.android.nrftoolbox.R;
+import no.nordicsemi.android.nrftoolbox.chart.RingBufferSeries;
+
+/**
+ * A line plot of the last values of a real-time stream, f.e. heart rate, speed, cadence or numbers received over UART.
+ * <p>
+ * The values are kept in a {@link RingBufferSeries} of fixed capacity. {@link #addValue(double, double)} may be called from any thread, f.e. from the GATT
+ * callbacks, at any rate: the view is invalidated at most once per frame, on the next vsync. When there are more values than pixels, each bucket of values
+ * is drawn as its average joined with the neighbours and a vertical line from its minimum to its maximum. All arrays used for drawing are allocated when the size
+ * of the view changes, so drawing a frame does not allocate and its cost depends only on the width of the view.
+ * </p>
+ */
+public class RealTimePlotView extends View {
+	private static final int DEFAULT_CAPACITY = 1000;
+	/** The minimum width of a bucket in pixels */
+	private static final int BUCKET_WIDTH = 2;
+	private static final int GRID_LINES = 4;
+
+	private final Object mLock = new Object();
+	private RingBufferSeries mSeries;
+
+	private final Paint mLinePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+	private final Paint mBandPaint = new Paint();
+	private final Paint mGridPaint = new Paint();
+	private final Paint mLabelPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+	/** The fixed range of the Y axis, or NaN if the axis is scaled to the values */
+	private float mFixedMinY = Float.NaN, mFixedMaxY = Float.NaN;
+
+	private double[] mBucketX, mBucketMin, mBucketMax, mBucketAvg;
+	private float[] mLines;
+	private float[] mBands;
+
+	/** The labels are formatted only when the range of the Y axis changes */
+	private int mLabelMinY, mLabelMaxY;
+	private String mMinLabel, mMaxLabel;
+
+	private volatile boolean mAttached;
+	private final AtomicBoolean mFramePending = new AtomicBoolean();
+	private final Runnable mInvalidateTask = new Runnable() {
+		@Override
+		public void run() {
+			mFramePending.set(false);
+			invalidate();
+		}
+	};
+
+	public RealTimePlotView(final Context context) {
+		this(context, null);
+	}
+
+	public RealTimePlotView(final Context context, final AttributeSet attrs) {
+		this(context, attrs, 0);
+	}
+
+	public RealTimePlotView(final Context context, final AttributeSet attrs, final int defStyle) {
+		super(context, attrs, defStyle);
+
+		final float density = getResources().getDisplayMetrics().density;
+		final TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.RealTimePlotView, defStyle, 0);
+		final int capacity = a.getInt(R.styleable.RealTimePlotView_plotCapacity, DEFAULT_CAPACITY);
+		final int color = a.getColor(R.styleable.RealTimePlotView_plotColor, Color.BLACK);
+		final float lineWidth = a.getDimension(R.styleable.RealTimePlotView_plotLineWidth, 2 * density);
+		mFixedMinY = a.getFloat(R.styleable.RealTimePlotView_plotMinY, Float.NaN);
+		mFixedMaxY = a.getFloat(R.styleable.RealTimePlotView_plotMaxY, Float.NaN);
+		a.recycle();
+
+		mSeries = new RingBufferSeries(capacity);
+
+		mLinePaint.setColor(color);
+		mLinePaint.setStrokeWidth(lineWidth);
+		mLinePaint.setStrokeCap(Paint.Cap.ROUND);
+		mBandPaint.setColor(color);
+		mBandPaint.setAlpha(0x60);
+		mBandPaint.setStrokeWidth(density);
+		mGridPaint.setColor(Color.LTGRAY);
+		mGridPaint.setStrokeWidth(density);
+		mLabelPaint.setColor(Color.DKGRAY);
+		mLabelPaint.setTextSize(12 * density);
+	}
+
+	/**
+	 * Sets the number of values kept. The current values are removed.
+	 *
+	 * @param capacity the number of the last values plotted
+	 */
+	public void setCapacity(final int capacity) {
+		synchronized (mLock) {
+			mSeries = new RingBufferSeries(capacity);
+		}
+		requestFrame();
+	}
+
+	/**
+	 * Sets the series to be plotted instead of the one created by the view. The series may be kept by the activity, so that the values are not lost
+	 * when the view is recreated. It must be modified only using this view.
+	 *
+	 * @param series the series to plot
+	 */
+	public void setSeries(final RingBufferSeries series) {
+		synchronized (mLock) {
+			mSeries = series;
+		}
+		requestFrame();
+	}
+
+	/**
+	 * Sets the fixed range of the Y axis. Pass {@link Float#NaN} as both values to scale the axis to the values.
+	 */
+	public void setRangeY(final float minY, final float maxY) {
+		synchronized (mLock) {
+			mFixedMinY = minY;
+			mFixedMaxY = maxY;
+		}
+		requestFrame();
+	}
+
+	/**
+	 * Adds a value to the plot. This method may be called from any thread.
+	 *
+	 * @param x the x value, f.e. the time of the measurement, not lower than the previous one
+	 * @param y the value
+	 */
+	public void addValue(final double x, final double y) {
+		synchronized (mLock) {
+			mSeries.add(x, y);
+		}
+		requestFrame();
+	}
+
+	/**
+	 * Removes all values. This method may be called from any thread.
+	 */
+	public void clear() {
+		synchronized (mLock) {
+			mSeries.clear();
+		}
+		requestFrame();
+	}
+
+	private void requestFrame() {
+		// when detached the view is redrawn anyway after it's attached again
+		if (mAttached && mFramePending.compareAndSet(false, true))
+			postOnAnimation(mInvalidateTask);
+	}
+
+	@Override
+	protected void onAttachedToWindow() {
+		super.onAttachedToWindow();
+		mAttached = true;
+	}
+
+	@Override
+	protected void onDetachedFromWindow() {
+		mAttached = false;
+		removeCallbacks(mInvalidateTask);
+		mFramePending.set(false);
+		super.onDetachedFromWindow();
+	}
+
+	@Override
+	protected void onSizeChanged(final int w, final int h, final int oldw, final int oldh) {
+		super.onSizeChanged(w, h, oldw, oldh);
+
+		final int buckets = Math.max(2, (w - getPaddingLeft() - getPaddingRight()) / BUCKET_WIDTH);
+		mBucketX = new double[buckets];
+		mBucketMin = new double[buckets];
+		mBucketMax = new double[buckets];
+		mBucketAvg = new double[buckets];
+		mLines = new float[4 * buckets];
+		mBands = new float[4 * buckets];
+	}
+
+	@Override
+	protected void onDraw(final Canvas canvas) {
+		super.onDraw(canvas);
+		if (mBucketX == null)
+			return;
+
+		final int left = getPaddingLeft();
+		final int top = getPaddingTop();
+		final int width = getWidth() - left - getPaddingRight();
+		final int height = getHeight() - top - getPaddingBottom();
+
+		for (int i = 0; i <= GRID_LINES; ++i) {
+			final float y = top + height * i / (float) GRID_LINES;
+			canvas.drawLine(left, y, left + width, y, mGridPaint);
+		}
+
+		final int count;
+		double minY, maxY;
+		synchronized (mLock) {
+			count = mSeries.decimate(mBucketX.length, mBucketX, mBucketMin, mBucketMax, mBucketAvg);
+			minY = mFixedMinY;
+			maxY = mFixedMaxY;
+		}
+		if (count < 2)
+			return;
+
+		if (Double.isNaN(minY) || Double.isNaN(maxY)) {
+			minY = Double.MAX_VALUE;
+			maxY = -Double.MAX_VALUE;
+			for (int i = 0; i < count; ++i) {
+				minY = Math.min(minY, mBucketMin[i]);
+				maxY = Math.max(maxY, mBucketMax[i]);
+			}
+			// round the range to whole numbers so that it does not change with every value
+			minY = Math.floor(minY) - 1;
+			maxY = Math.ceil(maxY) + 1;
+		}
+
+		final double minX = mBucketX[0];
+		final double rangeX = Math.max(mBucketX[count - 1] - minX, Double.MIN_VALUE);
+		final double rangeY = maxY - minY;
+
+		final float[] lines = mLines;
+		final float[] bands = mBands;
+		int lineIndex = 0, bandIndex = 0;
+		float lastX = 0, lastY = 0;
+		for (int i = 0; i < count; ++i) {
+			final float x = (float) (left + (mBucketX[i] - minX) * width / rangeX);
+			final float y = (float) (top + (maxY - mBucketAvg[i]) * height / rangeY);
+			if (i > 0) {
+				lines[lineIndex++] = lastX;
+				lines[lineIndex++] = lastY;
+				lines[lineIndex++] = x;
+				lines[lineIndex++] = y;
+			}
+			if (mBucketMax[i] > mBucketMin[i]) {
+				bands[bandIndex++] = x;
+				bands[bandIndex++] = (float) (top + (maxY - mBucketMax[i]) * height / rangeY);
+				bands[bandIndex++] = x;
+				bands[bandIndex++] = (float) (top + (maxY - mBucketMin[i]) * height / rangeY);
+			}
+			lastX = x;
+			lastY = y;
+		}
+		canvas.save();
+		canvas.clipRect(left, top, left + width, top + height);
+		if (bandIndex > 0)
+			canvas.drawLines(bands, 0, bandIndex, mBandPaint);
+		canvas.drawLines(lines, 0, lineIndex, mLinePaint);
+		canvas.restore();
+
+		updateLabels((int) Math.round(minY), (int) Math.round(maxY));
+		canvas.drawText(mMaxLabel, left, top - mLabelPaint.ascent(), mLabelPaint);
+		canvas.drawText(mMinLabel, left, top + height - mLabelPaint.descent(), mLabelPaint);
+	}
+
+	private void updateLabels(final int minY, final int maxY) {
+		if (mMinLabel == null || minY != mLabelMinY)
+			mMinLabel = String.valueOf(mLabelMinY = minY);
+		if (mMaxLabel == null || maxY != mLabelMaxY)
+			mMaxLabel = String.valueOf(mLabelMaxY = maxY);
+	}
+}
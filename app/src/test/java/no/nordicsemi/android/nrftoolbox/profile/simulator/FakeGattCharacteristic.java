@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.profile.simulator;
+
+import android.bluetooth.BluetoothGattCharacteristic;
+import android.bluetooth.BluetoothGattDescriptor;
+import android.bluetooth.BluetoothGattService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A characteristic implemented without the Android framework, for local JVM tests.
+ */
+class FakeGattCharacteristic extends BluetoothGattCharacteristic {
+	private final UUID mUuid;
+	private final int mProperties;
+	private final int mPermissions;
+	private final List<BluetoothGattDescriptor> mDescriptors = new ArrayList<>();
+	private BluetoothGattService mService;
+	private byte[] mValue;
+
+	FakeGattCharacteristic(final UUID uuid, final int properties, final int permissions) {
+		super(uuid, properties, permissions);
+		mUuid = uuid;
+		mProperties = properties;
+		mPermissions = permissions;
+	}
+
+	void setService(final BluetoothGattService service) {
+		mService = service;
+	}
+
+	@Override
+	public BluetoothGattService getService() {
+		return mService;
+	}
+
+	@Override
+	public UUID getUuid() {
+		return mUuid;
+	}
+
+	@Override
+	public int getProperties() {
+		return mProperties;
+	}
+
+	@Override
+	public int getPermissions() {
+		return mPermissions;
+	}
+
+	@Override
+	public byte[] getValue() {
+		return mValue;
+	}
+
+	@Override
+	public boolean setValue(final byte[] value) {
+		mValue = value;
+		return true;
+	}
+
+	@Override
+	public boolean addDescriptor(final BluetoothGattDescriptor descriptor) {
+		mDescriptors.add(descriptor);
+		if (descriptor instanceof FakeGattDescriptor)
+			((FakeGattDescriptor) descriptor).setCharacteristic(this);
+		return true;
+	}
+
+	@Override
+	public BluetoothGattDescriptor getDescriptor(final UUID uuid) {
+		for (final BluetoothGattDescriptor descriptor : mDescriptors) {
+			if (descriptor.getUuid().equals(uuid))
+				return descriptor;
+		}
+		return null;
+	}
+
+	@Override
+	public List<BluetoothGattDescriptor> getDescriptors() {
+		return mDescriptors;
+	}
+}
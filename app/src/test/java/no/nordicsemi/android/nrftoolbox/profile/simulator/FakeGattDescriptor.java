@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.profile.simulator;
+
+import android.bluetooth.BluetoothGattCharacteristic;
+import android.bluetooth.BluetoothGattDescriptor;
+
+import java.util.UUID;
+
+/**
+ * A descriptor implemented without the Android framework, for local JVM tests.
+ */
+class FakeGattDescriptor extends BluetoothGattDescriptor {
+	private final UUID mUuid;
+	private final int mPermissions;
+	private BluetoothGattCharacteristic mCharacteristic;
+	private byte[] mValue;
+
+	FakeGattDescriptor(final UUID uuid, final int permissions) {
+		super(uuid, permissions);
+		mUuid = uuid;
+		mPermissions = permissions;
+	}
+
+	void setCharacteristic(final BluetoothGattCharacteristic characteristic) {
+		mCharacteristic = characteristic;
+	}
+
+	@Override
+	public BluetoothGattCharacteristic getCharacteristic() {
+		return mCharacteristic;
+	}
+
+	@Override
+	public UUID getUuid() {
+		return mUuid;
+	}
+
+	@Override
+	public int getPermissions() {
+		return mPermissions;
+	}
+
+	@Override
+	public byte[] getValue() {
+		return mValue;
+	}
+
+	@Override
+	public boolean setValue(final byte[] value) {
+		mValue = value;
+		return true;
+	}
+}
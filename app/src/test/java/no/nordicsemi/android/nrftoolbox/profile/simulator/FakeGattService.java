@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.profile.simulator;
+
+import android.bluetooth.BluetoothGattCharacteristic;
+import android.bluetooth.BluetoothGattService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A service implemented without the Android framework, for local JVM tests. The framework constructor does nothing in the mockable android.jar used by
+ * these tests, so all methods used by the simulator are implemented here.
+ */
+class FakeGattService extends BluetoothGattService {
+	private final UUID mUuid;
+	private final int mType;
+	private final List<BluetoothGattCharacteristic> mCharacteristics = new ArrayList<>();
+
+	FakeGattService(final UUID uuid, final int type) {
+		super(uuid, type);
+		mUuid = uuid;
+		mType = type;
+	}
+
+	@Override
+	public UUID getUuid() {
+		return mUuid;
+	}
+
+	@Override
+	public int getType() {
+		return mType;
+	}
+
+	@Override
+	public boolean addCharacteristic(final BluetoothGattCharacteristic characteristic) {
+		mCharacteristics.add(characteristic);
+		if (characteristic instanceof FakeGattCharacteristic)
+			((FakeGattCharacteristic) characteristic).setService(this);
+		return true;
+	}
+
+	@Override
+	public BluetoothGattCharacteristic getCharacteristic(final UUID uuid) {
+		for (final BluetoothGattCharacteristic characteristic : mCharacteristics) {
+			if (characteristic.getUuid().equals(uuid))
+				return characteristic;
+		}
+		return null;
+	}
+
+	@Override
+	public List<BluetoothGattCharacteristic> getCharacteristics() {
+		return mCharacteristics;
+	}
+}
@@ -0,0 +1,291 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.profile.simulator;
+
+import android.bluetooth.BluetoothGatt;
+import android.bluetooth.BluetoothGattCharacteristic;
+import android.bluetooth.BluetoothGattDescriptor;
+import android.bluetooth.BluetoothGattService;
+import android.bluetooth.BluetoothProfile;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import no.nordicsemi.android.nrftoolbox.profile.GattTransport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Drives the simulator directly through the {@link GattTransport} interface, using the GATT test doubles instead of the framework classes.
+ */
+public class SimulatedPeripheralTest {
+	private static final UUID SERVICE_UUID = UUID.fromString("0000180d-0000-1000-8000-00805f9b34fb");
+	private static final UUID MEASUREMENT_UUID = UUID.fromString("00002a37-0000-1000-8000-00805f9b34fb");
+	private static final UUID LOCATION_UUID = UUID.fromString("00002a38-0000-1000-8000-00805f9b34fb");
+	private static final UUID CONTROL_POINT_UUID = UUID.fromString("00002a39-0000-1000-8000-00805f9b34fb");
+	private static final UUID CCCD_UUID = UUID.fromString("00002902-0000-1000-8000-00805f9b34fb");
+	private static final String CONNECTED = "onConnectionStateChange " + BluetoothGatt.GATT_SUCCESS + " " + BluetoothProfile.STATE_CONNECTED;
+	private static final long TIMEOUT = 2000;
+
+	private SimulatedPeripheral mPeripheral;
+	private final RecordingCallback mCallback = new RecordingCallback();
+
+	@Before
+	public void setUp() {
+		mPeripheral = new SimulatedPeripheral("00:11:22:33:44:55") {
+			@Override
+			protected BluetoothGattService createService(final UUID uuid, final int type) {
+				return new FakeGattService(uuid, type);
+			}
+
+			@Override
+			protected BluetoothGattCharacteristic createCharacteristic(final UUID uuid, final int properties, final int permissions) {
+				return new FakeGattCharacteristic(uuid, properties, permissions);
+			}
+
+			@Override
+			protected BluetoothGattDescriptor createDescriptor(final UUID uuid, final int permissions) {
+				return new FakeGattDescriptor(uuid, permissions);
+			}
+		};
+		mPeripheral.setLatency(1);
+		final BluetoothGattService service = mPeripheral.addService(SERVICE_UUID);
+		mPeripheral.addCharacteristic(service, MEASUREMENT_UUID, BluetoothGattCharacteristic.PROPERTY_NOTIFY);
+		mPeripheral.addCharacteristic(service, LOCATION_UUID, BluetoothGattCharacteristic.PROPERTY_READ);
+		mPeripheral.addCharacteristic(service, CONTROL_POINT_UUID, BluetoothGattCharacteristic.PROPERTY_WRITE);
+	}
+
+	@After
+	public void tearDown() {
+		mPeripheral.close();
+	}
+
+	@Test
+	public void servicesAreAvailableAfterDiscovery() throws InterruptedException {
+		mPeripheral.connect(null, false, mCallback);
+		assertEquals(CONNECTED, mCallback.next());
+		assertNull(mPeripheral.getService(SERVICE_UUID));
+
+		assertTrue(mPeripheral.discoverServices());
+		assertEquals("onServicesDiscovered 0", mCallback.next());
+		final BluetoothGattService service = mPeripheral.getService(SERVICE_UUID);
+		assertNotNull(service);
+		assertNotNull(service.getCharacteristic(MEASUREMENT_UUID).getDescriptor(CCCD_UUID));
+		assertNull(service.getCharacteristic(LOCATION_UUID).getDescriptor(CCCD_UUID));
+		assertEquals(1, mPeripheral.getServiceDiscoveryCount());
+	}
+
+	@Test
+	public void onlyOneOperationMayBeInProgress() throws InterruptedException {
+		mPeripheral.setValue(LOCATION_UUID, new byte[] { 1 });
+		final BluetoothGattService service = connectAndDiscover();
+		final BluetoothGattCharacteristic location = service.getCharacteristic(LOCATION_UUID);
+
+		assertTrue(mPeripheral.readCharacteristic(location));
+		assertFalse(mPeripheral.readCharacteristic(location));
+		assertEquals("onCharacteristicRead " + LOCATION_UUID + " 0 [1]", mCallback.next());
+		assertTrue(mPeripheral.readCharacteristic(location));
+		assertEquals("onCharacteristicRead " + LOCATION_UUID + " 0 [1]", mCallback.next());
+	}
+
+	@Test
+	public void injectedErrorFailsOnlyTheNextOperation() throws InterruptedException {
+		mPeripheral.setValue(LOCATION_UUID, new byte[] { 1 });
+		final BluetoothGattService service = connectAndDiscover();
+		final BluetoothGattCharacteristic location = service.getCharacteristic(LOCATION_UUID);
+
+		mPeripheral.failNextOperation(LOCATION_UUID, BluetoothGatt.GATT_READ_NOT_PERMITTED);
+		assertTrue(mPeripheral.readCharacteristic(location));
+		assertEquals("onCharacteristicRead " + LOCATION_UUID + " " + BluetoothGatt.GATT_READ_NOT_PERMITTED + " null", mCallback.next());
+		assertTrue(mPeripheral.readCharacteristic(location));
+		assertEquals("onCharacteristicRead " + LOCATION_UUID + " 0 [1]", mCallback.next());
+	}
+
+	@Test
+	public void notificationsAreSentOnlyWhenEnabled() throws InterruptedException {
+		final BluetoothGattService service = connectAndDiscover();
+		assertFalse(mPeripheral.notify(MEASUREMENT_UUID, new byte[] { 0, 60 }));
+
+		enableNotifications(service);
+		assertTrue(mPeripheral.notify(MEASUREMENT_UUID, new byte[] { 0, 60 }));
+		assertEquals("onCharacteristicChanged " + MEASUREMENT_UUID + " [0, 60]", mCallback.next());
+	}
+
+	@Test
+	public void writeHandlerMayRespondWithNotification() throws InterruptedException {
+		mPeripheral.setWriteHandler(CONTROL_POINT_UUID, new SimulatedPeripheral.WriteHandler() {
+			@Override
+			public void onWrite(final SimulatedPeripheral peripheral, final BluetoothGattCharacteristic characteristic, final byte[] value) {
+				peripheral.notify(MEASUREMENT_UUID, new byte[] { value[0], 0 });
+			}
+		});
+		final BluetoothGattService service = connectAndDiscover();
+		enableNotifications(service);
+
+		final BluetoothGattCharacteristic controlPoint = service.getCharacteristic(CONTROL_POINT_UUID);
+		controlPoint.setValue(new byte[] { 7 });
+		assertTrue(mPeripheral.writeCharacteristic(controlPoint));
+		assertEquals("onCharacteristicWrite " + CONTROL_POINT_UUID + " 0", mCallback.next());
+		assertEquals("onCharacteristicChanged " + MEASUREMENT_UUID + " [7, 0]", mCallback.next());
+	}
+
+	@Test
+	public void unresponsiveCharacteristicNeverCompletesTheOperation() throws InterruptedException {
+		final BluetoothGattService service = connectAndDiscover();
+		final BluetoothGattCharacteristic location = service.getCharacteristic(LOCATION_UUID);
+
+		mPeripheral.setUnresponsive(LOCATION_UUID, true);
+		assertTrue(mPeripheral.readCharacteristic(location));
+		mCallback.assertNoEvent(100);
+		// The lost response blocks the queue, like on Android
+		assertFalse(mPeripheral.readCharacteristic(location));
+	}
+
+	@Test
+	public void linkLossKeepsServicesAndClearsNotifications() throws InterruptedException {
+		final BluetoothGattService service = connectAndDiscover();
+		enableNotifications(service);
+		assertTrue(mPeripheral.requestMtu(100));
+		assertEquals("onMtuChanged 100 0", mCallback.next());
+
+		mPeripheral.simulateLinkLoss();
+		assertEquals("onConnectionStateChange 8 " + BluetoothProfile.STATE_DISCONNECTED, mCallback.next());
+		assertFalse(mPeripheral.readCharacteristic(service.getCharacteristic(LOCATION_UUID)));
+
+		assertTrue(mPeripheral.reconnect());
+		assertEquals(CONNECTED, mCallback.next());
+		assertNotNull(mPeripheral.getService(SERVICE_UUID));
+		assertEquals(1, mPeripheral.getServiceDiscoveryCount());
+		assertEquals(23, mPeripheral.getMtu());
+		assertFalse(mPeripheral.notify(MEASUREMENT_UUID, new byte[] { 0, 60 }));
+	}
+
+	@Test
+	public void unavailableDeviceFailsDirectConnection() throws InterruptedException {
+		mPeripheral.setAvailable(false);
+		mPeripheral.connect(null, false, mCallback);
+		assertEquals("onConnectionStateChange 133 " + BluetoothProfile.STATE_DISCONNECTED, mCallback.next());
+	}
+
+	@Test
+	public void backgroundConnectionWaitsUntilDeviceIsAvailable() throws InterruptedException {
+		mPeripheral.setAvailable(false);
+		mPeripheral.connect(null, true, mCallback);
+		mCallback.assertNoEvent(100);
+
+		mPeripheral.setAvailable(true);
+		assertEquals(CONNECTED, mCallback.next());
+	}
+
+	@Test
+	public void mtuIsLimitedByTheDevice() throws InterruptedException {
+		mPeripheral.setMaxMtu(185);
+		connectAndDiscover();
+
+		assertTrue(mPeripheral.requestMtu(517));
+		assertEquals("onMtuChanged 185 0", mCallback.next());
+		assertEquals(185, mPeripheral.getMtu());
+	}
+
+	private BluetoothGattService connectAndDiscover() throws InterruptedException {
+		mPeripheral.connect(null, false, mCallback);
+		assertEquals(CONNECTED, mCallback.next());
+		assertTrue(mPeripheral.discoverServices());
+		assertEquals("onServicesDiscovered 0", mCallback.next());
+		return mPeripheral.getService(SERVICE_UUID);
+	}
+
+	private void enableNotifications(final BluetoothGattService service) throws InterruptedException {
+		final BluetoothGattDescriptor cccd = service.getCharacteristic(MEASUREMENT_UUID).getDescriptor(CCCD_UUID);
+		cccd.setValue(new byte[] { 1, 0 });
+		assertTrue(mPeripheral.setCharacteristicNotification(cccd.getCharacteristic(), true));
+		assertTrue(mPeripheral.writeDescriptor(cccd));
+		assertEquals("onDescriptorWrite " + MEASUREMENT_UUID + " 0", mCallback.next());
+	}
+
+	/**
+	 * Records the transport events as strings, so that a test may wait for them in order.
+	 */
+	private static class RecordingCallback implements GattTransport.Callback {
+		private final BlockingQueue<String> mEvents = new LinkedBlockingQueue<>();
+
+		String next() throws InterruptedException {
+			final String event = mEvents.poll(TIMEOUT, TimeUnit.MILLISECONDS);
+			if (event == null)
+				fail("No event in " + TIMEOUT + " ms");
+			return event;
+		}
+
+		void assertNoEvent(final long timeout) throws InterruptedException {
+			final String event = mEvents.poll(timeout, TimeUnit.MILLISECONDS);
+			if (event != null)
+				fail("Unexpected event: " + event);
+		}
+
+		@Override
+		public void onConnectionStateChange(final int status, final int newState) {
+			mEvents.add("onConnectionStateChange " + status + " " + newState);
+		}
+
+		@Override
+		public void onServicesDiscovered(final int status) {
+			mEvents.add("onServicesDiscovered " + status);
+		}
+
+		@Override
+		public void onCharacteristicRead(final BluetoothGattCharacteristic characteristic, final int status) {
+			mEvents.add("onCharacteristicRead " + characteristic.getUuid() + " " + status + " " + Arrays.toString(characteristic.getValue()));
+		}
+
+		@Override
+		public void onCharacteristicWrite(final BluetoothGattCharacteristic characteristic, final int status) {
+			mEvents.add("onCharacteristicWrite " + characteristic.getUuid() + " " + status);
+		}
+
+		@Override
+		public void onDescriptorWrite(final BluetoothGattDescriptor descriptor, final int status) {
+			mEvents.add("onDescriptorWrite " + descriptor.getCharacteristic().getUuid() + " " + status);
+		}
+
+		@Override
+		public void onCharacteristicChanged(final BluetoothGattCharacteristic characteristic, final byte[] data) {
+			mEvents.add("onCharacteristicChanged " + characteristic.getUuid() + " " + Arrays.toString(data));
+		}
+
+		@Override
+		public void onMtuChanged(final int mtu, final int status) {
+			mEvents.add("onMtuChanged " + mtu + " " + status);
+		}
+	}
+}
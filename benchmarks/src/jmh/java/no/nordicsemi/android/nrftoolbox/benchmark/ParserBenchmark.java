@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import no.nordicsemi.android.nrftoolbox.parser.CSCMeasurementParser;
+import no.nordicsemi.android.nrftoolbox.parser.GlucoseMeasurementParser;
+import no.nordicsemi.android.nrftoolbox.parser.HeartRateMeasurementParser;
+import no.nordicsemi.android.nrftoolbox.parser.RecordAccessControlPointParser;
+
+/**
+ * Measures the parsers used to format the log messages of received values.
+ */
+public class ParserBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class HeartRateState {
+		@Param({ "basic", "rr", "full" })
+		public String payload;
+
+		private byte[] mData;
+
+		@Setup
+		public void setup() {
+			switch (payload) {
+				case "basic":
+					mData = Payloads.HRM_BASIC;
+					break;
+				case "rr":
+					mData = Payloads.HRM_RR_INTERVALS;
+					break;
+				default:
+					mData = Payloads.HRM_FULL;
+					break;
+			}
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class CscState {
+		@Param({ "wheel", "wheelAndCrank" })
+		public String payload;
+
+		private byte[] mData;
+
+		@Setup
+		public void setup() {
+			mData = "wheel".equals(payload) ? Payloads.CSC_WHEEL : Payloads.CSC_WHEEL_AND_CRANK;
+		}
+	}
+
+	@Benchmark
+	public String heartRateMeasurement(final HeartRateState state) {
+		return HeartRateMeasurementParser.parse(state.mData);
+	}
+
+	@Benchmark
+	public String cscMeasurement(final CscState state) {
+		return CSCMeasurementParser.parse(state.mData);
+	}
+
+	@Benchmark
+	public String glucoseMeasurement() {
+		return GlucoseMeasurementParser.parse(Payloads.GLUCOSE_MEASUREMENT);
+	}
+
+	@Benchmark
+	public String glucoseMeasurementWithStatus() {
+		return GlucoseMeasurementParser.parse(Payloads.GLUCOSE_MEASUREMENT_STATUS);
+	}
+
+	@Benchmark
+	public String racpResponseCode() {
+		return RecordAccessControlPointParser.parse(Payloads.RACP_RESPONSE_SUCCESS);
+	}
+
+	@Benchmark
+	public String racpNumberOfRecords() {
+		return RecordAccessControlPointParser.parse(Payloads.RACP_NUMBER_OF_RECORDS);
+	}
+}
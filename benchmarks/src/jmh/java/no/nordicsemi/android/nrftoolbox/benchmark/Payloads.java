@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.benchmark;
+
+/**
+ * Payloads used by the benchmarks, in the formats sent by the nRF5 SDK example applications (ble_app_hrs, ble_app_cscs, ble_app_gls, ble_app_uart).
+ * Each array is a complete characteristic value, as received in a single notification or indication.
+ */
+final class Payloads {
+
+	private Payloads() {
+		// constants only
+	}
+
+	/** Heart Rate Measurement: 8-bit value (72 bpm), sensor contact detected. */
+	static final byte[] HRM_BASIC = { 0x06, 0x48 };
+	/** Heart Rate Measurement: 8-bit value (72 bpm), sensor contact detected, two RR-intervals (826 and 832 / 1024 s). */
+	static final byte[] HRM_RR_INTERVALS = { 0x16, 0x48, 0x3A, 0x03, 0x40, 0x03 };
+	/** Heart Rate Measurement: 16-bit value (162 bpm), energy expended (10000 kJ), four RR-intervals. */
+	static final byte[] HRM_FULL = { 0x1F, (byte) 0xA2, 0x00, 0x10, 0x27, (byte) 0x80, 0x01, (byte) 0x7C, 0x01, (byte) 0x81, 0x01, (byte) 0x7E, 0x01 };
+
+	/** CSC Measurement: wheel (300 revolutions, event time 16384 / 1024 s) and crank (30 revolutions, event time 14336 / 1024 s) data. */
+	static final byte[] CSC_WHEEL_AND_CRANK = { 0x03, 0x2C, 0x01, 0x00, 0x00, 0x00, 0x40, 0x1E, 0x00, 0x00, 0x38 };
+	/** CSC Measurement: wheel data only. */
+	static final byte[] CSC_WHEEL = { 0x01, 0x2C, 0x01, 0x00, 0x00, 0x00, 0x40 };
+
+	/** Glucose Measurement: sequence number 1, 2016-08-23 09:44:28, time offset 0, 95 mg/dL (0.00095 kg/l), capillary whole blood, finger. */
+	static final byte[] GLUCOSE_MEASUREMENT = { 0x03, 0x01, 0x00, (byte) 0xE0, 0x07, 0x08, 0x17, 0x09, 0x2C, 0x1C, 0x00, 0x00, 0x5F, (byte) 0xB0, 0x11 };
+	/** Glucose Measurement as above, with the sensor status annunciation (battery low) and the context information flag. */
+	static final byte[] GLUCOSE_MEASUREMENT_STATUS = { 0x1B, 0x02, 0x00, (byte) 0xE0, 0x07, 0x08, 0x17, 0x09, 0x2D, 0x05, 0x00, 0x00, 0x5F, (byte) 0xB0, 0x11, 0x01, 0x00 };
+
+	/** Record Access Control Point: response code, Report stored records - success. */
+	static final byte[] RACP_RESPONSE_SUCCESS = { 0x06, 0x00, 0x01, 0x01 };
+	/** Record Access Control Point: number of stored records response, 10 records. */
+	static final byte[] RACP_NUMBER_OF_RECORDS = { 0x05, 0x00, 0x0A, 0x00 };
+
+	/** A full packet with the default MTU (23 - 3 bytes). */
+	static final byte[] PACKET_20 = "Hello nRF Toolbox!\r\n".getBytes();
+	/** A full packet with the MTU negotiated by nRF52 devices (247 - 3 bytes). */
+	static final byte[] PACKET_244 = createPayload(244);
+	/** A 1 kB UART message. */
+	static final byte[] UART_MESSAGE_1K = createPayload(1024);
+
+	private static byte[] createPayload(final int length) {
+		final byte[] data = new byte[length];
+		for (int i = 0; i < length; ++i)
+			data[i] = (byte) ('A' + i % 26);
+		return data;
+	}
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.scanner;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import no.nordicsemi.android.nrftoolbox.utility.DebugLogger;
+import no.nordicsemi.android.support.v18.scanner.BluetoothLeScannerCompat;
+import no.nordicsemi.android.support.v18.scanner.ScanCallback;
+import no.nordicsemi.android.support.v18.scanner.ScanFilter;
+import no.nordicsemi.android.support.v18.scanner.ScanResult;
+import no.nordicsemi.android.support.v18.scanner.ScanSettings;
+
+/**
+ * Runs the Bluetooth LE scanner according to a {@link ScanPolicy} and publishes the results to any number of listeners.
+ * <p>
+ * Each report contains at most one, the most recent, result of each device, so listeners do not process the same device several times per report. A
+ * duty-cycled policy stops the scanner for the idle period between scan cycles. {@link #isScanning()} stays <code>true</code> during the idle periods,
+ * until the policy duration elapses or {@link #stop()} is called. All methods must be called and all listeners are notified on the UI thread.
+ * </p>
+ */
+public class ScanController {
+	private static final String TAG = "ScanController";
+
+	public interface Listener {
+		/**
+		 * Called with the scan results of the last report, one per device. The list is reused and must not be kept.
+		 *
+		 * @param results the results
+		 */
+		void onScanResults(final List<ScanResult> results);
+
+		/**
+		 * Called when scanning has been started or stopped, also when the policy duration has elapsed or the scanner failed.
+		 *
+		 * @param scanning true if scanning has started
+		 */
+		void onScanStateChanged(final boolean scanning);
+	}
+
+	private final Handler mHandler = new Handler(Looper.getMainLooper());
+	private final ArrayList<Listener> mListeners = new ArrayList<>();
+	private final List<ScanFilter> mFilters;
+	private ScanPolicy mPolicy;
+	/** True from {@link #start()} until scanning is stopped, also during idle periods of a duty-cycled policy */
+	private boolean mScanning;
+	/** True when the system scanner is running */
+	private boolean mScannerRunning;
+
+	/** The results of the current report, one per device */
+	private final ArrayList<ScanResult> mResults = new ArrayList<>();
+	/** Indexes of the devices in {@link #mResults} by their addresses */
+	private final HashMap<String, Integer> mResultIndexes = new HashMap<>();
+
+	/**
+	 * Creates the controller.
+	 *
+	 * @param policy  the scan policy
+	 * @param filters the scan filters, offloaded to the controller if supported, or <code>null</code> to report all devices
+	 */
+	public ScanController(final ScanPolicy policy, final List<ScanFilter> filters) {
+		mPolicy = policy;
+		mFilters = filters;
+	}
+
+	public void addListener(final Listener listener) {
+		if (!mListeners.contains(listener))
+			mListeners.add(listener);
+	}
+
+	public void removeListener(final Listener listener) {
+		mListeners.remove(listener);
+	}
+
+	/**
+	 * Changes the scan policy. If scanning is in progress it is restarted with the new policy.
+	 *
+	 * @param policy the new policy
+	 */
+	public void setPolicy(final ScanPolicy policy) {
+		mPolicy = policy;
+
+		if (mScanning) {
+			// During an idle period the scanner is not running and stopScanner() would leave the pending restart posted
+			mHandler.removeCallbacks(mCycleTask);
+			stopScanner();
+			startScanner();
+			scheduleStop();
+		}
+	}
+
+	public ScanPolicy getPolicy() {
+		return mPolicy;
+	}
+
+	/**
+	 * Returns true if scanning is in progress, also during idle periods of a duty-cycled policy.
+	 */
+	public boolean isScanning() {
+		return mScanning;
+	}
+
+	/**
+	 * Starts scanning. If scanning is already in progress, its duration is counted again from now.
+	 */
+	public void start() {
+		if (mScanning) {
+			// Extend scanning for some time more
+			scheduleStop();
+			return;
+		}
+
+		mScanning = true;
+		startScanner();
+		scheduleStop();
+		notifyScanStateChanged(true);
+	}
+
+	/**
+	 * Stops scanning. Results of the last report that are still pending are published before.
+	 */
+	public void stop() {
+		if (!mScanning)
+			return;
+
+		mHandler.removeCallbacks(mStopTask);
+		mHandler.removeCallbacks(mCycleTask);
+		stopScanner();
+		mScanning = false;
+		notifyScanStateChanged(false);
+	}
+
+	private void scheduleStop() {
+		mHandler.removeCallbacks(mStopTask);
+		final long duration = mPolicy.getDuration();
+		if (duration > 0)
+			mHandler.postDelayed(mStopTask, duration);
+	}
+
+	private void startScanner() {
+		final ScanPolicy policy = mPolicy;
+		final ScanSettings settings = policy.createSettings();
+		BluetoothLeScannerCompat.getScanner().startScan(mFilters, settings, mScanCallback);
+		mScannerRunning = true;
+
+		if (policy.isDutyCycled())
+			mHandler.postDelayed(mCycleTask, policy.getScanPeriod());
+	}
+
+	private void stopScanner() {
+		if (!mScannerRunning)
+			return;
+
+		mHandler.removeCallbacks(mCycleTask);
+		final BluetoothLeScannerCompat scanner = BluetoothLeScannerCompat.getScanner();
+		if (mPolicy.getReportDelay() > 0)
+			scanner.flushPendingScanResults(mScanCallback);
+		scanner.stopScan(mScanCallback);
+		mScannerRunning = false;
+	}
+
+	private void publishResults() {
+		final ArrayList<ScanResult> results = mResults;
+		if (mScanning && !results.isEmpty()) {
+			// Listeners may remove themselves when notified
+			for (int i = mListeners.size() - 1; i >= 0; --i)
+				mListeners.get(i).onScanResults(results);
+		}
+		results.clear();
+		mResultIndexes.clear();
+	}
+
+	private void notifyScanStateChanged(final boolean scanning) {
+		for (int i = mListeners.size() - 1; i >= 0; --i)
+			mListeners.get(i).onScanStateChanged(scanning);
+	}
+
+	private final Runnable mStopTask = new Runnable() {
+		@Override
+		public void run() {
+			stop();
+		}
+	};
+
+	/**
+	 * Stops the scanner at the end of a scan cycle and starts it again after the idle period.
+	 */
+	private final Runnable mCycleTask = new Runnable() {
+		@Override
+		public void run() {
+			if (mScannerRunning) {
+				stopScanner();
+				mHandler.postDelayed(mCycleTask, mPolicy.getIdlePeriod());
+			} else {
+				startScanner();
+			}
+		}
+	};
+
+	private final ScanCallback mScanCallback = new ScanCallback() {
+		@Override
+		public void onScanResult(final int callbackType, final ScanResult result) {
+			mResults.add(result);
+			publishResults();
+		}
+
+		@Override
+		public void onBatchScanResults(final List<ScanResult> results) {
+			final ArrayList<ScanResult> deduplicated = mResults;
+			final HashMap<String, Integer> indexes = mResultIndexes;
+			for (final ScanResult result : results) {
+				final String address = result.getDevice().getAddress();
+				final Integer index = indexes.get(address);
+				if (index == null) {
+					indexes.put(address, deduplicated.size());
+					deduplicated.add(result);
+				} else if (result.getTimestampNanos() >= deduplicated.get(index).getTimestampNanos()) {
+					deduplicated.set(index, result);
+				}
+			}
+			publishResults();
+		}
+
+		@Override
+		public void onScanFailed(final int errorCode) {
+			DebugLogger.e(TAG, "Scanning failed with error " + errorCode);
+			mScannerRunning = false;
+			stop();
+		}
+	};
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.scanner;
+
+import no.nordicsemi.android.support.v18.scanner.ScanSettings;
+
+/**
+ * Describes how the {@link ScanController} scans: the scan mode, how often the results are reported, whether the scanner runs continuously or in
+ * cycles and for how long. Use one of the predefined policies or create your own.
+ */
+public final class ScanPolicy {
+	/**
+	 * Scans with low latency for 5 seconds, reporting results every second. Use when user is waiting for the device list, e.g. in the scanner dialog.
+	 */
+	public static final ScanPolicy LOW_LATENCY_BURST = new ScanPolicy(ScanSettings.SCAN_MODE_LOW_LATENCY, 1000, false, 0, 0, 5000);
+	/**
+	 * Scans continuously in the balanced mode, letting the controller batch the results for a second.
+	 */
+	public static final ScanPolicy BALANCED = new ScanPolicy(ScanSettings.SCAN_MODE_BALANCED, 1000, true, 0, 0, 0);
+	/**
+	 * Scans in the balanced mode for 2 seconds every 10 seconds until stopped. Use on always-on devices that need to notice new devices in a reasonable time.
+	 */
+	public static final ScanPolicy DUTY_CYCLED = new ScanPolicy(ScanSettings.SCAN_MODE_BALANCED, 1000, true, 2000, 8000, 0);
+	/**
+	 * Scans continuously in the low power mode with results batched for 10 seconds, preferably in the controller, so that the application processor
+	 * is woken up rarely.
+	 */
+	public static final ScanPolicy OPPORTUNISTIC = new ScanPolicy(ScanSettings.SCAN_MODE_LOW_POWER, 10000, true, 0, 0, 0);
+
+	private final int mScanMode;
+	private final long mReportDelay;
+	private final boolean mUseHardwareBatching;
+	private final long mScanPeriod;
+	private final long mIdlePeriod;
+	private final long mDuration;
+
+	/**
+	 * Creates a scan policy.
+	 *
+	 * @param scanMode            one of the <code>ScanSettings.SCAN_MODE_*</code> constants
+	 * @param reportDelay         the time in milliseconds for which the results are batched, 0 to report each result immediately
+	 * @param useHardwareBatching true to batch results in the Bluetooth controller if supported, false to batch them in the library
+	 * @param scanPeriod          the time in milliseconds of a scan cycle, 0 to scan continuously
+	 * @param idlePeriod          the time in milliseconds between scan cycles, ignored if the scan period is 0
+	 * @param duration            the time in milliseconds after which scanning stops, 0 to scan until stopped
+	 */
+	public ScanPolicy(final int scanMode, final long reportDelay, final boolean useHardwareBatching, final long scanPeriod, final long idlePeriod, final long duration) {
+		if (reportDelay < 0 || scanPeriod < 0 || idlePeriod < 0 || duration < 0)
+			throw new IllegalArgumentException("Time must not be negative");
+
+		mScanMode = scanMode;
+		mReportDelay = reportDelay;
+		mUseHardwareBatching = useHardwareBatching;
+		mScanPeriod = scanPeriod;
+		mIdlePeriod = idlePeriod;
+		mDuration = duration;
+	}
+
+	/**
+	 * Creates the scan settings for this policy.
+	 */
+	public ScanSettings createSettings() {
+		return new ScanSettings.Builder()
+				.setScanMode(mScanMode)
+				.setReportDelay(mReportDelay)
+				.setUseHardwareBatchingIfSupported(mUseHardwareBatching)
+				.setUseHardwareFilteringIfSupported(true)
+				.build();
+	}
+
+	/**
+	 * Returns true if the scanner should be stopped and started again periodically.
+	 */
+	public boolean isDutyCycled() {
+		return mScanPeriod > 0 && mIdlePeriod > 0;
+	}
+
+	public long getReportDelay() {
+		return mReportDelay;
+	}
+
+	public long getScanPeriod() {
+		return mScanPeriod;
+	}
+
+	public long getIdlePeriod() {
+		return mIdlePeriod;
+	}
+
+	public long getDuration() {
+		return mDuration;
+	}
+}
@@ -0,0 +1,266 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.advertising;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import no.nordicsemi.android.nrftoolbox.utility.DataReader;
+
+/**
+ * The decoded advertising payload of a device: flags, service UUIDs, service data, manufacturer specific data, TX power level and the local name.
+ * <p>
+ * The payload is a sequence of AD structures, each consisting of a length byte, an AD type and the data, as defined in the Bluetooth Core Specification
+ * Supplement. Malformed structures end parsing, the values decoded until then are kept. Instances are immutable.
+ * </p>
+ */
+public class AdvertisingData {
+	/** The value returned by {@link #getTxPowerLevel()} if the TX power level was not advertised */
+	public static final int TX_POWER_NOT_PRESENT = Integer.MIN_VALUE;
+	/** The value returned by {@link #getFlags()} if the flags were not advertised */
+	public static final int FLAGS_NOT_PRESENT = -1;
+
+	private static final int TYPE_FLAGS = 0x01;
+	private static final int TYPE_UUID16_INCOMPLETE = 0x02;
+	private static final int TYPE_UUID16 = 0x03;
+	private static final int TYPE_UUID32_INCOMPLETE = 0x04;
+	private static final int TYPE_UUID32 = 0x05;
+	private static final int TYPE_UUID128_INCOMPLETE = 0x06;
+	private static final int TYPE_UUID128 = 0x07;
+	private static final int TYPE_SHORT_LOCAL_NAME = 0x08;
+	private static final int TYPE_COMPLETE_LOCAL_NAME = 0x09;
+	private static final int TYPE_TX_POWER_LEVEL = 0x0A;
+	private static final int TYPE_SERVICE_DATA_UUID16 = 0x16;
+	private static final int TYPE_SERVICE_DATA_UUID32 = 0x20;
+	private static final int TYPE_SERVICE_DATA_UUID128 = 0x21;
+	private static final int TYPE_MANUFACTURER_SPECIFIC_DATA = 0xFF;
+
+	/** The most significant bits of the Bluetooth Base UUID 00000000-0000-1000-8000-00805F9B34FB */
+	private static final long BASE_UUID_MSB = 0x0000000000001000L;
+	private static final long BASE_UUID_LSB = 0x800000805F9B34FBL;
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private final byte[] mBytes;
+	private final int mFlags;
+	private final List<UUID> mServiceUuids;
+	private final Map<UUID, byte[]> mServiceData;
+	private final Map<Integer, byte[]> mManufacturerData;
+	private final int mTxPowerLevel;
+	private final String mLocalName;
+
+	private AdvertisingData(final byte[] bytes, final int flags, final List<UUID> serviceUuids, final Map<UUID, byte[]> serviceData,
+							final Map<Integer, byte[]> manufacturerData, final int txPowerLevel, final String localName) {
+		mBytes = bytes;
+		mFlags = flags;
+		mServiceUuids = serviceUuids;
+		mServiceData = serviceData;
+		mManufacturerData = manufacturerData;
+		mTxPowerLevel = txPowerLevel;
+		mLocalName = localName;
+	}
+
+	/**
+	 * Decodes the advertising payload. Advertising and scan response data may be given together, as the scanner reports them.
+	 *
+	 * @param bytes the raw payload, not modified afterwards by the caller
+	 * @return the decoded data
+	 */
+	public static AdvertisingData parse(final byte[] bytes) {
+		int flags = FLAGS_NOT_PRESENT;
+		int txPowerLevel = TX_POWER_NOT_PRESENT;
+		String localName = null;
+		List<UUID> serviceUuids = null;
+		Map<UUID, byte[]> serviceData = null;
+		Map<Integer, byte[]> manufacturerData = null;
+
+		int offset = 0;
+		while (offset < bytes.length) {
+			final int length = DataReader.uint8(bytes, offset++);
+			if (length == 0)
+				break; // the rest of the payload is padded with zeros
+			if (offset + length > bytes.length)
+				break; // malformed structure
+
+			final int type = DataReader.uint8(bytes, offset);
+			final int dataOffset = offset + 1;
+			final int dataLength = length - 1;
+
+			switch (type) {
+				case TYPE_FLAGS:
+					if (dataLength >= 1)
+						flags = DataReader.uint8(bytes, dataOffset);
+					break;
+				case TYPE_UUID16_INCOMPLETE:
+				case TYPE_UUID16:
+					serviceUuids = addUuids(serviceUuids, bytes, dataOffset, dataLength, 2);
+					break;
+				case TYPE_UUID32_INCOMPLETE:
+				case TYPE_UUID32:
+					serviceUuids = addUuids(serviceUuids, bytes, dataOffset, dataLength, 4);
+					break;
+				case TYPE_UUID128_INCOMPLETE:
+				case TYPE_UUID128:
+					serviceUuids = addUuids(serviceUuids, bytes, dataOffset, dataLength, 16);
+					break;
+				case TYPE_SHORT_LOCAL_NAME:
+					if (localName == null)
+						localName = new String(bytes, dataOffset, dataLength, UTF8);
+					break;
+				case TYPE_COMPLETE_LOCAL_NAME:
+					localName = new String(bytes, dataOffset, dataLength, UTF8);
+					break;
+				case TYPE_TX_POWER_LEVEL:
+					if (dataLength >= 1)
+						txPowerLevel = DataReader.sint8(bytes, dataOffset);
+					break;
+				case TYPE_SERVICE_DATA_UUID16:
+				case TYPE_SERVICE_DATA_UUID32:
+				case TYPE_SERVICE_DATA_UUID128: {
+					final int uuidLength = type == TYPE_SERVICE_DATA_UUID16 ? 2 : type == TYPE_SERVICE_DATA_UUID32 ? 4 : 16;
+					if (dataLength >= uuidLength) {
+						if (serviceData == null)
+							serviceData = new HashMap<>();
+						serviceData.put(readUuid(bytes, dataOffset, uuidLength), copy(bytes, dataOffset + uuidLength, dataLength - uuidLength));
+					}
+					break;
+				}
+				case TYPE_MANUFACTURER_SPECIFIC_DATA:
+					if (dataLength >= 2) {
+						if (manufacturerData == null)
+							manufacturerData = new HashMap<>();
+						manufacturerData.put(DataReader.uint16(bytes, dataOffset), copy(bytes, dataOffset + 2, dataLength - 2));
+					}
+					break;
+				default:
+					// other AD types are not decoded
+					break;
+			}
+			offset += length;
+		}
+
+		return new AdvertisingData(bytes, flags,
+				serviceUuids != null ? Collections.unmodifiableList(serviceUuids) : Collections.<UUID>emptyList(),
+				serviceData != null ? Collections.unmodifiableMap(serviceData) : Collections.<UUID, byte[]>emptyMap(),
+				manufacturerData != null ? Collections.unmodifiableMap(manufacturerData) : Collections.<Integer, byte[]>emptyMap(),
+				txPowerLevel, localName);
+	}
+
+	private static List<UUID> addUuids(List<UUID> uuids, final byte[] bytes, final int offset, final int length, final int uuidLength) {
+		if (uuids == null)
+			uuids = new ArrayList<>();
+		for (int o = offset; o + uuidLength <= offset + length; o += uuidLength)
+			uuids.add(readUuid(bytes, o, uuidLength));
+		return uuids;
+	}
+
+	/**
+	 * Reads a 16, 32 or 128-bit little endian UUID. The shorter ones are expanded using the Bluetooth Base UUID.
+	 */
+	private static UUID readUuid(final byte[] bytes, final int offset, final int uuidLength) {
+		if (uuidLength == 16) {
+			long lsb = 0, msb = 0;
+			for (int i = 7; i >= 0; --i)
+				lsb = (lsb << 8) | (bytes[offset + i] & 0xFF);
+			for (int i = 15; i >= 8; --i)
+				msb = (msb << 8) | (bytes[offset + i] & 0xFF);
+			return new UUID(msb, lsb);
+		}
+		final long value = uuidLength == 2 ? DataReader.uint16(bytes, offset) : DataReader.uint32(bytes, offset) & 0xFFFFFFFFL;
+		return new UUID(BASE_UUID_MSB | (value << 32), BASE_UUID_LSB);
+	}
+
+	private static byte[] copy(final byte[] bytes, final int offset, final int length) {
+		final byte[] copy = new byte[length];
+		System.arraycopy(bytes, offset, copy, 0, length);
+		return copy;
+	}
+
+	/**
+	 * Returns the raw payload.
+	 */
+	public byte[] getBytes() {
+		return mBytes;
+	}
+
+	/**
+	 * Returns the advertising flags or {@link #FLAGS_NOT_PRESENT}.
+	 */
+	public int getFlags() {
+		return mFlags;
+	}
+
+	/**
+	 * Returns the advertised service UUIDs, complete and incomplete lists together.
+	 */
+	public List<UUID> getServiceUuids() {
+		return mServiceUuids;
+	}
+
+	/**
+	 * Returns the service data by service UUIDs.
+	 */
+	public Map<UUID, byte[]> getServiceData() {
+		return mServiceData;
+	}
+
+	/**
+	 * Returns the service data for the given service UUID, or <code>null</code> if not advertised.
+	 */
+	public byte[] getServiceData(final UUID serviceUuid) {
+		return mServiceData.get(serviceUuid);
+	}
+
+	/**
+	 * Returns the manufacturer specific data by the company identifiers assigned by the Bluetooth SIG.
+	 */
+	public Map<Integer, byte[]> getManufacturerData() {
+		return mManufacturerData;
+	}
+
+	/**
+	 * Returns the manufacturer specific data of the given company, without the company identifier, or <code>null</code> if not advertised.
+	 *
+	 * @param companyId the company identifier, e.g. 0x0059 for Nordic Semiconductor
+	 */
+	public byte[] getManufacturerData(final int companyId) {
+		return mManufacturerData.get(companyId);
+	}
+
+	/**
+	 * Returns the TX power level in dBm or {@link #TX_POWER_NOT_PRESENT}.
+	 */
+	public int getTxPowerLevel() {
+		return mTxPowerLevel;
+	}
+
+	/**
+	 * Returns the complete or, if not advertised, the shortened local name, or <code>null</code>.
+	 */
+	public String getLocalName() {
+		return mLocalName;
+	}
+}
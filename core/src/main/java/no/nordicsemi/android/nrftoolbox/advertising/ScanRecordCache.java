@@ -0,0 +1,283 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.advertising;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Keeps the decoded advertising payload of each scanned device.
+ * <p>
+ * A payload is decoded only if it differs from the one already cached for the device. Devices are indexed by advertised service UUIDs, service data
+ * UUIDs, manufacturer company identifiers and local names, so finding all devices with a given value takes constant time. Values that need decoding,
+ * e.g. a firmware version in the manufacturer data, may be matched with a {@link Filter} applied only to the devices found in the index.
+ * </p>
+ * <p>
+ * When the cache is full, the device that has not been seen for the longest time is evicted. Devices not seen for a given time may be evicted with {@link #evictOlderThan(long)}.
+ * The sets of addresses returned are copies and are not updated with the cache. The class is not thread safe.
+ * </p>
+ */
+public class ScanRecordCache {
+	public static final int DEFAULT_CAPACITY = 512;
+	/** The default time in milliseconds after which a device that has not been seen is evicted by {@link #evictOlderThan(long)} */
+	public static final long DEFAULT_MAX_AGE = 60000;
+
+	/**
+	 * A filter applied to the cached payloads.
+	 */
+	public interface Filter {
+		/**
+		 * Returns true if the device should be included in the result.
+		 *
+		 * @param address the device address
+		 * @param data    the decoded advertising payload
+		 */
+		boolean matches(final String address, final AdvertisingData data);
+	}
+
+	private static class Entry {
+		private AdvertisingData data;
+		private long lastSeen;
+	}
+
+	/** Entries in the order they were last seen, the least recently seen first */
+	private final LinkedHashMap<String, Entry> mEntries = new LinkedHashMap<>();
+	private final HashMap<UUID, Set<String>> mServiceUuidIndex = new HashMap<>();
+	private final HashMap<UUID, Set<String>> mServiceDataIndex = new HashMap<>();
+	private final HashMap<Integer, Set<String>> mManufacturerIndex = new HashMap<>();
+	private final HashMap<String, Set<String>> mNameIndex = new HashMap<>();
+	private final int mCapacity;
+	private final long mMaxAge;
+
+	public ScanRecordCache() {
+		this(DEFAULT_CAPACITY, DEFAULT_MAX_AGE);
+	}
+
+	/**
+	 * Creates the cache.
+	 *
+	 * @param capacity the maximum number of devices
+	 * @param maxAge   the time in milliseconds after which a device that has not been seen is evicted by {@link #evictOlderThan(long)}
+	 */
+	public ScanRecordCache(final int capacity, final long maxAge) {
+		if (capacity <= 0)
+			throw new IllegalArgumentException("Capacity must be positive");
+		mCapacity = capacity;
+		mMaxAge = maxAge;
+	}
+
+	/**
+	 * Stores the advertising payload of a device, decoding it if it has changed.
+	 *
+	 * @param address the device address
+	 * @param bytes   the raw advertising payload, including the scan response if any
+	 * @param time    the time the payload was received in milliseconds
+	 * @return the decoded payload
+	 */
+	public AdvertisingData put(final String address, final byte[] bytes, final long time) {
+		// Removing and putting the entry again moves it to the end of the list
+		Entry entry = mEntries.remove(address);
+		if (entry == null)
+			entry = new Entry();
+		mEntries.put(address, entry);
+
+		if (entry.data != null && Arrays.equals(entry.data.getBytes(), bytes)) {
+			entry.lastSeen = Math.max(entry.lastSeen, time);
+			return entry.data;
+		}
+
+		if (entry.data != null)
+			unindex(address, entry.data);
+		entry.data = AdvertisingData.parse(bytes);
+		entry.lastSeen = Math.max(entry.lastSeen, time);
+		index(address, entry.data);
+
+		if (mEntries.size() > mCapacity) {
+			final Iterator<Map.Entry<String, Entry>> iterator = mEntries.entrySet().iterator();
+			final Map.Entry<String, Entry> eldest = iterator.next();
+			iterator.remove();
+			unindex(eldest.getKey(), eldest.getValue().data);
+		}
+		return entry.data;
+	}
+
+	/**
+	 * Returns the decoded payload of the given device, or <code>null</code> if not cached.
+	 */
+	public AdvertisingData get(final String address) {
+		final Entry entry = mEntries.get(address);
+		return entry != null ? entry.data : null;
+	}
+
+	/**
+	 * Removes the given device from the cache.
+	 */
+	public void remove(final String address) {
+		final Entry entry = mEntries.remove(address);
+		if (entry != null)
+			unindex(address, entry.data);
+	}
+
+	/**
+	 * Evicts devices that have not been seen for longer than the maximum age.
+	 *
+	 * @param now the current time in milliseconds, in the same time base as the payloads
+	 * @return the number of evicted devices
+	 */
+	public int evictOlderThan(final long now) {
+		int count = 0;
+		final Iterator<Map.Entry<String, Entry>> iterator = mEntries.entrySet().iterator();
+		while (iterator.hasNext()) {
+			final Map.Entry<String, Entry> entry = iterator.next();
+			if (now - entry.getValue().lastSeen > mMaxAge) {
+				iterator.remove();
+				unindex(entry.getKey(), entry.getValue().data);
+				count++;
+			}
+		}
+		return count;
+	}
+
+	public void clear() {
+		mEntries.clear();
+		mServiceUuidIndex.clear();
+		mServiceDataIndex.clear();
+		mManufacturerIndex.clear();
+		mNameIndex.clear();
+	}
+
+	public int size() {
+		return mEntries.size();
+	}
+
+	/**
+	 * Returns the addresses of devices advertising the given service UUID.
+	 */
+	public Set<String> findByServiceUuid(final UUID serviceUuid) {
+		return find(mServiceUuidIndex, serviceUuid);
+	}
+
+	/**
+	 * Returns the addresses of devices advertising service data of the given service.
+	 */
+	public Set<String> findByServiceData(final UUID serviceUuid) {
+		return find(mServiceDataIndex, serviceUuid);
+	}
+
+	/**
+	 * Returns the addresses of devices advertising manufacturer specific data of the given company.
+	 */
+	public Set<String> findByManufacturer(final int companyId) {
+		return find(mManufacturerIndex, companyId);
+	}
+
+	/**
+	 * Returns the addresses of devices advertising the given local name.
+	 */
+	public Set<String> findByName(final String name) {
+		return find(mNameIndex, name);
+	}
+
+	/**
+	 * Returns the addresses of devices advertising manufacturer specific data of the given company that match the filter, e.g. a minimum firmware
+	 * version or a battery state encoded in the data.
+	 *
+	 * @param companyId the company identifier
+	 * @param filter    the filter, called only for devices advertising data of this company
+	 */
+	public List<String> findByManufacturer(final int companyId, final Filter filter) {
+		return filter(findByManufacturer(companyId), filter);
+	}
+
+	/**
+	 * Returns the addresses of devices advertising service data of the given service that match the filter.
+	 *
+	 * @param serviceUuid the service UUID
+	 * @param filter      the filter, called only for devices advertising data of this service
+	 */
+	public List<String> findByServiceData(final UUID serviceUuid, final Filter filter) {
+		return filter(findByServiceData(serviceUuid), filter);
+	}
+
+	private List<String> filter(final Set<String> addresses, final Filter filter) {
+		final List<String> result = new ArrayList<>();
+		for (final String address : addresses) {
+			final AdvertisingData data = mEntries.get(address).data;
+			if (filter.matches(address, data))
+				result.add(address);
+		}
+		return result;
+	}
+
+	private void index(final String address, final AdvertisingData data) {
+		for (final UUID uuid : data.getServiceUuids())
+			add(mServiceUuidIndex, uuid, address);
+		for (final UUID uuid : data.getServiceData().keySet())
+			add(mServiceDataIndex, uuid, address);
+		for (final Integer companyId : data.getManufacturerData().keySet())
+			add(mManufacturerIndex, companyId, address);
+		if (data.getLocalName() != null)
+			add(mNameIndex, data.getLocalName(), address);
+	}
+
+	private void unindex(final String address, final AdvertisingData data) {
+		for (final UUID uuid : data.getServiceUuids())
+			remove(mServiceUuidIndex, uuid, address);
+		for (final UUID uuid : data.getServiceData().keySet())
+			remove(mServiceDataIndex, uuid, address);
+		for (final Integer companyId : data.getManufacturerData().keySet())
+			remove(mManufacturerIndex, companyId, address);
+		if (data.getLocalName() != null)
+			remove(mNameIndex, data.getLocalName(), address);
+	}
+
+	private static <K> void add(final Map<K, Set<String>> index, final K key, final String address) {
+		Set<String> addresses = index.get(key);
+		if (addresses == null) {
+			addresses = new HashSet<>();
+			index.put(key, addresses);
+		}
+		addresses.add(address);
+	}
+
+	private static <K> void remove(final Map<K, Set<String>> index, final K key, final String address) {
+		final Set<String> addresses = index.get(key);
+		if (addresses != null && addresses.remove(address) && addresses.isEmpty())
+			index.remove(key);
+	}
+
+	/**
+	 * Returns a copy of the addresses, so that the caller may keep the result or modify the cache, e.g. remove the devices found, while iterating over it.
+	 */
+	private static <K> Set<String> find(final Map<K, Set<String>> index, final K key) {
+		final Set<String> addresses = index.get(key);
+		return addresses != null ? new HashSet<>(addresses) : new HashSet<String>();
+	}
+}
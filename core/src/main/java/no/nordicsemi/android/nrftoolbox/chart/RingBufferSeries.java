@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.chart;
+
+/**
+ * A fixed-capacity series of (x, y) samples kept in primitive arrays. When the series is full, every new sample overwrites the oldest one,
+ * so the memory used and the cost of drawing the series do not grow with the length of the session.
+ * <p>
+ * Samples are indexed from the oldest (0) to the newest ({@link #size()} - 1). For views showing more samples than can be drawn,
+ * {@link #decimate(int, double[], double[], double[], double[])} reduces the series to the minimum, maximum and average of each bucket.
+ * The class is not thread safe and does not depend on the Android API.
+ * </p>
+ */
+public class RingBufferSeries {
+	private final double[] mX;
+	private final double[] mY;
+	/** Index of the oldest sample */
+	private int mHead;
+	/** Number of samples in the series */
+	private int mCount;
+
+	/**
+	 * Creates the series.
+	 *
+	 * @param capacity the maximum number of samples kept, the window
+	 */
+	public RingBufferSeries(final int capacity) {
+		if (capacity < 1)
+			throw new IllegalArgumentException("Capacity must be positive");
+		mX = new double[capacity];
+		mY = new double[capacity];
+	}
+
+	/**
+	 * Adds a sample, overwriting the oldest one if the series is full.
+	 *
+	 * @param x the x value, it should not be lower than the x value of the previous sample
+	 * @param y the y value
+	 */
+	public void add(final double x, final double y) {
+		final int capacity = mX.length;
+		final int index = (mHead + mCount) % capacity;
+		mX[index] = x;
+		mY[index] = y;
+		if (mCount < capacity)
+			mCount++;
+		else
+			mHead = (mHead + 1) % capacity;
+	}
+
+	/**
+	 * Removes all samples.
+	 */
+	public void clear() {
+		mHead = mCount = 0;
+	}
+
+	/** Returns the number of samples in the series */
+	public int size() {
+		return mCount;
+	}
+
+	/** Returns the maximum number of samples kept */
+	public int getCapacity() {
+		return mX.length;
+	}
+
+	/**
+	 * Returns the x value of the sample with given index.
+	 *
+	 * @param index index of the sample, 0 for the oldest one
+	 */
+	public double getX(final int index) {
+		return mX[toArrayIndex(index)];
+	}
+
+	/**
+	 * Returns the y value of the sample with given index.
+	 *
+	 * @param index index of the sample, 0 for the oldest one
+	 */
+	public double getY(final int index) {
+		return mY[toArrayIndex(index)];
+	}
+
+	/**
+	 * Reduces the series to at most bucketCount buckets of consecutive samples. For each bucket the x value of its first sample and the minimum,
+	 * maximum and average y values are written to the arrays at the bucket index. Each array must have at least bucketCount elements.
+	 *
+	 * @param bucketCount the maximum number of buckets
+	 * @param x           the array for the x values
+	 * @param min         the array for the minimum y values
+	 * @param max         the array for the maximum y values
+	 * @param avg         the array for the average y values
+	 * @return the number of buckets written, equal to {@link #size()} if the series has not more than bucketCount samples
+	 */
+	public int decimate(final int bucketCount, final double[] x, final double[] min, final double[] max, final double[] avg) {
+		if (bucketCount < 1)
+			throw new IllegalArgumentException("Bucket count must be positive");
+		final int count = mCount;
+		final int bucketSize = (count + bucketCount - 1) / bucketCount;
+
+		int bucket = 0;
+		for (int start = 0; start < count; start += bucketSize, bucket++) {
+			final int end = Math.min(start + bucketSize, count);
+			double bucketMin = Double.MAX_VALUE;
+			double bucketMax = -Double.MAX_VALUE;
+			double sum = 0;
+			for (int i = start; i < end; ++i) {
+				final double y = mY[toArrayIndex(i)];
+				if (y < bucketMin)
+					bucketMin = y;
+				if (y > bucketMax)
+					bucketMax = y;
+				sum += y;
+			}
+			x[bucket] = mX[toArrayIndex(start)];
+			min[bucket] = bucketMin;
+			max[bucket] = bucketMax;
+			avg[bucket] = sum / (end - start);
+		}
+		return bucket;
+	}
+
+	private int toArrayIndex(final int index) {
+		if (index < 0 || index >= mCount)
+			throw new IndexOutOfBoundsException("Index: " + index + ", size: " + mCount);
+		return (mHead + index) % mX.length;
+	}
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.csc;
+
+/**
+ * Calculates the speed, distance, wheel and crank cadence and the gear ratio from the cumulative values sent in the CSC Measurement characteristic.
+ * The class keeps the previous values between measurements and does not depend on the Android API.
+ */
+public class CSCCalculator {
+	private int mFirstWheelRevolutions = -1;
+	private int mLastWheelRevolutions = -1;
+	private int mLastWheelEventTime = -1;
+	private float mWheelCadence = -1;
+	private int mLastCrankRevolutions = -1;
+	private int mLastCrankEventTime = -1;
+
+	private float mSpeed;
+	private float mDistance;
+	private float mTotalDistance;
+	private float mCrankCadence;
+	private float mGearRatio;
+
+	/**
+	 * Clears the values obtained from previous measurements. Call it when the sensor has been disconnected.
+	 */
+	public void reset() {
+		mFirstWheelRevolutions = -1;
+		mLastWheelRevolutions = -1;
+		mLastWheelEventTime = -1;
+		mWheelCadence = -1;
+		mLastCrankRevolutions = -1;
+		mLastCrankEventTime = -1;
+	}
+
+	/**
+	 * Updates the speed and distances with the new wheel data.
+	 *
+	 * @param wheelRevolutions   cumulative wheel revolutions
+	 * @param lastWheelEventTime last wheel event time in 1/1024 s
+	 * @param circumference      the wheel circumference in millimeters
+	 * @return true if {@link #getSpeed()}, {@link #getDistance()} and {@link #getTotalDistance()} have been updated, false if this was the first measurement
+	 * or the event time has not changed
+	 */
+	public boolean onWheelMeasurement(final int wheelRevolutions, final int lastWheelEventTime, final int circumference) {
+		if (mFirstWheelRevolutions < 0)
+			mFirstWheelRevolutions = wheelRevolutions;
+
+		if (mLastWheelEventTime == lastWheelEventTime)
+			return false;
+
+		boolean updated = false;
+		if (mLastWheelRevolutions >= 0) {
+			final float timeDifference = getTimeDifference(lastWheelEventTime, mLastWheelEventTime); // [s]
+			final float distanceDifference = (wheelRevolutions - mLastWheelRevolutions) * circumference / 1000.0f; // [m]
+			mTotalDistance = (float) wheelRevolutions * (float) circumference / 1000.0f; // [m]
+			mDistance = (float) (wheelRevolutions - mFirstWheelRevolutions) * (float) circumference / 1000.0f; // [m]
+			mSpeed = distanceDifference / timeDifference;
+			mWheelCadence = (wheelRevolutions - mLastWheelRevolutions) * 60.0f / timeDifference;
+			updated = true;
+		}
+		mLastWheelRevolutions = wheelRevolutions;
+		mLastWheelEventTime = lastWheelEventTime;
+		return updated;
+	}
+
+	/**
+	 * Updates the crank cadence and the gear ratio with the new crank data.
+	 *
+	 * @param crankRevolutions   cumulative crank revolutions
+	 * @param lastCrankEventTime last crank event time in 1/1024 s
+	 * @return true if {@link #getCrankCadence()} and {@link #getGearRatio()} have been updated, false otherwise
+	 */
+	public boolean onCrankMeasurement(final int crankRevolutions, final int lastCrankEventTime) {
+		if (mLastCrankEventTime == lastCrankEventTime)
+			return false;
+
+		boolean updated = false;
+		if (mLastCrankRevolutions >= 0) {
+			final float timeDifference = getTimeDifference(lastCrankEventTime, mLastCrankEventTime); // [s]
+			final float crankCadence = (crankRevolutions - mLastCrankRevolutions) * 60.0f / timeDifference;
+			if (crankCadence > 0) {
+				mCrankCadence = crankCadence;
+				mGearRatio = mWheelCadence / crankCadence;
+				updated = true;
+			}
+		}
+		mLastCrankRevolutions = crankRevolutions;
+		mLastCrankEventTime = lastCrankEventTime;
+		return updated;
+	}
+
+	/** Returns the speed in m/s */
+	public float getSpeed() {
+		return mSpeed;
+	}
+
+	/** Returns the distance since the first measurement in meters */
+	public float getDistance() {
+		return mDistance;
+	}
+
+	/** Returns the total distance reported by the sensor in meters */
+	public float getTotalDistance() {
+		return mTotalDistance;
+	}
+
+	/** Returns the crank cadence in RPM */
+	public float getCrankCadence() {
+		return mCrankCadence;
+	}
+
+	/** Returns the ratio of the wheel cadence to the crank cadence */
+	public float getGearRatio() {
+		return mGearRatio;
+	}
+
+	/**
+	 * Returns the time between two events in seconds. The event time is a 16-bit value and may have rolled over since the last event.
+	 */
+	private static float getTimeDifference(final int eventTime, final int lastEventTime) {
+		if (eventTime < lastEventTime)
+			return (65536 + eventTime - lastEventTime) / 1024.0f;
+		return (eventTime - lastEventTime) / 1024.0f;
+	}
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.gls;
+
+/**
+ * Op codes, operators and response codes of the Record Access Control Point characteristic, and the methods creating the operations written to it.
+ * The class does not depend on the Android API.
+ */
+public final class RecordAccessControlPoint {
+	public final static int OP_CODE_REPORT_STORED_RECORDS = 1;
+	public final static int OP_CODE_DELETE_STORED_RECORDS = 2;
+	public final static int OP_CODE_ABORT_OPERATION = 3;
+	public final static int OP_CODE_REPORT_NUMBER_OF_RECORDS = 4;
+	public final static int OP_CODE_NUMBER_OF_STORED_RECORDS_RESPONSE = 5;
+	public final static int OP_CODE_RESPONSE_CODE = 6;
+
+	public final static int OPERATOR_NULL = 0;
+	public final static int OPERATOR_ALL_RECORDS = 1;
+	public final static int OPERATOR_LESS_THEN_OR_EQUAL = 2;
+	public final static int OPERATOR_GREATER_THEN_OR_EQUAL = 3;
+	public final static int OPERATOR_WITHING_RANGE = 4;
+	public final static int OPERATOR_FIRST_RECORD = 5;
+	public final static int OPERATOR_LAST_RECORD = 6;
+
+	/**
+	 * The filter type is used for range operators ({@link #OPERATOR_LESS_THEN_OR_EQUAL}, {@link #OPERATOR_GREATER_THEN_OR_EQUAL}, {@link #OPERATOR_WITHING_RANGE}.<br/>
+	 * The syntax of the operand is: [Filter Type][Minimum][Maximum].<br/>
+	 * This filter selects the records by the sequence number.
+	 */
+	public final static int FILTER_TYPE_SEQUENCE_NUMBER = 1;
+	/**
+	 * The filter type is used for range operators ({@link #OPERATOR_LESS_THEN_OR_EQUAL}, {@link #OPERATOR_GREATER_THEN_OR_EQUAL}, {@link #OPERATOR_WITHING_RANGE}.<br/>
+	 * The syntax of the operand is: [Filter Type][Minimum][Maximum].<br/>
+	 * This filter selects the records by the user facing time (base time + offset time).
+	 */
+	public final static int FILTER_TYPE_USER_FACING_TIME = 2;
+
+	public final static int RESPONSE_SUCCESS = 1;
+	public final static int RESPONSE_OP_CODE_NOT_SUPPORTED = 2;
+	public final static int RESPONSE_INVALID_OPERATOR = 3;
+	public final static int RESPONSE_OPERATOR_NOT_SUPPORTED = 4;
+	public final static int RESPONSE_INVALID_OPERAND = 5;
+	public final static int RESPONSE_NO_RECORDS_FOUND = 6;
+	public final static int RESPONSE_ABORT_UNSUCCESSFUL = 7;
+	public final static int RESPONSE_PROCEDURE_NOT_COMPLETED = 8;
+	public final static int RESPONSE_OPERAND_NOT_SUPPORTED = 9;
+
+	private RecordAccessControlPoint() {
+		// utility class
+	}
+
+	/**
+	 * Creates the operation with records filtered by the sequence number.
+	 *
+	 * @param opCode
+	 *            the operation code
+	 * @param operator
+	 *            the operator (see {@link #OPERATOR_NULL} and others
+	 * @param sequenceNumbers
+	 *            optional parameters (one for >=, <=, two for the range, none for other operators)
+	 * @return the value to be written to the Record Access Control Point characteristic
+	 */
+	public static byte[] createOperation(final int opCode, final int operator, final int... sequenceNumbers) {
+		// 1 byte for opCode, 1 for operator, 1 for filter type (if parameters exists) and 2 for each parameter
+		final byte[] data = new byte[2 + ((sequenceNumbers.length > 0) ? 1 : 0) + sequenceNumbers.length * 2];
+		int offset = writeOpCode(data, opCode, operator, FILTER_TYPE_SEQUENCE_NUMBER, sequenceNumbers.length);
+
+		for (final int sequenceNumber : sequenceNumbers) {
+			data[offset++] = (byte) sequenceNumber;
+			data[offset++] = (byte) (sequenceNumber >> 8);
+		}
+		return data;
+	}
+
+	/**
+	 * Creates the operation with records filtered by the user facing time.
+	 *
+	 * @param opCode
+	 *            the operation code
+	 * @param operator
+	 *            the operator (see {@link #OPERATOR_NULL} and others
+	 * @param time
+	 *            the bytes of the user facing time, each given as a separate parameter
+	 * @return the value to be written to the Record Access Control Point characteristic
+	 */
+	public static byte[] createUserFacingTimeOperation(final int opCode, final int operator, final int... time) {
+		// 1 byte for opCode, 1 for operator, 1 for filter type (if parameters exists) and 1 for each byte of the time
+		final byte[] data = new byte[2 + ((time.length > 0) ? 1 : 0) + time.length];
+		int offset = writeOpCode(data, opCode, operator, FILTER_TYPE_USER_FACING_TIME, time.length);
+
+		for (final int b : time) {
+			data[offset++] = (byte) b;
+		}
+		return data;
+	}
+
+	/**
+	 * Writes the op code and the operator. The filter type is written only if there are any parameters.
+	 *
+	 * @return the offset of the first parameter
+	 */
+	private static int writeOpCode(final byte[] data, final int opCode, final int operator, final int filterType, final int paramsCount) {
+		int offset = 0;
+		data[offset++] = (byte) opCode;
+		// the operator is always present but may be equal to OPERATOR_NULL
+		data[offset++] = (byte) operator;
+		if (paramsCount > 0)
+			data[offset++] = (byte) filterType;
+		return offset;
+	}
+}
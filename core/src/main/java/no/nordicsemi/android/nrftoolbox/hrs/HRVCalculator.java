@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.hrs;
+
+/**
+ * Calculates heart rate variability statistics (RMSSD, SDNN and pNN50) over a sliding window of the last RR intervals.
+ * <p>
+ * The intervals are kept in a ring buffer in their original unit (1/1024 s) and the statistics are calculated from running integer sums, so adding
+ * a beat takes constant time, does not allocate and the sums do not drift however long the session is. The class is not thread safe and does not
+ * depend on the Android API.
+ * </p>
+ */
+public class HRVCalculator {
+	/** The default window size: about half a minute of beats at rest */
+	public static final int DEFAULT_WINDOW_SIZE = 32;
+
+	private static final float UNITS_TO_MS = 1000.0f / 1024.0f;
+	/** Successive differences greater than 50 ms, that is greater than 51.2 in 1/1024 s units, are counted for pNN50 */
+	private static final int NN50_THRESHOLD = 51;
+
+	private final int[] mIntervals;
+	/** Index of the oldest interval in the window */
+	private int mHead;
+	/** Number of intervals in the window */
+	private int mCount;
+
+	private long mSum;
+	private long mSumOfSquares;
+	private long mSumOfSquaredDifferences;
+	private int mNN50;
+
+	public HRVCalculator() {
+		this(DEFAULT_WINDOW_SIZE);
+	}
+
+	/**
+	 * Creates the calculator.
+	 *
+	 * @param windowSize the number of the last RR intervals the statistics are calculated from, at least 2
+	 */
+	public HRVCalculator(final int windowSize) {
+		if (windowSize < 2)
+			throw new IllegalArgumentException("Window size must be at least 2");
+		mIntervals = new int[windowSize];
+	}
+
+	/**
+	 * Removes all intervals from the window.
+	 */
+	public void clear() {
+		mHead = mCount = 0;
+		mSum = mSumOfSquares = mSumOfSquaredDifferences = 0;
+		mNN50 = 0;
+	}
+
+	/**
+	 * Adds the next RR interval. If the window is full the oldest interval, and its difference to the next one, are removed.
+	 *
+	 * @param rrInterval the RR interval in 1/1024 s, as sent in the Heart Rate Measurement characteristic
+	 */
+	public void addInterval(final int rrInterval) {
+		final int capacity = mIntervals.length;
+		if (mCount == capacity) {
+			final int oldest = mIntervals[mHead];
+			final int next = mIntervals[(mHead + 1) % capacity];
+			removeDifference(next - oldest);
+			mSum -= oldest;
+			mSumOfSquares -= (long) oldest * oldest;
+			mHead = (mHead + 1) % capacity;
+			mCount--;
+		}
+		if (mCount > 0) {
+			final int last = mIntervals[(mHead + mCount - 1) % capacity];
+			addDifference(rrInterval - last);
+		}
+		mIntervals[(mHead + mCount) % capacity] = rrInterval;
+		mSum += rrInterval;
+		mSumOfSquares += (long) rrInterval * rrInterval;
+		mCount++;
+	}
+
+	/**
+	 * Returns the number of intervals the statistics are calculated from.
+	 */
+	public int getCount() {
+		return mCount;
+	}
+
+	/**
+	 * Returns true if there are at least 2 intervals in the window, so that the statistics are available.
+	 */
+	public boolean isReady() {
+		return mCount >= 2;
+	}
+
+	/**
+	 * Returns the root mean square of successive differences in milliseconds, or {@link Float#NaN} if there are less than 2 intervals.
+	 */
+	public float getRMSSD() {
+		if (mCount < 2)
+			return Float.NaN;
+		return (float) Math.sqrt((double) mSumOfSquaredDifferences / (mCount - 1)) * UNITS_TO_MS;
+	}
+
+	/**
+	 * Returns the standard deviation of the intervals in milliseconds, or {@link Float#NaN} if there are less than 2 intervals.
+	 */
+	public float getSDNN() {
+		if (mCount < 2)
+			return Float.NaN;
+		// n * sum(x^2) - (sum(x))^2 is exact in integers, the division is done at the end
+		final double variance = (double) (mCount * mSumOfSquares - mSum * mSum) / ((long) mCount * (mCount - 1));
+		return (float) Math.sqrt(variance) * UNITS_TO_MS;
+	}
+
+	/**
+	 * Returns the percentage of successive differences greater than 50 ms, or {@link Float#NaN} if there are less than 2 intervals.
+	 */
+	public float getPNN50() {
+		if (mCount < 2)
+			return Float.NaN;
+		return 100.0f * mNN50 / (mCount - 1);
+	}
+
+	private void addDifference(final int difference) {
+		mSumOfSquaredDifferences += (long) difference * difference;
+		if (Math.abs(difference) > NN50_THRESHOLD)
+			mNN50++;
+	}
+
+	private void removeDifference(final int difference) {
+		mSumOfSquaredDifferences -= (long) difference * difference;
+		if (Math.abs(difference) > NN50_THRESHOLD)
+			mNN50--;
+	}
+}
@@ -21,17 +21,17 @@
  */
 package no.nordicsemi.android.nrftoolbox.parser;
 
-import android.bluetooth.BluetoothGattCharacteristic;
+import no.nordicsemi.android.nrftoolbox.utility.DataReader;
 
 public class AlertLevelParser {
 	/**
 	 * Parses the alert level.
 	 * 
-	 * @param characteristic
+	 * @param data the characteristic value
 	 * @return alert level in human readable format
 	 */
-	public static String parse(final BluetoothGattCharacteristic characteristic) {
-		final int value = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT8, 0);
+	public static String parse(final byte[] data) {
+		final int value = DataReader.uint8(data, 0);
 
 		switch (value) {
 		case 0:
@@ -21,12 +21,12 @@
  */
 package no.nordicsemi.android.nrftoolbox.parser;
 
-import android.bluetooth.BluetoothGattCharacteristic;
+import no.nordicsemi.android.nrftoolbox.utility.DataReader;
 
 public class BodySensorLocationParser {
 
-	public static String parse(final BluetoothGattCharacteristic characteristic) {
-		final int value = unsignedByteToInt(characteristic.getValue()[0]);
+	public static String parse(final byte[] data) {
+		final int value = DataReader.uint8(data, 0);
 
 		switch (value) {
 		case 6:
@@ -46,11 +46,4 @@ public class BodySensorLocationParser {
 			return "Other";
 		}
 	}
-
-	/**
-	 * Convert a signed byte to an unsigned int.
-	 */
-	private static int unsignedByteToInt(byte b) {
-		return b & 0xFF;
-	}
 }
@@ -21,15 +21,15 @@
  */
 package no.nordicsemi.android.nrftoolbox.parser;
 
-import android.bluetooth.BluetoothGattCharacteristic;
+import no.nordicsemi.android.nrftoolbox.utility.DataReader;
 
 public class CSCMeasurementParser {
 	private static final byte WHEEL_REV_DATA_PRESENT = 0x01; // 1 bit
 	private static final byte CRANK_REV_DATA_PRESENT = 0x02; // 1 bit
 
-	public static String parse(final BluetoothGattCharacteristic characteristic) {
+	public static String parse(final byte[] data) {
 		int offset = 0;
-		final int flags = characteristic.getValue()[offset]; // 1 byte
+		final int flags = DataReader.uint8(data, offset); // 1 byte
 		offset += 1;
 
 		final boolean wheelRevPresent = (flags & WHEEL_REV_DATA_PRESENT) > 0;
@@ -38,20 +38,20 @@ public class CSCMeasurementParser {
 		int wheelRevolutions = 0;
 		int lastWheelEventTime = 0;
 		if (wheelRevPresent) {
-			wheelRevolutions = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT32, offset);
+			wheelRevolutions = DataReader.uint32(data, offset);
 			offset += 4;
 
-			lastWheelEventTime = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT16, offset); // 1/1024 s
+			lastWheelEventTime = DataReader.uint16(data, offset); // 1/1024 s
 			offset += 2;
 		}
 
 		int crankRevolutions = 0;
 		int lastCrankEventTime = 0;
 		if (crankRevPreset) {
-			crankRevolutions = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT16, offset);
+			crankRevolutions = DataReader.uint16(data, offset);
 			offset += 2;
 
-			lastCrankEventTime = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT16, offset);
+			lastCrankEventTime = DataReader.uint16(data, offset);
 			//offset += 2;
 		}
 
@@ -21,37 +21,28 @@
  */
 package no.nordicsemi.android.nrftoolbox.parser;
 
-import android.bluetooth.BluetoothGattCharacteristic;
-
 import java.util.Calendar;
 import java.util.Locale;
 
-public class DateTimeParser {
-	/**
-	 * Parses the date and time info.
-	 * 
-	 * @param characteristic
-	 * @return time in human readable format
-	 */
-	public static String parse(final BluetoothGattCharacteristic characteristic) {
-		return parse(characteristic, 0);
-	}
+import no.nordicsemi.android.nrftoolbox.utility.DataReader;
 
+public class DateTimeParser {
 	/**
 	 * Parses the date and time info. This data has 7 bytes
 	 * 
-	 * @param characteristic
+	 * @param data
+	 *            the characteristic value
 	 * @param offset
 	 *            offset to start reading the time
 	 * @return time in human readable format
 	 */
-	/* package */static String parse(final BluetoothGattCharacteristic characteristic, final int offset) {
-		final int year = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT16, offset);
-		final int month = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT8, offset + 2);
-		final int day = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT8, offset + 3);
-		final int hours = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT8, offset + 4);
-		final int minutes = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT8, offset + 5);
-		final int seconds = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT8, offset + 6);
+	/* package */static String parse(final byte[] data, final int offset) {
+		final int year = DataReader.uint16(data, offset);
+		final int month = DataReader.uint8(data, offset + 2);
+		final int day = DataReader.uint8(data, offset + 3);
+		final int hours = DataReader.uint8(data, offset + 4);
+		final int minutes = DataReader.uint8(data, offset + 5);
+		final int seconds = DataReader.uint8(data, offset + 6);
 
 		final Calendar calendar = Calendar.getInstance();
 		calendar.set(year, month - 1, day, hours, minutes, seconds);
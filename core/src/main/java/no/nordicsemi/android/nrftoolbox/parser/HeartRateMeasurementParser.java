@@ -21,10 +21,7 @@
  */
 package no.nordicsemi.android.nrftoolbox.parser;
 
-import android.bluetooth.BluetoothGattCharacteristic;
-
-import java.util.ArrayList;
-import java.util.List;
+import no.nordicsemi.android.nrftoolbox.utility.DataReader;
 
 public class HeartRateMeasurementParser {
 	private static final byte HEART_RATE_VALUE_FORMAT = 0x01; // 1 bit
@@ -32,9 +29,9 @@ public class HeartRateMeasurementParser {
 	private static final byte ENERGY_EXPANDED_STATUS = 0x08; // 1 bit
 	private static final byte RR_INTERVAL = 0x10; // 1 bit
 
-	public static String parse(final BluetoothGattCharacteristic characteristic) {
+	public static String parse(final byte[] data) {
 		int offset = 0;
-		final int flags = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT8, offset++);
+		final int flags = DataReader.uint8(data, offset++);
 
 		/*
 		 * false 	Heart Rate Value Format is set to UINT8. Units: beats per minute (bpm) 
@@ -63,23 +60,15 @@ public class HeartRateMeasurementParser {
 		final boolean rrIntervalStatus = (flags & RR_INTERVAL) > 0;
 
 		// heart rate value is 8 or 16 bit long
-		int heartRateValue = characteristic.getIntValue(value16bit ? BluetoothGattCharacteristic.FORMAT_UINT16 : BluetoothGattCharacteristic.FORMAT_UINT8, offset++); // bits per minute
+		int heartRateValue = value16bit ? DataReader.uint16(data, offset++) : DataReader.uint8(data, offset++); // bits per minute
 		if (value16bit)
 			offset++;
 
 		// energy expanded value is present if a flag was set
 		int energyExpanded = -1;
-		if (energyExpandedStatus)
-			energyExpanded = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT16, offset);
-		offset += 2;
-
-		// RR-interval is set when a flag is set
-		final List<Float> rrIntervals = new ArrayList<>();
-		if (rrIntervalStatus) {
-			for (int o = offset; o < characteristic.getValue().length; o += 2) {
-				final int units = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT16, o);
-				rrIntervals.add(units * 1024.0f / 1000.0f); // RR interval is in [1/1024s]
-			}
+		if (energyExpandedStatus) {
+			energyExpanded = DataReader.uint16(data, offset);
+			offset += 2;
 		}
 
 		final StringBuilder builder = new StringBuilder();
@@ -99,9 +88,12 @@ public class HeartRateMeasurementParser {
 		if (energyExpandedStatus)
 			builder.append(",\nEnergy Expanded: ").append(energyExpanded).append(" kJ");
 		if (rrIntervalStatus) {
+			// RR-interval is set when a flag is set
 			builder.append(",\nRR Interval: ");
-			for (final Float interval : rrIntervals)
-				builder.append(String.format("%.02f ms, ", interval));
+			for (int o = offset; o < data.length; o += 2) {
+				final int units = DataReader.uint16(data, o);
+				builder.append(String.format("%.02f ms, ", units * 1000.0f / 1024.0f)); // RR interval is in [1/1024s]
+			}
 			builder.setLength(builder.length() - 2); // remove the ", " at the end
 		}
 		return builder.toString();
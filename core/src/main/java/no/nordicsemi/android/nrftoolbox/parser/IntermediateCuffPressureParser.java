@@ -21,17 +21,17 @@
  */
 package no.nordicsemi.android.nrftoolbox.parser;
 
-import android.bluetooth.BluetoothGattCharacteristic;
-
 import java.util.Calendar;
 
+import no.nordicsemi.android.nrftoolbox.utility.DataReader;
+
 public class IntermediateCuffPressureParser {
-	public static String parse(final BluetoothGattCharacteristic characteristic) {
+	public static String parse(final byte[] data) {
 		final StringBuilder builder = new StringBuilder();
 
 		// first byte - flags
 		int offset = 0;
-		final int flags = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT8, offset++);
+		final int flags = DataReader.uint8(data, offset++);
 
 		final int unitType = flags & 0x01;
 		final boolean timestampPresent = (flags & 0x02) > 0;
@@ -40,7 +40,7 @@ public class IntermediateCuffPressureParser {
 		final boolean statusPresent = (flags & 0x10) > 0;
 
 		// following bytes - pressure
-		final float pressure = characteristic.getFloatValue(BluetoothGattCharacteristic.FORMAT_SFLOAT, offset);
+		final float pressure = DataReader.sfloat(data, offset);
 		final String unit = unitType == 0 ? "mmHg" : "kPa";
 		offset += 6;
 		builder.append("Cuff pressure: ").append(pressure).append(unit);
@@ -48,31 +48,31 @@ public class IntermediateCuffPressureParser {
 		// parse timestamp if present
 		if (timestampPresent) {
 			final Calendar calendar = Calendar.getInstance();
-			calendar.set(Calendar.YEAR, characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT16, offset));
-			calendar.set(Calendar.MONTH, characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT8, offset + 2));
-			calendar.set(Calendar.DAY_OF_MONTH, characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT8, offset + 3));
-			calendar.set(Calendar.HOUR_OF_DAY, characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT8, offset + 4));
-			calendar.set(Calendar.MINUTE, characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT8, offset + 5));
-			calendar.set(Calendar.SECOND, characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT8, offset + 6));
+			calendar.set(Calendar.YEAR, DataReader.uint16(data, offset));
+			calendar.set(Calendar.MONTH, DataReader.uint8(data, offset + 2));
+			calendar.set(Calendar.DAY_OF_MONTH, DataReader.uint8(data, offset + 3));
+			calendar.set(Calendar.HOUR_OF_DAY, DataReader.uint8(data, offset + 4));
+			calendar.set(Calendar.MINUTE, DataReader.uint8(data, offset + 5));
+			calendar.set(Calendar.SECOND, DataReader.uint8(data, offset + 6));
 			offset += 7;
 			builder.append(String.format("\nTimestamp: %1$tT %1$te.%1$tm.%1$tY", calendar));
 		}
 
 		// parse pulse rate if present
 		if (pulseRatePresent) {
-			final float pulseRate = characteristic.getFloatValue(BluetoothGattCharacteristic.FORMAT_SFLOAT, offset);
+			final float pulseRate = DataReader.sfloat(data, offset);
 			offset += 2;
 			builder.append("\nPulse: ").append(pulseRate);
 		}
 
 		if (userIdPresent) {
-			final int userId = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT8, offset);
+			final int userId = DataReader.uint8(data, offset);
 			offset += 1;
 			builder.append("\nUser ID: ").append(userId);
 		}
 
 		if (statusPresent) {
-			final int status = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT16, offset);
+			final int status = DataReader.uint16(data, offset);
 			// offset += 2;
 			if ((status & 0x0001) > 0)
 				builder.append("\nBody movement detected");
@@ -21,16 +21,10 @@
  */
 package no.nordicsemi.android.nrftoolbox.parser;
 
-import android.bluetooth.BluetoothGattCharacteristic;
-
 public class TemperatureTypeParser {
 
-	public static String parse(final BluetoothGattCharacteristic characteristic) {
-		return parse(characteristic, 0);
-	}
-
-	/* package */static String parse(final BluetoothGattCharacteristic characteristic, final int offset) {
-		final int type = characteristic.getValue()[offset];
+	/* package */static String parse(final byte[] data, final int offset) {
+		final int type = data[offset];
 
 		switch (type) {
 		case 1:
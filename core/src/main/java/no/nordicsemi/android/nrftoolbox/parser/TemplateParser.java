@@ -21,7 +21,8 @@
  */
 package no.nordicsemi.android.nrftoolbox.parser;
 
-import android.bluetooth.BluetoothGattCharacteristic;
+import no.nordicsemi.android.nrftoolbox.utility.DataReader;
+
 
 // TODO this method may be used for developing purposes to log the data from your device using the nRF Logger application.
 public class TemplateParser {
@@ -30,12 +31,12 @@ public class TemplateParser {
 
 	/**
 	 * This method converts the value of the characteristic to the String. The String is then logged in the nRF logger log session
-	 * @param characteristic the characteristic to be parsed
+	 * @param data the characteristic value
 	 * @return human readable value of the characteristic
 	 */
-	public static String parse(final BluetoothGattCharacteristic characteristic) {
+	public static String parse(final byte[] data) {
 		int offset = 0;
-		final int flags = characteristic.getIntValue(BluetoothGattCharacteristic.FORMAT_UINT8, offset++);
+		final int flags = DataReader.uint8(data, offset++);
 
 		/*
 		 * In the template we are using the HRM values as an example.
@@ -45,7 +46,7 @@ public class TemplateParser {
 		final boolean value16bit = (flags & HEART_RATE_VALUE_FORMAT) > 0;
 
 		// heart rate value is 8 or 16 bit long
-		int value = characteristic.getIntValue(value16bit ? BluetoothGattCharacteristic.FORMAT_UINT16 : BluetoothGattCharacteristic.FORMAT_UINT8, offset++); // bits per minute
+		int value = value16bit ? DataReader.uint16(data, offset++) : DataReader.uint8(data, offset++); // bits per minute
 		if (value16bit)
 			offset++;
 
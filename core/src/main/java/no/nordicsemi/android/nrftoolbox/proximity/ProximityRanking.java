@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.proximity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Keeps the scanned devices ordered by their filtered RSSI, the nearest first.
+ * <p>
+ * Each device has its own {@link RssiFilter}. Devices are indexed by their addresses, so an update does not scan the list. Devices that have not been
+ * seen for the stale timeout may be removed with {@link #removeStale(long)}. To keep the list from reshuffling with every report, {@link #sort()} moves
+ * a device ahead of its neighbour only if it is stronger by more than {@link #HYSTERESIS} dB. The insertion sort used is stable and takes linear time
+ * on the nearly sorted list.
+ * </p>
+ * The class is not thread safe.
+ *
+ * @param <T> the type of the items, e.g. a Bluetooth device
+ */
+public class ProximityRanking<T> {
+	/** The default time in milliseconds after which a device that stopped advertising is removed */
+	public static final long DEFAULT_STALE_TIMEOUT = 5000;
+	/** The difference in dB required to swap two devices */
+	public static final float HYSTERESIS = 4.0f;
+
+	private static class Entry<T> {
+		private final String address;
+		private final T item;
+		private final RssiFilter filter = new RssiFilter();
+
+		private Entry(final String address, final T item) {
+			this.address = address;
+			this.item = item;
+		}
+	}
+
+	private final ArrayList<Entry<T>> mEntries = new ArrayList<>();
+	private final HashMap<String, Entry<T>> mIndex = new HashMap<>();
+	private final long mStaleTimeout;
+
+	public ProximityRanking() {
+		this(DEFAULT_STALE_TIMEOUT);
+	}
+
+	/**
+	 * Creates the ranking.
+	 *
+	 * @param staleTimeout the time in milliseconds after which a device that has not been seen is removed by {@link #removeStale(long)}
+	 */
+	public ProximityRanking(final long staleTimeout) {
+		mStaleTimeout = staleTimeout;
+	}
+
+	/**
+	 * Returns the item with the given address, or <code>null</code> if not on the list.
+	 */
+	public T get(final String address) {
+		final Entry<T> entry = mIndex.get(address);
+		return entry != null ? entry.item : null;
+	}
+
+	/**
+	 * Adds an item that has not been seen yet, e.g. a bonded device, at the end of the list. Until its first RSSI sample is added with
+	 * {@link #update(String, int, long)} the item is ordered after all devices that have been seen.
+	 *
+	 * @param address the device address
+	 * @param item    the item
+	 */
+	public void add(final String address, final T item) {
+		final Entry<T> entry = new Entry<>(address, item);
+		mEntries.add(entry);
+		mIndex.put(address, entry);
+	}
+
+	/**
+	 * Adds a new item at the end of the list. Call {@link #sort()} to move it to its place.
+	 *
+	 * @param address the device address
+	 * @param item    the item
+	 * @param rssi    the first RSSI value in dBm
+	 * @param time    the time of the RSSI value in milliseconds
+	 */
+	public void add(final String address, final T item, final int rssi, final long time) {
+		add(address, item);
+		mIndex.get(address).filter.add(rssi, time);
+	}
+
+	/**
+	 * Adds a new RSSI sample of the device with the given address.
+	 *
+	 * @param address the device address
+	 * @param rssi    the RSSI value in dBm
+	 * @param time    the time of the RSSI value in milliseconds
+	 * @return <code>false</code> if the device is not on the list, <code>true</code> otherwise
+	 */
+	public boolean update(final String address, final int rssi, final long time) {
+		final Entry<T> entry = mIndex.get(address);
+		if (entry == null)
+			return false;
+		entry.filter.add(rssi, time);
+		return true;
+	}
+
+	/**
+	 * Removes devices that have not been seen for longer than the stale timeout.
+	 *
+	 * @param now the current time in milliseconds, in the same time base as the samples
+	 * @return the number of removed devices
+	 */
+	public int removeStale(final long now) {
+		final ArrayList<Entry<T>> entries = mEntries;
+		int count = 0;
+		for (int i = 0; i < entries.size(); ++i) {
+			final Entry<T> entry = entries.get(i);
+			if (entry.filter.isStale(now, mStaleTimeout))
+				mIndex.remove(entry.address);
+			else
+				entries.set(count++, entry);
+		}
+		final int removed = entries.size() - count;
+		for (int i = entries.size() - 1; i >= count; --i)
+			entries.remove(i);
+		return removed;
+	}
+
+	/**
+	 * Orders the devices by their filtered RSSI, the strongest first, keeping the current order of devices whose values differ by less than {@link #HYSTERESIS}.
+	 *
+	 * @return <code>true</code> if the order has changed
+	 */
+	public boolean sort() {
+		final ArrayList<Entry<T>> entries = mEntries;
+		boolean changed = false;
+		for (int i = 1; i < entries.size(); ++i) {
+			final Entry<T> entry = entries.get(i);
+			final float rssi = entry.filter.getRssi();
+			int j = i;
+			while (j > 0 && rssi > entries.get(j - 1).filter.getRssi() + HYSTERESIS) {
+				entries.set(j, entries.get(j - 1));
+				--j;
+			}
+			if (j != i) {
+				entries.set(j, entry);
+				changed = true;
+			}
+		}
+		return changed;
+	}
+
+	public void clear() {
+		mEntries.clear();
+		mIndex.clear();
+	}
+
+	public int size() {
+		return mEntries.size();
+	}
+
+	public boolean isEmpty() {
+		return mEntries.isEmpty();
+	}
+
+	/**
+	 * Returns the item at the given position.
+	 */
+	public T getItem(final int position) {
+		return mEntries.get(position).item;
+	}
+
+	/**
+	 * Returns the filtered RSSI of the item at the given position, rounded to dBm.
+	 */
+	public int getRssi(final int position) {
+		return Math.round(mEntries.get(position).filter.getRssi());
+	}
+
+	/**
+	 * Returns the filtered RSSI of the item with the given address, rounded to dBm.
+	 *
+	 * @param address the device address
+	 * @param defaultValue the value returned if the device is not on the list
+	 */
+	public int getRssi(final String address, final int defaultValue) {
+		final Entry<T> entry = mIndex.get(address);
+		return entry != null ? Math.round(entry.filter.getRssi()) : defaultValue;
+	}
+}
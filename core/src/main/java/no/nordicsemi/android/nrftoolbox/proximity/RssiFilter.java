@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.proximity;
+
+/**
+ * Smooths the RSSI values reported for a single device using an exponentially weighted moving average.
+ * <p>
+ * A single sample that differs from the current value by more than {@link #OUTLIER_THRESHOLD} dB is treated as a reflection or a collision and ignored.
+ * If {@link #OUTLIER_COUNT} such samples come in a row, the device has most probably been moved and the filter restarts from the last sample.
+ * </p>
+ */
+public class RssiFilter {
+	/** The weight of a new sample */
+	public static final float ALPHA = 0.3f;
+	/** The maximum difference in dB between a sample and the current value for the sample to be accepted */
+	public static final float OUTLIER_THRESHOLD = 12.0f;
+	/** The number of consecutive outliers after which the filter is reset */
+	public static final int OUTLIER_COUNT = 3;
+
+	private float mValue = Float.NEGATIVE_INFINITY;
+	private boolean mInitialized;
+	private int mOutliers;
+	/** The time of the last sample in milliseconds */
+	private long mLastSeen;
+
+	/**
+	 * Adds a new sample.
+	 *
+	 * @param rssi the RSSI in dBm
+	 * @param time the time of the sample in milliseconds, e.g. from <code>SystemClock.elapsedRealtime()</code>
+	 * @return <code>true</code> if the sample has been used, <code>false</code> if it was rejected as an outlier
+	 */
+	public boolean add(final int rssi, final long time) {
+		mLastSeen = Math.max(mLastSeen, time);
+
+		if (!mInitialized) {
+			mValue = rssi;
+			mInitialized = true;
+			return true;
+		}
+
+		if (Math.abs(rssi - mValue) > OUTLIER_THRESHOLD) {
+			if (++mOutliers < OUTLIER_COUNT)
+				return false;
+			mValue = rssi;
+			mOutliers = 0;
+			return true;
+		}
+
+		mOutliers = 0;
+		mValue += ALPHA * (rssi - mValue);
+		return true;
+	}
+
+	/**
+	 * Returns the filtered RSSI value in dBm, or {@link Float#NEGATIVE_INFINITY} if no sample has been added.
+	 */
+	public float getRssi() {
+		return mValue;
+	}
+
+	/**
+	 * Returns the time of the last sample in milliseconds.
+	 */
+	public long getLastSeen() {
+		return mLastSeen;
+	}
+
+	/**
+	 * Returns <code>true</code> if the device has not been seen for longer than the given timeout.
+	 *
+	 * @param now     the current time in milliseconds, in the same time base as the samples
+	 * @param timeout the timeout in milliseconds
+	 */
+	public boolean isStale(final long now, final long timeout) {
+		return now - mLastSeen > timeout;
+	}
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.rsc;
+
+/**
+ * Estimates the number of strides and the trip distance from the cadence and stride length sent in the RSC Measurement characteristic.
+ * The sensor does not report the number of strides, so one stride is counted every time the interval obtained from the last cadence elapses.
+ * The class does not depend on the Android API, the caller is responsible for scheduling {@link #onStride()}.
+ */
+public class StrideCounter {
+	/** The last value of a cadence */
+	private float mCadence;
+	/** Trip distance in cm */
+	private float mDistance;
+	/** Stride length in cm */
+	private float mStrideLength;
+	/** Number of steps in the trip */
+	private int mStepsNumber;
+	private boolean mCounting;
+
+	/**
+	 * Updates the cadence and the stride length.
+	 *
+	 * @param cadence      the instantaneous cadence in steps per minute
+	 * @param strideLength the instantaneous stride length in cm
+	 * @return true if counting has just been started and the first stride should be scheduled after {@link #getStrideInterval()} milliseconds
+	 */
+	public boolean onMeasurement(final int cadence, final float strideLength) {
+		mCadence = cadence;
+		mStrideLength = strideLength;
+		if (!mCounting && cadence > 0) {
+			mCounting = true;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Counts a stride.
+	 *
+	 * @return true if the next stride should be scheduled after {@link #getStrideInterval()} milliseconds, false if the cadence has dropped to 0 and
+	 * counting has been stopped
+	 */
+	public boolean onStride() {
+		mStepsNumber++;
+		mDistance += mStrideLength;
+
+		if (mCadence > 0)
+			return true;
+		mCounting = false;
+		return false;
+	}
+
+	/**
+	 * Returns the time of one stride at the last cadence in milliseconds.
+	 */
+	public long getStrideInterval() {
+		return (long) (1000.0f * 65.0f / mCadence); // 60s + 5s for calibration in milliseconds
+	}
+
+	/** Returns the number of strides counted */
+	public int getStepsNumber() {
+		return mStepsNumber;
+	}
+
+	/** Returns the trip distance in cm */
+	public float getDistance() {
+		return mDistance;
+	}
+}
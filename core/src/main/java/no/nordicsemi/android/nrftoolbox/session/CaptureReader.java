@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.session;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.UUID;
+
+/**
+ * Reads the values captured by {@link CaptureWriter}, one by one:
+ * <pre>
+ * while (reader.next()) {
+ *     final UUID uuid = reader.getCharacteristicUuid();
+ *     final byte[] value = reader.getData();
+ * }
+ * </pre>
+ * The class is not thread safe.
+ */
+public class CaptureReader implements Closeable {
+	private static final int BUFFER_SIZE = 8 * 1024;
+
+	private final FileChannel mChannel;
+	private final ByteBuffer mBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+	private final long mStartTime;
+
+	private final UUID[] mServiceUuids = new UUID[CaptureWriter.MAX_CHARACTERISTICS];
+	private final UUID[] mCharacteristicUuids = new UUID[CaptureWriter.MAX_CHARACTERISTICS];
+	private final int[] mProperties = new int[CaptureWriter.MAX_CHARACTERISTICS];
+
+	private long mTimestamp;
+	private int mIndex = -1;
+	private boolean mIndication;
+	private byte[] mData;
+
+	/**
+	 * Opens the capture file.
+	 *
+	 * @param file the file written by {@link CaptureWriter}
+	 * @return the reader
+	 * @throws IOException if the file could not be opened or is not a capture file
+	 */
+	public static CaptureReader open(final File file) throws IOException {
+		final FileChannel channel = new FileInputStream(file).getChannel();
+		try {
+			return new CaptureReader(channel);
+		} catch (final IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Creates the reader and reads the header from the channel.
+	 *
+	 * @param channel the channel to read from, closed with the reader
+	 * @throws IOException if reading failed or the data is not a capture
+	 */
+	public CaptureReader(final FileChannel channel) throws IOException {
+		mChannel = channel;
+		mBuffer.flip(); // empty
+
+		require(4 + 1 + 8);
+		if (mBuffer.getInt() != CaptureWriter.MAGIC)
+			throw new IOException("Not a capture file");
+		final int version = mBuffer.get() & 0xFF;
+		if (version != CaptureWriter.VERSION)
+			throw new IOException("Unsupported capture version: " + version);
+		mStartTime = mTimestamp = mBuffer.getLong();
+	}
+
+	/** Returns the start time of the capture in milliseconds */
+	public long getStartTime() {
+		return mStartTime;
+	}
+
+	/**
+	 * Moves to the next captured value.
+	 *
+	 * @return true if there is a next value, false at the end of the capture
+	 * @throws IOException if reading failed or the file is corrupted
+	 */
+	public boolean next() throws IOException {
+		final ByteBuffer buffer = mBuffer;
+		while (fill(1)) {
+			final int tag = buffer.get() & 0xFF;
+			switch (tag) {
+				case CaptureWriter.TAG_DEFINITION: {
+					require(1 + 16 + 16 + 1);
+					final int index = buffer.get() & 0xFF;
+					mServiceUuids[index] = getUuid(buffer);
+					mCharacteristicUuids[index] = getUuid(buffer);
+					mProperties[index] = buffer.get() & 0xFF;
+					break;
+				}
+				case CaptureWriter.TAG_NOTIFICATION:
+				case CaptureWriter.TAG_INDICATION: {
+					require(4 + 1 + 2);
+					final int delta = buffer.getInt();
+					final int index = buffer.get() & 0xFF;
+					final int length = buffer.getShort() & 0xFFFF;
+					if (mCharacteristicUuids[index] == null)
+						throw new IOException("Undefined characteristic: " + index);
+					if (length > CaptureWriter.MAX_VALUE_LENGTH)
+						throw new IOException("Invalid value length: " + length);
+					require(length);
+					final byte[] data = new byte[length];
+					buffer.get(data);
+
+					mTimestamp += delta;
+					mIndex = index;
+					mIndication = tag == CaptureWriter.TAG_INDICATION;
+					mData = data;
+					return true;
+				}
+				default:
+					throw new IOException("Invalid record tag: " + tag);
+			}
+		}
+		mIndex = -1;
+		return false;
+	}
+
+	/** Returns the time the current value was received, in milliseconds */
+	public long getTimestamp() {
+		checkValue();
+		return mTimestamp;
+	}
+
+	/** Returns the UUID of the service of the current value's characteristic */
+	public UUID getServiceUuid() {
+		checkValue();
+		return mServiceUuids[mIndex];
+	}
+
+	/** Returns the UUID of the current value's characteristic */
+	public UUID getCharacteristicUuid() {
+		checkValue();
+		return mCharacteristicUuids[mIndex];
+	}
+
+	/** Returns the properties of the current value's characteristic */
+	public int getProperties() {
+		checkValue();
+		return mProperties[mIndex];
+	}
+
+	/** Returns true if the current value was indicated, false if notified */
+	public boolean isIndication() {
+		checkValue();
+		return mIndication;
+	}
+
+	/** Returns the current value. A new array is returned for each value. */
+	public byte[] getData() {
+		checkValue();
+		return mData;
+	}
+
+	@Override
+	public void close() throws IOException {
+		mChannel.close();
+	}
+
+	private void checkValue() {
+		if (mIndex < 0)
+			throw new IllegalStateException("No current value");
+	}
+
+	private void require(final int length) throws IOException {
+		if (!fill(length))
+			throw new EOFException("Capture file truncated");
+	}
+
+	/**
+	 * Reads from the channel until at least the given number of bytes is available.
+	 *
+	 * @return false if the end of file was reached before any byte was available, true if all bytes are available
+	 * @throws EOFException if the end of file was reached after some bytes
+	 */
+	private boolean fill(final int length) throws IOException {
+		final ByteBuffer buffer = mBuffer;
+		if (buffer.remaining() >= length)
+			return true;
+
+		buffer.compact();
+		try {
+			while (buffer.position() < length) {
+				if (mChannel.read(buffer) < 0) {
+					if (buffer.position() == 0)
+						return false;
+					throw new EOFException("Capture file truncated");
+				}
+			}
+		} finally {
+			buffer.flip();
+		}
+		return true;
+	}
+
+	private static UUID getUuid(final ByteBuffer buffer) {
+		final long msb = buffer.getLong();
+		final long lsb = buffer.getLong();
+		return new UUID(msb, lsb);
+	}
+}
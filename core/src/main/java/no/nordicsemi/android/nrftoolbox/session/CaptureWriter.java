@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.session;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Writes raw characteristic notifications and indications, with the time they were received, to a capture file that may be replayed later.
+ * See {@link CaptureReader}.
+ * <p>
+ * The file starts with the {@link #MAGIC} number, the {@link #VERSION} and the start time. It is followed by records, each starting with a tag byte.
+ * A {@link #TAG_DEFINITION} record, written before the first value of each characteristic, contains the characteristic index, the service and
+ * characteristic UUIDs and the characteristic properties. A {@link #TAG_NOTIFICATION} or {@link #TAG_INDICATION} record contains the time difference in
+ * milliseconds from the previous value (or the start time), the characteristic index and the value prefixed with its length as an unsigned short.
+ * All numbers are big-endian.
+ * </p>
+ * The class is not thread safe.
+ */
+public class CaptureWriter implements Closeable {
+	/** The first 4 bytes of a capture file, "NTCP" */
+	static final int MAGIC = 0x4E544350;
+	/** The version of the file format */
+	static final int VERSION = 1;
+
+	static final int TAG_DEFINITION = 0;
+	static final int TAG_NOTIFICATION = 1;
+	static final int TAG_INDICATION = 2;
+
+	/** The maximum number of characteristics in a capture */
+	static final int MAX_CHARACTERISTICS = 0xFF;
+	/** The maximum length of a value */
+	static final int MAX_VALUE_LENGTH = 512;
+
+	private static final int BUFFER_SIZE = 8 * 1024;
+
+	private final FileChannel mChannel;
+	private final ByteBuffer mBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+	/** Indexes of characteristics defined so far */
+	private final Map<UUID, Integer> mIndexes = new HashMap<>();
+	private long mLastTimestamp;
+
+	/**
+	 * Creates the capture file, overwriting an existing one.
+	 *
+	 * @param file the file to write to
+	 * @return the writer
+	 * @throws IOException if the file could not be created
+	 */
+	public static CaptureWriter create(final File file) throws IOException {
+		final FileChannel channel = new FileOutputStream(file).getChannel();
+		try {
+			return new CaptureWriter(channel, System.currentTimeMillis());
+		} catch (final IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Creates the writer and writes the header to the channel.
+	 *
+	 * @param channel   the channel to write to, closed with the writer
+	 * @param startTime the start time of the capture in milliseconds
+	 * @throws IOException if the header could not be written
+	 */
+	public CaptureWriter(final FileChannel channel, final long startTime) throws IOException {
+		mChannel = channel;
+		mLastTimestamp = startTime;
+
+		final ByteBuffer buffer = mBuffer;
+		buffer.putInt(MAGIC);
+		buffer.put((byte) VERSION);
+		buffer.putLong(startTime);
+		flush();
+	}
+
+	/**
+	 * Adds a received value. The values are written when the buffer is full, or on {@link #flush()}.
+	 *
+	 * @param timestamp          the time the value was received in milliseconds, not earlier than 24 days before the previous one
+	 * @param serviceUuid        the UUID of the service of the characteristic
+	 * @param characteristicUuid the characteristic UUID
+	 * @param properties         the characteristic properties, as returned by {@code BluetoothGattCharacteristic.getProperties()}
+	 * @param indication         true if the value was indicated, false if notified
+	 * @param data               the value
+	 * @throws IOException if writing failed
+	 */
+	public void add(final long timestamp, final UUID serviceUuid, final UUID characteristicUuid, final int properties, final boolean indication,
+					final byte[] data) throws IOException {
+		if (data.length > MAX_VALUE_LENGTH)
+			throw new IllegalArgumentException("Value too long: " + data.length);
+		final long delta = timestamp - mLastTimestamp;
+		if (delta > Integer.MAX_VALUE || delta < Integer.MIN_VALUE)
+			throw new IllegalArgumentException("Time difference too big: " + delta);
+
+		Integer index = mIndexes.get(characteristicUuid);
+		if (index == null) {
+			if (mIndexes.size() == MAX_CHARACTERISTICS)
+				throw new IllegalArgumentException("Too many characteristics");
+			index = mIndexes.size();
+			mIndexes.put(characteristicUuid, index);
+
+			ensureRemaining(1 + 1 + 16 + 16 + 1);
+			final ByteBuffer buffer = mBuffer;
+			buffer.put((byte) TAG_DEFINITION);
+			buffer.put(index.byteValue());
+			putUuid(buffer, serviceUuid);
+			putUuid(buffer, characteristicUuid);
+			buffer.put((byte) properties);
+		}
+
+		ensureRemaining(1 + 4 + 1 + 2 + data.length);
+		final ByteBuffer buffer = mBuffer;
+		buffer.put((byte) (indication ? TAG_INDICATION : TAG_NOTIFICATION));
+		buffer.putInt((int) delta);
+		buffer.put(index.byteValue());
+		buffer.putShort((short) data.length);
+		buffer.put(data);
+		mLastTimestamp = timestamp;
+	}
+
+	/**
+	 * Writes the buffered records.
+	 *
+	 * @throws IOException if writing failed
+	 */
+	public void flush() throws IOException {
+		final ByteBuffer buffer = mBuffer;
+		buffer.flip();
+		while (buffer.hasRemaining())
+			mChannel.write(buffer);
+		buffer.clear();
+	}
+
+	/**
+	 * Writes the buffered records and closes the channel.
+	 *
+	 * @throws IOException if writing failed
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			flush();
+		} finally {
+			mChannel.close();
+		}
+	}
+
+	private void ensureRemaining(final int length) throws IOException {
+		if (mBuffer.remaining() < length)
+			flush();
+	}
+
+	private static void putUuid(final ByteBuffer buffer, final UUID uuid) {
+		buffer.putLong(uuid.getMostSignificantBits());
+		buffer.putLong(uuid.getLeastSignificantBits());
+	}
+}
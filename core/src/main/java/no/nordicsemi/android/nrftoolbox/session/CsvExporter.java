@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.session;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Exports a session to CSV. The first column contains the time in milliseconds, the following ones the values of the session columns.
+ * Missing values are left empty.
+ */
+public class CsvExporter {
+
+	/**
+	 * Writes the header line and all remaining rows of the session. The writer is not closed.
+	 *
+	 * @param reader the session reader, positioned before the first row to be exported
+	 * @param writer the writer, preferably buffered
+	 * @return the number of rows written
+	 * @throws IOException if reading the session or writing failed
+	 */
+	public static int export(final SessionReader reader, final Writer writer) throws IOException {
+		final int columnCount = reader.getColumnCount();
+
+		writer.write("timestamp");
+		for (int i = 0; i < columnCount; ++i) {
+			writer.write(',');
+			writer.write(reader.getColumnName(i));
+		}
+		writer.write('\n');
+
+		int rows = 0;
+		while (reader.next()) {
+			writer.write(Long.toString(reader.getTimestamp()));
+			for (int i = 0; i < columnCount; ++i) {
+				writer.write(',');
+				final float value = reader.getValue(i);
+				if (!Float.isNaN(value))
+					writer.write(Float.toString(value));
+			}
+			writer.write('\n');
+			rows++;
+		}
+		return rows;
+	}
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.session;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Keeps the folder with recorded sessions within a size limit by deleting the oldest files.
+ */
+public class SessionFolder {
+
+	/**
+	 * Deletes the least recently modified files in the folder until the total size of the remaining ones is not greater than maxSize.
+	 * Subfolders are not touched.
+	 *
+	 * @param folder  the folder with session files
+	 * @param maxSize the maximum total size of the files in bytes
+	 * @return the number of files deleted
+	 */
+	public static int trim(final File folder, final long maxSize) {
+		final File[] files = folder.listFiles();
+		if (files == null)
+			return 0;
+
+		long size = 0;
+		for (final File file : files)
+			if (file.isFile())
+				size += file.length();
+		if (size <= maxSize)
+			return 0;
+
+		Arrays.sort(files, new Comparator<File>() {
+			@Override
+			public int compare(final File lhs, final File rhs) {
+				final long lhsModified = lhs.lastModified();
+				final long rhsModified = rhs.lastModified();
+				return lhsModified < rhsModified ? -1 : (lhsModified == rhsModified ? lhs.getName().compareTo(rhs.getName()) : 1);
+			}
+		});
+
+		int deleted = 0;
+		for (int i = 0; i < files.length && size > maxSize; ++i) {
+			final File file = files[i];
+			if (!file.isFile())
+				continue;
+			final long length = file.length();
+			if (file.delete()) {
+				size -= length;
+				deleted++;
+			}
+		}
+		return deleted;
+	}
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.session;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads a session written by {@link SessionWriter}, row by row:
+ * <pre>
+ * while (reader.next()) {
+ *     final long time = reader.getTimestamp();
+ *     final float value = reader.getValue(0);
+ * }
+ * </pre>
+ * Only one block of rows is kept in memory at a time. The class is not thread safe.
+ */
+public class SessionReader implements Closeable {
+	private final FileChannel mChannel;
+	private final String mProfile;
+	private final String[] mColumnNames;
+	private final long mStartTime;
+
+	private ByteBuffer mBuffer;
+	private long[] mTimestamps;
+	private float[][] mColumns;
+	private int mRowCount;
+	/** Index of the current row in the block, -1 before the first {@link #next()} */
+	private int mRow = -1;
+	private long mLastTimestamp;
+
+	/**
+	 * Opens the session file.
+	 *
+	 * @param file the file written by {@link SessionWriter}
+	 * @return the reader
+	 * @throws IOException if the file could not be opened or is not a session file
+	 */
+	public static SessionReader open(final File file) throws IOException {
+		final FileChannel channel = new FileInputStream(file).getChannel();
+		try {
+			return new SessionReader(channel);
+		} catch (final IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Creates the reader and reads the header from the channel.
+	 *
+	 * @param channel the channel to read from, closed with the reader
+	 * @throws IOException if reading failed or the data is not a session
+	 */
+	public SessionReader(final FileChannel channel) throws IOException {
+		mChannel = channel;
+		mBuffer = ByteBuffer.allocate(4 * 1024);
+
+		ByteBuffer buffer = read(4 + 1 + 2);
+		if (buffer.getInt() != SessionWriter.MAGIC)
+			throw new IOException("Not a session file");
+		final int version = buffer.get() & 0xFF;
+		if (version != SessionWriter.VERSION)
+			throw new IOException("Unsupported session version: " + version);
+		mProfile = readString(buffer.getShort() & 0xFFFF);
+
+		final int columnCount = read(1).get() & 0xFF;
+		mColumnNames = new String[columnCount];
+		for (int i = 0; i < columnCount; ++i)
+			mColumnNames[i] = readString(read(2).getShort() & 0xFFFF);
+		mStartTime = mLastTimestamp = read(8).getLong();
+
+		mTimestamps = new long[0];
+		mColumns = new float[columnCount][0];
+	}
+
+	/** Returns the profile name */
+	public String getProfile() {
+		return mProfile;
+	}
+
+	/** Returns the start time of the session in milliseconds */
+	public long getStartTime() {
+		return mStartTime;
+	}
+
+	/** Returns the number of columns */
+	public int getColumnCount() {
+		return mColumnNames.length;
+	}
+
+	/**
+	 * Returns the name of the column.
+	 *
+	 * @param column the column index
+	 */
+	public String getColumnName(final int column) {
+		return mColumnNames[column];
+	}
+
+	/**
+	 * Moves to the next row.
+	 *
+	 * @return true if there is a next row, false at the end of the session
+	 * @throws IOException if reading failed or the file is truncated
+	 */
+	public boolean next() throws IOException {
+		if (mRow + 1 < mRowCount) {
+			mRow++;
+			return true;
+		}
+		if (!readBlock())
+			return false;
+		mRow = 0;
+		return true;
+	}
+
+	/** Returns the time of the current row in milliseconds */
+	public long getTimestamp() {
+		checkRow();
+		return mTimestamps[mRow];
+	}
+
+	/**
+	 * Returns the value of the column in the current row.
+	 *
+	 * @param column the column index
+	 * @return the value, {@link Float#NaN} if not available
+	 */
+	public float getValue(final int column) {
+		checkRow();
+		return mColumns[column][mRow];
+	}
+
+	@Override
+	public void close() throws IOException {
+		mChannel.close();
+	}
+
+	private void checkRow() {
+		if (mRow < 0 || mRow >= mRowCount)
+			throw new IllegalStateException("No current row");
+	}
+
+	private boolean readBlock() throws IOException {
+		final ByteBuffer countBuffer = ensureCapacity(4);
+		countBuffer.limit(4);
+		if (!fill(countBuffer, true))
+			return false;
+		countBuffer.flip();
+		final int rowCount = countBuffer.getInt();
+		if (rowCount <= 0)
+			throw new IOException("Invalid block size: " + rowCount);
+
+		final int columnCount = mColumnNames.length;
+		final ByteBuffer buffer = read(rowCount * 4 * (1 + columnCount));
+		if (mTimestamps.length < rowCount) {
+			mTimestamps = new long[rowCount];
+			for (int i = 0; i < columnCount; ++i)
+				mColumns[i] = new float[rowCount];
+		}
+		long timestamp = mLastTimestamp;
+		for (int row = 0; row < rowCount; ++row)
+			mTimestamps[row] = timestamp += buffer.getInt();
+		mLastTimestamp = timestamp;
+		for (int i = 0; i < columnCount; ++i) {
+			final float[] column = mColumns[i];
+			for (int row = 0; row < rowCount; ++row)
+				column[row] = buffer.getFloat();
+		}
+		mRowCount = rowCount;
+		return true;
+	}
+
+	/**
+	 * Reads exactly the given number of bytes and returns the buffer ready to get them.
+	 */
+	private ByteBuffer read(final int length) throws IOException {
+		final ByteBuffer buffer = ensureCapacity(length);
+		buffer.limit(length);
+		fill(buffer, false);
+		buffer.flip();
+		return buffer;
+	}
+
+	private String readString(final int length) throws IOException {
+		final ByteBuffer buffer = read(length);
+		return new String(buffer.array(), 0, length, SessionWriter.UTF_8);
+	}
+
+	private ByteBuffer ensureCapacity(final int length) {
+		if (mBuffer.capacity() < length)
+			mBuffer = ByteBuffer.allocate(length);
+		mBuffer.clear();
+		return mBuffer;
+	}
+
+	/**
+	 * Fills the buffer up to its limit.
+	 *
+	 * @param allowEnd true if the end of the file before the first byte is not an error
+	 * @return false if the end of file was reached before the first byte and allowEnd was true
+	 */
+	private boolean fill(final ByteBuffer buffer, final boolean allowEnd) throws IOException {
+		while (buffer.hasRemaining()) {
+			if (mChannel.read(buffer) < 0) {
+				if (allowEnd && buffer.position() == 0)
+					return false;
+				throw new EOFException("Session file truncated");
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.session;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Writes decoded samples of a session to a compact columnar binary file, which may be read with {@link SessionReader} and exported with {@link CsvExporter}.
+ * <p>
+ * The file starts with a header: the {@link #MAGIC} number, the {@link #VERSION}, the profile name, the column names and the start time.
+ * Samples are buffered and written in blocks. Each block contains the number of rows, the time of each row as a difference in milliseconds from the previous
+ * row (or the start time) and then the values of each column, one column after another. All numbers are big-endian, strings are prefixed with their
+ * UTF-8 length as an unsigned short. A missing value is stored as {@link Float#NaN}.
+ * </p>
+ * The class is not thread safe.
+ */
+public class SessionWriter implements Closeable {
+	/** The first 4 bytes of a session file, "NTSS" */
+	static final int MAGIC = 0x4E545353;
+	/** The version of the file format */
+	static final int VERSION = 1;
+	static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	/** The default number of rows in a block */
+	public static final int DEFAULT_BLOCK_SIZE = 256;
+
+	private final FileChannel mChannel;
+	private final ByteBuffer mBuffer;
+	private final int[] mTimeDeltas;
+	private final float[][] mColumns;
+	private int mRowCount;
+	private long mLastTimestamp;
+
+	/**
+	 * Creates the session file, overwriting an existing one.
+	 *
+	 * @param file    the file to write to
+	 * @param profile the profile name, f.e. "HRS"
+	 * @param columns the column names, one for each metric
+	 * @return the writer
+	 * @throws IOException if the file could not be created
+	 */
+	public static SessionWriter create(final File file, final String profile, final String... columns) throws IOException {
+		final FileChannel channel = new FileOutputStream(file).getChannel();
+		try {
+			return new SessionWriter(channel, DEFAULT_BLOCK_SIZE, profile, System.currentTimeMillis(), columns);
+		} catch (final IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Creates the writer and writes the header to the channel.
+	 *
+	 * @param channel   the channel to write to, closed with the writer
+	 * @param blockSize the number of rows buffered before they are written
+	 * @param profile   the profile name
+	 * @param startTime the start time of the session in milliseconds
+	 * @param columns   the column names, at most 255
+	 * @throws IOException if the header could not be written
+	 */
+	public SessionWriter(final FileChannel channel, final int blockSize, final String profile, final long startTime, final String... columns) throws IOException {
+		if (blockSize < 1)
+			throw new IllegalArgumentException("Block size must be positive");
+		if (columns.length > 0xFF)
+			throw new IllegalArgumentException("Too many columns: " + columns.length);
+
+		mChannel = channel;
+		mTimeDeltas = new int[blockSize];
+		mColumns = new float[columns.length][blockSize];
+		mLastTimestamp = startTime;
+
+		final byte[][] names = new byte[columns.length + 1][];
+		int headerSize = 4 + 1 + 1 + 8;
+		names[0] = profile.getBytes(UTF_8);
+		for (int i = 0; i < columns.length; ++i)
+			names[i + 1] = columns[i].getBytes(UTF_8);
+		for (final byte[] name : names)
+			headerSize += 2 + name.length;
+
+		final ByteBuffer header = ByteBuffer.allocate(headerSize);
+		header.putInt(MAGIC);
+		header.put((byte) VERSION);
+		putString(header, names[0]);
+		header.put((byte) columns.length);
+		for (int i = 1; i < names.length; ++i)
+			putString(header, names[i]);
+		header.putLong(startTime);
+		header.flip();
+		write(header);
+
+		mBuffer = ByteBuffer.allocate(4 + blockSize * 4 * (1 + columns.length));
+	}
+
+	/** Returns the number of columns */
+	public int getColumnCount() {
+		return mColumns.length;
+	}
+
+	/**
+	 * Adds a row. The row is written when the block is full, or on {@link #flush()}.
+	 *
+	 * @param timestamp the time of the sample in milliseconds, not earlier than 24 days before the previous one
+	 * @param values    the value of each column, {@link Float#NaN} if not available
+	 * @throws IOException if the block could not be written
+	 */
+	public void add(final long timestamp, final float... values) throws IOException {
+		if (values.length != mColumns.length)
+			throw new IllegalArgumentException("Expected " + mColumns.length + " values, got " + values.length);
+		final long delta = timestamp - mLastTimestamp;
+		if (delta > Integer.MAX_VALUE || delta < Integer.MIN_VALUE)
+			throw new IllegalArgumentException("Time difference too big: " + delta);
+
+		final int row = mRowCount;
+		mTimeDeltas[row] = (int) delta;
+		for (int i = 0; i < values.length; ++i)
+			mColumns[i][row] = values[i];
+		mLastTimestamp = timestamp;
+		mRowCount = row + 1;
+
+		if (mRowCount == mTimeDeltas.length)
+			flush();
+	}
+
+	/**
+	 * Writes the buffered rows as a block.
+	 *
+	 * @throws IOException if writing failed
+	 */
+	public void flush() throws IOException {
+		final int rowCount = mRowCount;
+		if (rowCount == 0)
+			return;
+
+		final ByteBuffer buffer = mBuffer;
+		buffer.clear();
+		buffer.putInt(rowCount);
+		for (int row = 0; row < rowCount; ++row)
+			buffer.putInt(mTimeDeltas[row]);
+		for (final float[] column : mColumns)
+			for (int row = 0; row < rowCount; ++row)
+				buffer.putFloat(column[row]);
+		buffer.flip();
+		mRowCount = 0;
+		write(buffer);
+	}
+
+	/**
+	 * Writes the buffered rows and closes the channel.
+	 *
+	 * @throws IOException if writing failed
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			flush();
+		} finally {
+			mChannel.close();
+		}
+	}
+
+	private void write(final ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining())
+			mChannel.write(buffer);
+	}
+
+	private static void putString(final ByteBuffer buffer, final byte[] value) {
+		if (value.length > 0xFFFF)
+			throw new IllegalArgumentException("Name too long");
+		buffer.putShort((short) value.length);
+		buffer.put(value);
+	}
+}
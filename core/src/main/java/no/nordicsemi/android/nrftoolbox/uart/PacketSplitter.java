@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.uart;
+
+/**
+ * Splits outgoing messages into packets that fit into a single write without response, that is up to (MTU - 3) bytes.
+ * The class does not depend on the Android API.
+ */
+public final class PacketSplitter {
+
+	private PacketSplitter() {
+		// utility class
+	}
+
+	/**
+	 * Returns the number of packets needed to send a message of given length.
+	 *
+	 * @param length        the message length in bytes
+	 * @param maxPacketSize the maximum packet size, MTU - 3
+	 * @return the number of packets
+	 */
+	public static int getPacketCount(final int length, final int maxPacketSize) {
+		return (length + maxPacketSize - 1) / maxPacketSize;
+	}
+
+	/**
+	 * Copies the packet starting at given offset of the message.
+	 *
+	 * @param message       the message
+	 * @param offset        the offset of the packet in the message
+	 * @param maxPacketSize the maximum packet size, MTU - 3
+	 * @return the packet, shorter than maxPacketSize if it's the last one
+	 */
+	public static byte[] getPacket(final byte[] message, final int offset, final int maxPacketSize) {
+		final int length = Math.min(message.length - offset, maxPacketSize);
+		final byte[] packet = new byte[length];
+		System.arraycopy(message, offset, packet, 0, length);
+		return packet;
+	}
+}
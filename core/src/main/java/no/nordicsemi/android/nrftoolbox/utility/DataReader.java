@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.utility;
+
+/**
+ * Little-endian decoder for the values used by the Bluetooth SIG profiles. It is a primitive-only replacement for
+ * {@code BluetoothGattCharacteristic.getIntValue(int, int)} and
+ * {@code BluetoothGattCharacteristic.getFloatValue(int, int)}, which box every value they return.
+ * <p>
+ * The static methods read from an absolute offset. A DataReader instance is a cursor over a byte array that advances by the size of each read
+ * value. One instance may be kept by a manager and {@link #reset(byte[])} for every notification, so that decoding does not allocate any objects.
+ * Reading past the end of the data throws {@link ArrayIndexOutOfBoundsException}.
+ * </p>
+ */
+public class DataReader {
+	/** Mantissa values with a special meaning in IEEE-11073 16-bit SFLOAT */
+	private static final int SFLOAT_NAN = 0x07FF;
+	private static final int SFLOAT_NRES = 0x0800;
+	private static final int SFLOAT_POSITIVE_INFINITY = 0x07FE;
+	private static final int SFLOAT_NEGATIVE_INFINITY = 0x0802;
+	private static final int SFLOAT_RESERVED = 0x0801;
+
+	/** Mantissa values with a special meaning in IEEE-11073 32-bit FLOAT */
+	private static final int FLOAT_NAN = 0x007FFFFF;
+	private static final int FLOAT_NRES = 0x00800000;
+	private static final int FLOAT_POSITIVE_INFINITY = 0x007FFFFE;
+	private static final int FLOAT_NEGATIVE_INFINITY = 0x00800002;
+	private static final int FLOAT_RESERVED = 0x00800001;
+
+	/** Powers of 10 for exponents -8..7, the whole range of the 4-bit SFLOAT exponent */
+	private static final double[] POWERS_OF_TEN = { 1e-8, 1e-7, 1e-6, 1e-5, 1e-4, 1e-3, 1e-2, 1e-1, 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7 };
+	private static final int POWERS_OF_TEN_OFFSET = 8;
+
+	private byte[] mData;
+	private int mOffset;
+
+	public DataReader() {
+		// use reset(...) to set the data
+	}
+
+	public DataReader(final byte[] data) {
+		reset(data, 0);
+	}
+
+	/**
+	 * Sets the data to be read and moves the cursor to the first byte.
+	 *
+	 * @param data the characteristic or descriptor value
+	 * @return this reader
+	 */
+	public DataReader reset(final byte[] data) {
+		return reset(data, 0);
+	}
+
+	/**
+	 * Sets the data to be read and moves the cursor to the given offset.
+	 *
+	 * @param data   the characteristic or descriptor value
+	 * @param offset the offset of the first value to read
+	 * @return this reader
+	 */
+	public DataReader reset(final byte[] data, final int offset) {
+		mData = data;
+		mOffset = offset;
+		return this;
+	}
+
+	public int getOffset() {
+		return mOffset;
+	}
+
+	public void setOffset(final int offset) {
+		mOffset = offset;
+	}
+
+	/**
+	 * Moves the cursor by the given number of bytes without reading them.
+	 */
+	public void skip(final int bytes) {
+		mOffset += bytes;
+	}
+
+	/**
+	 * Returns the number of bytes between the cursor and the end of the data.
+	 */
+	public int remaining() {
+		return mData == null ? 0 : mData.length - mOffset;
+	}
+
+	public int getUint8() {
+		return uint8(mData, mOffset++);
+	}
+
+	public int getUint16() {
+		final int value = uint16(mData, mOffset);
+		mOffset += 2;
+		return value;
+	}
+
+	public int getUint24() {
+		final int value = uint24(mData, mOffset);
+		mOffset += 3;
+		return value;
+	}
+
+	/**
+	 * Reads UINT32 value. Values above {@link Integer#MAX_VALUE} are returned as negative numbers, the same way as
+	 * {@code BluetoothGattCharacteristic.getIntValue(int, int)} does. Use {@link #getUint32AsLong()} if they are expected.
+	 */
+	public int getUint32() {
+		final int value = uint32(mData, mOffset);
+		mOffset += 4;
+		return value;
+	}
+
+	public long getUint32AsLong() {
+		return getUint32() & 0xFFFFFFFFL;
+	}
+
+	public int getSint8() {
+		return sint8(mData, mOffset++);
+	}
+
+	public int getSint16() {
+		final int value = sint16(mData, mOffset);
+		mOffset += 2;
+		return value;
+	}
+
+	public int getSint24() {
+		final int value = sint24(mData, mOffset);
+		mOffset += 3;
+		return value;
+	}
+
+	public int getSint32() {
+		final int value = uint32(mData, mOffset);
+		mOffset += 4;
+		return value;
+	}
+
+	public float getSFloat() {
+		final float value = sfloat(mData, mOffset);
+		mOffset += 2;
+		return value;
+	}
+
+	public float getFloat() {
+		final float value = float32(mData, mOffset);
+		mOffset += 4;
+		return value;
+	}
+
+	/**
+	 * Returns true if all bits from the mask are set in the flags.
+	 */
+	public static boolean isSet(final int flags, final int mask) {
+		return (flags & mask) == mask;
+	}
+
+	public static int uint8(final byte[] data, final int offset) {
+		return data[offset] & 0xFF;
+	}
+
+	public static int uint16(final byte[] data, final int offset) {
+		return (data[offset] & 0xFF) | ((data[offset + 1] & 0xFF) << 8);
+	}
+
+	public static int uint24(final byte[] data, final int offset) {
+		return (data[offset] & 0xFF) | ((data[offset + 1] & 0xFF) << 8) | ((data[offset + 2] & 0xFF) << 16);
+	}
+
+	public static int uint32(final byte[] data, final int offset) {
+		return (data[offset] & 0xFF) | ((data[offset + 1] & 0xFF) << 8) | ((data[offset + 2] & 0xFF) << 16) | ((data[offset + 3] & 0xFF) << 24);
+	}
+
+	public static int sint8(final byte[] data, final int offset) {
+		return data[offset];
+	}
+
+	public static int sint16(final byte[] data, final int offset) {
+		return (data[offset] & 0xFF) | (data[offset + 1] << 8);
+	}
+
+	public static int sint24(final byte[] data, final int offset) {
+		return (data[offset] & 0xFF) | ((data[offset + 1] & 0xFF) << 8) | (data[offset + 2] << 16);
+	}
+
+	/**
+	 * Decodes IEEE-11073 16-bit SFLOAT: 4-bit signed exponent and 12-bit signed mantissa. NaN, NRes and the reserved value are returned as
+	 * {@link Float#NaN}.
+	 */
+	public static float sfloat(final byte[] data, final int offset) {
+		final int raw = uint16(data, offset);
+		final int mantissa = raw & 0x0FFF;
+		switch (mantissa) {
+			case SFLOAT_NAN:
+			case SFLOAT_NRES:
+			case SFLOAT_RESERVED:
+				return Float.NaN;
+			case SFLOAT_POSITIVE_INFINITY:
+				return Float.POSITIVE_INFINITY;
+			case SFLOAT_NEGATIVE_INFINITY:
+				return Float.NEGATIVE_INFINITY;
+		}
+		final int exponent = ((short) raw) >> 12; // sign-extended upper nibble
+		final int signedMantissa = (mantissa << 20) >> 20;
+		return (float) (signedMantissa * POWERS_OF_TEN[exponent + POWERS_OF_TEN_OFFSET]);
+	}
+
+	/**
+	 * Decodes IEEE-11073 32-bit FLOAT: 8-bit signed exponent and 24-bit signed mantissa. NaN, NRes and the reserved value are returned as
+	 * {@link Float#NaN}.
+	 */
+	public static float float32(final byte[] data, final int offset) {
+		final int mantissa = uint24(data, offset);
+		switch (mantissa) {
+			case FLOAT_NAN:
+			case FLOAT_NRES:
+			case FLOAT_RESERVED:
+				return Float.NaN;
+			case FLOAT_POSITIVE_INFINITY:
+				return Float.POSITIVE_INFINITY;
+			case FLOAT_NEGATIVE_INFINITY:
+				return Float.NEGATIVE_INFINITY;
+		}
+		final int exponent = data[offset + 3];
+		final int signedMantissa = (mantissa << 8) >> 8;
+		final int index = exponent + POWERS_OF_TEN_OFFSET;
+		final double multiplier = index >= 0 && index < POWERS_OF_TEN.length ? POWERS_OF_TEN[index] : Math.pow(10, exponent);
+		return (float) (signedMantissa * multiplier);
+	}
+}
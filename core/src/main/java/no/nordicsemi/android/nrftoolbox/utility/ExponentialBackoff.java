@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.utility;
+
+import java.util.Random;
+
+/**
+ * Computes the delays between consecutive reconnection attempts. The delay starts at the initial value and is doubled after each attempt, up to the
+ * maximum delay. Each delay is randomized by the jitter fraction, so that many devices lost at the same time (e.g. when the phone has been taken
+ * out of range) are not reconnected in lockstep.
+ * <p>
+ * The backoff allows a limited number of attempts. When they have been used, {@link #hasAttemptsLeft()} returns false and {@link #nextDelay()}
+ * keeps returning the maximum delay, so that the caller may switch to another, slower strategy. Call {@link #reset()} when the connection has been
+ * established again.
+ * </p>
+ */
+public class ExponentialBackoff {
+	private final long mInitialDelay;
+	private final long mMaxDelay;
+	private final int mMaxAttempts;
+	private final float mJitter;
+	private final Random mRandom;
+	private int mAttempt;
+
+	/**
+	 * Creates the backoff.
+	 *
+	 * @param initialDelay the delay before the first attempt in milliseconds
+	 * @param maxDelay     the maximum delay in milliseconds
+	 * @param maxAttempts  the number of attempts before {@link #hasAttemptsLeft()} returns false
+	 * @param jitter       the fraction of the delay by which it may be randomly decreased or increased, from 0 to 1
+	 */
+	public ExponentialBackoff(final long initialDelay, final long maxDelay, final int maxAttempts, final float jitter) {
+		this(initialDelay, maxDelay, maxAttempts, jitter, new Random());
+	}
+
+	/**
+	 * Creates the backoff using given random number generator for the jitter.
+	 */
+	public ExponentialBackoff(final long initialDelay, final long maxDelay, final int maxAttempts, final float jitter, final Random random) {
+		if (initialDelay < 0 || maxDelay < initialDelay)
+			throw new IllegalArgumentException("Invalid delays: " + initialDelay + " - " + maxDelay);
+		if (jitter < 0 || jitter > 1)
+			throw new IllegalArgumentException("Jitter must be between 0 and 1: " + jitter);
+		mInitialDelay = initialDelay;
+		mMaxDelay = maxDelay;
+		mMaxAttempts = maxAttempts;
+		mJitter = jitter;
+		mRandom = random;
+	}
+
+	/**
+	 * Returns the delay before the next attempt and counts the attempt.
+	 *
+	 * @return the delay in milliseconds, with the jitter applied
+	 */
+	public long nextDelay() {
+		long delay = mInitialDelay;
+		for (int i = 0; i < mAttempt && delay < mMaxDelay; ++i)
+			delay <<= 1;
+		delay = Math.min(delay, mMaxDelay);
+		if (mAttempt < Integer.MAX_VALUE)
+			mAttempt++;
+
+		if (mJitter > 0)
+			delay += (long) (delay * mJitter * (2 * mRandom.nextFloat() - 1));
+		return Math.max(0, delay);
+	}
+
+	/**
+	 * Returns true if less than the maximum number of attempts has been made since the last {@link #reset()}.
+	 */
+	public boolean hasAttemptsLeft() {
+		return mAttempt < mMaxAttempts;
+	}
+
+	/**
+	 * Returns the number of attempts made since the last {@link #reset()}.
+	 */
+	public int getAttempt() {
+		return mAttempt;
+	}
+
+	/**
+	 * Starts counting the attempts from the beginning, with the initial delay.
+	 */
+	public void reset() {
+		mAttempt = 0;
+	}
+}
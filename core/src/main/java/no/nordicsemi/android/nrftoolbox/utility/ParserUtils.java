@@ -22,21 +22,10 @@
 
 package no.nordicsemi.android.nrftoolbox.utility;
 
-import android.bluetooth.BluetoothGattCharacteristic;
-import android.bluetooth.BluetoothGattDescriptor;
-
 public class ParserUtils {
 	final private static char[] HEX_ARRAY = "0123456789ABCDEF".toCharArray();
 
 
-	public static String parse(final BluetoothGattCharacteristic characteristic) {
-		return parse(characteristic.getValue());
-	}
-
-	public static String parse(final BluetoothGattDescriptor descriptor) {
-		return parse(descriptor.getValue());
-	}
-
 	public static String parse(final byte[] data) {
 		if (data == null || data.length == 0)
 			return "";
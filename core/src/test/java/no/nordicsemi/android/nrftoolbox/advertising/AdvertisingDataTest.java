@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.advertising;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class AdvertisingDataTest {
+	private static final UUID HEART_RATE_SERVICE = UUID.fromString("0000180D-0000-1000-8000-00805f9b34fb");
+	private static final UUID BATTERY_SERVICE = UUID.fromString("0000180F-0000-1000-8000-00805f9b34fb");
+	private static final UUID UART_SERVICE = UUID.fromString("6E400001-B5A3-F393-E0A9-E50E24DCCA9E");
+
+	private static byte[] bytes(final int... values) {
+		final byte[] bytes = new byte[values.length];
+		for (int i = 0; i < values.length; ++i)
+			bytes[i] = (byte) values[i];
+		return bytes;
+	}
+
+	@Test
+	public void allStructuresAreDecoded() {
+		final byte[] payload = bytes(
+				0x02, 0x01, 0x06, // flags
+				0x05, 0x03, 0x0D, 0x18, 0x0F, 0x18, // complete list of 16-bit UUIDs
+				0x05, 0x09, 'T', 'e', 's', 't', // complete local name
+				0x02, 0x0A, 0xF4, // TX power level
+				0x04, 0x16, 0x0F, 0x18, 0x64, // service data
+				0x05, 0xFF, 0x59, 0x00, 0x01, 0x02); // manufacturer specific data
+		final AdvertisingData data = AdvertisingData.parse(payload);
+
+		assertEquals(0x06, data.getFlags());
+		assertEquals(Arrays.asList(HEART_RATE_SERVICE, BATTERY_SERVICE), data.getServiceUuids());
+		assertEquals("Test", data.getLocalName());
+		assertEquals(-12, data.getTxPowerLevel());
+		assertArrayEquals(bytes(0x64), data.getServiceData(BATTERY_SERVICE));
+		assertArrayEquals(bytes(0x01, 0x02), data.getManufacturerData(0x0059));
+		assertEquals(payload, data.getBytes());
+	}
+
+	@Test
+	public void longUuidsAreDecoded() {
+		final AdvertisingData data = AdvertisingData.parse(bytes(
+				0x05, 0x05, 0x78, 0x56, 0x34, 0x12,
+				0x11, 0x07, 0x9E, 0xCA, 0xDC, 0x24, 0x0E, 0xE5, 0xA9, 0xE0, 0x93, 0xF3, 0xA3, 0xB5, 0x01, 0x00, 0x40, 0x6E));
+		assertEquals(Arrays.asList(UUID.fromString("12345678-0000-1000-8000-00805f9b34fb"), UART_SERVICE), data.getServiceUuids());
+	}
+
+	@Test
+	public void completeNameIsPreferred() {
+		assertEquals("Full", AdvertisingData.parse(bytes(0x03, 0x08, 'F', 'u', 0x05, 0x09, 'F', 'u', 'l', 'l')).getLocalName());
+		assertEquals("Full", AdvertisingData.parse(bytes(0x05, 0x09, 'F', 'u', 'l', 'l', 0x03, 0x08, 'F', 'u')).getLocalName());
+	}
+
+	@Test
+	public void missingValues() {
+		final AdvertisingData data = AdvertisingData.parse(new byte[0]);
+		assertEquals(AdvertisingData.FLAGS_NOT_PRESENT, data.getFlags());
+		assertEquals(AdvertisingData.TX_POWER_NOT_PRESENT, data.getTxPowerLevel());
+		assertNull(data.getLocalName());
+		assertTrue(data.getServiceUuids().isEmpty());
+		assertTrue(data.getServiceData().isEmpty());
+		assertNull(data.getManufacturerData(0x0059));
+	}
+
+	@Test
+	public void parsingStopsAtPadding() {
+		final AdvertisingData data = AdvertisingData.parse(bytes(0x02, 0x01, 0x06, 0x00, 0x02, 0x0A, 0xF4));
+		assertEquals(0x06, data.getFlags());
+		assertEquals(AdvertisingData.TX_POWER_NOT_PRESENT, data.getTxPowerLevel());
+	}
+
+	@Test
+	public void malformedStructureKeepsDecodedValues() {
+		final AdvertisingData data = AdvertisingData.parse(bytes(0x02, 0x01, 0x06, 0x09, 0xFF, 0x59, 0x00));
+		assertEquals(0x06, data.getFlags());
+		assertTrue(data.getManufacturerData().isEmpty());
+	}
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.advertising;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ScanRecordCacheTest {
+	private static final UUID HEART_RATE_SERVICE = UUID.fromString("0000180D-0000-1000-8000-00805f9b34fb");
+	private static final int NORDIC = 0x0059;
+
+	private static byte[] bytes(final int... values) {
+		final byte[] bytes = new byte[values.length];
+		for (int i = 0; i < values.length; ++i)
+			bytes[i] = (byte) values[i];
+		return bytes;
+	}
+
+	/** Heart rate service, the given firmware version in the Nordic manufacturer data and the name */
+	private static byte[] payload(final int version, final char name) {
+		return bytes(0x03, 0x03, 0x0D, 0x18, 0x04, 0xFF, 0x59, 0x00, version, 0x02, 0x09, name);
+	}
+
+	private static Set<String> set(final String... addresses) {
+		return new HashSet<>(Arrays.asList(addresses));
+	}
+
+	@Test
+	public void devicesAreIndexed() {
+		final ScanRecordCache cache = new ScanRecordCache();
+		cache.put("A", payload(1, 'a'), 0);
+		cache.put("B", payload(2, 'b'), 0);
+		cache.put("C", bytes(0x04, 0x16, 0x0D, 0x18, 0x01), 0);
+
+		assertEquals(set("A", "B"), cache.findByServiceUuid(HEART_RATE_SERVICE));
+		assertEquals(set("A", "B"), cache.findByManufacturer(NORDIC));
+		assertEquals(set("C"), cache.findByServiceData(HEART_RATE_SERVICE));
+		assertEquals(set("B"), cache.findByName("b"));
+		assertTrue(cache.findByName("c").isEmpty());
+	}
+
+	@Test
+	public void samePayloadIsNotDecodedAgain() {
+		final ScanRecordCache cache = new ScanRecordCache();
+		final AdvertisingData data = cache.put("A", payload(1, 'a'), 0);
+		assertSame(data, cache.put("A", payload(1, 'a'), 100));
+		assertNotSame(data, cache.put("A", payload(2, 'a'), 200));
+	}
+
+	@Test
+	public void changedPayloadIsIndexedAgain() {
+		final ScanRecordCache cache = new ScanRecordCache();
+		cache.put("A", payload(1, 'a'), 0);
+		cache.put("A", bytes(0x02, 0x09, 'x'), 100);
+		assertEquals(set("A"), cache.findByName("x"));
+		assertTrue(cache.findByName("a").isEmpty());
+		assertTrue(cache.findByServiceUuid(HEART_RATE_SERVICE).isEmpty());
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void filterIsAppliedToIndexedDevices() {
+		final ScanRecordCache cache = new ScanRecordCache();
+		cache.put("A", payload(1, 'a'), 0);
+		cache.put("B", payload(2, 'b'), 0);
+		cache.put("C", bytes(0x02, 0x09, 'c'), 0);
+
+		final List<String> result = cache.findByManufacturer(NORDIC, new ScanRecordCache.Filter() {
+			@Override
+			public boolean matches(final String address, final AdvertisingData data) {
+				return data.getManufacturerData(NORDIC)[0] >= 2;
+			}
+		});
+		assertEquals(Collections.singletonList("B"), result);
+	}
+
+	@Test
+	public void leastRecentlySeenDeviceIsEvictedWhenFull() {
+		final ScanRecordCache cache = new ScanRecordCache(2, ScanRecordCache.DEFAULT_MAX_AGE);
+		cache.put("A", payload(1, 'a'), 0);
+		cache.put("B", payload(1, 'b'), 100);
+		cache.put("A", payload(1, 'a'), 200);
+		cache.put("C", payload(1, 'c'), 300);
+
+		assertEquals(2, cache.size());
+		assertNull(cache.get("B"));
+		assertTrue(cache.findByName("b").isEmpty());
+		assertEquals(set("A", "C"), cache.findByServiceUuid(HEART_RATE_SERVICE));
+	}
+
+	@Test
+	public void oldDevicesAreEvicted() {
+		final ScanRecordCache cache = new ScanRecordCache(10, 1000);
+		cache.put("A", payload(1, 'a'), 0);
+		cache.put("B", payload(1, 'b'), 500);
+		assertEquals(1, cache.evictOlderThan(1200));
+		assertNull(cache.get("A"));
+		assertEquals(set("B"), cache.findByManufacturer(NORDIC));
+	}
+
+	@Test
+	public void resultIsNotUpdatedWithTheCache() {
+		final ScanRecordCache cache = new ScanRecordCache();
+		cache.put("A", payload(1, 'a'), 0);
+		cache.put("B", payload(1, 'b'), 0);
+
+		final Set<String> found = cache.findByServiceUuid(HEART_RATE_SERVICE);
+		for (final String address : found)
+			cache.remove(address);
+		assertEquals(set("A", "B"), found);
+		assertEquals(0, cache.size());
+		assertTrue(cache.findByServiceUuid(HEART_RATE_SERVICE).isEmpty());
+	}
+
+	@Test
+	public void clearRemovesAllDevices() {
+		final ScanRecordCache cache = new ScanRecordCache();
+		cache.put("A", payload(1, 'a'), 0);
+		cache.clear();
+		assertEquals(0, cache.size());
+		assertTrue(cache.findByName("a").isEmpty());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void capacityMustBePositive() {
+		new ScanRecordCache(0, 1000);
+	}
+}
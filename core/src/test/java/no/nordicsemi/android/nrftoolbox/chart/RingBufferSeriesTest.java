@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.chart;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class RingBufferSeriesTest {
+	private static final double DELTA = 1e-9;
+
+	@Test
+	public void samplesAreIndexedFromTheOldest() {
+		final RingBufferSeries series = new RingBufferSeries(4);
+		series.add(1, 10);
+		series.add(2, 20);
+		assertEquals(2, series.size());
+		assertEquals(4, series.getCapacity());
+		assertEquals(1, series.getX(0), DELTA);
+		assertEquals(20, series.getY(1), DELTA);
+	}
+
+	@Test
+	public void fullSeriesOverwritesTheOldestSample() {
+		final RingBufferSeries series = new RingBufferSeries(3);
+		for (int i = 0; i < 10; ++i)
+			series.add(i, i * 10);
+		assertEquals(3, series.size());
+		assertEquals(7, series.getX(0), DELTA);
+		assertEquals(80, series.getY(1), DELTA);
+		assertEquals(9, series.getX(2), DELTA);
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void indexBeyondSizeIsRejected() {
+		final RingBufferSeries series = new RingBufferSeries(3);
+		series.add(0, 0);
+		series.getY(1);
+	}
+
+	@Test
+	public void clearRemovesAllSamples() {
+		final RingBufferSeries series = new RingBufferSeries(2);
+		series.add(0, 0);
+		series.add(1, 1);
+		series.add(2, 2);
+		series.clear();
+		assertEquals(0, series.size());
+		series.add(5, 50);
+		assertEquals(50, series.getY(0), DELTA);
+	}
+
+	@Test
+	public void decimateReducesBucketsToMinMaxAndAverage() {
+		final RingBufferSeries series = new RingBufferSeries(16);
+		final double[] y = { 3, 1, 2, 8, 4, 6, 5 };
+		for (int i = 0; i < y.length; ++i)
+			series.add(i, y[i]);
+
+		final double[] x = new double[3];
+		final double[] min = new double[3];
+		final double[] max = new double[3];
+		final double[] avg = new double[3];
+		// 7 samples in 3 buckets of 3, 3 and 1 samples
+		assertEquals(3, series.decimate(3, x, min, max, avg));
+		assertEquals(0, x[0], DELTA);
+		assertEquals(1, min[0], DELTA);
+		assertEquals(3, max[0], DELTA);
+		assertEquals(2, avg[0], DELTA);
+		assertEquals(3, x[1], DELTA);
+		assertEquals(4, min[1], DELTA);
+		assertEquals(8, max[1], DELTA);
+		assertEquals(6, avg[1], DELTA);
+		assertEquals(6, x[2], DELTA);
+		assertEquals(5, avg[2], DELTA);
+	}
+
+	@Test
+	public void decimateKeepsSmallSeries() {
+		final RingBufferSeries series = new RingBufferSeries(8);
+		series.add(0, 1);
+		series.add(1, 2);
+		final double[] avg = new double[10];
+		assertEquals(2, series.decimate(10, new double[10], new double[10], new double[10], avg));
+		assertEquals(2, avg[1], DELTA);
+		assertEquals(0, new RingBufferSeries(8).decimate(10, new double[10], new double[10], new double[10], avg));
+	}
+
+	@Test
+	public void decimateAfterWrapAround() {
+		final RingBufferSeries series = new RingBufferSeries(4);
+		for (int i = 0; i < 6; ++i)
+			series.add(i, i);
+		// the series holds 2, 3, 4, 5
+		final double[] x = new double[2];
+		final double[] min = new double[2];
+		final double[] max = new double[2];
+		assertEquals(2, series.decimate(2, x, min, max, new double[2]));
+		assertEquals(2, x[0], DELTA);
+		assertEquals(3, max[0], DELTA);
+		assertEquals(4, min[1], DELTA);
+		assertEquals(5, max[1], DELTA);
+	}
+}
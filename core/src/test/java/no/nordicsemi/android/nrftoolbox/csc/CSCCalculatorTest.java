@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.csc;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CSCCalculatorTest {
+	private static final float DELTA = 0.001f;
+	private static final int CIRCUMFERENCE = 2000; // mm
+
+	@Test
+	public void speedAndDistanceFromWheelRevolutions() {
+		final CSCCalculator calculator = new CSCCalculator();
+		assertFalse(calculator.onWheelMeasurement(100, 1024, CIRCUMFERENCE));
+		// 10 revolutions in 1 second
+		assertTrue(calculator.onWheelMeasurement(110, 2048, CIRCUMFERENCE));
+		assertEquals(20.0f, calculator.getSpeed(), DELTA);
+		assertEquals(20.0f, calculator.getDistance(), DELTA);
+		assertEquals(220.0f, calculator.getTotalDistance(), DELTA);
+
+		// 5 revolutions in 2 seconds
+		assertTrue(calculator.onWheelMeasurement(115, 4096, CIRCUMFERENCE));
+		assertEquals(5.0f, calculator.getSpeed(), DELTA);
+		assertEquals(30.0f, calculator.getDistance(), DELTA);
+	}
+
+	@Test
+	public void repeatedEventTimeIsIgnored() {
+		final CSCCalculator calculator = new CSCCalculator();
+		calculator.onWheelMeasurement(0, 1024, CIRCUMFERENCE);
+		calculator.onWheelMeasurement(10, 2048, CIRCUMFERENCE);
+		assertFalse(calculator.onWheelMeasurement(10, 2048, CIRCUMFERENCE));
+		assertEquals(20.0f, calculator.getSpeed(), DELTA);
+	}
+
+	@Test
+	public void eventTimeRollsOverAfter16Bits() {
+		final CSCCalculator calculator = new CSCCalculator();
+		calculator.onWheelMeasurement(0, 65536 - 512, CIRCUMFERENCE);
+		// 512 ticks before and 512 ticks after the rollover make 1 second
+		assertTrue(calculator.onWheelMeasurement(1, 512, CIRCUMFERENCE));
+		assertEquals(2.0f, calculator.getSpeed(), DELTA);
+	}
+
+	@Test
+	public void crankCadenceAndGearRatio() {
+		final CSCCalculator calculator = new CSCCalculator();
+		calculator.onWheelMeasurement(0, 0, CIRCUMFERENCE);
+		calculator.onWheelMeasurement(10, 1024, CIRCUMFERENCE); // 600 RPM
+		assertFalse(calculator.onCrankMeasurement(20, 0));
+		assertTrue(calculator.onCrankMeasurement(21, 1024)); // 60 RPM
+		assertEquals(60.0f, calculator.getCrankCadence(), DELTA);
+		assertEquals(10.0f, calculator.getGearRatio(), DELTA);
+
+		// Not pedalling, the last cadence is kept
+		assertFalse(calculator.onCrankMeasurement(21, 2048));
+		assertEquals(60.0f, calculator.getCrankCadence(), DELTA);
+	}
+
+	@Test
+	public void resetStartsFromTheNextMeasurement() {
+		final CSCCalculator calculator = new CSCCalculator();
+		calculator.onWheelMeasurement(0, 0, CIRCUMFERENCE);
+		calculator.onWheelMeasurement(10, 1024, CIRCUMFERENCE);
+		calculator.reset();
+		assertFalse(calculator.onWheelMeasurement(500, 5000, CIRCUMFERENCE));
+		assertTrue(calculator.onWheelMeasurement(501, 6024, CIRCUMFERENCE));
+		assertEquals(2.0f, calculator.getDistance(), DELTA);
+	}
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.gls;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+
+public class RecordAccessControlPointTest {
+	@Test
+	public void operationWithoutOperand() {
+		assertArrayEquals(new byte[] { 1, 1 },
+				RecordAccessControlPoint.createOperation(RecordAccessControlPoint.OP_CODE_REPORT_STORED_RECORDS, RecordAccessControlPoint.OPERATOR_ALL_RECORDS));
+		assertArrayEquals(new byte[] { 3, 0 },
+				RecordAccessControlPoint.createOperation(RecordAccessControlPoint.OP_CODE_ABORT_OPERATION, RecordAccessControlPoint.OPERATOR_NULL));
+	}
+
+	@Test
+	public void operationWithSequenceNumbers() {
+		assertArrayEquals(new byte[] { 1, 3, 1, 42, 0 },
+				RecordAccessControlPoint.createOperation(RecordAccessControlPoint.OP_CODE_REPORT_STORED_RECORDS,
+						RecordAccessControlPoint.OPERATOR_GREATER_THEN_OR_EQUAL, 42));
+		assertArrayEquals(new byte[] { 2, 4, 1, 10, 0, 0x2C, 0x01 },
+				RecordAccessControlPoint.createOperation(RecordAccessControlPoint.OP_CODE_DELETE_STORED_RECORDS,
+						RecordAccessControlPoint.OPERATOR_WITHING_RANGE, 10, 300));
+	}
+
+	@Test
+	public void operationWithUserFacingTime() {
+		assertArrayEquals(new byte[] { 4, 2, 2, (byte) 0xE0, 0x07, 10, 16 },
+				RecordAccessControlPoint.createUserFacingTimeOperation(RecordAccessControlPoint.OP_CODE_REPORT_NUMBER_OF_RECORDS,
+						RecordAccessControlPoint.OPERATOR_LESS_THEN_OR_EQUAL, 0xE0, 0x07, 10, 16));
+	}
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.hrs;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HRVCalculatorTest {
+	private static final float DELTA = 0.01f;
+
+	@Test
+	public void statisticsNeedTwoIntervals() {
+		final HRVCalculator calculator = new HRVCalculator();
+		assertTrue(Float.isNaN(calculator.getRMSSD()));
+		calculator.addInterval(1024);
+		assertFalse(calculator.isReady());
+		assertTrue(Float.isNaN(calculator.getSDNN()));
+		assertTrue(Float.isNaN(calculator.getPNN50()));
+		calculator.addInterval(1024);
+		assertTrue(calculator.isReady());
+		assertEquals(0.0f, calculator.getRMSSD(), DELTA);
+		assertEquals(0.0f, calculator.getSDNN(), DELTA);
+		assertEquals(0.0f, calculator.getPNN50(), DELTA);
+	}
+
+	@Test
+	public void twoIntervals() {
+		final HRVCalculator calculator = new HRVCalculator();
+		calculator.addInterval(1000);
+		calculator.addInterval(1100);
+		// 100 units = 97.66 ms
+		assertEquals(97.66f, calculator.getRMSSD(), DELTA);
+		assertEquals(69.05f, calculator.getSDNN(), DELTA);
+		assertEquals(100.0f, calculator.getPNN50(), DELTA);
+	}
+
+	@Test
+	public void differenceOf50msIsNotCounted() {
+		final HRVCalculator calculator = new HRVCalculator();
+		calculator.addInterval(1000);
+		calculator.addInterval(1051); // 49.8 ms
+		calculator.addInterval(1000);
+		calculator.addInterval(948); // 50.8 ms
+		assertEquals(100.0f / 3, calculator.getPNN50(), DELTA);
+	}
+
+	@Test
+	public void slidingWindowMatchesDirectCalculation() {
+		final int window = 8;
+		final HRVCalculator calculator = new HRVCalculator(window);
+		final Random random = new Random(42);
+		final int[] intervals = new int[100];
+		for (int i = 0; i < intervals.length; ++i) {
+			intervals[i] = 700 + random.nextInt(400);
+			calculator.addInterval(intervals[i]);
+
+			final int from = Math.max(0, i + 1 - window);
+			assertEquals(i + 1 - from, calculator.getCount());
+			if (i > 0) {
+				assertEquals(rmssd(intervals, from, i + 1), calculator.getRMSSD(), DELTA);
+				assertEquals(sdnn(intervals, from, i + 1), calculator.getSDNN(), DELTA);
+				assertEquals(pnn50(intervals, from, i + 1), calculator.getPNN50(), DELTA);
+			}
+		}
+	}
+
+	@Test
+	public void clearEmptiesTheWindow() {
+		final HRVCalculator calculator = new HRVCalculator(4);
+		calculator.addInterval(800);
+		calculator.addInterval(1200);
+		calculator.clear();
+		assertEquals(0, calculator.getCount());
+		calculator.addInterval(1024);
+		calculator.addInterval(1024);
+		assertEquals(0.0f, calculator.getRMSSD(), DELTA);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void windowOfOneIntervalIsRejected() {
+		new HRVCalculator(1);
+	}
+
+	private static float rmssd(final int[] intervals, final int from, final int to) {
+		double sum = 0;
+		for (int i = from + 1; i < to; ++i) {
+			final double difference = toMs(intervals[i] - intervals[i - 1]);
+			sum += difference * difference;
+		}
+		return (float) Math.sqrt(sum / (to - from - 1));
+	}
+
+	private static float sdnn(final int[] intervals, final int from, final int to) {
+		double mean = 0;
+		for (int i = from; i < to; ++i)
+			mean += toMs(intervals[i]);
+		mean /= to - from;
+		double sum = 0;
+		for (int i = from; i < to; ++i)
+			sum += (toMs(intervals[i]) - mean) * (toMs(intervals[i]) - mean);
+		return (float) Math.sqrt(sum / (to - from - 1));
+	}
+
+	private static float pnn50(final int[] intervals, final int from, final int to) {
+		int count = 0;
+		for (int i = from + 1; i < to; ++i)
+			if (Math.abs(toMs(intervals[i] - intervals[i - 1])) > 50.0)
+				count++;
+		return 100.0f * count / (to - from - 1);
+	}
+
+	private static double toMs(final int units) {
+		return units * 1000.0 / 1024.0;
+	}
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.parser;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks the log messages of the parsers for sample values of each characteristic. The parsers format numbers using the default locale.
+ */
+public class MeasurementParsersTest {
+	private Locale mDefaultLocale;
+
+	@Before
+	public void setUp() {
+		mDefaultLocale = Locale.getDefault();
+		Locale.setDefault(Locale.US);
+	}
+
+	@After
+	public void tearDown() {
+		Locale.setDefault(mDefaultLocale);
+	}
+
+	@Test
+	public void heartRate8bit() {
+		assertEquals("Heart Rate Measurement: 72 bpm,\nSensor Contact Not Supported", HeartRateMeasurementParser.parse(new byte[] { 0x00, 72 }));
+	}
+
+	@Test
+	public void heartRateWithContactAndRRInterval() {
+		assertEquals("Heart Rate Measurement: 60 bpm,\nContact is Detected,\nRR Interval: 1000.00 ms",
+				HeartRateMeasurementParser.parse(new byte[] { 0x16, 60, 0x00, 0x04 }));
+	}
+
+	@Test
+	public void heartRate16bitWithEnergyExpended() {
+		assertEquals("Heart Rate Measurement: 300 bpm,\nSensor Contact Not Supported,\nEnergy Expanded: 16 kJ",
+				HeartRateMeasurementParser.parse(new byte[] { 0x09, 0x2C, 0x01, 0x10, 0x00 }));
+	}
+
+	@Test
+	public void cyclingSpeedAndCadence() {
+		final byte[] data = { 0x03, 0x02, 0x01, 0x00, 0x00, 0x00, 0x04, 0x0A, 0x00, 0x00, 0x08 };
+		assertEquals("Wheel rev: 258,\nLast wheel event time: 1024 ms,\nCrank rev: 10,\nLast crank event time: 2048 ms", CSCMeasurementParser.parse(data));
+	}
+
+	@Test
+	public void runningSpeedAndCadence() {
+		final byte[] data = { 0x07, 0x00, 0x03, (byte) 180, (byte) 150, 0x00, (byte) 0xE8, 0x03, 0x00, 0x00 };
+		assertEquals("Speed: 3.00 m/s, Cadence: 180 RPM,\nInstantaneous Stride Length: 1.50 m,\nTotal Distance: 100.0 m,\nStatus: RUNNING",
+				RSCMeasurementParser.parse(data));
+	}
+
+	@Test
+	public void temperatureWithType() {
+		final byte[] data = { 0x04, 0x6C, 0x01, 0x00, (byte) 0xFF, 0x02 };
+		assertEquals("36.40°C\nType: Body (general)", TemperatureMeasurementParser.parse(data));
+	}
+
+	@Test
+	public void bodySensorLocation() {
+		assertEquals("Chest", BodySensorLocationParser.parse(new byte[] { 1 }));
+		assertEquals("Other", BodySensorLocationParser.parse(new byte[] { 100 }));
+	}
+
+	@Test
+	public void recordAccessControlPointResponses() {
+		assertEquals("Response Code for Report stored records: Success", RecordAccessControlPointParser.parse(new byte[] { 6, 0, 1, 1 }));
+		assertEquals("Number of stored records response: 10", RecordAccessControlPointParser.parse(new byte[] { 5, 0, 10, 0 }));
+		assertEquals("Report stored records\nOperator: Within range of 10-20 (filter: 1)",
+				RecordAccessControlPointParser.parse(new byte[] { 1, 4, 1, 10, 0, 20, 0 }));
+	}
+}
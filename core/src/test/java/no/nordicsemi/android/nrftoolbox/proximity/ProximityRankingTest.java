@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.proximity;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ProximityRankingTest {
+
+	private static void assertOrder(final ProximityRanking<String> ranking, final String... items) {
+		assertEquals(items.length, ranking.size());
+		for (int i = 0; i < items.length; ++i)
+			assertEquals(items[i], ranking.getItem(i));
+	}
+
+	@Test
+	public void strongestDeviceIsFirst() {
+		final ProximityRanking<String> ranking = new ProximityRanking<>();
+		ranking.add("A", "a", -80, 0);
+		ranking.add("B", "b", -60, 0);
+		ranking.add("C", "c", -70, 0);
+		assertTrue(ranking.sort());
+		assertOrder(ranking, "b", "c", "a");
+		assertFalse(ranking.sort());
+	}
+
+	@Test
+	public void smallDifferenceKeepsTheOrder() {
+		final ProximityRanking<String> ranking = new ProximityRanking<>();
+		ranking.add("A", "a", -60, 0);
+		ranking.add("B", "b", (int) (-60 + ProximityRanking.HYSTERESIS - 1), 0);
+		assertFalse(ranking.sort());
+		assertOrder(ranking, "a", "b");
+	}
+
+	@Test
+	public void deviceMovedCloserIsMovedUp() {
+		final ProximityRanking<String> ranking = new ProximityRanking<>();
+		ranking.add("A", "a", -60, 0);
+		ranking.add("B", "b", -70, 0);
+		ranking.sort();
+		for (int i = 1; i <= RssiFilter.OUTLIER_COUNT; ++i)
+			assertTrue(ranking.update("B", -50, i * 100));
+		assertTrue(ranking.sort());
+		assertOrder(ranking, "b", "a");
+		assertEquals(-50, ranking.getRssi(0));
+		assertEquals(-50, ranking.getRssi("B", 0));
+	}
+
+	@Test
+	public void unseenDeviceIsOrderedLast() {
+		final ProximityRanking<String> ranking = new ProximityRanking<>();
+		ranking.add("A", "a");
+		ranking.add("B", "b", -95, 0);
+		assertTrue(ranking.sort());
+		assertOrder(ranking, "b", "a");
+	}
+
+	@Test
+	public void unknownAddress() {
+		final ProximityRanking<String> ranking = new ProximityRanking<>();
+		assertFalse(ranking.update("A", -60, 0));
+		assertNull(ranking.get("A"));
+		assertEquals(7, ranking.getRssi("A", 7));
+	}
+
+	@Test
+	public void staleDevicesAreRemoved() {
+		final ProximityRanking<String> ranking = new ProximityRanking<>(1000);
+		ranking.add("A", "a", -60, 0);
+		ranking.add("B", "b", -70, 500);
+		ranking.add("C", "c", -80, 0);
+		assertEquals(2, ranking.removeStale(1200));
+		assertOrder(ranking, "b");
+		assertNull(ranking.get("A"));
+		assertEquals("b", ranking.get("B"));
+		assertFalse(ranking.update("C", -80, 1200));
+		assertEquals(0, ranking.removeStale(1500));
+	}
+
+	@Test
+	public void clearRemovesAllDevices() {
+		final ProximityRanking<String> ranking = new ProximityRanking<>();
+		ranking.add("A", "a", -60, 0);
+		ranking.clear();
+		assertTrue(ranking.isEmpty());
+		assertNull(ranking.get("A"));
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.proximity;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RssiFilterTest {
+	private static final float DELTA = 1e-4f;
+
+	@Test
+	public void firstSampleIsTakenAsIs() {
+		final RssiFilter filter = new RssiFilter();
+		assertEquals(Float.NEGATIVE_INFINITY, filter.getRssi(), 0);
+		assertTrue(filter.add(-60, 100));
+		assertEquals(-60, filter.getRssi(), DELTA);
+	}
+
+	@Test
+	public void samplesAreAveraged() {
+		final RssiFilter filter = new RssiFilter();
+		filter.add(-60, 0);
+		assertTrue(filter.add(-70, 100));
+		assertEquals(-60 + RssiFilter.ALPHA * -10, filter.getRssi(), DELTA);
+	}
+
+	@Test
+	public void singleOutlierIsRejected() {
+		final RssiFilter filter = new RssiFilter();
+		filter.add(-60, 0);
+		assertFalse(filter.add(-90, 100));
+		assertEquals(-60, filter.getRssi(), DELTA);
+		assertTrue(filter.add(-60, 200));
+		assertEquals(-60, filter.getRssi(), DELTA);
+	}
+
+	@Test
+	public void consecutiveOutliersResetTheFilter() {
+		final RssiFilter filter = new RssiFilter();
+		filter.add(-60, 0);
+		for (int i = 1; i < RssiFilter.OUTLIER_COUNT; ++i)
+			assertFalse(filter.add(-90, i * 100));
+		assertTrue(filter.add(-90, RssiFilter.OUTLIER_COUNT * 100));
+		assertEquals(-90, filter.getRssi(), DELTA);
+	}
+
+	@Test
+	public void acceptedSampleClearsTheOutlierCount() {
+		final RssiFilter filter = new RssiFilter();
+		filter.add(-60, 0);
+		for (int i = 1; i < RssiFilter.OUTLIER_COUNT; ++i)
+			assertFalse(filter.add(-90, 0));
+		assertTrue(filter.add(-60, 0));
+		assertFalse(filter.add(-90, 0));
+		assertEquals(-60, filter.getRssi(), DELTA);
+	}
+
+	@Test
+	public void lastSeenIsTheLatestSampleTime() {
+		final RssiFilter filter = new RssiFilter();
+		filter.add(-60, 1000);
+		filter.add(-90, 2000); // rejected samples still tell the device is there
+		filter.add(-60, 1500);
+		assertEquals(2000, filter.getLastSeen());
+		assertFalse(filter.isStale(3000, 1000));
+		assertTrue(filter.isStale(3001, 1000));
+	}
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.rsc;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class StrideCounterTest {
+	@Test
+	public void countingStartsWithNonZeroCadence() {
+		final StrideCounter counter = new StrideCounter();
+		assertFalse(counter.onMeasurement(0, 100.0f));
+		assertTrue(counter.onMeasurement(120, 100.0f));
+		// already counting
+		assertFalse(counter.onMeasurement(130, 100.0f));
+		assertEquals(500, counter.getStrideInterval());
+	}
+
+	@Test
+	public void stridesAddTheStrideLength() {
+		final StrideCounter counter = new StrideCounter();
+		counter.onMeasurement(120, 100.0f);
+		assertTrue(counter.onStride());
+		counter.onMeasurement(120, 80.0f);
+		assertTrue(counter.onStride());
+		assertEquals(2, counter.getStepsNumber());
+		assertEquals(180.0f, counter.getDistance(), 0.001f);
+	}
+
+	@Test
+	public void countingStopsWhenCadenceDropsToZero() {
+		final StrideCounter counter = new StrideCounter();
+		counter.onMeasurement(100, 100.0f);
+		counter.onMeasurement(0, 100.0f);
+		assertFalse(counter.onStride());
+		assertEquals(1, counter.getStepsNumber());
+		// and starts again
+		assertTrue(counter.onMeasurement(100, 100.0f));
+	}
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.session;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.UUID;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CaptureWriterTest {
+	private static final long START_TIME = 1476650000000L;
+	private static final UUID HR_SERVICE = UUID.fromString("0000180D-0000-1000-8000-00805f9b34fb");
+	private static final UUID HR_MEASUREMENT = UUID.fromString("00002A37-0000-1000-8000-00805f9b34fb");
+	private static final UUID BP_SERVICE = UUID.fromString("00001810-0000-1000-8000-00805f9b34fb");
+	private static final UUID BP_MEASUREMENT = UUID.fromString("00002A35-0000-1000-8000-00805f9b34fb");
+	private static final int PROPERTY_NOTIFY = 0x10;
+	private static final int PROPERTY_INDICATE = 0x20;
+
+	@Rule
+	public TemporaryFolder mFolder = new TemporaryFolder();
+
+	@Test
+	public void valuesAreReadBackInOrder() throws IOException {
+		final File file = mFolder.newFile();
+		final CaptureWriter writer = new CaptureWriter(new FileOutputStream(file).getChannel(), START_TIME);
+		writer.add(START_TIME + 100, HR_SERVICE, HR_MEASUREMENT, PROPERTY_NOTIFY, false, new byte[] { 0x00, 72 });
+		writer.add(START_TIME + 150, BP_SERVICE, BP_MEASUREMENT, PROPERTY_INDICATE, true, new byte[] { 0x00, 0x78, 0x00 });
+		writer.add(START_TIME + 1100, HR_SERVICE, HR_MEASUREMENT, PROPERTY_NOTIFY, false, new byte[] { 0x00, 75 });
+		writer.close();
+
+		final CaptureReader reader = CaptureReader.open(file);
+		try {
+			assertEquals(START_TIME, reader.getStartTime());
+
+			assertTrue(reader.next());
+			assertEquals(START_TIME + 100, reader.getTimestamp());
+			assertEquals(HR_SERVICE, reader.getServiceUuid());
+			assertEquals(HR_MEASUREMENT, reader.getCharacteristicUuid());
+			assertEquals(PROPERTY_NOTIFY, reader.getProperties());
+			assertFalse(reader.isIndication());
+			assertArrayEquals(new byte[] { 0x00, 72 }, reader.getData());
+
+			assertTrue(reader.next());
+			assertEquals(START_TIME + 150, reader.getTimestamp());
+			assertEquals(BP_SERVICE, reader.getServiceUuid());
+			assertEquals(BP_MEASUREMENT, reader.getCharacteristicUuid());
+			assertTrue(reader.isIndication());
+			assertArrayEquals(new byte[] { 0x00, 0x78, 0x00 }, reader.getData());
+
+			assertTrue(reader.next());
+			assertEquals(START_TIME + 1100, reader.getTimestamp());
+			assertEquals(HR_MEASUREMENT, reader.getCharacteristicUuid());
+			assertArrayEquals(new byte[] { 0x00, 75 }, reader.getData());
+
+			assertFalse(reader.next());
+		} finally {
+			reader.close();
+		}
+	}
+
+	@Test
+	public void valuesLargerThanTheBufferAreWritten() throws IOException {
+		final File file = mFolder.newFile();
+		final CaptureWriter writer = new CaptureWriter(new FileOutputStream(file).getChannel(), START_TIME);
+		final byte[] value = new byte[CaptureWriter.MAX_VALUE_LENGTH];
+		// More than 8 kB of values, the buffer is flushed several times
+		for (int i = 0; i < 100; ++i) {
+			value[0] = (byte) i;
+			writer.add(START_TIME + i, HR_SERVICE, HR_MEASUREMENT, PROPERTY_NOTIFY, false, value);
+		}
+		writer.close();
+
+		final CaptureReader reader = CaptureReader.open(file);
+		try {
+			for (int i = 0; i < 100; ++i) {
+				assertTrue(reader.next());
+				assertEquals(START_TIME + i, reader.getTimestamp());
+				assertEquals(CaptureWriter.MAX_VALUE_LENGTH, reader.getData().length);
+				assertEquals((byte) i, reader.getData()[0]);
+			}
+			assertFalse(reader.next());
+		} finally {
+			reader.close();
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void tooLongValueIsRejected() throws IOException {
+		final CaptureWriter writer = CaptureWriter.create(mFolder.newFile());
+		try {
+			writer.add(START_TIME, HR_SERVICE, HR_MEASUREMENT, PROPERTY_NOTIFY, false, new byte[CaptureWriter.MAX_VALUE_LENGTH + 1]);
+		} finally {
+			writer.close();
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void sessionFileIsNotACapture() throws IOException {
+		final File file = mFolder.newFile();
+		SessionWriter.create(file, "HRS", "heart_rate").close();
+		CaptureReader.open(file);
+	}
+
+	@Test(expected = IOException.class)
+	public void truncatedValueIsReported() throws IOException {
+		final File file = mFolder.newFile();
+		final CaptureWriter writer = new CaptureWriter(new FileOutputStream(file).getChannel(), START_TIME);
+		writer.add(START_TIME, HR_SERVICE, HR_MEASUREMENT, PROPERTY_NOTIFY, false, new byte[] { 0x00, 72 });
+		writer.close();
+
+		final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		raf.setLength(raf.length() - 1);
+		raf.close();
+
+		final CaptureReader reader = CaptureReader.open(file);
+		try {
+			reader.next();
+		} finally {
+			reader.close();
+		}
+	}
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.session;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.Assert.assertEquals;
+
+public class CsvExporterTest {
+	@Rule
+	public TemporaryFolder mFolder = new TemporaryFolder();
+
+	@Test
+	public void missingValuesAreLeftEmpty() throws IOException {
+		final File file = mFolder.newFile();
+		final SessionWriter writer = new SessionWriter(new FileOutputStream(file).getChannel(), 2, "HRS", 1000, "heart_rate", "rr_interval");
+		writer.add(1500, 72, Float.NaN);
+		writer.add(1600, Float.NaN, 812.5f);
+		writer.add(2500, 75, Float.NaN);
+		writer.close();
+
+		final StringWriter csv = new StringWriter();
+		final SessionReader reader = SessionReader.open(file);
+		try {
+			assertEquals(3, CsvExporter.export(reader, csv));
+		} finally {
+			reader.close();
+		}
+		assertEquals("timestamp,heart_rate,rr_interval\n1500,72.0,\n1600,,812.5\n2500,75.0,\n", csv.toString());
+	}
+
+	@Test
+	public void emptySessionHasOnlyTheHeader() throws IOException {
+		final File file = mFolder.newFile();
+		SessionWriter.create(file, "HTS", "temperature").close();
+
+		final StringWriter csv = new StringWriter();
+		final SessionReader reader = SessionReader.open(file);
+		try {
+			assertEquals(0, CsvExporter.export(reader, csv));
+		} finally {
+			reader.close();
+		}
+		assertEquals("timestamp,temperature\n", csv.toString());
+	}
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.session;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SessionFolderTest {
+	@Rule
+	public TemporaryFolder mFolder = new TemporaryFolder();
+
+	@Test
+	public void folderWithinLimitIsNotTouched() throws IOException {
+		final File folder = mFolder.getRoot();
+		createFile(folder, "a.nts", 100, 1000);
+		createFile(folder, "b.nts", 100, 2000);
+		assertEquals(0, SessionFolder.trim(folder, 200));
+		assertEquals(2, folder.listFiles().length);
+	}
+
+	@Test
+	public void oldestFilesAreDeletedFirst() throws IOException {
+		final File folder = mFolder.getRoot();
+		final File oldest = createFile(folder, "HRS_1.nts", 100, 1000);
+		final File old = createFile(folder, "HRS_1.ntc", 100, 2000);
+		final File recent = createFile(folder, "CSC_2.nts", 100, 3000);
+		final File newest = createFile(folder, "CSC_2.csv", 100, 4000);
+
+		assertEquals(2, SessionFolder.trim(folder, 250));
+		assertFalse(oldest.exists());
+		assertFalse(old.exists());
+		assertTrue(recent.exists());
+		assertTrue(newest.exists());
+	}
+
+	@Test
+	public void subfoldersAreKept() throws IOException {
+		final File folder = mFolder.getRoot();
+		final File subfolder = mFolder.newFolder("nested");
+		subfolder.setLastModified(0);
+		createFile(folder, "a.nts", 100, 1000);
+
+		assertEquals(1, SessionFolder.trim(folder, 0));
+		assertTrue(subfolder.exists());
+	}
+
+	@Test
+	public void missingFolderIsIgnored() {
+		assertEquals(0, SessionFolder.trim(new File(mFolder.getRoot(), "missing"), 0));
+	}
+
+	private static File createFile(final File folder, final String name, final int size, final long modified) throws IOException {
+		final File file = new File(folder, name);
+		final FileOutputStream stream = new FileOutputStream(file);
+		stream.write(new byte[size]);
+		stream.close();
+		assertTrue(file.setLastModified(modified));
+		return file;
+	}
+}
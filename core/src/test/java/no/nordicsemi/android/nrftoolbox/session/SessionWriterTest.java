@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.session;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SessionWriterTest {
+	private static final long START_TIME = 1476650000000L;
+
+	@Rule
+	public TemporaryFolder mFolder = new TemporaryFolder();
+
+	@Test
+	public void headerIsReadBack() throws IOException {
+		final File file = mFolder.newFile();
+		new SessionWriter(new FileOutputStream(file).getChannel(), 4, "HRS", START_TIME, "heart_rate", "rr_interval").close();
+
+		final SessionReader reader = SessionReader.open(file);
+		try {
+			assertEquals("HRS", reader.getProfile());
+			assertEquals(START_TIME, reader.getStartTime());
+			assertEquals(2, reader.getColumnCount());
+			assertEquals("heart_rate", reader.getColumnName(0));
+			assertEquals("rr_interval", reader.getColumnName(1));
+			assertFalse(reader.next());
+		} finally {
+			reader.close();
+		}
+	}
+
+	@Test
+	public void rowsSpanningSeveralBlocksAreReadInOrder() throws IOException {
+		final File file = mFolder.newFile();
+		// 10 rows in blocks of 3, the last block is not full
+		final SessionWriter writer = new SessionWriter(new FileOutputStream(file).getChannel(), 3, "CSC", START_TIME, "speed", "cadence");
+		for (int i = 0; i < 10; ++i)
+			writer.add(START_TIME + i * 1000, i * 0.5f, i % 2 == 0 ? Float.NaN : i);
+		writer.close();
+
+		final SessionReader reader = SessionReader.open(file);
+		try {
+			for (int i = 0; i < 10; ++i) {
+				assertTrue(reader.next());
+				assertEquals(START_TIME + i * 1000, reader.getTimestamp());
+				assertEquals(i * 0.5f, reader.getValue(0), 0);
+				if (i % 2 == 0)
+					assertTrue(Float.isNaN(reader.getValue(1)));
+				else
+					assertEquals(i, reader.getValue(1), 0);
+			}
+			assertFalse(reader.next());
+		} finally {
+			reader.close();
+		}
+	}
+
+	@Test
+	public void timeMayGoBack() throws IOException {
+		final File file = mFolder.newFile();
+		final SessionWriter writer = new SessionWriter(new FileOutputStream(file).getChannel(), 8, "BPM", START_TIME, "systolic");
+		writer.add(START_TIME - 60000, 120);
+		writer.add(START_TIME + 5000, 125);
+		writer.close();
+
+		final SessionReader reader = SessionReader.open(file);
+		try {
+			assertTrue(reader.next());
+			assertEquals(START_TIME - 60000, reader.getTimestamp());
+			assertTrue(reader.next());
+			assertEquals(START_TIME + 5000, reader.getTimestamp());
+		} finally {
+			reader.close();
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void wrongNumberOfValuesIsRejected() throws IOException {
+		final SessionWriter writer = SessionWriter.create(mFolder.newFile(), "HTS", "temperature");
+		try {
+			writer.add(START_TIME, 36.6f, 1.0f);
+		} finally {
+			writer.close();
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void tooBigTimeDifferenceIsRejected() throws IOException {
+		final SessionWriter writer = new SessionWriter(new FileOutputStream(mFolder.newFile()).getChannel(), 8, "HTS", START_TIME, "temperature");
+		try {
+			writer.add(START_TIME + 30L * 24 * 3600 * 1000, 36.6f);
+		} finally {
+			writer.close();
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void otherFilesAreRejected() throws IOException {
+		final File file = mFolder.newFile();
+		final FileOutputStream stream = new FileOutputStream(file);
+		stream.write(new byte[] { 'N', 'T', 'C', 'P', 1, 0, 0 });
+		stream.close();
+		SessionReader.open(file);
+	}
+
+	@Test(expected = EOFException.class)
+	public void truncatedBlockIsReported() throws IOException {
+		final File file = mFolder.newFile();
+		final SessionWriter writer = new SessionWriter(new FileOutputStream(file).getChannel(), 8, "HTS", START_TIME, "temperature");
+		writer.add(START_TIME, 36.6f);
+		writer.add(START_TIME + 1000, 36.7f);
+		writer.close();
+
+		final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		raf.setLength(raf.length() - 2);
+		raf.close();
+
+		final SessionReader reader = SessionReader.open(file);
+		try {
+			reader.next();
+		} finally {
+			reader.close();
+		}
+	}
+}
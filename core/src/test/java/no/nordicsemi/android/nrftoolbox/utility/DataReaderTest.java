@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.utility;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DataReaderTest {
+	private static final float DELTA = 0.0001f;
+
+	@Test
+	public void unsignedValuesAreLittleEndian() {
+		final byte[] data = { (byte) 0xFE, (byte) 0xCA, (byte) 0xBE, (byte) 0xBA };
+		assertEquals(0xFE, DataReader.uint8(data, 0));
+		assertEquals(0xCAFE, DataReader.uint16(data, 0));
+		assertEquals(0xBECAFE, DataReader.uint24(data, 0));
+		assertEquals(0xBABECAFE, DataReader.uint32(data, 0));
+	}
+
+	@Test
+	public void signedValuesAreSignExtended() {
+		final byte[] data = { (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x7F };
+		assertEquals(-1, DataReader.sint8(data, 0));
+		assertEquals(-1, DataReader.sint16(data, 0));
+		assertEquals(-1, DataReader.sint24(data, 0));
+		assertEquals(0x7FFF, DataReader.sint16(data, 2));
+	}
+
+	@Test
+	public void sfloatWithNegativeExponent() {
+		// mantissa 1205, exponent -1
+		assertEquals(120.5f, DataReader.sfloat(new byte[] { (byte) 0xB5, (byte) 0xF4 }, 0), DELTA);
+		// mantissa -5, exponent 0
+		assertEquals(-5.0f, DataReader.sfloat(new byte[] { (byte) 0xFB, 0x0F }, 0), DELTA);
+	}
+
+	@Test
+	public void sfloatSpecialValues() {
+		assertTrue(Float.isNaN(DataReader.sfloat(new byte[] { (byte) 0xFF, 0x07 }, 0)));
+		assertTrue(Float.isNaN(DataReader.sfloat(new byte[] { 0x00, 0x08 }, 0)));
+		assertTrue(Float.isNaN(DataReader.sfloat(new byte[] { 0x01, 0x08 }, 0)));
+		assertEquals(Float.POSITIVE_INFINITY, DataReader.sfloat(new byte[] { (byte) 0xFE, 0x07 }, 0), 0);
+		assertEquals(Float.NEGATIVE_INFINITY, DataReader.sfloat(new byte[] { 0x02, 0x08 }, 0), 0);
+	}
+
+	@Test
+	public void float32() {
+		// 36.4 as mantissa 364, exponent -1
+		assertEquals(36.4f, DataReader.float32(new byte[] { 0x6C, 0x01, 0x00, (byte) 0xFF }, 0), DELTA);
+		// an exponent outside of the table
+		assertEquals(1e10f, DataReader.float32(new byte[] { 0x01, 0x00, 0x00, 0x0A }, 0), 1e4f);
+		assertTrue(Float.isNaN(DataReader.float32(new byte[] { (byte) 0xFF, (byte) 0xFF, 0x7F, 0x00 }, 0)));
+	}
+
+	@Test
+	public void cursorAdvancesBySizeOfEachValue() {
+		final DataReader reader = new DataReader(new byte[] { 0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07 });
+		assertEquals(0x01, reader.getUint8());
+		assertEquals(0x0302, reader.getUint16());
+		reader.skip(1);
+		assertEquals(4, reader.getOffset());
+		assertEquals(0x070605, reader.getUint24());
+		assertEquals(0, reader.remaining());
+
+		reader.reset(new byte[] { (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF });
+		assertEquals(0xFFFFFFFFL, reader.getUint32AsLong());
+	}
+
+	@Test(expected = ArrayIndexOutOfBoundsException.class)
+	public void readingPastTheEndThrows() {
+		new DataReader(new byte[] { 0x01 }).getUint16();
+	}
+
+	@Test
+	public void isSetRequiresAllBits() {
+		assertTrue(DataReader.isSet(0x07, 0x05));
+		assertEquals(false, DataReader.isSet(0x04, 0x05));
+	}
+}
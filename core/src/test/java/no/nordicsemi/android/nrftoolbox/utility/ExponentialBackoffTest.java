@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2015, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package no.nordicsemi.android.nrftoolbox.utility;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ExponentialBackoffTest {
+
+	@Test
+	public void delayIsDoubledUpToTheMaximum() {
+		final ExponentialBackoff backoff = new ExponentialBackoff(100, 1000, 10, 0);
+		final long[] expected = { 100, 200, 400, 800, 1000, 1000 };
+		for (final long delay : expected)
+			assertEquals(delay, backoff.nextDelay());
+		assertEquals(expected.length, backoff.getAttempt());
+	}
+
+	@Test
+	public void attemptsAreLimited() {
+		final ExponentialBackoff backoff = new ExponentialBackoff(100, 1000, 2, 0);
+		assertTrue(backoff.hasAttemptsLeft());
+		backoff.nextDelay();
+		assertTrue(backoff.hasAttemptsLeft());
+		backoff.nextDelay();
+		assertFalse(backoff.hasAttemptsLeft());
+		// The caller may keep waiting with the maximum delay
+		backoff.nextDelay();
+		backoff.nextDelay();
+		assertEquals(1000, backoff.nextDelay());
+	}
+
+	@Test
+	public void resetStartsFromTheInitialDelay() {
+		final ExponentialBackoff backoff = new ExponentialBackoff(100, 1000, 2, 0);
+		backoff.nextDelay();
+		backoff.nextDelay();
+		backoff.reset();
+		assertEquals(0, backoff.getAttempt());
+		assertTrue(backoff.hasAttemptsLeft());
+		assertEquals(100, backoff.nextDelay());
+	}
+
+	@Test
+	public void jitterStaysWithinTheFraction() {
+		final ExponentialBackoff backoff = new ExponentialBackoff(1000, 1000, 1, 0.2f, new Random(42));
+		long min = Long.MAX_VALUE, max = Long.MIN_VALUE;
+		for (int i = 0; i < 1000; ++i) {
+			final long delay = backoff.nextDelay();
+			min = Math.min(min, delay);
+			max = Math.max(max, delay);
+		}
+		assertTrue(min >= 800);
+		assertTrue(max <= 1200);
+		assertTrue("Delays are not randomized", max - min > 200);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void maxDelayBelowInitialIsRejected() {
+		new ExponentialBackoff(1000, 100, 1, 0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void jitterAboveOneIsRejected() {
+		new ExponentialBackoff(100, 1000, 1, 1.5f);
+	}
+}
@@ -25,7 +25,7 @@ package no.nordicsemi.android.nrftoolbox;
 import android.bluetooth.BluetoothAdapter;
 import android.bluetooth.BluetoothDevice;
 import android.content.Context;
-import android.os.Handler;
+import android.os.SystemClock;
 import android.support.wearable.view.CircledImageView;
 import android.support.wearable.view.WearableListView;
 import android.text.TextUtils;
@@ -37,19 +37,19 @@ import android.widget.TextView;
 import java.util.ArrayList;
 import java.util.List;
 
-import no.nordicsemi.android.support.v18.scanner.BluetoothLeScannerCompat;
-import no.nordicsemi.android.support.v18.scanner.ScanCallback;
+import no.nordicsemi.android.nrftoolbox.proximity.ProximityRanking;
+import no.nordicsemi.android.nrftoolbox.scanner.ScanController;
+import no.nordicsemi.android.nrftoolbox.scanner.ScanPolicy;
 import no.nordicsemi.android.support.v18.scanner.ScanResult;
-import no.nordicsemi.android.support.v18.scanner.ScanSettings;
 
 public class DevicesAdapter extends WearableListView.Adapter {
 	private static final String TAG = "DevicesAdapter";
 
-	private final static long SCAN_DURATION = 5000;
-
-	private final List<BluetoothDevice> mDevices = new ArrayList<>();
+	private final List<BluetoothDevice> mBondedDevices = new ArrayList<>();
+	/** Scanned, not bonded devices, the nearest first. Devices that stopped advertising are removed. */
+	private final ProximityRanking<BluetoothDevice> mScannedDevices = new ProximityRanking<>();
 	private final LayoutInflater mInflater;
-	private final Handler mHandler;
+	private final ScanController mScanController;
 	private final WearableListView mListView;
 	private final String mNotAvailable;
 	private final String mConnectingText;
@@ -58,8 +58,6 @@ public class DevicesAdapter extends WearableListView.Adapter {
 	private final String mBondingText;
 	/** A position of a device that the activity is currently connecting to. */
 	private int mConnectingPosition = -1;
-	/** Flag set to true when scanner is active. */
-	private boolean mScanning;
 
 	public DevicesAdapter(final WearableListView listView) {
 		final Context context = listView.getContext();
@@ -70,10 +68,11 @@ public class DevicesAdapter extends WearableListView.Adapter {
 		mBondedText = context.getString(R.string.devices_list_bonded);
 		mBondingText = context.getString(R.string.devices_list_bonding);
 		mListView = listView;
-		mHandler = new Handler();
+		mScanController = new ScanController(ScanPolicy.LOW_LATENCY_BURST, null);
+		mScanController.addListener(mScanListener);
 
 		final BluetoothAdapter bluetoothAdapter = BluetoothAdapter.getDefaultAdapter();
-		mDevices.addAll(bluetoothAdapter.getBondedDevices());
+		mBondedDevices.addAll(bluetoothAdapter.getBondedDevices());
 	}
 
 	@Override
@@ -85,8 +84,8 @@ public class DevicesAdapter extends WearableListView.Adapter {
 	public void onBindViewHolder(final WearableListView.ViewHolder holder, final int position) {
 		final ItemViewHolder viewHolder = (ItemViewHolder) holder;
 
-		if (position < mDevices.size()) {
-			final BluetoothDevice device = mDevices.get(position);
+		if (position < getDeviceCount()) {
+			final BluetoothDevice device = getDevice(position);
 
 			viewHolder.mDevice = device;
 			viewHolder.mName.setText(TextUtils.isEmpty(device.getName()) ? mNotAvailable : device.getName());
@@ -94,15 +93,26 @@ public class DevicesAdapter extends WearableListView.Adapter {
 			viewHolder.mIcon.showIndeterminateProgress(position == mConnectingPosition);
 		} else {
 			viewHolder.mDevice = null;
-			viewHolder.mName.setText(mScanning ? R.string.devices_list_scanning : R.string.devices_list_start_scan);
+			viewHolder.mName.setText(mScanController.isScanning() ? R.string.devices_list_scanning : R.string.devices_list_start_scan);
 			viewHolder.mAddress.setText(null);
-			viewHolder.mIcon.showIndeterminateProgress(mScanning);
+			viewHolder.mIcon.showIndeterminateProgress(mScanController.isScanning());
 		}
 	}
 
 	@Override
 	public int getItemCount() {
-		return mDevices.size() + (mConnectingPosition == -1 ? 1 : 0);
+		return getDeviceCount() + (mConnectingPosition == -1 ? 1 : 0);
+	}
+
+	private int getDeviceCount() {
+		return mBondedDevices.size() + mScannedDevices.size();
+	}
+
+	private BluetoothDevice getDevice(final int position) {
+		final int bondedCount = mBondedDevices.size();
+		if (position < bondedCount)
+			return mBondedDevices.get(position);
+		return mScannedDevices.getItem(position - bondedCount);
 	}
 
 	public void setConnectingPosition(final int connectingPosition) {
@@ -111,11 +121,11 @@ public class DevicesAdapter extends WearableListView.Adapter {
 		if (connectingPosition >= 0) {
 			// The "Scan for nearby device' item is removed
 			notifyItemChanged(connectingPosition);
-			notifyItemRemoved(mDevices.size());
+			notifyItemRemoved(getDeviceCount());
 		} else {
 			if (oldPosition >= 0)
 				notifyItemChanged(oldPosition);
-			notifyItemInserted(mDevices.size());
+			notifyItemInserted(getDeviceCount());
 		}
 	}
 
@@ -124,33 +134,12 @@ public class DevicesAdapter extends WearableListView.Adapter {
 		if (mConnectingPosition >= 0)
 			return;
 
-		if (mScanning) {
-			// Extend scanning for some time more
-			mHandler.removeCallbacks(mStopScanTask);
-			mHandler.postDelayed(mStopScanTask, SCAN_DURATION);
-			return;
-		}
-
-		final BluetoothLeScannerCompat scanner = BluetoothLeScannerCompat.getScanner();
-		final ScanSettings settings = new ScanSettings.Builder().setReportDelay(1000).setScanMode(ScanSettings.SCAN_MODE_LOW_LATENCY).build();
-		scanner.startScan(null, settings, mScanCallback);
-
-		// Setup timer that will stop scanning
-		mHandler.postDelayed(mStopScanTask, SCAN_DURATION);
-		mScanning = true;
-		notifyItemChanged(mDevices.size());
+		// Scanning is extended for some time more if already started
+		mScanController.start();
 	}
 
 	public void stopLeScan() {
-		if (!mScanning)
-			return;
-
-		final BluetoothLeScannerCompat scanner = BluetoothLeScannerCompat.getScanner();
-		scanner.stopScan(mScanCallback);
-
-		mHandler.removeCallbacks(mStopScanTask);
-		mScanning = false;
-		notifyItemChanged(mDevices.size());
+		mScanController.stop();
 	}
 
 	private String getState(final BluetoothDevice device, final int position) {
@@ -163,37 +152,36 @@ public class DevicesAdapter extends WearableListView.Adapter {
 		return mAvailableText;
 	}
 
-	private Runnable mStopScanTask = new Runnable() {
-		@Override
-		public void run() {
-			stopLeScan();
-		}
-	};
-
-	private ScanCallback mScanCallback = new ScanCallback() {
+	private final ScanController.Listener mScanListener = new ScanController.Listener() {
 		@Override
-		public void onScanResult(final int callbackType, final ScanResult result) {
-			// empty
+		public void onScanStateChanged(final boolean scanning) {
+			notifyItemChanged(getDeviceCount());
 		}
 
 		@Override
-		public void onBatchScanResults(final List<ScanResult> results) {
-			final int size = mDevices.size();
+		public void onScanResults(final List<ScanResult> results) {
+			final int size = getDeviceCount();
 			for (final ScanResult result : results) {
 				final BluetoothDevice device = result.getDevice();
-				if (!mDevices.contains(device))
-					mDevices.add(device);
-			}
-			if (size != mDevices.size()) {
-				notifyItemRangeInserted(size, mDevices.size() - size);
-				if (size == 0)
-					mListView.scrollToPosition(0);
+				if (mBondedDevices.contains(device))
+					continue;
+
+				final String address = device.getAddress();
+				final long time = result.getTimestampNanos() / 1000000L; // the same time base as SystemClock.elapsedRealtime()
+				if (!mScannedDevices.update(address, result.getRssi(), time))
+					mScannedDevices.add(address, device, result.getRssi(), time);
 			}
-		}
 
-		@Override
-		public void onScanFailed(final int errorCode) {
-			// empty
+			// Remove devices that stopped advertising and move the nearest ones up
+			final boolean removed = mScannedDevices.removeStale(SystemClock.elapsedRealtime()) > 0;
+			final boolean sorted = mScannedDevices.sort();
+			if (removed || sorted) {
+				notifyDataSetChanged();
+			} else if (size != getDeviceCount()) {
+				notifyItemRangeInserted(size, getDeviceCount() - size);
+			}
+			if (size == 0 && getDeviceCount() > 0)
+				mListView.scrollToPosition(0);
 		}
 	};
 